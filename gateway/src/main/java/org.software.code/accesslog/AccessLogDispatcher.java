@@ -0,0 +1,99 @@
+package org.software.code.accesslog;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.software.code.config.AccessLogProperties;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * AccessLogDispatcher 负责把访问日志记录从事件循环线程转移到后台线程输出。
+ * 过滤器只需将记录放入 {@link AccessLogRingBuffer}，缓冲区满时丢弃记录并计数，永远不会阻塞；
+ * 后台线程批量取出记录，格式化后写入名为 ACCESS_LOG 的日志器，可在日志配置中绑定异步 Appender。
+ *
+ * @author "101"计划《软件工程》实践教材案例团队
+ */
+@Component
+public class AccessLogDispatcher {
+
+    private static final Logger logger = LogManager.getLogger(AccessLogDispatcher.class);
+
+    // 访问日志专用日志器
+    private static final Logger accessLogger = LogManager.getLogger("ACCESS_LOG");
+
+    // 缓冲区为空时后台线程的休眠时间
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Resource
+    private AccessLogProperties accessLogProperties;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    private final LongAdder dropped = new LongAdder();
+
+    private AccessLogRingBuffer ringBuffer;
+
+    private Thread worker;
+
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        ringBuffer = new AccessLogRingBuffer(accessLogProperties.getBufferSize());
+        FunctionCounter.builder("gateway.access-log.dropped", dropped, LongAdder::sum).register(meterRegistry);
+
+        running = true;
+        worker = new Thread(this::drainLoop, "access-log-writer");
+        worker.setDaemon(true);
+        worker.start();
+        logger.info("Access log dispatcher started, bufferSize={}", ringBuffer.getCapacity());
+    }
+
+    /**
+     * 提交一条记录，缓冲区已满时丢弃
+     *
+     * @param record 访问日志记录
+     */
+    public void publish(AccessLogRecord record) {
+        if (!ringBuffer.offer(record)) {
+            dropped.increment();
+        }
+    }
+
+    private void drainLoop() {
+        StringBuilder line = new StringBuilder(512);
+        while (running) {
+            if (drain(line) == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        drain(line);
+    }
+
+    private int drain(StringBuilder line) {
+        int count = 0;
+        AccessLogRecord record;
+        while ((record = ringBuffer.poll()) != null) {
+            line.setLength(0);
+            record.formatTo(line);
+            accessLogger.info(line.toString());
+            count++;
+        }
+        return count;
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        worker.join(TimeUnit.SECONDS.toMillis(5));
+    }
+}
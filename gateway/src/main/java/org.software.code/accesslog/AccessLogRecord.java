@@ -0,0 +1,93 @@
+package org.software.code.accesslog;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * AccessLogRecord 是一条固定结构的访问日志记录。
+ * 请求开始时由网关过滤器填充请求信息，请求结束时补充状态码、耗时和采集到的请求体，
+ * 随后交给后台线程格式化输出；事件循环线程上不做任何字符串拼接。
+ *
+ * @author "101"计划《软件工程》实践教材案例团队
+ */
+public final class AccessLogRecord {
+
+    // 请求开始时间（毫秒时间戳）
+    private final long timestamp;
+    // 请求方法
+    private final String method;
+    // 请求路径
+    private final String path;
+    // 查询字符串
+    private final String query;
+    // 路由ID
+    private final String routeId;
+    // 客户端地址
+    private final String clientIp;
+    // 白名单请求头名称，与 headerValues 一一对应
+    private final String[] headerNames;
+    // 白名单请求头的值，脱敏请求头记录为 ***，缺失的请求头为 null
+    private final String[] headerValues;
+
+    // 响应状态码
+    private int status;
+    // 耗时（微秒）
+    private long durationMicros;
+    // 采集到的请求体
+    private byte[] body;
+    // 采集到的请求体长度
+    private int bodyLength;
+    // 请求体是否被截断
+    private boolean bodyTruncated;
+
+    public AccessLogRecord(long timestamp, String method, String path, String query, String routeId,
+                           String clientIp, String[] headerNames, String[] headerValues) {
+        this.timestamp = timestamp;
+        this.method = method;
+        this.path = path;
+        this.query = query;
+        this.routeId = routeId;
+        this.clientIp = clientIp;
+        this.headerNames = headerNames;
+        this.headerValues = headerValues;
+    }
+
+    /**
+     * 请求结束时补充响应信息
+     */
+    public void complete(int status, long durationMicros, BodyCapture capture) {
+        this.status = status;
+        this.durationMicros = durationMicros;
+        if (capture != null) {
+            this.body = capture.getBytes();
+            this.bodyLength = capture.getLength();
+            this.bodyTruncated = capture.isTruncated();
+        }
+    }
+
+    /**
+     * 以单行 key=value 的固定格式输出记录，由后台线程调用
+     *
+     * @param out 复用的字符串缓冲区
+     */
+    public void formatTo(StringBuilder out) {
+        out.append("ts=").append(timestamp)
+                .append(" method=").append(method)
+                .append(" path=").append(path);
+        if (query != null) {
+            out.append(" query=").append(query);
+        }
+        out.append(" route=").append(routeId)
+                .append(" client=").append(clientIp)
+                .append(" status=").append(status)
+                .append(" duration_us=").append(durationMicros);
+        for (int i = 0; i < headerNames.length; i++) {
+            if (headerValues[i] != null) {
+                out.append(" h.").append(headerNames[i]).append('=').append(headerValues[i]);
+            }
+        }
+        if (body != null) {
+            out.append(" body_truncated=").append(bodyTruncated)
+                    .append(" body=").append(new String(body, 0, bodyLength, StandardCharsets.UTF_8));
+        }
+    }
+}
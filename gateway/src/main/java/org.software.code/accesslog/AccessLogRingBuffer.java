@@ -0,0 +1,83 @@
+package org.software.code.accesslog;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * AccessLogRingBuffer 是一个有界、无锁的多生产者单消费者环形缓冲区。
+ * 多个事件循环线程通过 CAS 抢占写入位置，缓冲区满时直接返回 false 而不是等待，
+ * 由唯一的后台线程按顺序取出记录。每个槽位维护一个序号，用于判断槽位是否可写或可读。
+ *
+ * @author "101"计划《软件工程》实践教材案例团队
+ */
+public final class AccessLogRingBuffer {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<AccessLogRecord> slots;
+    private final AtomicLongArray sequences;
+
+    // 生产者写入位置
+    private final AtomicLong tail = new AtomicLong();
+    // 消费者读取位置，只由消费线程访问
+    private long head;
+
+    public AccessLogRingBuffer(int requestedCapacity) {
+        int size = 2;
+        while (size < requestedCapacity) {
+            size <<= 1;
+        }
+        this.capacity = size;
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * 写入一条记录，缓冲区已满时立即返回
+     *
+     * @param record 访问日志记录
+     * @return 是否写入成功
+     */
+    public boolean offer(AccessLogRecord record) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) (position & mask);
+            long diff = sequences.get(index) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.lazySet(index, record);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (diff < 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 取出一条记录，只允许单个消费线程调用
+     *
+     * @return 记录，缓冲区为空时返回 null
+     */
+    public AccessLogRecord poll() {
+        int index = (int) (head & mask);
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        AccessLogRecord record = slots.get(index);
+        slots.lazySet(index, null);
+        sequences.set(index, head + capacity);
+        head++;
+        return record;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,73 @@
+package org.software.code.accesslog;
+
+import org.springframework.core.io.buffer.DataBuffer;
+
+import java.util.Arrays;
+
+/**
+ * BodyCapture 用于在请求体流经网关时采集其前若干字节。
+ * 只从 DataBuffer 中读取不超过上限的字节到自身的数组，不改变缓冲区的读位置，
+ * 也不会缓存或复制完整的请求体。数组在第一个数据块到达时才分配，按 Content-Length 或实际读到的长度确定大小，
+ * 没有请求体的请求（如 GET）不分配任何缓冲区。
+ *
+ * @author "101"计划《软件工程》实践教材案例团队
+ */
+public final class BodyCapture {
+
+    private final int maxBytes;
+    private final int expectedBytes;
+    private byte[] bytes;
+    private int length;
+    private boolean truncated;
+
+    /**
+     * @param maxBytes 最多采集的字节数
+     * @param contentLength 请求头中的 Content-Length，未知时为 -1
+     */
+    public BodyCapture(int maxBytes, long contentLength) {
+        this.maxBytes = maxBytes;
+        this.expectedBytes = contentLength > 0 ? (int) Math.min(contentLength, maxBytes) : 0;
+    }
+
+    /**
+     * 采集一个数据块中尚未超出上限的部分
+     *
+     * @param buffer 请求体数据块
+     */
+    public void append(DataBuffer buffer) {
+        int readable = buffer.readableByteCount();
+        int copy = Math.min(readable, maxBytes - length);
+        if (copy > 0) {
+            ensureCapacity(length + copy);
+            buffer.asByteBuffer(buffer.readPosition(), copy).get(bytes, length, copy);
+            length += copy;
+        }
+        if (copy < readable) {
+            truncated = true;
+        }
+    }
+
+    private void ensureCapacity(int required) {
+        if (bytes == null) {
+            bytes = new byte[Math.max(required, expectedBytes)];
+        } else if (bytes.length < required) {
+            // 分块传输时长度未知，按倍数扩容，不超过上限
+            bytes = Arrays.copyOf(bytes, Math.min(maxBytes, Math.max(required, bytes.length * 2)));
+        }
+    }
+
+    /**
+     * 已采集的字节，尚未收到请求体时为 null
+     */
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+}
@@ -0,0 +1,27 @@
+package org.software.code.accesslog;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import reactor.core.publisher.Flux;
+
+/**
+ * BodyCaptureRequestDecorator 在请求体被下游读取时旁路采集请求体内容。
+ * 原始 DataBuffer 原样传递给下游，采集只读取有限字节，不会聚合或复制整个请求体。
+ *
+ * @author "101"计划《软件工程》实践教材案例团队
+ */
+public class BodyCaptureRequestDecorator extends ServerHttpRequestDecorator {
+
+    private final BodyCapture capture;
+
+    public BodyCaptureRequestDecorator(ServerHttpRequest delegate, BodyCapture capture) {
+        super(delegate);
+        this.capture = capture;
+    }
+
+    @Override
+    public Flux<DataBuffer> getBody() {
+        return super.getBody().doOnNext(capture::append);
+    }
+}
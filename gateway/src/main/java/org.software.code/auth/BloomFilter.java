@@ -0,0 +1,119 @@
+package org.software.code.auth;
+
+import java.util.Collection;
+
+/**
+ * BloomFilter 是一个构建后只读的布隆过滤器，用于在本地快速判断字符串是否“可能存在”。
+ * 判断结果为 false 时一定不存在；为 true 时可能存在，需要再到权威存储确认。
+ * 采用双重哈希从一个 64 位哈希值派生出 k 个位置，构建完成后可被多个线程无锁并发读取。
+ *
+ * @author "101"计划《软件工程》实践教材案例团队
+ */
+public final class BloomFilter {
+
+    private static final BloomFilter EMPTY = new BloomFilter(new long[1], 1, 0);
+
+    private final long[] bits;
+    private final int bitCount;
+    private final int hashCount;
+    private final int size;
+
+    private BloomFilter(long[] bits, int hashCount, int size) {
+        this.bits = bits;
+        this.bitCount = bits.length * Long.SIZE;
+        this.hashCount = hashCount;
+        this.size = size;
+    }
+
+    /**
+     * 空过滤器，任何查询都返回 false
+     */
+    public static BloomFilter empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 根据元素集合和期望误判率构建过滤器
+     *
+     * @param elements 元素集合
+     * @param fpp      期望误判率，取值 (0, 1)
+     * @return 布隆过滤器
+     */
+    public static BloomFilter of(Collection<String> elements, double fpp) {
+        if (elements.isEmpty()) {
+            return EMPTY;
+        }
+        int n = elements.size();
+        long m = (long) Math.ceil(-n * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.max(1, Math.min((m + Long.SIZE - 1) / Long.SIZE, Integer.MAX_VALUE / Long.SIZE));
+        int k = Math.max(1, (int) Math.round((double) words * Long.SIZE / n * Math.log(2)));
+        BloomFilter filter = new BloomFilter(new long[words], k, n);
+        for (String element : elements) {
+            filter.put(element);
+        }
+        return filter;
+    }
+
+    private void put(String element) {
+        long hash = hash(element);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            int combined = h1 + i * h2;
+            int index = (combined & Integer.MAX_VALUE) % bitCount;
+            bits[index >>> 6] |= 1L << index;
+        }
+    }
+
+    /**
+     * 判断元素是否可能存在
+     *
+     * @param element 元素
+     * @return false 表示一定不存在
+     */
+    public boolean mightContain(String element) {
+        if (size == 0) {
+            return false;
+        }
+        long hash = hash(element);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            int combined = h1 + i * h2;
+            int index = (combined & Integer.MAX_VALUE) % bitCount;
+            if ((bits[index >>> 6] & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 按当前元素数量估算的理论误判率
+     */
+    public double expectedFpp() {
+        if (size == 0) {
+            return 0;
+        }
+        return Math.pow(1 - Math.exp(-(double) hashCount * size / bitCount), hashCount);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 64 位 FNV-1a 哈希，并做一次混合以改善低位分布
+     */
+    private static long hash(String element) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < element.length(); i++) {
+            h ^= element.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,144 @@
+package org.software.code.auth;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.impl.TextCodec;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.software.code.common.util.JwtUtil;
+import org.software.code.config.JwtProperties;
+import org.springframework.cloud.context.scope.refresh.RefreshScopeRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * JwtKeyManager 负责加载 jwt.keys 中配置的验签密钥，并预先构建好密钥对象和 JWT 解析器。
+ * 支持 HS256、RS256 和 ES256，按 Token 头部的 kid 选择密钥，多把密钥可同时生效以支持轮换；
+ * 网关完全在本地验签，不需要访问用户服务。配置刷新后重新加载并整体替换。
+ * 密钥没有默认值：未配置密钥、active-kid 没有对应的密钥或 HMAC 密钥短于 32 字节时启动失败，刷新时保留原有密钥。
+ *
+ * @author "101"计划《软件工程》实践教材案例团队
+ */
+@Component
+public class JwtKeyManager extends SigningKeyResolverAdapter {
+
+    private static final Logger logger = LogManager.getLogger(JwtKeyManager.class);
+
+    // HMAC 密钥的最小长度（字节）
+    private static final int MIN_HMAC_SECRET_LENGTH = 32;
+
+    @Resource
+    private JwtProperties jwtProperties;
+
+    private volatile KeySet keySet;
+
+    private JwtParser parser;
+
+    @PostConstruct
+    public void init() {
+        reload();
+        parser = Jwts.parser().setSigningKeyResolver(this);
+        JwtUtil.configure(this);
+    }
+
+    @EventListener(RefreshScopeRefreshedEvent.class)
+    public void onRefresh() {
+        reload();
+    }
+
+    /**
+     * 获取预先构建好的 JWT 解析器
+     */
+    public JwtParser parser() {
+        return parser;
+    }
+
+    @Override
+    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+        KeySet current = keySet;
+        String kid = header.getKeyId();
+        VerificationKey verificationKey = current.keys.get(StringUtils.hasText(kid) ? kid : current.activeKid);
+        if (verificationKey == null) {
+            throw new IllegalArgumentException("Unknown JWT key id: " + kid);
+        }
+        // 拒绝与密钥配置不一致的算法，防止算法混淆攻击
+        if (!verificationKey.algorithm.getValue().equals(header.getAlgorithm())) {
+            throw new IllegalArgumentException("JWT algorithm mismatch for key id: " + kid);
+        }
+        return verificationKey.key;
+    }
+
+    private void reload() {
+        Map<String, VerificationKey> keys = new HashMap<>();
+        for (JwtProperties.KeySpec spec : jwtProperties.getKeys()) {
+            SignatureAlgorithm algorithm = SignatureAlgorithm.forName(spec.getAlgorithm());
+            keys.put(spec.getKid(), new VerificationKey(algorithm, buildKey(algorithm, spec)));
+        }
+        if (!keys.containsKey(jwtProperties.getActiveKid())) {
+            throw new IllegalStateException("No JWT key configured for active kid: " + jwtProperties.getActiveKid());
+        }
+        keySet = new KeySet(jwtProperties.getActiveKid(), Collections.unmodifiableMap(keys));
+        logger.info("JWT verification keys loaded: {}", keys.keySet());
+    }
+
+    private static Key buildKey(SignatureAlgorithm algorithm, JwtProperties.KeySpec spec) {
+        try {
+            if (algorithm.isHmac()) {
+                byte[] secret = TextCodec.BASE64.decode(spec.getSecret());
+                if (secret.length < MIN_HMAC_SECRET_LENGTH) {
+                    throw new IllegalArgumentException("HMAC secret shorter than " + MIN_HMAC_SECRET_LENGTH + " bytes");
+                }
+                return new SecretKeySpec(secret, algorithm.getJcaName());
+            }
+            byte[] der = decodePem(spec.getPublicKey());
+            KeyFactory keyFactory = KeyFactory.getInstance(algorithm.isRsa() ? "RSA" : "EC");
+            return keyFactory.generatePublic(new X509EncodedKeySpec(der));
+        } catch (Exception e) {
+            throw new IllegalStateException("Invalid JWT key configuration: " + spec.getKid(), e);
+        }
+    }
+
+    private static byte[] decodePem(String pem) {
+        String body = pem.replaceAll("-----[A-Z ]+-----", "").replaceAll("\\s", "");
+        return Base64.getDecoder().decode(body);
+    }
+
+    /**
+     * 一次加载得到的全部密钥，整体替换保证读取一致
+     */
+    private static final class KeySet {
+        private final String activeKid;
+        private final Map<String, VerificationKey> keys;
+
+        private KeySet(String activeKid, Map<String, VerificationKey> keys) {
+            this.activeKid = activeKid;
+            this.keys = keys;
+        }
+    }
+
+    private static final class VerificationKey {
+        private final SignatureAlgorithm algorithm;
+        private final Key key;
+
+        private VerificationKey(SignatureAlgorithm algorithm, Key key) {
+            this.algorithm = algorithm;
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.software.code.auth;
+
+import lombok.Getter;
+
+/**
+ * JwtPrincipal 是一次 JWT 校验通过后得到的不可变用户身份信息。
+ * Token 只需解析、验签一次，之后的用户 ID、角色、Token 类型和过期时间都直接从该对象读取，
+ * 避免在同一个请求中重复调用 Jwts 解析器。
+ *
+ * @author "101"计划《软件工程》实践教材案例团队
+ */
+@Getter
+public final class JwtPrincipal {
+
+    // 用户ID
+    private final Long userId;
+    // 用户角色
+    private final String role;
+    // Token类型（access_token / refresh_token）
+    private final String tokenType;
+    // Token唯一标识（jti），旧版本Token可能为空
+    private final String tokenId;
+    // 签发时间（毫秒时间戳），取自 iatMs；旧版本Token没有 iatMs 时取 iat，只精确到秒；都未设置时为 0
+    private final long issuedAt;
+    // 过期时间（毫秒时间戳）
+    private final long expiresAt;
+
+    public JwtPrincipal(Long userId, String role, String tokenType, String tokenId, long issuedAt, long expiresAt) {
+        this.userId = userId;
+        this.role = role;
+        this.tokenType = tokenType;
+        this.tokenId = tokenId;
+        this.issuedAt = issuedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * 判断 Token 在给定时间点是否已过期
+     *
+     * @param now 当前毫秒时间戳
+     * @return 是否已过期
+     */
+    public boolean isExpired(long now) {
+        return now >= expiresAt;
+    }
+
+    /**
+     * 判断 Token 是否为指定类型
+     *
+     * @param expectedType 期望的Token类型
+     * @return 是否匹配
+     */
+    public boolean isTokenType(String expectedType) {
+        return expectedType.equals(tokenType);
+    }
+}
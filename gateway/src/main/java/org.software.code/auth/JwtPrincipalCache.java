@@ -0,0 +1,147 @@
+package org.software.code.auth;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.software.code.common.except.BusinessException;
+import org.software.code.common.util.JwtUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * JwtPrincipalCache 是已验签 Token 的本地缓存。
+ * 以 Token 的 SHA-256 摘要为键缓存 {@link JwtPrincipal}，同一个 Access Token 的后续请求
+ * 在其过期之前无需再次进行签名校验和 JSON 解析。缓存容量有上限，条目按 Token 的过期时间失效，
+ * 命中、未命中和淘汰次数通过 Micrometer 指标暴露。
+ *
+ * @author "101"计划《软件工程》实践教材案例团队
+ */
+@Component
+public class JwtPrincipalCache {
+
+    private static final Logger logger = LogManager.getLogger(JwtPrincipalCache.class);
+
+    // 每个线程复用一个摘要实例，避免每次请求重新创建
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final Map<String, JwtPrincipal> cache = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean evicting = new AtomicBoolean(false);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @Value("${gateway.jwt.cache.max-size:100000}")
+    private int maxSize;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    @PostConstruct
+    public void registerMetrics() {
+        FunctionCounter.builder("gateway.jwt.cache.hits", hits, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("gateway.jwt.cache.misses", misses, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("gateway.jwt.cache.evictions", evictions, LongAdder::sum).register(meterRegistry);
+        Gauge.builder("gateway.jwt.cache.size", cache, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * 获取 Token 对应的用户身份信息，缓存未命中时解析并验签一次后放入缓存
+     *
+     * @param token JWT Token字符串
+     * @return 校验通过的用户身份信息
+     * @throws BusinessException 如果Token无效或已过期
+     */
+    public JwtPrincipal resolve(String token) throws BusinessException {
+        String key = hash(token);
+        long now = System.currentTimeMillis();
+
+        JwtPrincipal principal = cache.get(key);
+        if (principal != null) {
+            if (!principal.isExpired(now)) {
+                hits.increment();
+                return principal;
+            }
+            if (cache.remove(key, principal)) {
+                evictions.increment();
+            }
+        }
+
+        misses.increment();
+        principal = JwtUtil.parseToken(token);
+        if (cache.size() >= maxSize) {
+            evict(now);
+        }
+        cache.put(key, principal);
+        return principal;
+    }
+
+    /**
+     * 淘汰缓存条目：先清理已过期的条目，仍超出容量时再淘汰部分存活条目，
+     * 同一时刻只允许一个线程执行淘汰
+     */
+    private void evict(long now) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            Iterator<JwtPrincipal> it = cache.values().iterator();
+            while (it.hasNext()) {
+                if (it.next().isExpired(now)) {
+                    it.remove();
+                    evictions.increment();
+                }
+            }
+            int target = maxSize - maxSize / 10;
+            it = cache.values().iterator();
+            while (cache.size() > target && it.hasNext()) {
+                it.next();
+                it.remove();
+                evictions.increment();
+            }
+            logger.debug("JWT principal cache evicted, size={}", cache.size());
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private static String hash(String token) {
+        MessageDigest digest = SHA256.get();
+        digest.reset();
+        byte[] bytes = digest.digest(token.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+}
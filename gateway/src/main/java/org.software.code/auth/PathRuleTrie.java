@@ -0,0 +1,153 @@
+package org.software.code.auth;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * PathRuleTrie 是由白名单和角色规则编译而成的不可变前缀树。
+ * 匹配时沿请求路径逐字符向下查找，白名单前缀一旦命中立即返回公开规则，
+ * 否则返回经过的最长角色规则前缀；整个过程只读取已编译的数组，不产生任何对象分配。
+ * 前缀只在路径段的边界上生效：/user/auth/login 匹配 /user/auth/login 和 /user/auth/login/x，
+ * 不匹配 /user/auth/loginx；以 / 结尾的前缀匹配其下的所有路径。
+ *
+ * @author "101"计划《软件工程》实践教材案例团队
+ */
+public final class PathRuleTrie {
+
+    private final Node root;
+
+    private PathRuleTrie(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * 匹配请求路径对应的访问规则
+     *
+     * @param path 请求路径
+     * @return 匹配到的规则，未命中任何前缀时返回 {@link RouteRule#AUTHENTICATED}
+     */
+    public RouteRule match(String path) {
+        RouteRule best = RouteRule.AUTHENTICATED;
+        Node node = root;
+        int length = path.length();
+        for (int i = 0; ; i++) {
+            if (isSegmentBoundary(path, i)) {
+                if (node.whitelisted) {
+                    return RouteRule.PUBLIC;
+                }
+                if (node.rule != null) {
+                    best = node.rule;
+                }
+            }
+            if (i == length) {
+                return best;
+            }
+            node = node.child(path.charAt(i));
+            if (node == null) {
+                return best;
+            }
+        }
+    }
+
+    /**
+     * 判断已匹配的前 i 个字符是否止于路径段边界：到达路径末尾、下一个字符是 /，或前缀本身以 / 结尾
+     */
+    private static boolean isSegmentBoundary(String path, int i) {
+        return i == path.length() || path.charAt(i) == '/' || (i > 0 && path.charAt(i - 1) == '/');
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 已编译的树节点，子节点按字符升序存放，查找时使用二分查找
+     */
+    private static final class Node {
+        private final char[] keys;
+        private final Node[] children;
+        private final boolean whitelisted;
+        private final RouteRule rule;
+
+        private Node(char[] keys, Node[] children, boolean whitelisted, RouteRule rule) {
+            this.keys = keys;
+            this.children = children;
+            this.whitelisted = whitelisted;
+            this.rule = rule;
+        }
+
+        private Node child(char c) {
+            int low = 0;
+            int high = keys.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char key = keys[mid];
+                if (key < c) {
+                    low = mid + 1;
+                } else if (key > c) {
+                    high = mid - 1;
+                } else {
+                    return children[mid];
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 前缀树构建器，仅在启动或配置刷新时使用
+     */
+    public static final class Builder {
+
+        private final BuilderNode root = new BuilderNode();
+
+        private Builder() {
+        }
+
+        /**
+         * 添加白名单前缀
+         */
+        public Builder whitelist(String prefix) {
+            node(prefix).whitelisted = true;
+            return this;
+        }
+
+        /**
+         * 添加角色规则前缀，同一前缀重复配置时以后者为准
+         */
+        public Builder rule(String prefix, RouteRule rule) {
+            node(prefix).rule = rule;
+            return this;
+        }
+
+        public PathRuleTrie build() {
+            return new PathRuleTrie(root.freeze());
+        }
+
+        private BuilderNode node(String prefix) {
+            BuilderNode node = root;
+            for (int i = 0; i < prefix.length(); i++) {
+                node = node.children.computeIfAbsent(prefix.charAt(i), c -> new BuilderNode());
+            }
+            return node;
+        }
+    }
+
+    private static final class BuilderNode {
+        private final Map<Character, BuilderNode> children = new TreeMap<>();
+        private boolean whitelisted;
+        private RouteRule rule;
+
+        private Node freeze() {
+            char[] keys = new char[children.size()];
+            Node[] frozen = new Node[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, BuilderNode> entry : children.entrySet()) {
+                keys[i] = entry.getKey();
+                frozen[i] = entry.getValue().freeze();
+                i++;
+            }
+            return new Node(keys, frozen, whitelisted, rule);
+        }
+    }
+}
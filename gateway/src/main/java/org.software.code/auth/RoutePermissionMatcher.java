@@ -0,0 +1,73 @@
+package org.software.code.auth;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.software.code.config.GatewayAuthProperties;
+import org.springframework.cloud.context.scope.refresh.RefreshScopeRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+
+/**
+ * RoutePermissionMatcher 负责将 gateway.auth 下的白名单和角色规则编译为 {@link PathRuleTrie}。
+ * 启动时编译一次，Nacos 配置刷新并完成属性重新绑定后重新编译，
+ * 新的前缀树通过 volatile 引用整体替换，正在处理的请求不会看到编译到一半的规则。
+ *
+ * @author "101"计划《软件工程》实践教材案例团队
+ */
+@Component
+public class RoutePermissionMatcher {
+
+    private static final Logger logger = LogManager.getLogger(RoutePermissionMatcher.class);
+
+    @Resource
+    private GatewayAuthProperties authProperties;
+
+    private volatile PathRuleTrie trie;
+
+    @PostConstruct
+    public void init() {
+        compile();
+    }
+
+    /**
+     * 配置刷新后重新编译规则
+     */
+    @EventListener(RefreshScopeRefreshedEvent.class)
+    public void onRefresh() {
+        compile();
+    }
+
+    /**
+     * 匹配请求路径对应的访问规则
+     *
+     * @param path 请求路径
+     * @return 访问规则
+     */
+    public RouteRule match(String path) {
+        return trie.match(path);
+    }
+
+    private void compile() {
+        PathRuleTrie.Builder builder = PathRuleTrie.builder();
+        int whitelistCount = 0;
+        int ruleCount = 0;
+        for (String prefix : authProperties.getWhitelist()) {
+            if (StringUtils.hasText(prefix)) {
+                builder.whitelist(prefix);
+                whitelistCount++;
+            }
+        }
+        for (GatewayAuthProperties.RoleRule rule : authProperties.getRules()) {
+            if (StringUtils.hasText(rule.getPrefix())) {
+                builder.rule(rule.getPrefix(), RouteRule.ofRoles(rule.getRoles().toArray(new String[0])));
+                ruleCount++;
+            }
+        }
+        trie = builder.build();
+        logger.info("Route permission rules compiled: whitelist={}, roleRules={}", whitelistCount, ruleCount);
+    }
+}
@@ -0,0 +1,60 @@
+package org.software.code.auth;
+
+import java.util.Arrays;
+
+/**
+ * RouteRule 表示一个路径前缀编译后的访问规则，实例在规则编译时创建并在请求间共享。
+ * 公开规则无需认证；角色规则要求用户具备允许的角色之一；未配置角色的规则只要求已认证。
+ *
+ * @author "101"计划《软件工程》实践教材案例团队
+ */
+public final class RouteRule {
+
+    /** 白名单路径：无需认证 */
+    public static final RouteRule PUBLIC = new RouteRule(true, new String[0]);
+
+    /** 默认规则：已认证用户均可访问 */
+    public static final RouteRule AUTHENTICATED = new RouteRule(false, new String[0]);
+
+    // 是否免认证
+    private final boolean publicAccess;
+    // 允许访问的角色，为空表示不限制角色
+    private final String[] roles;
+
+    private RouteRule(boolean publicAccess, String[] roles) {
+        this.publicAccess = publicAccess;
+        this.roles = roles;
+    }
+
+    /**
+     * 创建一个要求指定角色之一的规则
+     *
+     * @param roles 允许访问的角色
+     * @return 角色规则
+     */
+    public static RouteRule ofRoles(String... roles) {
+        return new RouteRule(false, Arrays.copyOf(roles, roles.length));
+    }
+
+    public boolean isPublicAccess() {
+        return publicAccess;
+    }
+
+    /**
+     * 判断指定角色是否允许访问
+     *
+     * @param role 用户角色
+     * @return 是否允许
+     */
+    public boolean permits(String role) {
+        if (publicAccess || roles.length == 0) {
+            return true;
+        }
+        for (String allowed : roles) {
+            if (allowed.equals(role)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
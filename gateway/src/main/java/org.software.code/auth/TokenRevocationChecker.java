@@ -0,0 +1,161 @@
+package org.software.code.auth;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * TokenRevocationChecker 负责判断 Token 是否已被用户服务吊销。
+ * 网关周期性地从 Redis 的吊销索引中读取未过期的吊销记录，在本地构建只读的布隆过滤器；
+ * 绝大多数请求只需查询本地过滤器即可确认未被吊销，只有过滤器命中时才访问 Redis 确认。
+ * 过滤器的误判率和距上次成功刷新的时长以指标形式暴露。
+ *
+ * @author "101"计划《软件工程》实践教材案例团队
+ */
+@Component
+public class TokenRevocationChecker {
+
+    private static final Logger logger = LogManager.getLogger(TokenRevocationChecker.class);
+
+    // 以下键名与用户服务 TokenRevocationServiceImpl 保持一致
+    private static final String REVOKED_TOKEN_PREFIX = "token:revoked:jti:";
+    private static final String REVOKED_USER_PREFIX = "token:revoked:user:";
+    private static final String REVOKED_INDEX_KEY = "token:revoked:index";
+    private static final String USER_MEMBER_PREFIX = "u:";
+
+    @Value("${gateway.revocation.refresh-interval-ms:5000}")
+    private long refreshIntervalMs;
+
+    @Value("${gateway.revocation.fpp:0.001}")
+    private double fpp;
+
+    @Resource
+    private ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    private volatile BloomFilter filter = BloomFilter.empty();
+
+    // 上次成功刷新的时间（毫秒时间戳）
+    private volatile long lastRefreshAt;
+
+    private final LongAdder filterHits = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private final LongAdder confirmedRevocations = new LongAdder();
+
+    private Disposable refreshTask;
+
+    @PostConstruct
+    public void start() {
+        FunctionCounter.builder("gateway.revocation.filter.hits", filterHits, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("gateway.revocation.filter.false-positives", falsePositives, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("gateway.revocation.confirmed", confirmedRevocations, LongAdder::sum).register(meterRegistry);
+        Gauge.builder("gateway.revocation.filter.false-positive-rate", this, TokenRevocationChecker::observedFalsePositiveRate)
+                .register(meterRegistry);
+        Gauge.builder("gateway.revocation.filter.expected-fpp", this, checker -> checker.filter.expectedFpp())
+                .register(meterRegistry);
+        Gauge.builder("gateway.revocation.filter.size", this, checker -> checker.filter.size())
+                .register(meterRegistry);
+        Gauge.builder("gateway.revocation.refresh.lag.seconds", this, TokenRevocationChecker::refreshLagSeconds)
+                .register(meterRegistry);
+
+        refreshTask = Flux.interval(Duration.ZERO, Duration.ofMillis(refreshIntervalMs))
+                .onBackpressureDrop()
+                .concatMap(tick -> refresh())
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (refreshTask != null) {
+            refreshTask.dispose();
+        }
+    }
+
+    /**
+     * 使用本地布隆过滤器判断 Token 是否可能已被吊销，不访问 Redis
+     *
+     * @param principal 用户身份信息
+     * @return false 表示一定未被吊销
+     */
+    public boolean mightBeRevoked(JwtPrincipal principal) {
+        BloomFilter current = filter;
+        boolean hit = (principal.getTokenId() != null && current.mightContain(principal.getTokenId()))
+                || current.mightContain(USER_MEMBER_PREFIX + principal.getUserId());
+        if (hit) {
+            filterHits.increment();
+        }
+        return hit;
+    }
+
+    /**
+     * 过滤器命中后到 Redis 确认 Token 是否确实已被吊销
+     *
+     * @param principal 用户身份信息
+     * @return 是否已被吊销
+     */
+    public Mono<Boolean> confirmRevoked(JwtPrincipal principal) {
+        Mono<Boolean> tokenRevoked = principal.getTokenId() == null ? Mono.just(false)
+                : reactiveStringRedisTemplate.hasKey(REVOKED_TOKEN_PREFIX + principal.getTokenId());
+        Mono<Boolean> userRevoked = reactiveStringRedisTemplate.opsForValue()
+                .get(REVOKED_USER_PREFIX + principal.getUserId())
+                // 签发时间不晚于吊销时间（均为毫秒）的 Token 失效，与用户服务 TokenRevocationServiceImpl 保持一致
+                .map(revokedAt -> principal.getIssuedAt() <= Long.parseLong(revokedAt))
+                .defaultIfEmpty(false);
+        return Mono.zip(tokenRevoked, userRevoked, (byToken, byUser) -> byToken || byUser)
+                .doOnNext(revoked -> {
+                    if (revoked) {
+                        confirmedRevocations.increment();
+                    } else {
+                        falsePositives.increment();
+                    }
+                });
+    }
+
+    /**
+     * 从 Redis 读取未过期的吊销记录并重建布隆过滤器
+     */
+    private Mono<Void> refresh() {
+        long now = System.currentTimeMillis();
+        return reactiveStringRedisTemplate.opsForZSet()
+                .rangeByScore(REVOKED_INDEX_KEY, Range.rightUnbounded(Range.Bound.exclusive((double) now)))
+                .collectList()
+                .doOnNext(members -> {
+                    filter = BloomFilter.of(members, fpp);
+                    lastRefreshAt = System.currentTimeMillis();
+                    logger.debug("Token revocation filter refreshed, entries={}", members.size());
+                })
+                .then()
+                .onErrorResume(e -> {
+                    // 刷新失败时继续使用旧的过滤器，刷新延迟指标会持续增长
+                    logger.warn("Token revocation filter refresh failed: {}", e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private double observedFalsePositiveRate() {
+        long hits = filterHits.sum();
+        return hits == 0 ? 0 : (double) falsePositives.sum() / hits;
+    }
+
+    private double refreshLagSeconds() {
+        long last = lastRefreshAt;
+        return last == 0 ? -1 : (System.currentTimeMillis() - last) / 1000.0;
+    }
+}
@@ -35,6 +35,14 @@ public enum ExceptionEnum {
     REQUEST_PARAMETER_ERROR("00007", "请求参数异常"),
     /** 用户权限不足 */
     GATEWAY_PERMISSION_DENIED("00008", "访问权限不足"),
+
+    // 网关服务异常
+    /** 请求频率超过限制 */
+    GATEWAY_RATE_LIMITED("10001", "请求过于频繁，请稍后重试"),
+    /** 下游服务不可用（熔断或超时） */
+    GATEWAY_SERVICE_UNAVAILABLE("10002", "服务暂时不可用，请稍后重试"),
+    /** 下游服务并发已满 */
+    GATEWAY_SERVICE_BUSY("10003", "服务繁忙，请稍后重试"),
     ;
 
     // 错误码
@@ -0,0 +1,77 @@
+package org.software.code.common.result;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.software.code.common.except.ExceptionEnum;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.nio.ByteBuffer;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * ErrorResponseWriter 用于网关直接拒绝请求时输出统一的 Result 失败响应。
+ * 启动时为每个 {@link ExceptionEnum} 预先序列化好响应体，请求到来时只包装只读缓冲区写出，
+ * 不再做任何 JSON 序列化；同时按拒绝原因分别计数，便于观察 Token 过期风暴、撞库等异常流量。
+ *
+ * @author "101"计划《软件工程》实践教材案例团队
+ */
+@Component
+public class ErrorResponseWriter {
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    // 每种异常对应的只读响应体
+    private final Map<ExceptionEnum, ByteBuffer> bodies = new EnumMap<>(ExceptionEnum.class);
+
+    // 每种异常对应的拒绝计数器
+    private final Map<ExceptionEnum, Counter> counters = new EnumMap<>(ExceptionEnum.class);
+
+    @PostConstruct
+    public void init() throws JsonProcessingException {
+        for (ExceptionEnum exceptionEnum : ExceptionEnum.values()) {
+            byte[] body = objectMapper.writeValueAsBytes(Result.failed(exceptionEnum.getMsg()));
+            bodies.put(exceptionEnum, ByteBuffer.wrap(body).asReadOnlyBuffer());
+            counters.put(exceptionEnum, Counter.builder("gateway.requests.rejected")
+                    .tag("reason", exceptionEnum.name())
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * 向客户端写出预先序列化的失败响应
+     *
+     * @param exchange      服务器 Web 交换对象
+     * @param status        HTTP 状态码
+     * @param exceptionEnum 拒绝原因
+     * @return 写出完成信号
+     */
+    public Mono<Void> write(ServerWebExchange exchange, HttpStatus status, ExceptionEnum exceptionEnum) {
+        counters.get(exceptionEnum).increment();
+
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(status);
+        ByteBuffer body = bodies.get(exceptionEnum).duplicate();
+        HttpHeaders headers = response.getHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setContentLength(body.remaining());
+
+        DataBuffer buffer = response.bufferFactory().wrap(body);
+        return response.writeWith(Mono.just(buffer));
+    }
+}
@@ -1,9 +1,10 @@
 package org.software.code.common.util;
 
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.software.code.auth.JwtKeyManager;
+import org.software.code.auth.JwtPrincipal;
 import org.software.code.common.except.BusinessException;
 import org.software.code.common.except.ExceptionEnum;
 
@@ -19,8 +20,8 @@ public class JwtUtil {
 
     private static final Logger logger = LogManager.getLogger(JwtUtil.class);
     
-    // JWT签名密钥，实际应用中应从配置文件或环境变量获取
-    private static final String SECRET_KEY = "mobilepay_gateway_jwt_secret_key_2025";
+    // 由 JwtKeyManager 在启动时注入，持有按 kid 选择密钥的预构建解析器；没有回退的默认密钥
+    private static volatile JwtKeyManager keyManager;
     
     // Token类型常量
     public static final String ACCESS_TOKEN = "access_token";
@@ -30,6 +31,53 @@ public class JwtUtil {
     private static final String CLAIM_USER_ID = "userId";
     private static final String CLAIM_ROLE = "role";
     private static final String CLAIM_TOKEN_TYPE = "tokenType";
+    // 毫秒精度的签发时间，标准的 iat 只精确到秒
+    private static final String CLAIM_ISSUED_AT_MS = "iatMs";
+
+    /**
+     * 注入密钥管理器，之后的验签均使用其预先构建的密钥对象和解析器
+     *
+     * @param manager 密钥管理器
+     */
+    public static void configure(JwtKeyManager manager) {
+        keyManager = manager;
+    }
+
+    /**
+     * 一次性解析并验证Token，返回不可变的用户身份信息。
+     * 签名校验、过期校验和各项 Claims 的读取只执行一次，供网关过滤器在单次请求内复用。
+     *
+     * @param token JWT Token字符串
+     * @return 校验通过的用户身份信息
+     * @throws BusinessException 如果解析失败、签名无效或Token已过期
+     */
+    public static JwtPrincipal parseToken(String token) throws BusinessException {
+        try {
+            Claims claims = extractClaims(token);
+            Date expiration = claims.getExpiration();
+            if (expiration == null || expiration.before(new Date())) {
+                throw new BusinessException(ExceptionEnum.TOKEN_EXPIRED);
+            }
+            Object userIdObj = claims.get(CLAIM_USER_ID);
+            Long userId = userIdObj != null ? Long.valueOf(userIdObj.toString()) : Long.parseLong(claims.getSubject());
+            Object roleObj = claims.get(CLAIM_ROLE);
+            Object tokenTypeObj = claims.get(CLAIM_TOKEN_TYPE);
+            Object issuedAtMsObj = claims.get(CLAIM_ISSUED_AT_MS);
+            Date issuedAt = claims.getIssuedAt();
+            return new JwtPrincipal(userId,
+                    roleObj != null ? roleObj.toString() : "user",
+                    tokenTypeObj != null ? tokenTypeObj.toString() : ACCESS_TOKEN,
+                    claims.getId(),
+                    issuedAtMsObj != null ? Long.parseLong(issuedAtMsObj.toString())
+                            : issuedAt != null ? issuedAt.getTime() : 0L,
+                    expiration.getTime());
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.warn("Token parse failed, error: {}", e.getMessage());
+            throw new BusinessException(ExceptionEnum.TOKEN_EXPIRED);
+        }
+    }
 
     /**
      * 从Token中提取用户ID
@@ -48,7 +96,7 @@ public class JwtUtil {
             // 兼容旧版本，从subject中获取
             return Long.parseLong(claims.getSubject());
         } catch (Exception e) {
-            logger.error("Failed to extract user ID from token: {}, error: {}", token, e.getMessage());
+            logger.warn("Failed to extract user ID: {}: {}", e.getClass().getSimpleName(), e.getMessage());
             throw new BusinessException(ExceptionEnum.TOKEN_EXPIRED);
         }
     }
@@ -66,7 +114,7 @@ public class JwtUtil {
             Object roleObj = claims.get(CLAIM_ROLE);
             return roleObj != null ? roleObj.toString() : "user"; // 默认为user角色
         } catch (Exception e) {
-            logger.error("Failed to extract role from token: {}, error: {}", token, e.getMessage());
+            logger.warn("Failed to extract role: {}: {}", e.getClass().getSimpleName(), e.getMessage());
             throw new BusinessException(ExceptionEnum.TOKEN_EXPIRED);
         }
     }
@@ -84,7 +132,7 @@ public class JwtUtil {
             Object tokenTypeObj = claims.get(CLAIM_TOKEN_TYPE);
             return tokenTypeObj != null ? tokenTypeObj.toString() : ACCESS_TOKEN; // 默认为access_token
         } catch (Exception e) {
-            logger.error("Failed to extract token type from token: {}, error: {}", token, e.getMessage());
+            logger.warn("Failed to extract token type: {}: {}", e.getClass().getSimpleName(), e.getMessage());
             throw new BusinessException(ExceptionEnum.TOKEN_EXPIRED);
         }
     }
@@ -100,7 +148,7 @@ public class JwtUtil {
             Claims claims = extractClaims(token);
             return !claims.getExpiration().before(new Date());
         } catch (Exception e) {
-            logger.warn("Token validation failed: {}, error: {}", token, e.getMessage());
+            logger.warn("Token validation failed: {}: {}", e.getClass().getSimpleName(), e.getMessage());
             return false;
         }
     }
@@ -117,7 +165,7 @@ public class JwtUtil {
             String tokenType = extractTokenType(token);
             return expectedType.equals(tokenType);
         } catch (Exception e) {
-            logger.warn("Token type validation failed: {}, error: {}", token, e.getMessage());
+            logger.warn("Token type validation failed: {}: {}", e.getClass().getSimpleName(), e.getMessage());
             return false;
         }
     }
@@ -129,8 +177,11 @@ public class JwtUtil {
      * @return Claims对象
      */
     private static Claims extractClaims(String token) {
-        return Jwts.parser()
-                .setSigningKey(SECRET_KEY)
+        JwtKeyManager manager = keyManager;
+        if (manager == null) {
+            throw new IllegalStateException("JWT keys are not configured");
+        }
+        return manager.parser()
                 .parseClaimsJws(token)
                 .getBody();
     }
@@ -0,0 +1,56 @@
+package org.software.code.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 访问日志配置类，绑定 bootstrap.yml 中 gateway.access-log 前缀下的配置。
+ * 包括采样率、需要记录的请求头白名单、需要脱敏的请求头、请求体采集以及缓冲区大小。
+ *
+ * @author "101"计划《软件工程》实践教材案例团队
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "gateway.access-log")
+public class AccessLogProperties {
+
+    // 是否启用访问日志
+    private boolean enabled = true;
+
+    // 默认采样率，取值 0~1
+    private double sampleRate = 1.0;
+
+    // 按路由ID单独配置的采样率，优先于默认采样率
+    private Map<String, Double> routeSampleRates = new HashMap<>();
+
+    // 需要记录的请求头白名单，不在白名单中的请求头不会被记录
+    private List<String> headers = new ArrayList<>(Arrays.asList(
+            "User-Agent",
+            "Content-Type",
+            "Content-Length",
+            "X-Forwarded-For",
+            "Authorization"
+    ));
+
+    // 需要脱敏的请求头，只记录是否存在，不记录内容
+    private List<String> redactedHeaders = new ArrayList<>(Arrays.asList(
+            "Authorization",
+            "Cookie"
+    ));
+
+    // 是否采集请求体
+    private boolean captureBody = false;
+
+    // 单个请求最多采集的请求体字节数
+    private int maxBodyBytes = 1024;
+
+    // 环形缓冲区容量，会向上取整为 2 的幂
+    private int bufferSize = 8192;
+}
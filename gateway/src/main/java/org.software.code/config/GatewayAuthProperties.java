@@ -0,0 +1,58 @@
+package org.software.code.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 网关认证规则配置类，绑定 bootstrap.yml 中 gateway.auth 前缀下的配置。
+ * whitelist 为免认证的路径前缀，rules 为需要特定角色才能访问的路径前缀。
+ * 配置在 Nacos 中修改后会被重新绑定，并由 RoutePermissionMatcher 重新编译。
+ *
+ * @author "101"计划《软件工程》实践教材案例团队
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "gateway.auth")
+public class GatewayAuthProperties {
+
+    // 免认证的路径前缀（白名单）
+    private List<String> whitelist = new ArrayList<>(Arrays.asList(
+            "/user/auth/login",
+            "/user/auth/register",
+            "/user/auth/refresh",
+            "/admin/auth/login",
+            "/swagger-ui",
+            "/v3/api-docs",
+            "/webjars"
+    ));
+
+    // 基于路径前缀的角色规则，最长前缀优先
+    private List<RoleRule> rules = new ArrayList<>(Arrays.asList(
+            new RoleRule("/admin/", Arrays.asList("admin", "super_admin")),
+            new RoleRule("/user/manage/", Arrays.asList("admin", "super_admin"))
+    ));
+
+    /**
+     * 单条角色规则：访问以 prefix 开头的路径需要具备 roles 中的任一角色
+     */
+    @Data
+    public static class RoleRule {
+        // 路径前缀
+        private String prefix;
+        // 允许访问的角色列表
+        private List<String> roles = new ArrayList<>();
+
+        public RoleRule() {
+        }
+
+        public RoleRule(String prefix, List<String> roles) {
+            this.prefix = prefix;
+            this.roles = new ArrayList<>(roles);
+        }
+    }
+}
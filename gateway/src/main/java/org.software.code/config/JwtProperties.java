@@ -0,0 +1,57 @@
+package org.software.code.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JWT 密钥配置类，绑定 bootstrap.yml 中 jwt 前缀下的配置，需与用户服务保持一致。
+ * keys 中可同时配置多把密钥，Token 头部的 kid 决定使用哪一把验签，用于密钥轮换；
+ * 未携带 kid 的旧 Token 使用 activeKid 对应的密钥验签。
+ * 网关只做验签，非对称算法只需配置公钥。
+ *
+ * @author "101"计划《软件工程》实践教材案例团队
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "jwt")
+public class JwtProperties {
+
+    // 默认密钥的ID
+    public static final String DEFAULT_KID = "default";
+
+    // 当前签发使用的密钥ID
+    private String activeKid = DEFAULT_KID;
+
+    // 所有有效密钥，没有默认值，未配置时启动失败
+    private List<KeySpec> keys = new ArrayList<>();
+
+    /**
+     * 单把密钥的配置
+     */
+    @Data
+    public static class KeySpec {
+        // 密钥ID，对应 Token 头部的 kid
+        private String kid;
+        // 签名算法：HS256 / RS256 / ES256
+        private String algorithm = "HS256";
+        // HMAC 密钥（Base64 编码，与 jjwt 字符串密钥的解析方式一致）
+        private String secret;
+        // 公钥（X.509 DER 的 Base64 编码，可包含 PEM 头尾）
+        private String publicKey;
+        // 私钥（PKCS#8 DER 的 Base64 编码，可包含 PEM 头尾），仅签发方需要
+        private String privateKey;
+
+        public KeySpec() {
+        }
+
+        public KeySpec(String kid, String algorithm, String secret) {
+            this.kid = kid;
+            this.algorithm = algorithm;
+            this.secret = secret;
+        }
+    }
+}
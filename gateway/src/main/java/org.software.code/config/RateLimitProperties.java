@@ -0,0 +1,61 @@
+package org.software.code.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 网关限流配置类，绑定 bootstrap.yml 中 gateway.rate-limit 前缀下的配置。
+ * 分别按用户、客户端 IP 和路由限流，本地令牌桶的消耗量按 syncIntervalMs 周期批量同步到 Redis，
+ * 用于实现集群范围内的近似公平。
+ *
+ * @author "101"计划《软件工程》实践教材案例团队
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public class RateLimitProperties {
+
+    // 是否启用限流
+    private boolean enabled = true;
+
+    // 每个用户的限流规则
+    private LimitSpec user = new LimitSpec(20, 40);
+
+    // 每个客户端 IP 的限流规则
+    private LimitSpec ip = new LimitSpec(50, 100);
+
+    // 按路由ID配置的限流规则，未配置的路由不限流
+    private Map<String, LimitSpec> routes = new HashMap<>();
+
+    // 本地计数同步到 Redis 的周期（毫秒），同时也是集群计数窗口的长度
+    private long syncIntervalMs = 1000;
+
+    // 令牌桶空闲多久后被清理（毫秒）
+    private long idleEvictMs = 600000;
+
+    // 网关前可信代理的层数，大于 0 时按 X-Forwarded-For 从右往左数第该层的地址识别客户端 IP
+    private int trustedProxyHops = 0;
+
+    /**
+     * 单条限流规则，语义与令牌桶一致
+     */
+    @Data
+    public static class LimitSpec {
+        // 每秒补充的令牌数
+        private double replenishRate;
+        // 令牌桶容量，即允许的突发请求数
+        private long burstCapacity;
+
+        public LimitSpec() {
+        }
+
+        public LimitSpec(double replenishRate, long burstCapacity) {
+            this.replenishRate = replenishRate;
+            this.burstCapacity = burstCapacity;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.software.code.config;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import org.springframework.cloud.circuitbreaker.resilience4j.ReactiveResilience4JCircuitBreakerFactory;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JConfigBuilder;
+import org.springframework.cloud.client.circuitbreaker.Customizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * 熔断器配置类，根据 gateway.resilience 配置为每个路由的熔断器设置失败率、慢调用、
+ * 半开探测和超时规则。熔断器状态和被拒绝的调用次数由 resilience4j-micrometer 自动导出为指标。
+ *
+ * @author "101"计划《软件工程》实践教材案例团队
+ */
+@Configuration
+public class ResilienceConfig {
+
+    /**
+     * 自定义响应式熔断器工厂
+     *
+     * @param resilienceProperties 熔断配置
+     * @return 熔断器工厂定制器
+     */
+    @Bean
+    public Customizer<ReactiveResilience4JCircuitBreakerFactory> circuitBreakerCustomizer(ResilienceProperties resilienceProperties) {
+        return factory -> {
+            factory.configureDefault(id -> build(id, resilienceProperties.getDefaults()));
+            for (Map.Entry<String, ResilienceProperties.BreakerSpec> entry : resilienceProperties.getRoutes().entrySet()) {
+                String id = entry.getKey();
+                ResilienceProperties.BreakerSpec spec = entry.getValue();
+                factory.configure(builder -> builder
+                        .circuitBreakerConfig(circuitBreakerConfig(spec))
+                        .timeLimiterConfig(timeLimiterConfig(spec)), id);
+            }
+        };
+    }
+
+    private Resilience4JConfigBuilder.Resilience4JCircuitBreakerConfiguration build(String id, ResilienceProperties.BreakerSpec spec) {
+        return new Resilience4JConfigBuilder(id)
+                .circuitBreakerConfig(circuitBreakerConfig(spec))
+                .timeLimiterConfig(timeLimiterConfig(spec))
+                .build();
+    }
+
+    private CircuitBreakerConfig circuitBreakerConfig(ResilienceProperties.BreakerSpec spec) {
+        return CircuitBreakerConfig.custom()
+                .failureRateThreshold(spec.getFailureRateThreshold())
+                .slowCallDurationThreshold(Duration.ofMillis(spec.getSlowCallDurationMs()))
+                .slowCallRateThreshold(spec.getSlowCallRateThreshold())
+                .slidingWindowSize(spec.getSlidingWindowSize())
+                .minimumNumberOfCalls(spec.getMinimumNumberOfCalls())
+                .waitDurationInOpenState(Duration.ofMillis(spec.getWaitDurationInOpenStateMs()))
+                .permittedNumberOfCallsInHalfOpenState(spec.getPermittedCallsInHalfOpenState())
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                .build();
+    }
+
+    private TimeLimiterConfig timeLimiterConfig(ResilienceProperties.BreakerSpec spec) {
+        return TimeLimiterConfig.custom()
+                .timeoutDuration(Duration.ofMillis(spec.getTimeoutMs()))
+                .build();
+    }
+}
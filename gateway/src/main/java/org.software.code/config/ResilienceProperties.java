@@ -0,0 +1,49 @@
+package org.software.code.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 熔断配置类，绑定 bootstrap.yml 中 gateway.resilience 前缀下的配置。
+ * routes 的键为 CircuitBreaker 过滤器中配置的熔断器名称，未单独配置的熔断器使用 defaults。
+ *
+ * @author "101"计划《软件工程》实践教材案例团队
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "gateway.resilience")
+public class ResilienceProperties {
+
+    // 默认熔断规则
+    private BreakerSpec defaults = new BreakerSpec();
+
+    // 按熔断器名称配置的熔断规则
+    private Map<String, BreakerSpec> routes = new HashMap<>();
+
+    /**
+     * 单个熔断器的规则
+     */
+    @Data
+    public static class BreakerSpec {
+        // 调用超时时间（毫秒），超时视为失败
+        private long timeoutMs = 3000;
+        // 失败率阈值（百分比），超过后熔断器打开
+        private float failureRateThreshold = 50;
+        // 慢调用阈值（毫秒）
+        private long slowCallDurationMs = 2000;
+        // 慢调用比例阈值（百分比）
+        private float slowCallRateThreshold = 80;
+        // 统计窗口内的调用次数
+        private int slidingWindowSize = 100;
+        // 开始计算失败率所需的最少调用次数
+        private int minimumNumberOfCalls = 20;
+        // 熔断器打开后等待多久进入半开状态（毫秒）
+        private long waitDurationInOpenStateMs = 10000;
+        // 半开状态下允许通过的探测调用数
+        private int permittedCallsInHalfOpenState = 10;
+    }
+}
@@ -0,0 +1,38 @@
+package org.software.code.controller;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.software.code.common.except.ExceptionEnum;
+import org.software.code.common.result.Result;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * 熔断降级控制器，路由的 CircuitBreaker 过滤器在熔断器打开、调用超时或下游异常时
+ * 将请求转发到此处，返回统一的 Result 失败响应。
+ *
+ * @author "101"计划《软件工程》实践教材案例团队
+ */
+@RestController
+@RequestMapping("/fallback")
+public class FallbackController {
+
+    private static final Logger logger = LogManager.getLogger(FallbackController.class);
+
+    /**
+     * 下游服务降级响应
+     *
+     * @param service 下游服务名称
+     * @return 服务不可用的失败响应
+     */
+    @RequestMapping("/{service}")
+    public Mono<ResponseEntity<Result<?>>> fallback(@PathVariable String service) {
+        logger.warn("Fallback triggered for service: {}", service);
+        Result<?> result = Result.failed(ExceptionEnum.GATEWAY_SERVICE_UNAVAILABLE.getMsg());
+        return Mono.just(new ResponseEntity<>(result, HttpStatus.SERVICE_UNAVAILABLE));
+    }
+}
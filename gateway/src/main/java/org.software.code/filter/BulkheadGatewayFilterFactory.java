@@ -0,0 +1,98 @@
+package org.software.code.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.software.code.common.except.ExceptionEnum;
+import org.software.code.common.result.ErrorResponseWriter;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 舱壁隔离过滤器工厂，在路由配置中以 Bulkhead 名称使用。
+ * 为每个下游服务维护一个信号量，限制网关同时转发给该服务的请求数，
+ * 超出时立即返回 503 和统一的 Result 失败响应，避免慢服务占满网关连接和内存。
+ * 同一 service 名称的多个路由共享同一个信号量。
+ *
+ * @author "101"计划《软件工程》实践教材案例团队
+ */
+@Component
+public class BulkheadGatewayFilterFactory extends AbstractGatewayFilterFactory<BulkheadGatewayFilterFactory.Config> {
+
+    private static final Logger logger = LogManager.getLogger(BulkheadGatewayFilterFactory.class);
+
+    @Resource
+    private ErrorResponseWriter errorResponseWriter;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    // 每个下游服务的舱壁
+    private final Map<String, ServiceBulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    public BulkheadGatewayFilterFactory() {
+        super(Config.class);
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return Arrays.asList("service", "maxConcurrent");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        ServiceBulkhead bulkhead = bulkheads.computeIfAbsent(config.getService(),
+                service -> new ServiceBulkhead(service, config.getMaxConcurrent()));
+        return (exchange, chain) -> {
+            if (!bulkhead.semaphore.tryAcquire()) {
+                bulkhead.rejected.increment();
+                logger.warn("Bulkhead full for service: {}", bulkhead.service);
+                return errorResponseWriter.write(exchange, HttpStatus.SERVICE_UNAVAILABLE, ExceptionEnum.GATEWAY_SERVICE_BUSY);
+            }
+            return chain.filter(exchange).doFinally(signal -> bulkhead.semaphore.release());
+        };
+    }
+
+    /**
+     * 单个下游服务的舱壁及其指标
+     */
+    private final class ServiceBulkhead {
+        private final String service;
+        private final Semaphore semaphore;
+        private final Counter rejected;
+
+        private ServiceBulkhead(String service, int maxConcurrent) {
+            this.service = service;
+            this.semaphore = new Semaphore(maxConcurrent);
+            this.rejected = Counter.builder("gateway.bulkhead.rejected")
+                    .tag("service", service)
+                    .register(meterRegistry);
+            Gauge.builder("gateway.bulkhead.available", semaphore, Semaphore::availablePermits)
+                    .tag("service", service)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * 舱壁配置
+     */
+    @Data
+    public static class Config {
+        // 下游服务名称
+        private String service;
+        // 最大并发请求数
+        private int maxConcurrent = 200;
+    }
+}
@@ -1,36 +1,37 @@
 package org.software.code.filter;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.software.code.auth.JwtPrincipal;
+import org.software.code.auth.JwtPrincipalCache;
+import org.software.code.auth.RoutePermissionMatcher;
+import org.software.code.auth.RouteRule;
+import org.software.code.auth.TokenRevocationChecker;
 import org.software.code.common.except.BusinessException;
 import org.software.code.common.except.ExceptionEnum;
-import org.software.code.common.result.Result;
+import org.software.code.common.result.ErrorResponseWriter;
 import org.software.code.common.util.JwtUtil;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
-import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.server.reactive.ServerHttpRequest;
-import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.server.ServerWebExchange;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import javax.annotation.Resource;
-import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * JWT认证全局过滤器，用于验证所有请求的JWT Token。
  * 该过滤器在Spring Cloud Gateway中对所有请求进行JWT验证和权限检查。
+ * 下游服务按请求路径和 X-User-* 请求头判断身份，因此：
+ * 含有 ..、;、// 或编码的 . / \ 的路径直接拒绝，避免网关按原始路径匹配规则、下游按规范化后的路径处理；
+ * 客户端携带的 X-User-* 请求头在转发前一律移除（包括白名单路径），只有认证通过后由本过滤器重新写入。
  *
  * @author "101"计划《软件工程》实践教材案例团队
  */
@@ -40,30 +41,47 @@ public class JwtAuthenticationGlobalFilter implements GlobalFilter, Ordered {
     private static final Logger logger = LogManager.getLogger(JwtAuthenticationGlobalFilter.class);
 
     @Resource
-    private ObjectMapper objectMapper;
+    private ErrorResponseWriter errorResponseWriter;
+
+    @Resource
+    private JwtPrincipalCache principalCache;
+
+    @Resource
+    private RoutePermissionMatcher routePermissionMatcher;
+
+    @Resource
+    private TokenRevocationChecker revocationChecker;
 
     private static final String TOKEN_PREFIX = "Bearer ";
-    
-    // White-list
-    private static final List<String> EXCLUDE_PATHS = Arrays.asList(
-        "/user/auth/login",
-        "/user/auth/register", 
-        "/admin/auth/login",
-        "/swagger-ui",
-        "/v3/api-docs",
-        "/webjars"
-    );
+    // 网关写入的身份请求头前缀（小写），客户端不得自行携带
+    private static final String IDENTITY_HEADER_PREFIX = "x-user-";
+
+    // 认证通过后保存 JwtPrincipal 的 exchange 属性名，后续过滤器应从这里读取用户身份，而不是读取请求头
+    public static final String PRINCIPAL_ATTR = JwtAuthenticationGlobalFilter.class.getName() + ".principal";
+    // 下游规范化时会改变路径含义的片段（小写）
+    private static final String[] AMBIGUOUS_PATH_TOKENS = {"..", ";", "//", "\\", "%2e", "%2f", "%5c"};
 
+    /**
+     * 认证与鉴权均为纯 CPU 计算，在当前线程内同步完成判定，
+     * 只有在放行时才进入响应式链调用下游过滤器。
+     */
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
         ServerHttpRequest request = exchange.getRequest();
         String path = request.getURI().getPath();
 
-        logger.info("Processing request: {} {}", request.getMethod(), path);
+        logger.debug("Processing request: {} {}", request.getMethod(), path);
+
+        if (isAmbiguousPath(request.getURI().getRawPath())) {
+            logger.warn("Rejected request with ambiguous path: {}", request.getURI().getRawPath());
+            return errorResponseWriter.write(exchange, HttpStatus.BAD_REQUEST, ExceptionEnum.REQUEST_PARAMETER_ERROR);
+        }
 
-        if (isExcludedPath(path)) {
-            logger.info("Skipping authentication for excluded path: {}", path);
-            return chain.filter(exchange);
+        RouteRule rule = routePermissionMatcher.match(path);
+        if (rule.isPublicAccess()) {
+            logger.debug("Skipping authentication for excluded path: {}", path);
+            ServerHttpRequest stripped = request.mutate().headers(JwtAuthenticationGlobalFilter::removeIdentityHeaders).build();
+            return chain.filter(exchange.mutate().request(stripped).build());
         }
 
         String token = extractToken(request);
@@ -73,127 +91,111 @@ public class JwtAuthenticationGlobalFilter implements GlobalFilter, Ordered {
         }
 
         // Auth
-        return validateToken(token)
-                .flatMap(isValid -> {
-                    if (!isValid) {
-                        logger.warn("Token validation failed for path: {}", path);
-                        return handleAuthError(exchange, ExceptionEnum.TOKEN_EXPIRED);
-                    }
-                    
-                    return addUserInfoToRequest(exchange, token, chain);
-                })
-                .onErrorResume(throwable -> {
-                    logger.error("JWT authentication error for path: {}, error: {}", path, throwable.getMessage());
-                    if (throwable instanceof BusinessException) {
-                        return handleAuthError(exchange, ExceptionEnum.TOKEN_EXPIRED);
-                    }
-                    return handleAuthError(exchange, ExceptionEnum.RUN_EXCEPTION);
-                });
-    }
+        JwtPrincipal principal;
+        try {
+            principal = principalCache.resolve(token);
+        } catch (BusinessException e) {
+            logger.warn("Token validation failed for path: {}, error: {}", path, e.getMessage());
+            return handleAuthError(exchange, ExceptionEnum.TOKEN_EXPIRED);
+        } catch (Exception e) {
+            logger.error("JWT authentication error for path: {}, error: {}", path, e.getMessage());
+            return handleAuthError(exchange, ExceptionEnum.RUN_EXCEPTION);
+        }
 
-    /**
-     * 检查路径是否在排除列表中
-     */
-    private boolean isExcludedPath(String path) {
-        return EXCLUDE_PATHS.stream().anyMatch(path::startsWith);
+        if (!principal.isTokenType(JwtUtil.ACCESS_TOKEN)) {
+            logger.warn("Token type mismatch for path: {}", path);
+            return handleAuthError(exchange, ExceptionEnum.TOKEN_EXPIRED);
+        }
+
+        // 基于路径匹配到的角色规则检查权限
+        if (!rule.permits(principal.getRole())) {
+            logger.warn("Permission denied: userId={}, role={}, path={}", principal.getUserId(), principal.getRole(), path);
+            return handleAuthError(exchange, ExceptionEnum.GATEWAY_PERMISSION_DENIED);
+        }
+
+        // 本地布隆过滤器未命中即确认未被吊销，命中时才到 Redis 确认
+        if (revocationChecker.mightBeRevoked(principal)) {
+            return revocationChecker.confirmRevoked(principal)
+                    .flatMap(revoked -> {
+                        if (revoked) {
+                            logger.warn("Revoked token rejected: userId={}, path={}", principal.getUserId(), path);
+                            return handleAuthError(exchange, ExceptionEnum.TOKEN_EXPIRED);
+                        }
+                        return forward(exchange, chain, principal);
+                    })
+                    .onErrorResume(e -> {
+                        logger.error("Token revocation check failed for path: {}, error: {}", path, e.getMessage());
+                        return handleAuthError(exchange, ExceptionEnum.RUN_EXCEPTION);
+                    });
+        }
+
+        return forward(exchange, chain, principal);
     }
 
     /**
-     * 从请求头中提取Token
+     * 将用户信息添加到请求头并继续请求
      */
-    private String extractToken(ServerHttpRequest request) {
-        String authHeader = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
-        if (StringUtils.hasText(authHeader) && authHeader.startsWith(TOKEN_PREFIX)) {
-            return authHeader.substring(TOKEN_PREFIX.length());
-        }
-        return null;
+    private Mono<Void> forward(ServerWebExchange exchange, GatewayFilterChain chain, JwtPrincipal principal) {
+        logger.debug("User authenticated: userId={}, role={}", principal.getUserId(), principal.getRole());
+        exchange.getAttributes().put(PRINCIPAL_ATTR, principal);
+
+        ServerHttpRequest modifiedRequest = exchange.getRequest().mutate()
+                .headers(headers -> {
+                    removeIdentityHeaders(headers);
+                    headers.set("X-User-Id", principal.getUserId().toString());
+                    headers.set("X-User-Role", principal.getRole());
+                })
+                .build();
+        return chain.filter(exchange.mutate().request(modifiedRequest).build());
     }
 
     /**
-     * 验证Token有效性
+     * 移除客户端携带的所有 X-User-* 请求头
      */
-    private Mono<Boolean> validateToken(String token) {
-        return Mono.fromCallable(() -> {
-            // 验证Token格式和有效性
-            if (!JwtUtil.validateToken(token)) {
-                return false;
+    private static void removeIdentityHeaders(HttpHeaders headers) {
+        List<String> names = new ArrayList<>();
+        for (String name : headers.keySet()) {
+            if (name.regionMatches(true, 0, IDENTITY_HEADER_PREFIX, 0, IDENTITY_HEADER_PREFIX.length())) {
+                names.add(name);
             }
-            
-            // 验证Token类型
-            return JwtUtil.validateTokenType(token, JwtUtil.ACCESS_TOKEN);
-        }).onErrorReturn(false);
+        }
+        for (String name : names) {
+            headers.remove(name);
+        }
     }
 
     /**
-     * 将用户信息添加到请求头并继续请求
+     * 判断原始路径是否含有下游规范化时会改变含义的片段
      */
-    private Mono<Void> addUserInfoToRequest(ServerWebExchange exchange, String token, GatewayFilterChain chain) {
-        return Mono.fromCallable(() -> {
-            // 提取用户信息
-            Long userId = JwtUtil.extractID(token);
-            String role = JwtUtil.extractRole(token);
-            
-            logger.info("User authenticated: userId={}, role={}", userId, role);
-            
-            // 将用户信息添加到请求头
-            ServerHttpRequest modifiedRequest = exchange.getRequest().mutate()
-                    .header("X-User-Id", userId.toString())
-                    .header("X-User-Role", role)
-                    .build();
-            
-            return exchange.mutate().request(modifiedRequest).build();
-        }).flatMap(modifiedExchange -> {
-            // 检查权限（如果需要的话）
-            return checkPermissions(modifiedExchange, token)
-                    .flatMap(hasPermission -> {
-                        if (!hasPermission) {
-                            return handleAuthError(exchange, ExceptionEnum.GATEWAY_PERMISSION_DENIED);
-                        }
-                        return chain.filter(modifiedExchange);
-                    });
-        });
+    private static boolean isAmbiguousPath(String rawPath) {
+        if (rawPath == null) {
+            return false;
+        }
+        String lower = rawPath.toLowerCase();
+        for (String token : AMBIGUOUS_PATH_TOKENS) {
+            if (lower.contains(token)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
-     * 检查用户权限（基于路径和角色）
+     * 从请求头中提取Token
      */
-    private Mono<Boolean> checkPermissions(ServerWebExchange exchange, String token) {
-        return Mono.fromCallable(() -> {
-            String path = exchange.getRequest().getURI().getPath();
-            String role = JwtUtil.extractRole(token);
-            
-            // 基于路径的权限检查
-            if (path.startsWith("/admin/")) {
-                // admin路径需要admin或super_admin权限
-                return "admin".equals(role) || "super_admin".equals(role);
-            } else if (path.startsWith("/user/")) {
-                // user路径允许所有已认证用户
-                return true;
-            }
-            
-            // 默认允许
-            return true;
-        }).onErrorReturn(false);
+    private String extractToken(ServerHttpRequest request) {
+        String authHeader = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (StringUtils.hasText(authHeader) && authHeader.startsWith(TOKEN_PREFIX)) {
+            return authHeader.substring(TOKEN_PREFIX.length());
+        }
+        return null;
     }
 
     /**
      * 处理认证错误
      */
     private Mono<Void> handleAuthError(ServerWebExchange exchange, ExceptionEnum exceptionEnum) {
-        ServerHttpResponse response = exchange.getResponse();
-        response.setStatusCode(HttpStatus.UNAUTHORIZED);
-        response.getHeaders().add(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
-
-        Result<?> result = Result.failed(exceptionEnum.getMsg());
-        
-        try {
-            String body = objectMapper.writeValueAsString(result);
-            DataBuffer buffer = response.bufferFactory().wrap(body.getBytes(StandardCharsets.UTF_8));
-            return response.writeWith(Flux.just(buffer));
-        } catch (JsonProcessingException e) {
-            logger.error("Error serializing authentication error response", e);
-            return response.setComplete();
-        }
+        return errorResponseWriter.write(exchange, HttpStatus.UNAUTHORIZED, exceptionEnum);
     }
 
     @Override
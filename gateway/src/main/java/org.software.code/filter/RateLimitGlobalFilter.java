@@ -0,0 +1,103 @@
+package org.software.code.filter;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.software.code.auth.JwtPrincipal;
+import org.software.code.common.except.ExceptionEnum;
+import org.software.code.common.result.ErrorResponseWriter;
+import org.software.code.config.RateLimitProperties;
+import org.software.code.ratelimit.LocalRateLimiter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ipresolver.RemoteAddressResolver;
+import org.springframework.cloud.gateway.support.ipresolver.XForwardedRemoteAddressResolver;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.net.InetSocketAddress;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * 限流全局过滤器，在 JWT 认证过滤器之后执行。
+ * 依次按客户端 IP、路由和用户（认证过滤器保存在 exchange 属性中的身份，不读取客户端可伪造的请求头）进行限流，
+ * 任一维度超限即返回 429 和统一的 Result 失败响应。
+ * 网关部署在负载均衡等代理之后时，按 trusted-proxy-hops 从 X-Forwarded-For 右侧取最外层可信代理记录的客户端地址，
+ * 未配置时只使用 TCP 连接的对端地址，客户端自行添加的 X-Forwarded-For 不影响限流。
+ *
+ * @author "101"计划《软件工程》实践教材案例团队
+ */
+@Component
+public class RateLimitGlobalFilter implements GlobalFilter, Ordered {
+
+    private static final Logger logger = LogManager.getLogger(RateLimitGlobalFilter.class);
+
+    @Resource
+    private RateLimitProperties rateLimitProperties;
+
+    @Resource
+    private LocalRateLimiter localRateLimiter;
+
+    @Resource
+    private ErrorResponseWriter errorResponseWriter;
+
+    private RemoteAddressResolver remoteAddressResolver;
+
+    @PostConstruct
+    public void init() {
+        int hops = rateLimitProperties.getTrustedProxyHops();
+        remoteAddressResolver = hops > 0
+                ? XForwardedRemoteAddressResolver.maxTrustedIndex(hops)
+                : new RemoteAddressResolver() { };
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!rateLimitProperties.isEnabled()) {
+            return chain.filter(exchange);
+        }
+        // 按客户端 IP 限流
+        InetSocketAddress clientAddress = remoteAddressResolver.resolve(exchange);
+        if (clientAddress != null
+                && !localRateLimiter.tryAcquire("ip", clientAddress.getHostString(), rateLimitProperties.getIp())) {
+            return reject(exchange, "ip");
+        }
+
+        // 按路由限流
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        if (route != null) {
+            RateLimitProperties.LimitSpec routeSpec = rateLimitProperties.getRoutes().get(route.getId());
+            if (routeSpec != null && !localRateLimiter.tryAcquire("route", route.getId(), routeSpec)) {
+                return reject(exchange, "route");
+            }
+        }
+
+        // 按用户限流
+        JwtPrincipal principal = exchange.getAttribute(JwtAuthenticationGlobalFilter.PRINCIPAL_ATTR);
+        if (principal != null
+                && !localRateLimiter.tryAcquire("user", principal.getUserId().toString(), rateLimitProperties.getUser())) {
+            return reject(exchange, "user");
+        }
+
+        return chain.filter(exchange);
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange, String dimension) {
+        logger.debug("Request rate limited by {}: {}", dimension, exchange.getRequest().getURI().getPath());
+        return errorResponseWriter.write(exchange, HttpStatus.TOO_MANY_REQUESTS, ExceptionEnum.GATEWAY_RATE_LIMITED);
+    }
+
+    /**
+     * 在 JWT 认证过滤器（-100）之后执行，此时已认证请求的用户身份已保存在 exchange 属性中
+     */
+    @Override
+    public int getOrder() {
+        return -90;
+    }
+}
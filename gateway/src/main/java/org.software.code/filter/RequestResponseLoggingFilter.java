@@ -1,32 +1,47 @@
 package org.software.code.filter;
 
-import lombok.var;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.software.code.accesslog.AccessLogDispatcher;
+import org.software.code.accesslog.AccessLogRecord;
+import org.software.code.accesslog.BodyCapture;
+import org.software.code.accesslog.BodyCaptureRequestDecorator;
+import org.software.code.config.AccessLogProperties;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
 import org.springframework.core.Ordered;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpRequest;
-import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
-import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.Resource;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
 
 /**
  * RequestResponseLoggingFilter 是一个全局过滤器，实现了 GlobalFilter 和 Ordered 接口。
- * 该过滤器用于记录通过 Spring Cloud Gateway 转发的请求信息，包括请求方法、URI、请求头和请求体，
- * 有助于开发和调试阶段对请求进行监控和分析。
+ * 该过滤器按路由采样记录通过 Spring Cloud Gateway 转发的请求，包括请求方法、URI、白名单请求头、
+ * 响应状态码和耗时，并可选地采集有限长度的请求体。
+ * 记录以固定结构放入无锁环形缓冲区，由后台线程格式化输出，事件循环线程上不做日志 IO。
  *
  * @author “101”计划《软件工程》实践教材案例团队
  */
 @Component
 public class RequestResponseLoggingFilter implements GlobalFilter, Ordered {
 
-  // 日志记录器，用于记录请求信息
-  private static final Logger logger = LoggerFactory.getLogger(RequestResponseLoggingFilter.class);
+  // 脱敏后的请求头内容
+  private static final String REDACTED = "***";
+
+  @Resource
+  private AccessLogProperties accessLogProperties;
+
+  @Resource
+  private AccessLogDispatcher accessLogDispatcher;
 
   /**
    * 过滤器的核心方法，用于处理请求并记录相关信息。
@@ -37,55 +52,90 @@ public class RequestResponseLoggingFilter implements GlobalFilter, Ordered {
    */
   @Override
   public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
-    // 获取当前请求
+    if (!accessLogProperties.isEnabled()) {
+      return chain.filter(exchange);
+    }
+    Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+    String routeId = route != null ? route.getId() : null;
+    if (!isSampled(routeId)) {
+      return chain.filter(exchange);
+    }
+
+    long startNanos = System.nanoTime();
     ServerHttpRequest request = exchange.getRequest();
-    // 记录请求信息
-    logRequest(request);
-    // 装饰请求并继续过滤链的执行
-    return chain.filter(exchange.mutate().request(decorateRequest(request)).build());
+    AccessLogRecord record = createRecord(request, routeId);
+
+    // 按需采集请求体，只有被采样的请求才创建采集器，缓冲区在请求体到达时才分配
+    BodyCapture capture = null;
+    ServerWebExchange target = exchange;
+    if (accessLogProperties.isCaptureBody() && accessLogProperties.getMaxBodyBytes() > 0) {
+      capture = new BodyCapture(accessLogProperties.getMaxBodyBytes(),
+          request.getHeaders().getContentLength());
+      target = exchange.mutate().request(new BodyCaptureRequestDecorator(request, capture)).build();
+    }
+
+    BodyCapture bodyCapture = capture;
+    return chain.filter(target).doFinally(signal -> {
+      HttpStatus status = exchange.getResponse().getStatusCode();
+      long durationMicros = (System.nanoTime() - startNanos) / 1000;
+      record.complete(status != null ? status.value() : 0, durationMicros, bodyCapture);
+      accessLogDispatcher.publish(record);
+    });
   }
 
   /**
-   * 记录请求的详细信息，包括请求方法、URI、请求头和请求体。
+   * 根据路由采样率决定是否记录当前请求。
    *
-   * @param request 服务器请求对象
+   * @param routeId 路由ID，未匹配路由时为 null
+   * @return 是否记录
    */
-  private void logRequest(ServerHttpRequest request) {
-    StringBuilder logMessage = new StringBuilder();
-    logMessage.append("Request Information:\n");
-    // 记录请求方法
-    logMessage.append("  Method: ").append(request.getMethod()).append("\n");
-    // 记录请求 URI
-    logMessage.append("  URI: ").append(request.getURI()).append("\n");
-
-    HttpHeaders headers = request.getHeaders();
-    logMessage.append("  Headers:\n");
-    // 遍历并记录请求头信息
-    for (var entry : headers.toSingleValueMap().entrySet()) {
-      logMessage.append("    ").append(entry.getKey()).append(": ").append(entry.getValue()).append("\n");
+  private boolean isSampled(String routeId) {
+    Double routeRate = routeId != null ? accessLogProperties.getRouteSampleRates().get(routeId) : null;
+    double rate = routeRate != null ? routeRate : accessLogProperties.getSampleRate();
+    if (rate >= 1.0) {
+      return true;
     }
-
-    // 记录请求体（此处代码未实际获取请求体内容，仅预留框架）
-    AtomicReference<String> bodyRef = new AtomicReference<>();
-    logMessage.append("  Request Body:\n");
-    logMessage.append("    ").append(bodyRef.get()).append("\n");
-
-    // 输出完整的请求信息日志
-    logger.info(logMessage.toString());
+    return rate > 0 && ThreadLocalRandom.current().nextDouble() < rate;
   }
 
   /**
-   * 装饰请求对象，当前仅返回原请求的装饰器，未做额外处理。
+   * 按固定结构创建访问日志记录，只记录白名单中的请求头，并对敏感请求头脱敏。
    *
    * @param request 服务器请求对象
-   * @return 装饰后的服务器请求对象
+   * @param routeId 路由ID
+   * @return 访问日志记录
    */
-  private ServerHttpRequest decorateRequest(ServerHttpRequest request) {
-    return new ServerHttpRequestDecorator(request);
+  private AccessLogRecord createRecord(ServerHttpRequest request, String routeId) {
+    HttpHeaders headers = request.getHeaders();
+    List<String> allowed = accessLogProperties.getHeaders();
+    String[] names = new String[allowed.size()];
+    String[] values = new String[allowed.size()];
+    for (int i = 0; i < names.length; i++) {
+      String name = allowed.get(i);
+      String value = headers.getFirst(name);
+      names[i] = name;
+      values[i] = value != null && isRedacted(name) ? REDACTED : value;
+    }
+
+    InetSocketAddress remoteAddress = request.getRemoteAddress();
+    String clientIp = remoteAddress != null && remoteAddress.getAddress() != null
+        ? remoteAddress.getAddress().getHostAddress() : null;
+
+    return new AccessLogRecord(System.currentTimeMillis(), request.getMethodValue(),
+        request.getURI().getRawPath(), request.getURI().getRawQuery(), routeId, clientIp, names, values);
+  }
+
+  private boolean isRedacted(String headerName) {
+    for (String redacted : accessLogProperties.getRedactedHeaders()) {
+      if (redacted.equalsIgnoreCase(headerName)) {
+        return true;
+      }
+    }
+    return false;
   }
 
   /**
-   * 获取过滤器的执行顺序，设置为最高优先级，确保该过滤器最先执行。
+   * 获取过滤器的执行顺序，设置为最高优先级，确保该过滤器最先执行，记录的耗时覆盖完整的过滤链。
    *
    * @return 过滤器的执行顺序
    */
@@ -93,4 +143,4 @@ public class RequestResponseLoggingFilter implements GlobalFilter, Ordered {
   public int getOrder() {
     return Ordered.HIGHEST_PRECEDENCE;
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,133 @@
+package org.software.code.ratelimit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.software.code.config.RateLimitProperties;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LocalRateLimiter 在本地内存中维护各限流维度的令牌桶，请求的放行判断完全在本地完成，
+ * 不需要访问 Redis。后台按 syncIntervalMs 周期把各令牌桶的放行数量一次性批量累加到 Redis，
+ * 并根据返回的集群总数封禁超限的令牌桶直到当前窗口结束，从而在集群范围内实现近似公平。
+ *
+ * @author "101"计划《软件工程》实践教材案例团队
+ */
+@Component
+public class LocalRateLimiter {
+
+    private static final Logger logger = LogManager.getLogger(LocalRateLimiter.class);
+
+    // Redis 中集群计数键的前缀
+    private static final String KEY_PREFIX = "gateway:rate:";
+
+    @Resource
+    private RateLimitProperties rateLimitProperties;
+
+    @Resource
+    private RateLimitStore rateLimitStore;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    private Disposable syncTask;
+
+    @PostConstruct
+    public void start() {
+        Gauge.builder("gateway.rate-limit.buckets", buckets, Map::size).register(meterRegistry);
+        syncTask = Flux.interval(Duration.ofMillis(rateLimitProperties.getSyncIntervalMs()))
+                .onBackpressureDrop()
+                .concatMap(tick -> sync())
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (syncTask != null) {
+            syncTask.dispose();
+        }
+    }
+
+    /**
+     * 尝试在指定维度上获取一个令牌
+     *
+     * @param dimension 限流维度，如 user、ip、route
+     * @param key       维度内的标识，如用户ID、IP 地址、路由ID
+     * @param spec      限流规则
+     * @return 是否放行
+     */
+    public boolean tryAcquire(String dimension, String key, RateLimitProperties.LimitSpec spec) {
+        String bucketKey = dimension + ':' + key;
+        TokenBucket bucket = buckets.get(bucketKey);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(bucketKey, k -> newBucket(spec));
+        }
+        return bucket.tryAcquire(System.currentTimeMillis());
+    }
+
+    private TokenBucket newBucket(RateLimitProperties.LimitSpec spec) {
+        long windowMillis = rateLimitProperties.getSyncIntervalMs();
+        long clusterLimit = spec.getBurstCapacity() + (long) (spec.getReplenishRate() * windowMillis / 1000);
+        return new TokenBucket(spec.getReplenishRate(), spec.getBurstCapacity(), clusterLimit);
+    }
+
+    /**
+     * 将本地放行计数批量同步到 Redis，并根据集群总数封禁超限的令牌桶
+     */
+    private Mono<Void> sync() {
+        long windowMillis = rateLimitProperties.getSyncIntervalMs();
+        long window = System.currentTimeMillis() / windowMillis;
+        long windowEnd = (window + 1) * windowMillis;
+        long idleNanos = TimeUnit.MILLISECONDS.toNanos(rateLimitProperties.getIdleEvictMs());
+
+        List<String> keys = new ArrayList<>();
+        List<Long> deltas = new ArrayList<>();
+        List<TokenBucket> synced = new ArrayList<>();
+        Iterator<Map.Entry<String, TokenBucket>> it = buckets.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, TokenBucket> entry = it.next();
+            TokenBucket bucket = entry.getValue();
+            long delta = bucket.drainPending();
+            if (delta > 0) {
+                keys.add(KEY_PREFIX + entry.getKey() + ':' + window);
+                deltas.add(delta);
+                synced.add(bucket);
+            } else if (bucket.isIdle(idleNanos)) {
+                it.remove();
+            }
+        }
+        if (keys.isEmpty()) {
+            return Mono.empty();
+        }
+
+        return rateLimitStore.incrementAll(keys, deltas, Duration.ofMillis(windowMillis * 2))
+                .doOnNext(totals -> {
+                    for (int i = 0; i < totals.size() && i < synced.size(); i++) {
+                        synced.get(i).reconcile(totals.get(i), windowEnd);
+                    }
+                })
+                .then()
+                .onErrorResume(e -> {
+                    // Redis 不可用时仅依赖本地限流
+                    logger.warn("Rate limit sync failed, falling back to local limits: {}", e.getMessage());
+                    return Mono.empty();
+                });
+    }
+}
@@ -0,0 +1,25 @@
+package org.software.code.ratelimit;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * RateLimitStore 是集群限流计数的共享存储接口。
+ * 默认实现基于 Redis，测试时可替换为内存实现。
+ *
+ * @author "101"计划《软件工程》实践教材案例团队
+ */
+public interface RateLimitStore {
+
+    /**
+     * 批量累加计数，并返回累加后的总数
+     *
+     * @param keys   计数键
+     * @param deltas 每个键的增量，与 keys 一一对应
+     * @param ttl    计数键的过期时间
+     * @return 累加后的总数，与 keys 一一对应
+     */
+    Mono<List<Long>> incrementAll(List<String> keys, List<Long> deltas, Duration ttl);
+}
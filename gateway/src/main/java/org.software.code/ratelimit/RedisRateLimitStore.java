@@ -0,0 +1,52 @@
+package org.software.code.ratelimit;
+
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.Resource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基于 Redis 的集群限流计数存储。
+ * 一次同步的所有计数键通过同一个 Lua 脚本累加，整批只需一次网络往返。
+ *
+ * @author "101"计划《软件工程》实践教材案例团队
+ */
+@Component
+public class RedisRateLimitStore implements RateLimitStore {
+
+    // KEYS 为计数键，ARGV 前 N 个为增量，最后一个为过期时间（毫秒）
+    private static final String INCREMENT_ALL_SCRIPT =
+            "local ttl = ARGV[#ARGV] " +
+            "local result = {} " +
+            "for i, key in ipairs(KEYS) do " +
+            "  local delta = tonumber(ARGV[i]) " +
+            "  local total = redis.call('INCRBY', key, delta) " +
+            "  if total == delta then redis.call('PEXPIRE', key, ttl) end " +
+            "  result[i] = total " +
+            "end " +
+            "return result";
+
+    // 返回类型为 List 时，响应式执行器把脚本返回的数组按元素逐个发出，每个元素是一个 Long
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final RedisScript<Object> SCRIPT = (RedisScript) RedisScript.of(INCREMENT_ALL_SCRIPT, List.class);
+
+    @Resource
+    private ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+
+    @Override
+    public Mono<List<Long>> incrementAll(List<String> keys, List<Long> deltas, Duration ttl) {
+        List<String> args = new ArrayList<>(deltas.size() + 1);
+        for (Long delta : deltas) {
+            args.add(delta.toString());
+        }
+        args.add(Long.toString(ttl.toMillis()));
+        return reactiveStringRedisTemplate.execute(SCRIPT, keys, args)
+                .map(total -> ((Number) total).longValue())
+                .collectList();
+    }
+}
@@ -0,0 +1,86 @@
+package org.software.code.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * TokenBucket 是一个无锁令牌桶，采用 GCRA（通用信元速率算法）实现，整个桶的状态只有一个
+ * “理论到达时间”，获取令牌时通过一次 CAS 更新，不需要加锁。
+ * 同时记录自上次同步以来放行的请求数，供 {@link LocalRateLimiter} 批量同步到 Redis；
+ * 当集群总量超限时，桶会被标记为在当前窗口结束前拒绝所有请求。
+ *
+ * @author "101"计划《软件工程》实践教材案例团队
+ */
+final class TokenBucket {
+
+    // 每个令牌的发放间隔（纳秒）
+    private final long emissionIntervalNanos;
+    // 允许的突发容忍度（纳秒）
+    private final long burstToleranceNanos;
+    // 集群范围内单个窗口允许的请求数
+    private final long clusterLimit;
+
+    // 理论到达时间（纳秒）
+    private final AtomicLong theoreticalArrival;
+    // 自上次同步以来放行的请求数
+    private final LongAdder pending = new LongAdder();
+    // 集群超限时的封禁截止时间（毫秒时间戳）
+    private volatile long blockedUntil;
+
+    TokenBucket(double replenishRate, long burstCapacity, long clusterLimit) {
+        this.emissionIntervalNanos = (long) (1_000_000_000L / replenishRate);
+        this.burstToleranceNanos = emissionIntervalNanos * Math.max(burstCapacity - 1, 0);
+        this.clusterLimit = clusterLimit;
+        this.theoreticalArrival = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * 尝试获取一个令牌
+     *
+     * @param nowMillis 当前毫秒时间戳
+     * @return 是否放行
+     */
+    boolean tryAcquire(long nowMillis) {
+        if (nowMillis < blockedUntil) {
+            return false;
+        }
+        while (true) {
+            long now = System.nanoTime();
+            long tat = theoreticalArrival.get();
+            long base = Math.max(tat, now);
+            if (base - now > burstToleranceNanos) {
+                return false;
+            }
+            if (theoreticalArrival.compareAndSet(tat, base + emissionIntervalNanos)) {
+                pending.increment();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 取出自上次同步以来放行的请求数并清零
+     */
+    long drainPending() {
+        return pending.sumThenReset();
+    }
+
+    /**
+     * 根据集群总计数判断是否超限，超限则封禁到窗口结束
+     *
+     * @param clusterTotal 当前窗口内集群总计数
+     * @param windowEnd    当前窗口结束时间（毫秒时间戳）
+     */
+    void reconcile(long clusterTotal, long windowEnd) {
+        if (clusterTotal > clusterLimit) {
+            blockedUntil = windowEnd;
+        }
+    }
+
+    /**
+     * 判断令牌桶是否已空闲足够长的时间，可以被清理
+     */
+    boolean isIdle(long idleNanos) {
+        return System.nanoTime() - theoreticalArrival.get() > idleNanos;
+    }
+}
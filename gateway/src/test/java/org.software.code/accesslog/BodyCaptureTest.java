@@ -0,0 +1,63 @@
+package org.software.code.accesslog;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * BodyCapture 的测试：没有请求体时不分配缓冲区，缓冲区按 Content-Length 或实际长度分配且不超过上限，
+ * 采集不改变数据块的读位置。
+ *
+ * @author "101"计划《软件工程》实践教材案例团队
+ */
+class BodyCaptureTest {
+
+    private final DefaultDataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+    @Test
+    void noBufferIsAllocatedWithoutBody() {
+        BodyCapture capture = new BodyCapture(1024, -1);
+
+        assertNull(capture.getBytes());
+        assertEquals(0, capture.getLength());
+        assertFalse(capture.isTruncated());
+    }
+
+    @Test
+    void bufferIsSizedByContentLength() {
+        BodyCapture capture = new BodyCapture(1024, 11);
+        DataBuffer first = buffer("hello ");
+
+        capture.append(first);
+        capture.append(buffer("world"));
+
+        assertEquals(11, capture.getBytes().length);
+        assertEquals("hello world", new String(capture.getBytes(), 0, capture.getLength(), StandardCharsets.UTF_8));
+        assertEquals(6, first.readableByteCount());
+        assertFalse(capture.isTruncated());
+    }
+
+    @Test
+    void chunkedBodyGrowsUpToLimitAndIsTruncated() {
+        BodyCapture capture = new BodyCapture(8, -1);
+
+        capture.append(buffer("abc"));
+        assertEquals(3, capture.getBytes().length);
+        capture.append(buffer("defghij"));
+
+        assertEquals(8, capture.getBytes().length);
+        assertEquals("abcdefgh", new String(capture.getBytes(), 0, capture.getLength(), StandardCharsets.UTF_8));
+        assertTrue(capture.isTruncated());
+    }
+
+    private DataBuffer buffer(String content) {
+        return bufferFactory.wrap(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,112 @@
+package org.software.code.auth;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * PathRuleTrie 的匹配测试：前缀只在路径段边界上生效，白名单优先于角色规则，角色规则取最长前缀。
+ * 随机路径的匹配结果与逐个前缀比较的朴素实现一致。
+ *
+ * @author "101"计划《软件工程》实践教材案例团队
+ */
+class PathRuleTrieTest {
+
+    private static final List<String> WHITELIST = Arrays.asList("/user/auth/login", "/user/auth/", "/docs/");
+    private static final List<String> RULE_PREFIXES = Arrays.asList("/user", "/admin", "/admin/super", "/user/pay");
+
+    private static final RouteRule USER = RouteRule.ofRoles("user");
+    private static final RouteRule ADMIN = RouteRule.ofRoles("admin", "super_admin");
+    private static final RouteRule SUPER_ADMIN = RouteRule.ofRoles("super_admin");
+    private static final RouteRule PAYER = RouteRule.ofRoles("user", "merchant");
+    private static final List<RouteRule> RULES = Arrays.asList(USER, ADMIN, SUPER_ADMIN, PAYER);
+
+    private final PathRuleTrie trie = build();
+
+    @Test
+    void prefixesMatchOnlyOnSegmentBoundaries() {
+        assertSame(RouteRule.PUBLIC, trie.match("/user/auth/login"));
+        assertSame(RouteRule.PUBLIC, trie.match("/user/auth/login/sms"));
+        assertSame(RouteRule.PUBLIC, trie.match("/docs/api/index.html"));
+        assertSame(RouteRule.AUTHENTICATED, trie.match("/docs"));
+        assertSame(ADMIN, trie.match("/admin"));
+        assertSame(RouteRule.AUTHENTICATED, trie.match("/administrator"));
+        assertSame(USER, trie.match("/user/payment"));
+    }
+
+    @Test
+    void whitelistWinsAndLongestRuleApplies() {
+        assertSame(RouteRule.PUBLIC, trie.match("/user/auth/register"));
+        assertSame(USER, trie.match("/user/profile"));
+        assertSame(PAYER, trie.match("/user/pay/qrcode"));
+        assertSame(SUPER_ADMIN, trie.match("/admin/super/keys"));
+        assertSame(ADMIN, trie.match("/admin/users"));
+        assertSame(RouteRule.AUTHENTICATED, trie.match("/"));
+        assertSame(RouteRule.AUTHENTICATED, trie.match(""));
+
+        assertTrue(trie.match("/admin/users").permits("super_admin"));
+        assertFalse(trie.match("/admin/super/keys").permits("admin"));
+        assertTrue(trie.match("/user/auth/register").permits(null));
+    }
+
+    @Test
+    void matchesNaivePrefixScanOnRandomPaths() {
+        String[] segments = {"user", "auth", "login", "loginx", "admin", "super", "pay", "docs", "x", ""};
+        Random random = new Random(42);
+        for (int n = 0; n < 100000; n++) {
+            StringBuilder path = new StringBuilder();
+            int depth = random.nextInt(5);
+            for (int d = 0; d < depth; d++) {
+                path.append('/').append(segments[random.nextInt(segments.length)]);
+            }
+            if (random.nextInt(4) == 0) {
+                path.append('/');
+            }
+            String p = path.toString();
+            assertSame(naiveMatch(p), trie.match(p), p);
+        }
+    }
+
+    private static PathRuleTrie build() {
+        PathRuleTrie.Builder builder = PathRuleTrie.builder();
+        for (String prefix : WHITELIST) {
+            builder.whitelist(prefix);
+        }
+        for (int i = 0; i < RULE_PREFIXES.size(); i++) {
+            builder.rule(RULE_PREFIXES.get(i), RULES.get(i));
+        }
+        return builder.build();
+    }
+
+    /**
+     * 逐个前缀比较的参照实现
+     */
+    private static RouteRule naiveMatch(String path) {
+        for (String prefix : WHITELIST) {
+            if (matches(prefix, path)) {
+                return RouteRule.PUBLIC;
+            }
+        }
+        RouteRule best = RouteRule.AUTHENTICATED;
+        int bestLength = -1;
+        for (int i = 0; i < RULE_PREFIXES.size(); i++) {
+            String prefix = RULE_PREFIXES.get(i);
+            if (matches(prefix, path) && prefix.length() > bestLength) {
+                best = RULES.get(i);
+                bestLength = prefix.length();
+            }
+        }
+        return best;
+    }
+
+    private static boolean matches(String prefix, String path) {
+        return path.startsWith(prefix) && (path.length() == prefix.length()
+                || path.charAt(prefix.length()) == '/' || prefix.endsWith("/"));
+    }
+}
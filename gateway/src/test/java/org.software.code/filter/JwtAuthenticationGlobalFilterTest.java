@@ -0,0 +1,134 @@
+package org.software.code.filter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.software.code.auth.JwtPrincipal;
+import org.software.code.auth.JwtPrincipalCache;
+import org.software.code.auth.RoutePermissionMatcher;
+import org.software.code.auth.RouteRule;
+import org.software.code.auth.TokenRevocationChecker;
+import org.software.code.common.except.ExceptionEnum;
+import org.software.code.common.result.ErrorResponseWriter;
+import org.software.code.common.util.JwtUtil;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * JwtAuthenticationGlobalFilter 的测试：认证与鉴权在调用 filter 时同步完成，布隆过滤器未命中时不订阅任何响应式操作；
+ * 客户端伪造的 X-User-* 请求头被移除，含歧义片段的路径被拒绝。
+ *
+ * @author "101"计划《软件工程》实践教材案例团队
+ */
+class JwtAuthenticationGlobalFilterTest {
+
+    private static final String TOKEN = "access-token";
+
+    private final JwtPrincipal principal = new JwtPrincipal(42L, "user", JwtUtil.ACCESS_TOKEN, "jti-1",
+            System.currentTimeMillis(), System.currentTimeMillis() + 60000);
+
+    private JwtPrincipalCache principalCache;
+    private RoutePermissionMatcher routePermissionMatcher;
+    private TokenRevocationChecker revocationChecker;
+    private ErrorResponseWriter errorResponseWriter;
+    private GatewayFilterChain chain;
+    private JwtAuthenticationGlobalFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        principalCache = mock(JwtPrincipalCache.class);
+        routePermissionMatcher = mock(RoutePermissionMatcher.class);
+        revocationChecker = mock(TokenRevocationChecker.class);
+        errorResponseWriter = mock(ErrorResponseWriter.class);
+        chain = mock(GatewayFilterChain.class);
+        when(chain.filter(any())).thenReturn(Mono.empty());
+        when(errorResponseWriter.write(any(), any(), any())).thenReturn(Mono.empty());
+        when(principalCache.resolve(TOKEN)).thenReturn(principal);
+        when(routePermissionMatcher.match(any())).thenReturn(RouteRule.AUTHENTICATED);
+        filter = new JwtAuthenticationGlobalFilter();
+        ReflectionTestUtils.setField(filter, "principalCache", principalCache);
+        ReflectionTestUtils.setField(filter, "routePermissionMatcher", routePermissionMatcher);
+        ReflectionTestUtils.setField(filter, "revocationChecker", revocationChecker);
+        ReflectionTestUtils.setField(filter, "errorResponseWriter", errorResponseWriter);
+    }
+
+    @Test
+    void authenticatedRequestIsForwardedWithoutSubscribing() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/user/profile")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + TOKEN)
+                .header("X-User-Id", "1"));
+
+        // 不订阅返回的 Mono，判定和下游调用已在 filter 返回前完成
+        filter.filter(exchange, chain);
+
+        ArgumentCaptor<ServerWebExchange> forwarded = ArgumentCaptor.forClass(ServerWebExchange.class);
+        verify(chain).filter(forwarded.capture());
+        HttpHeaders headers = forwarded.getValue().getRequest().getHeaders();
+        assertEquals("42", headers.getFirst("X-User-Id"));
+        assertEquals("user", headers.getFirst("X-User-Role"));
+        assertSame(principal, forwarded.getValue().getAttribute(JwtAuthenticationGlobalFilter.PRINCIPAL_ATTR));
+        verify(revocationChecker, never()).confirmRevoked(any());
+    }
+
+    @Test
+    void publicPathStripsSpoofedIdentityHeaders() {
+        when(routePermissionMatcher.match("/user/auth/login")).thenReturn(RouteRule.PUBLIC);
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/user/auth/login")
+                .header("X-User-Id", "1")
+                .header("x-user-role", "super_admin"));
+
+        filter.filter(exchange, chain).block();
+
+        ArgumentCaptor<ServerWebExchange> forwarded = ArgumentCaptor.forClass(ServerWebExchange.class);
+        verify(chain).filter(forwarded.capture());
+        HttpHeaders headers = forwarded.getValue().getRequest().getHeaders();
+        assertNull(headers.getFirst("X-User-Id"));
+        assertNull(headers.getFirst("X-User-Role"));
+        verify(principalCache, never()).resolve(any());
+    }
+
+    @Test
+    void rejectsAmbiguousPathsMissingTokensAndForbiddenRoles() {
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/user/..;/admin/keys")), chain).block();
+        verify(errorResponseWriter).write(any(), eq(HttpStatus.BAD_REQUEST), eq(ExceptionEnum.REQUEST_PARAMETER_ERROR));
+
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/user/profile")), chain).block();
+        verify(errorResponseWriter).write(any(), eq(HttpStatus.UNAUTHORIZED), eq(ExceptionEnum.TOKEN_NOT_FIND));
+
+        when(routePermissionMatcher.match("/admin/users")).thenReturn(RouteRule.ofRoles("admin"));
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/admin/users")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + TOKEN)), chain).block();
+        verify(errorResponseWriter).write(any(), eq(HttpStatus.UNAUTHORIZED), eq(ExceptionEnum.GATEWAY_PERMISSION_DENIED));
+
+        verify(chain, never()).filter(any());
+    }
+
+    @Test
+    void revokedTokenIsRejectedAfterRedisConfirmation() {
+        when(revocationChecker.mightBeRevoked(principal)).thenReturn(true);
+        when(revocationChecker.confirmRevoked(principal)).thenReturn(Mono.just(true));
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/user/profile")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + TOKEN));
+
+        filter.filter(exchange, chain).block();
+
+        verify(errorResponseWriter).write(any(), eq(HttpStatus.UNAUTHORIZED), eq(ExceptionEnum.TOKEN_EXPIRED));
+        verify(chain, never()).filter(any());
+    }
+}
@@ -0,0 +1,116 @@
+package org.software.code.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.software.code.config.RateLimitProperties;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * LocalRateLimiter 的集群同步测试：两个网关节点共用一个内存版 RateLimitStore，
+ * 各自在本地放行后同步计数，集群总数超限的令牌桶在窗口结束前拒绝请求。
+ * 同时验证 RedisRateLimitStore 能正确收集响应式脚本逐个发出的计数。
+ *
+ * @author "101"计划《软件工程》实践教材案例团队
+ */
+class LocalRateLimiterTest {
+
+    private static final long SYNC_INTERVAL_MS = 60000;
+    // 速率极低，测试期间不会补充令牌；集群上限 = 突发容量 10
+    private static final RateLimitProperties.LimitSpec SPEC = new RateLimitProperties.LimitSpec(0.001, 10);
+
+    private InMemoryRateLimitStore store;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        store = new InMemoryRateLimitStore();
+        // 避免两次同步落在不同的窗口
+        long remaining = SYNC_INTERVAL_MS - System.currentTimeMillis() % SYNC_INTERVAL_MS;
+        if (remaining < 5000) {
+            TimeUnit.MILLISECONDS.sleep(remaining + 10);
+        }
+    }
+
+    @Test
+    void clusterTotalBlocksBucketsOnEveryNode() {
+        LocalRateLimiter nodeA = newLimiter();
+        LocalRateLimiter nodeB = newLimiter();
+        for (int i = 0; i < 6; i++) {
+            assertTrue(nodeA.tryAcquire("user", "42", SPEC));
+            assertTrue(nodeB.tryAcquire("user", "42", SPEC));
+        }
+
+        sync(nodeA);
+        assertTrue(nodeA.tryAcquire("user", "42", SPEC), "cluster total 6 is within the limit");
+        sync(nodeB);
+        assertFalse(nodeB.tryAcquire("user", "42", SPEC), "cluster total 12 exceeds the limit");
+
+        sync(nodeA);
+        assertFalse(nodeA.tryAcquire("user", "42", SPEC), "node A must be blocked once it sees the cluster total");
+        assertTrue(nodeA.tryAcquire("user", "43", SPEC), "other keys are not affected");
+    }
+
+    @Test
+    void redisStoreCollectsEveryTotal() {
+        ReactiveStringRedisTemplate template = mock(ReactiveStringRedisTemplate.class);
+        when(template.execute(any(RedisScript.class), anyList(), anyList())).thenReturn(Flux.just(3L, 5L));
+        RedisRateLimitStore redisStore = new RedisRateLimitStore();
+        ReflectionTestUtils.setField(redisStore, "reactiveStringRedisTemplate", template);
+
+        List<Long> totals = redisStore.incrementAll(Arrays.asList("a", "b"), Arrays.asList(3L, 5L),
+                Duration.ofSeconds(2)).block();
+
+        assertEquals(Arrays.asList(3L, 5L), totals);
+    }
+
+    private LocalRateLimiter newLimiter() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setSyncIntervalMs(SYNC_INTERVAL_MS);
+        LocalRateLimiter limiter = new LocalRateLimiter();
+        ReflectionTestUtils.setField(limiter, "rateLimitProperties", properties);
+        ReflectionTestUtils.setField(limiter, "rateLimitStore", store);
+        return limiter;
+    }
+
+    private static void sync(LocalRateLimiter limiter) {
+        Mono<Void> sync = ReflectionTestUtils.invokeMethod(limiter, "sync");
+        sync.block();
+    }
+
+    /**
+     * 内存版集群计数存储，等价于 RedisRateLimitStore 的批量累加脚本
+     */
+    private static class InMemoryRateLimitStore implements RateLimitStore {
+
+        private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+
+        @Override
+        public Mono<List<Long>> incrementAll(List<String> keys, List<Long> deltas, Duration ttl) {
+            List<Long> totals = new ArrayList<>(keys.size());
+            for (int i = 0; i < keys.size(); i++) {
+                totals.add(counters.computeIfAbsent(keys.get(i), k -> new AtomicLong()).addAndGet(deltas.get(i)));
+            }
+            return Mono.just(totals);
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package org.software.code.common.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.software.code.common.util.RedisUtil;
+import org.software.code.common.util.RedisWriteBehindBuffer;
+import org.software.code.dto.UserProfileDTO;
+import org.software.code.entity.User;
+import org.software.code.mapper.UserMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 用户资料的两级缓存：进程内 Caffeine（L1）→ Redis（L2）→ MySQL。
+ * 同一个键的并发加载由 Caffeine 合并，冷键在每个实例上只触发一次回源；
+ * 不存在的用户以空值缓存较短时间，防止缓存穿透；L2 的过期时间带随机抖动，避免集中失效。
+ * 回源结果已在 L1 中，回填 L2 经写缓冲区合并后批量写入，不占用请求线程的网络往返。
+ * 资料修改后删除 L2 并通过 Redis 频道广播，所有实例同时清除各自的 L1。
+ * 每个用户在 Redis 中有一个版本键，失效时与删除 L2 一起原子地递增；回源前读取版本，
+ * 回填 L2 时由 Lua 脚本比较版本，失效之前开始的慢加载不会把旧资料写回 L2。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Component
+public class UserProfileCache implements MessageListener {
+
+    private static final Logger logger = LogManager.getLogger(UserProfileCache.class);
+
+    // L2 缓存键前缀，用户ID带哈希标签，与版本键位于同一哈希槽
+    public static final String PROFILE_KEY_PREFIX = "user:profile:";
+    // 版本键前缀
+    public static final String VERSION_KEY_PREFIX = "user:profile:version:";
+    // 缓存失效广播频道
+    public static final String INVALIDATE_CHANNEL = "user:profile:invalidate";
+
+    // 表示用户不存在的空值
+    private static final UserProfileDTO MISSING = new UserProfileDTO();
+    private static final String MISSING_VALUE = "";
+    // 版本键不存在时的版本
+    private static final String INITIAL_VERSION = "0";
+
+    // 递增版本并删除 L2；KEYS[1] 为 L2 键，KEYS[2] 为版本键，ARGV[1] 为版本键的过期时间（毫秒）
+    private static final String INVALIDATE_SCRIPT =
+            "redis.call('INCR', KEYS[2]) " +
+            "redis.call('PEXPIRE', KEYS[2], ARGV[1]) " +
+            "return redis.call('DEL', KEYS[1])";
+
+    private static final RedisScript<Long> INVALIDATE = RedisScript.of(INVALIDATE_SCRIPT, Long.class);
+
+    @Value("${user.profile-cache.l1-max-size:10000}")
+    private long l1MaxSize;
+
+    @Value("${user.profile-cache.l1-ttl-seconds:60}")
+    private long l1TtlSeconds;
+
+    @Value("${user.profile-cache.l2-ttl-seconds:1800}")
+    private long l2TtlSeconds;
+
+    // 空值在两级缓存中的过期时间
+    @Value("${user.profile-cache.negative-ttl-seconds:30}")
+    private long negativeTtlSeconds;
+
+    @Resource
+    private RedisUtil redisUtil;
+
+    @Resource
+    private RedisWriteBehindBuffer writeBehindBuffer;
+
+    @Resource
+    private UserMapper userMapper;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    @Resource
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    private LoadingCache<Long, UserProfileDTO> l1;
+
+    private final LongAdder l2Hits = new LongAdder();
+    private final LongAdder l2Misses = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        l1 = Caffeine.newBuilder()
+                .maximumSize(l1MaxSize)
+                .expireAfter(new Expiry<Long, UserProfileDTO>() {
+                    @Override
+                    public long expireAfterCreate(Long key, UserProfileDTO value, long currentTime) {
+                        return TimeUnit.SECONDS.toNanos(value == MISSING ? negativeTtlSeconds : l1TtlSeconds);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long key, UserProfileDTO value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long key, UserProfileDTO value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build(new CacheLoader<Long, UserProfileDTO>() {
+                    @Override
+                    public UserProfileDTO load(Long userId) {
+                        return loadFromRedis(userId);
+                    }
+
+                    @Override
+                    public Map<Long, UserProfileDTO> loadAll(Iterable<? extends Long> userIds) {
+                        return loadAllFromRedis(userIds);
+                    }
+                });
+
+        CaffeineCacheMetrics.monitor(meterRegistry, l1, "user.profile.l1");
+        FunctionCounter.builder("user.profile.cache.requests", l2Hits, LongAdder::sum)
+                .tags("tier", "l2", "result", "hit").register(meterRegistry);
+        FunctionCounter.builder("user.profile.cache.requests", l2Misses, LongAdder::sum)
+                .tags("tier", "l2", "result", "miss").register(meterRegistry);
+        Gauge.builder("user.profile.cache.hit.ratio", l1, cache -> cache.stats().hitRate())
+                .tag("tier", "l1").register(meterRegistry);
+        Gauge.builder("user.profile.cache.hit.ratio", this, UserProfileCache::l2HitRatio)
+                .tag("tier", "l2").register(meterRegistry);
+
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATE_CHANNEL));
+    }
+
+    /**
+     * 获取用户资料，依次读取 L1、L2 和数据库
+     *
+     * @param userId 用户ID
+     * @return 用户资料，用户不存在时返回 null
+     */
+    public UserProfileDTO get(long userId) {
+        UserProfileDTO profile = l1.get(userId);
+        return profile == MISSING ? null : profile;
+    }
+
+    /**
+     * 批量获取用户资料，L1 未命中的键以一次 MGET 读取 L2，仍未命中的再以一次查询回源
+     *
+     * @param userIds 用户ID
+     * @return 用户ID到用户资料的映射，不包含不存在的用户
+     */
+    public Map<Long, UserProfileDTO> getAll(Collection<Long> userIds) {
+        Map<Long, UserProfileDTO> profiles = new HashMap<>(l1.getAll(userIds));
+        profiles.values().removeIf(profile -> profile == MISSING);
+        return profiles;
+    }
+
+    /**
+     * 在数据库更新之后调用，删除 L2 并通知所有实例清除 L1
+     *
+     * @param userId 用户ID
+     */
+    public void invalidate(long userId) {
+        String key = profileKey(userId);
+        writeBehindBuffer.discard(key);
+        // 版本键保留到 L2 过期时间的两倍，远长于任何一次回源
+        redisUtil.executeScript(INVALIDATE, Arrays.asList(key, versionKey(userId)),
+                Long.toString(TimeUnit.SECONDS.toMillis(l2TtlSeconds * 2)));
+        l1.invalidate(userId);
+        redisUtil.publish(INVALIDATE_CHANNEL, Long.toString(userId));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            l1.invalidate(Long.parseLong(body));
+        } catch (NumberFormatException e) {
+            logger.warn("Ignoring malformed profile invalidation message: {}", body);
+        }
+    }
+
+    private UserProfileDTO loadFromRedis(Long userId) {
+        String key = profileKey(userId);
+        // 与 L2 一起读出版本，未命中时回填以该版本为条件
+        List<String> cached = redisUtil.multiGet(Arrays.asList(key, versionKey(userId)));
+        UserProfileDTO profile = decode(userId, cached.get(0));
+        if (profile != null) {
+            l2Hits.increment();
+            return profile;
+        }
+        l2Misses.increment();
+        return loadFromDatabase(userId, key, versionOf(cached.get(1)));
+    }
+
+    private Map<Long, UserProfileDTO> loadAllFromRedis(Iterable<? extends Long> userIds) {
+        List<Long> ids = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        for (Long userId : userIds) {
+            ids.add(userId);
+            keys.add(profileKey(userId));
+        }
+        // 前一半为 L2 的值，后一半为对应的版本
+        for (Long userId : ids) {
+            keys.add(versionKey(userId));
+        }
+        List<String> cached = redisUtil.multiGet(keys);
+        Map<Long, UserProfileDTO> result = new HashMap<>(ids.size() * 2);
+        Map<Long, String> versions = new HashMap<>();
+        List<Long> missed = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            UserProfileDTO profile = decode(ids.get(i), cached.get(i));
+            if (profile != null) {
+                result.put(ids.get(i), profile);
+            } else {
+                missed.add(ids.get(i));
+                versions.put(ids.get(i), versionOf(cached.get(ids.size() + i)));
+            }
+        }
+        l2Hits.add(result.size());
+        l2Misses.add(missed.size());
+        if (!missed.isEmpty()) {
+            for (User user : userMapper.selectBatchIds(missed)) {
+                result.put(user.getId(), UserProfileDTO.from(user));
+            }
+            for (Long userId : missed) {
+                UserProfileDTO profile = result.get(userId);
+                if (profile == null) {
+                    result.put(userId, MISSING);
+                }
+                writeToRedis(userId, profileKey(userId), versions.get(userId), result.get(userId));
+            }
+        }
+        return result;
+    }
+
+    private UserProfileDTO loadFromDatabase(long userId, String key, String version) {
+        User user = userMapper.selectById(userId);
+        UserProfileDTO profile = user == null ? MISSING : UserProfileDTO.from(user);
+        writeToRedis(userId, key, version, profile);
+        return profile;
+    }
+
+    /**
+     * 解析 L2 中缓存的值，键不存在或内容无法解析时返回 null
+     */
+    private UserProfileDTO decode(long userId, String cached) {
+        if (cached == null) {
+            return null;
+        }
+        if (MISSING_VALUE.equals(cached)) {
+            return MISSING;
+        }
+        try {
+            return objectMapper.readValue(cached, UserProfileDTO.class);
+        } catch (JsonProcessingException e) {
+            logger.warn("Discarding unreadable cached profile for user {}: {}", userId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 回填 L2，版本在回源之后发生变化（资料已被修改）时不写入
+     */
+    private void writeToRedis(long userId, String key, String version, UserProfileDTO profile) {
+        String versionKey = versionKey(userId);
+        if (profile == MISSING) {
+            writeBehindBuffer.setValueIfVersion(key, MISSING_VALUE, negativeTtlSeconds, TimeUnit.SECONDS, versionKey, version);
+            return;
+        }
+        try {
+            // 过期时间增加最多 10% 的随机抖动
+            long ttl = l2TtlSeconds + ThreadLocalRandom.current().nextLong(l2TtlSeconds / 10 + 1);
+            writeBehindBuffer.setValueIfVersion(key, objectMapper.writeValueAsString(profile), ttl, TimeUnit.SECONDS,
+                    versionKey, version);
+        } catch (JsonProcessingException e) {
+            logger.warn("Failed to cache profile for user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    private static String profileKey(long userId) {
+        return PROFILE_KEY_PREFIX + "{" + userId + "}";
+    }
+
+    private static String versionKey(long userId) {
+        return VERSION_KEY_PREFIX + "{" + userId + "}";
+    }
+
+    private static String versionOf(String cached) {
+        return cached == null ? INITIAL_VERSION : cached;
+    }
+
+    private double l2HitRatio() {
+        long hits = l2Hits.sum();
+        long total = hits + l2Misses.sum();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
@@ -70,6 +70,38 @@ public enum ExceptionEnum {
     PASSWORD_ERROR("20003", "密码错误"),
     /** 用户身份验证失败 */
     USER_IDENTITY_INVALID("20004", "用户身份验证失败"),
+    /** 刷新令牌无效或已被使用 */
+    REFRESH_TOKEN_INVALID("20005", "刷新令牌无效或已被使用，请重新登录"),
+    /** 登录请求过多，密码校验队列已满 */
+    USER_LOGIN_BUSY("20006", "登录人数过多，请稍后重试"),
+    /** 用户名已存在 */
+    USER_ALREADY_EXISTS("20007", "用户名已存在"),
+    /** 付款码格式错误或签名无效 */
+    PAYMENT_CODE_INVALID("20008", "付款码无效"),
+    /** 付款码已过期 */
+    PAYMENT_CODE_EXPIRED("20009", "付款码已过期，请刷新"),
+    /** 付款码已被使用 */
+    PAYMENT_CODE_USED("20010", "付款码已被使用，请刷新"),
+    /** 幂等键缺失或格式错误 */
+    IDEMPOTENCY_KEY_INVALID("20011", "Idempotency-Key 缺失或格式错误"),
+    /** 同一幂等键被用于内容不同的请求 */
+    IDEMPOTENCY_KEY_CONFLICT("20012", "Idempotency-Key 已被用于其他请求"),
+    /** 相同幂等键的请求仍在处理中 */
+    IDEMPOTENCY_REQUEST_IN_PROGRESS("20013", "请求正在处理中，请稍后重试"),
+    /** 收款方无效 */
+    PAYMENT_PAYEE_INVALID("20014", "收款方无效"),
+    /** 支付记录不存在 */
+    PAYMENT_NOT_FOUND("20015", "支付记录不存在"),
+    /** 账户余额不足 */
+    ACCOUNT_BALANCE_INSUFFICIENT("20016", "账户余额不足"),
+    /** 账户操作繁忙，等待锁超时 */
+    ACCOUNT_BUSY("20017", "账户操作繁忙，请稍后重试"),
+    /** 不支持的导出格式 */
+    EXPORT_FORMAT_INVALID("20018", "不支持的导出格式"),
+    /** 同时进行的导出任务已达上限 */
+    EXPORT_BUSY("20019", "导出任务过多，请稍后重试"),
+    /** 充值单号已被用于用户或金额不同的充值 */
+    DEPOSIT_REFERENCE_CONFLICT("20020", "充值单号已被用于其他充值"),
 
     // 管理员认证相关异常
     /** 管理员不存在 */
@@ -98,6 +130,8 @@ public enum ExceptionEnum {
     STRATEGY_MIN_AMOUNT_NOT_MET("40006", "未达到折扣策略最低消费金额"),
     /** 折扣策略不适用于当前用户 */
     STRATEGY_NOT_APPLICABLE("40007", "折扣策略不适用于当前用户"),
+    /** 当前用户使用该折扣策略的次数已达上限 */
+    STRATEGY_USER_LIMIT_REACHED("40008", "当前用户使用该折扣策略的次数已达上限"),
 
     ;
 
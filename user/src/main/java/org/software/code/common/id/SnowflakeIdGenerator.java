@@ -0,0 +1,200 @@
+package org.software.code.common.id;
+
+import com.baomidou.mybatisplus.core.incrementer.IdentifierGenerator;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.software.code.common.util.JwtUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Snowflake 风格的分布式ID生成器，同时作为 MyBatis-Plus 的 IdentifierGenerator，供 IdType.ASSIGN_ID 的实体使用。
+ * ID 由 41 位毫秒时间戳、10 位工作节点ID和 12 位序列号组成，按时间大致递增，插入时追加在索引末端。
+ * 生成状态（时间戳与序列号）打包在一个 AtomicLong 中，以 CAS 推进，不加锁；
+ * 每个线程一次预留一小段连续序列号，之后在线程本地分配，进一步减少 CAS 竞争。
+ * 序列号用完时借用下一毫秒，时钟小幅回拨时沿用逻辑时钟继续生成；
+ * 逻辑时钟领先系统时钟超过 max-drift-ms 时等待系统时钟追上，回拨超过 max-rollback-wait-ms 时拒绝生成。
+ * 工作节点ID通过 WorkerIdLease 从 Redis 租用，租约丢失后重新租用并丢弃各线程已预留的序列号。
+ * 本地记录租约的有效期限（最近一次成功续期的时间加租约时长，再减去 lease-safety-margin-ms 以容忍节点间的时钟偏差），
+ * Redis 不可用导致无法续期时，超过期限即拒绝生成，避免租约在 Redis 中过期、被其他节点占用后生成重复的ID。
+ * 线程预留的序列号只在预留时的那一毫秒内使用，空闲线程不会在之后发出时间戳过旧的ID，保证ID随时间递增。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Component
+public class SnowflakeIdGenerator implements IdentifierGenerator {
+
+    private static final Logger logger = LogManager.getLogger(SnowflakeIdGenerator.class);
+
+    // 时间戳起点 2025-01-01T00:00:00Z
+    private static final long EPOCH = 1735689600000L;
+    private static final int SEQUENCE_BITS = 12;
+    private static final int WORKER_BITS = 10;
+    private static final int TIMESTAMP_SHIFT = SEQUENCE_BITS + WORKER_BITS;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int MAX_WORKER_ID = (1 << WORKER_BITS) - 1;
+
+    // 每个线程一次预留的序列号个数，为 1 时每个ID都通过 CAS 分配
+    @Value("${user.id.block-size:16}")
+    private int blockSize;
+
+    @Value("${user.id.max-drift-ms:5}")
+    private long maxDriftMs;
+
+    @Value("${user.id.max-rollback-wait-ms:1000}")
+    private long maxRollbackWaitMs;
+
+    // 本地租约期限相对 Redis 中租约过期时间的提前量，需大于节点间可能的时钟偏差
+    @Value("${user.id.lease-safety-margin-ms:5000}")
+    private long leaseSafetyMarginMs;
+
+    @Resource
+    private WorkerIdLease workerIdLease;
+
+    // 最近一次分配出去的 (时间戳 << SEQUENCE_BITS | 序列号)
+    private final AtomicLong state = new AtomicLong();
+
+    // 各线程预留的ID区间：[下一个ID, 区间末尾（不包含）, 所属代数, 区间所在的毫秒（相对 EPOCH）]
+    private final ThreadLocal<long[]> blocks = ThreadLocal.withInitial(() -> new long[]{0, 0, -1, -1});
+
+    private volatile int workerId = -1;
+    private volatile long generation;
+    private volatile boolean leased;
+    // 本地认定的租约有效期限（毫秒时间戳），此后不再生成ID
+    private volatile long leaseValidUntil;
+    private volatile boolean closed;
+
+    @PostConstruct
+    public void init() {
+        takeLease();
+        JwtUtil.configureIdGenerator(this::nextId);
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        closed = true;
+        if (leased) {
+            leased = false;
+            workerIdLease.release(workerId, lastTimestamp());
+        }
+    }
+
+    @Override
+    public Long nextId(Object entity) {
+        return nextId();
+    }
+
+    /**
+     * 生成下一个ID
+     */
+    public long nextId() {
+        long[] block = blocks.get();
+        if (block[0] < block[1] && block[2] == generation && block[3] == System.currentTimeMillis() - EPOCH) {
+            return block[0]++;
+        }
+        return reserve(block);
+    }
+
+    /**
+     * 续期工作节点ID租约，租约已丢失时立即停止生成并重新租用；
+     * Redis 不可用时保留当前租约直到本地期限，之后的调度继续重试
+     */
+    @Scheduled(fixedDelayString = "${user.id.worker-renew-interval-ms:20000}")
+    public synchronized void renewLease() {
+        if (closed) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            if (!leased) {
+                takeLease();
+                return;
+            }
+            if (workerIdLease.renew(workerId, lastTimestamp())) {
+                leaseValidUntil = start + workerIdLease.getLeaseTtlMs() - leaseSafetyMarginMs;
+                return;
+            }
+            logger.warn("Lost lease of snowflake worker id {}, acquiring a new one", workerId);
+            leased = false;
+            takeLease();
+        } catch (RuntimeException e) {
+            logger.warn("Failed to renew snowflake worker id {}, ids available until {}: {}",
+                    workerId, leaseValidUntil, e.getMessage());
+        }
+    }
+
+    /**
+     * 通过 CAS 为当前线程预留一段同一毫秒内的连续序列号，并返回其中第一个ID
+     */
+    private long reserve(long[] block) {
+        while (true) {
+            if (!leased) {
+                throw new IllegalStateException("Snowflake worker id is not leased");
+            }
+            long currentGeneration = generation;
+            long workerBits = (long) workerId << SEQUENCE_BITS;
+            long current = state.get();
+            long now = System.currentTimeMillis() - EPOCH;
+            // 进入新的一毫秒时序列号从 0 开始，否则接着上次分配；序列号溢出时自然进位到下一毫秒
+            long start = (current >>> SEQUENCE_BITS) < now ? now << SEQUENCE_BITS : current + 1;
+            long timestamp = start >>> SEQUENCE_BITS;
+            if (timestamp + EPOCH >= leaseValidUntil) {
+                throw new IllegalStateException("Lease of snowflake worker id " + workerId + " has expired locally");
+            }
+            if (timestamp - now > maxDriftMs) {
+                waitForClock(timestamp - maxDriftMs, now);
+                continue;
+            }
+            long end = Math.min(start + blockSize, (timestamp + 1) << SEQUENCE_BITS);
+            if (state.compareAndSet(current, end - 1)) {
+                if (generation != currentGeneration) {
+                    // 预留期间重新租用了工作节点ID，读到的可能是已失去的旧ID，丢弃本次预留
+                    continue;
+                }
+                long first = compose(start, workerBits);
+                block[0] = first + 1;
+                block[1] = compose(end - 1, workerBits) + 1;
+                block[2] = currentGeneration;
+                block[3] = timestamp;
+                return first;
+            }
+        }
+    }
+
+    private void waitForClock(long target, long now) {
+        long behind = target - now;
+        if (behind > maxRollbackWaitMs) {
+            throw new IllegalStateException("Clock moved backwards by " + behind + " ms, refusing to generate ids");
+        }
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(behind));
+    }
+
+    private synchronized void takeLease() {
+        long start = System.currentTimeMillis();
+        int leasedId = workerIdLease.acquire(MAX_WORKER_ID);
+        // 从该工作节点ID上一个持有者最后使用的时间之后开始生成，并跳过当前（可能是借用的）毫秒剩余的序列号，换用新ID后本节点的ID仍然递增
+        long last = Math.max(workerIdLease.lastTimestamp(leasedId), System.currentTimeMillis()) - EPOCH;
+        state.accumulateAndGet(last << SEQUENCE_BITS | SEQUENCE_MASK,
+                (current, floor) -> Math.max(current | SEQUENCE_MASK, floor));
+        workerId = leasedId;
+        generation++;
+        leaseValidUntil = start + workerIdLease.getLeaseTtlMs() - leaseSafetyMarginMs;
+        leased = true;
+    }
+
+    private long lastTimestamp() {
+        return (state.get() >>> SEQUENCE_BITS) + EPOCH;
+    }
+
+    private static long compose(long packed, long workerBits) {
+        return (packed >>> SEQUENCE_BITS) << TIMESTAMP_SHIFT | workerBits | (packed & SEQUENCE_MASK);
+    }
+}
@@ -0,0 +1,124 @@
+package org.software.code.common.id;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.software.code.common.util.RedisUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snowflake 工作节点ID的 Redis 租约。
+ * 启动时从随机位置开始依次尝试用 SETNX 占用一个空闲的工作节点ID，持有期间定期续期；
+ * 续期和释放时记录该ID最后使用的时间戳，下一个持有者从该时间之后开始生成，避免时钟偏差导致重复。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Component
+public class WorkerIdLease {
+
+    private static final Logger logger = LogManager.getLogger(WorkerIdLease.class);
+
+    // 租约键和时间戳键，{} 内的工作节点ID作为集群哈希标签，保证两个键位于同一槽位
+    private static final String KEY_PREFIX = "user:id:worker:{";
+    private static final String LAST_TIMESTAMP_SUFFIX = ":last";
+
+    // 仍由本实例持有时续期并记录最后时间戳；KEYS 为租约键和时间戳键，ARGV 为实例标识、租约时长、时间戳
+    private static final String RENEW_SCRIPT =
+            "if redis.call('GET', KEYS[1]) ~= ARGV[1] then return 0 end " +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[2]) " +
+            "redis.call('SET', KEYS[2], ARGV[3]) " +
+            "return 1";
+
+    // 仍由本实例持有时释放并记录最后时间戳，参数同上
+    private static final String RELEASE_SCRIPT =
+            "if redis.call('GET', KEYS[1]) ~= ARGV[1] then return 0 end " +
+            "redis.call('DEL', KEYS[1]) " +
+            "redis.call('SET', KEYS[2], ARGV[3]) " +
+            "return 1";
+
+    private static final RedisScript<Long> RENEW = RedisScript.of(RENEW_SCRIPT, Long.class);
+    private static final RedisScript<Long> RELEASE = RedisScript.of(RELEASE_SCRIPT, Long.class);
+
+    @Value("${user.id.worker-lease-ttl-ms:60000}")
+    private long leaseTtlMs;
+
+    @Resource
+    private RedisUtil redisUtil;
+
+    // 本实例的唯一标识，作为租约的值
+    private final String instanceId = UUID.randomUUID().toString();
+
+    /**
+     * 租约时长（毫秒），续期成功后租约至少在此时长内有效
+     */
+    public long getLeaseTtlMs() {
+        return leaseTtlMs;
+    }
+
+    /**
+     * 占用一个空闲的工作节点ID
+     *
+     * @param maxWorkerId 工作节点ID的最大值
+     * @return 占用到的工作节点ID
+     */
+    public int acquire(int maxWorkerId) {
+        int start = ThreadLocalRandom.current().nextInt(maxWorkerId + 1);
+        for (int i = 0; i <= maxWorkerId; i++) {
+            int workerId = (start + i) % (maxWorkerId + 1);
+            if (redisUtil.setIfAbsent(leaseKey(workerId), instanceId, leaseTtlMs, TimeUnit.MILLISECONDS)) {
+                logger.info("Leased snowflake worker id {}", workerId);
+                return workerId;
+            }
+        }
+        throw new IllegalStateException("No free snowflake worker id");
+    }
+
+    /**
+     * 查询工作节点ID上一个持有者最后使用的时间戳，从未使用过时返回 0
+     */
+    public long lastTimestamp(int workerId) {
+        String value = redisUtil.getValue(leaseKey(workerId) + LAST_TIMESTAMP_SUFFIX);
+        return value == null ? 0 : Long.parseLong(value);
+    }
+
+    /**
+     * 续期租约
+     *
+     * @param workerId 工作节点ID
+     * @param lastTimestamp 目前已使用的最大时间戳（毫秒）
+     * @return 租约已不属于本实例时返回 false
+     */
+    public boolean renew(int workerId, long lastTimestamp) {
+        Long renewed = redisUtil.executeScript(RENEW, keysOf(workerId),
+                instanceId, Long.toString(leaseTtlMs), Long.toString(lastTimestamp));
+        return renewed != null && renewed == 1;
+    }
+
+    /**
+     * 释放租约
+     *
+     * @param workerId 工作节点ID
+     * @param lastTimestamp 已使用的最大时间戳（毫秒）
+     */
+    public void release(int workerId, long lastTimestamp) {
+        redisUtil.executeScript(RELEASE, keysOf(workerId),
+                instanceId, Long.toString(leaseTtlMs), Long.toString(lastTimestamp));
+    }
+
+    private static List<String> keysOf(int workerId) {
+        String leaseKey = leaseKey(workerId);
+        return Arrays.asList(leaseKey, leaseKey + LAST_TIMESTAMP_SUFFIX);
+    }
+
+    private static String leaseKey(int workerId) {
+        return KEY_PREFIX + workerId + "}";
+    }
+}
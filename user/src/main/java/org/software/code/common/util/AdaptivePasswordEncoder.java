@@ -0,0 +1,142 @@
+package org.software.code.common.util;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 根据延迟目标自动调整 BCrypt 强度的密码编码器。
+ * BCrypt 的耗时与 2^strength 成正比，每次哈希或校验都会记录单位轮次的耗时（指数加权平均），
+ * 并据此选出耗时不超过 target-latency-ms 的最大强度，限定在 [min-strength, max-strength] 之间。
+ * 强度只影响新生成的哈希；旧哈希强度低于当前强度时，登录成功后会被重新哈希。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Component
+public class AdaptivePasswordEncoder {
+
+    private static final Logger logger = LogManager.getLogger(AdaptivePasswordEncoder.class);
+
+    // 指数加权平均的平滑系数
+    private static final double ALPHA = 0.1;
+    // 调整强度的滞后量，避免在临界点附近来回切换
+    private static final double HYSTERESIS = 0.2;
+
+    // 单次哈希的目标耗时
+    @Value("${user.password.target-latency-ms:250}")
+    private long targetLatencyMs;
+
+    @Value("${user.password.min-strength:10}")
+    private int minStrength;
+
+    @Value("${user.password.max-strength:14}")
+    private int maxStrength;
+
+    private volatile BCryptPasswordEncoder encoder;
+    private volatile int strength;
+
+    // 单位轮次耗时（纳秒）的指数加权平均，以 double 的位模式保存
+    private final AtomicLong unitCostBits = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        strength = minStrength;
+        encoder = new BCryptPasswordEncoder(minStrength);
+        // 预热后测量一次作为初始值
+        encoder.encode("calibration");
+        long start = System.nanoTime();
+        encoder.encode("calibration");
+        unitCostBits.set(Double.doubleToLongBits((System.nanoTime() - start) / (double) (1L << minStrength)));
+        adjust();
+    }
+
+    /**
+     * 使用当前强度对明文密码进行哈希
+     */
+    public String encode(CharSequence rawPassword) {
+        BCryptPasswordEncoder current = encoder;
+        int currentStrength = strength;
+        long start = System.nanoTime();
+        String hash = current.encode(rawPassword);
+        observe(currentStrength, System.nanoTime() - start);
+        return hash;
+    }
+
+    /**
+     * 校验明文密码与哈希是否匹配，校验本身与当前强度无关
+     */
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        long start = System.nanoTime();
+        boolean matched = encoder.matches(rawPassword, encodedPassword);
+        int hashStrength = strengthOf(encodedPassword);
+        if (hashStrength > 0) {
+            observe(hashStrength, System.nanoTime() - start);
+        }
+        return matched;
+    }
+
+    /**
+     * 判断哈希的强度是否低于当前强度，需要重新哈希
+     */
+    public boolean upgradeEncoding(String encodedPassword) {
+        return encoder.upgradeEncoding(encodedPassword);
+    }
+
+    public int currentStrength() {
+        return strength;
+    }
+
+    private void observe(int hashStrength, long elapsedNanos) {
+        double sample = elapsedNanos / (double) (1L << hashStrength);
+        long prev;
+        long next;
+        do {
+            prev = unitCostBits.get();
+            next = Double.doubleToLongBits(Double.longBitsToDouble(prev) * (1 - ALPHA) + sample * ALPHA);
+        } while (!unitCostBits.compareAndSet(prev, next));
+        adjust();
+    }
+
+    private void adjust() {
+        double unitCost = Double.longBitsToDouble(unitCostBits.get());
+        double ideal = Math.log(TimeUnit.MILLISECONDS.toNanos(targetLatencyMs) / unitCost) / Math.log(2);
+        int current = strength;
+        int target = current;
+        if (Math.floor(ideal - HYSTERESIS) > current) {
+            target = (int) Math.floor(ideal - HYSTERESIS);
+        } else if (Math.floor(ideal + HYSTERESIS) < current) {
+            target = (int) Math.floor(ideal + HYSTERESIS);
+        }
+        target = Math.max(minStrength, Math.min(maxStrength, target));
+        if (target != current) {
+            synchronized (this) {
+                if (strength == current) {
+                    encoder = new BCryptPasswordEncoder(target);
+                    strength = target;
+                    logger.info("BCrypt strength adjusted from {} to {}, unit cost {} ns", current, target, (long) unitCost);
+                }
+            }
+        }
+    }
+
+    /**
+     * 从 $2a$10$... 形式的哈希中解析强度，格式不符时返回 -1
+     */
+    private static int strengthOf(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$') {
+            return -1;
+        }
+        char tens = encodedPassword.charAt(4);
+        char ones = encodedPassword.charAt(5);
+        if (!Character.isDigit(tens) || !Character.isDigit(ones)) {
+            return -1;
+        }
+        return (tens - '0') * 10 + (ones - '0');
+    }
+}
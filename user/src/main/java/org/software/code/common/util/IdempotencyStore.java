@@ -0,0 +1,285 @@
+package org.software.code.common.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Data;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.software.code.common.except.BusinessException;
+import org.software.code.common.except.ExceptionEnum;
+import org.software.code.common.result.Result;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * 基于 Redis 的幂等记录存储，保证同一幂等键的请求只执行一次，重复提交直接返回第一次的结果。
+ * 首个请求用 SETNX 写入处理中（PENDING）记录后执行业务，完成后将结果覆盖写为已完成（DONE）记录；
+ * 业务异常同样作为结果保存，重放时抛出相同的异常。非业务异常说明结果未知，删除记录以允许客户端重试。
+ * 同一实例上的并发重复请求直接等待第一个请求的 CompletableFuture，不访问 Redis；
+ * 其他实例上的并发重复请求轮询 Redis 直到结果写入或等待超时。
+ * 幂等键对应的请求指纹不一致时拒绝，防止客户端误用同一个键提交不同的请求。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Component
+public class IdempotencyStore {
+
+    private static final Logger logger = LogManager.getLogger(IdempotencyStore.class);
+
+    private static final String KEY_PREFIX = "idempotency:";
+    private static final Pattern KEY_PATTERN = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private static final String STATE_PENDING = "PENDING";
+    private static final String STATE_DONE = "DONE";
+
+    // 处理中记录的有效期，需大于业务执行的最长时间，实例崩溃后到期自动释放
+    @Value("${user.idempotency.pending-ttl-ms:30000}")
+    private long pendingTtlMs;
+
+    // 结果的保留时长，覆盖客户端的重试窗口
+    @Value("${user.idempotency.result-ttl-ms:86400000}")
+    private long resultTtlMs;
+
+    // 重复请求等待第一个请求完成的最长时间
+    @Value("${user.idempotency.wait-timeout-ms:5000}")
+    private long waitTimeoutMs;
+
+    @Value("${user.idempotency.poll-interval-ms:20}")
+    private long pollIntervalMs;
+
+    @Resource
+    private RedisUtil redisUtil;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    // 本实例上正在执行的请求
+    private final ConcurrentMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    private Timer executed;
+    private Timer replayed;
+    private Timer coalesced;
+
+    @PostConstruct
+    public void init() {
+        executed = requestTimer("executed");
+        replayed = requestTimer("replayed");
+        coalesced = requestTimer("coalesced");
+    }
+
+    /**
+     * 幂等地执行请求
+     *
+     * @param scope 幂等键的作用域，如 payment:{userId}，不同作用域的相同幂等键互不影响
+     * @param idempotencyKey 客户端提交的幂等键
+     * @param fingerprint 请求内容的指纹
+     * @param dataType 结果数据的类型，用于反序列化保存的结果
+     * @param action 业务逻辑
+     * @return 第一次执行的结果
+     */
+    public <T> Result<T> execute(String scope, String idempotencyKey, String fingerprint,
+                                 Class<T> dataType, Supplier<T> action) {
+        if (idempotencyKey == null || !KEY_PATTERN.matcher(idempotencyKey).matches()) {
+            throw new BusinessException(ExceptionEnum.IDEMPOTENCY_KEY_INVALID);
+        }
+        long start = System.nanoTime();
+        String key = KEY_PREFIX + scope + ":" + idempotencyKey;
+        InFlight current = new InFlight(fingerprint);
+        InFlight existing = inFlight.putIfAbsent(key, current);
+        if (existing != null) {
+            Result<T> result = awaitInFlight(existing, fingerprint);
+            coalesced.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        }
+        try {
+            Result<T> result = executeOnce(key, fingerprint, dataType, action, start);
+            current.future.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            current.future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, current);
+        }
+    }
+
+    private <T> Result<T> executeOnce(String key, String fingerprint, Class<T> dataType,
+                                      Supplier<T> action, long start) {
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(waitTimeoutMs);
+        while (true) {
+            if (redisUtil.setIfAbsent(key, encode(new IdempotencyRecord(STATE_PENDING, fingerprint)),
+                    pendingTtlMs, TimeUnit.MILLISECONDS)) {
+                Result<T> result = runAndStore(key, fingerprint, action);
+                executed.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return result;
+            }
+            IdempotencyRecord record = decode(redisUtil.getValue(key));
+            // 记录在 SETNX 与 GET 之间过期或被删除，重新尝试
+            if (record == null) {
+                continue;
+            }
+            if (!fingerprint.equals(record.getFingerprint())) {
+                throw new BusinessException(ExceptionEnum.IDEMPOTENCY_KEY_CONFLICT);
+            }
+            if (STATE_DONE.equals(record.getState())) {
+                Result<T> result = replay(record, dataType);
+                replayed.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return result;
+            }
+            // 其他实例正在处理
+            if (System.nanoTime() - deadline > 0) {
+                throw new BusinessException(ExceptionEnum.IDEMPOTENCY_REQUEST_IN_PROGRESS);
+            }
+            try {
+                Thread.sleep(pollIntervalMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BusinessException(ExceptionEnum.IDEMPOTENCY_REQUEST_IN_PROGRESS);
+            }
+        }
+    }
+
+    private <T> Result<T> runAndStore(String key, String fingerprint, Supplier<T> action) {
+        T data;
+        try {
+            data = action.get();
+        } catch (BusinessException e) {
+            IdempotencyRecord record = new IdempotencyRecord(STATE_DONE, fingerprint);
+            record.setErrorCode(e.getCode());
+            record.setErrorMessage(e.getMsg());
+            store(key, record);
+            throw e;
+        } catch (RuntimeException e) {
+            redisUtil.deleteValue(key);
+            throw e;
+        }
+        Result<T> result = Result.success(data);
+        IdempotencyRecord record = new IdempotencyRecord(STATE_DONE, fingerprint);
+        try {
+            record.setResponse(objectMapper.writeValueAsString(result));
+        } catch (JsonProcessingException e) {
+            // 结果无法保存时不保留记录，之后的重复请求由业务层的唯一约束兜底
+            logger.error("Failed to serialize idempotent result for {}", key, e);
+            redisUtil.deleteValue(key);
+            return result;
+        }
+        store(key, record);
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Result<T> awaitInFlight(InFlight existing, String fingerprint) {
+        if (!existing.fingerprint.equals(fingerprint)) {
+            throw new BusinessException(ExceptionEnum.IDEMPOTENCY_KEY_CONFLICT);
+        }
+        try {
+            return (Result<T>) existing.future.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new BusinessException(ExceptionEnum.RUN_EXCEPTION);
+        } catch (TimeoutException e) {
+            throw new BusinessException(ExceptionEnum.IDEMPOTENCY_REQUEST_IN_PROGRESS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ExceptionEnum.IDEMPOTENCY_REQUEST_IN_PROGRESS);
+        }
+    }
+
+    private <T> Result<T> replay(IdempotencyRecord record, Class<T> dataType) {
+        if (record.getErrorCode() != null) {
+            throw new BusinessException(record.getErrorCode(), record.getErrorMessage());
+        }
+        JavaType type = objectMapper.getTypeFactory().constructParametricType(Result.class, dataType);
+        try {
+            return objectMapper.readValue(record.getResponse(), type);
+        } catch (JsonProcessingException e) {
+            throw new BusinessException(ExceptionEnum.RUN_EXCEPTION);
+        }
+    }
+
+    private void store(String key, IdempotencyRecord record) {
+        redisUtil.setValue(key, encode(record), resultTtlMs, TimeUnit.MILLISECONDS);
+    }
+
+    private String encode(IdempotencyRecord record) {
+        try {
+            return objectMapper.writeValueAsString(record);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private IdempotencyRecord decode(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(value, IdempotencyRecord.class);
+        } catch (JsonProcessingException e) {
+            logger.warn("Discarding unreadable idempotency record: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private Timer requestTimer(String outcome) {
+        return Timer.builder("user.idempotency.request")
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 保存在 Redis 中的幂等记录
+     */
+    @Data
+    public static class IdempotencyRecord {
+        // PENDING 或 DONE
+        private String state;
+        // 请求指纹
+        private String fingerprint;
+        // 成功结果的 JSON
+        private String response;
+        // 业务异常的错误码和错误信息
+        private String errorCode;
+        private String errorMessage;
+
+        public IdempotencyRecord() {
+        }
+
+        public IdempotencyRecord(String state, String fingerprint) {
+            this.state = state;
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    /**
+     * 本实例上正在执行的请求
+     */
+    private static final class InFlight {
+        private final String fingerprint;
+        private final CompletableFuture<Result<?>> future = new CompletableFuture<>();
+
+        private InFlight(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+}
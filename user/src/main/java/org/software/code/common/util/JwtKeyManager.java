@@ -0,0 +1,128 @@
+package org.software.code.common.util;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.impl.TextCodec;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.software.code.config.JwtProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * JwtKeyManager 负责加载 jwt.keys 中配置的密钥，启动时一次性构建好签名密钥、验签密钥和 JWT 解析器，
+ * 避免每次签发或解析 Token 时重新从字符串派生密钥。
+ * 支持 HS256、RS256 和 ES256：签发时使用 activeKid 对应的密钥并在头部写入 kid，
+ * 验签时按 kid 选择密钥，多把密钥可同时生效以支持轮换。
+ * 密钥没有默认值：未配置密钥、active-kid 没有对应的密钥或 HMAC 密钥短于 32 字节时启动失败。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Component
+public class JwtKeyManager extends SigningKeyResolverAdapter {
+
+    private static final Logger logger = LogManager.getLogger(JwtKeyManager.class);
+
+    // HMAC 密钥的最小长度（字节）
+    private static final int MIN_HMAC_SECRET_LENGTH = 32;
+
+    @Resource
+    private JwtProperties jwtProperties;
+
+    // 按 kid 索引的验签密钥及其算法
+    private final Map<String, Key> verificationKeys = new HashMap<>();
+    private final Map<String, SignatureAlgorithm> algorithms = new HashMap<>();
+
+    private String activeKid;
+    private Key signingKey;
+    private SignatureAlgorithm signingAlgorithm;
+    private JwtParser parser;
+
+    @PostConstruct
+    public void init() {
+        for (JwtProperties.KeySpec spec : jwtProperties.getKeys()) {
+            SignatureAlgorithm algorithm = SignatureAlgorithm.forName(spec.getAlgorithm());
+            algorithms.put(spec.getKid(), algorithm);
+            try {
+                if (algorithm.isHmac()) {
+                    byte[] secret = TextCodec.BASE64.decode(spec.getSecret());
+                    if (secret.length < MIN_HMAC_SECRET_LENGTH) {
+                        throw new IllegalArgumentException("HMAC secret shorter than " + MIN_HMAC_SECRET_LENGTH + " bytes");
+                    }
+                    Key key = new SecretKeySpec(secret, algorithm.getJcaName());
+                    verificationKeys.put(spec.getKid(), key);
+                    if (spec.getKid().equals(jwtProperties.getActiveKid())) {
+                        signingKey = key;
+                    }
+                } else {
+                    KeyFactory keyFactory = KeyFactory.getInstance(algorithm.isRsa() ? "RSA" : "EC");
+                    verificationKeys.put(spec.getKid(),
+                            keyFactory.generatePublic(new X509EncodedKeySpec(decodePem(spec.getPublicKey()))));
+                    if (spec.getKid().equals(jwtProperties.getActiveKid())) {
+                        signingKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(decodePem(spec.getPrivateKey())));
+                    }
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException("Invalid JWT key configuration: " + spec.getKid(), e);
+            }
+        }
+        if (signingKey == null) {
+            throw new IllegalStateException("No signing key configured for active kid: " + jwtProperties.getActiveKid());
+        }
+        activeKid = jwtProperties.getActiveKid();
+        signingAlgorithm = algorithms.get(activeKid);
+        parser = Jwts.parser().setSigningKeyResolver(this);
+        JwtUtil.configure(this);
+        logger.info("JWT keys loaded: {}, active kid: {}", verificationKeys.keySet(), activeKid);
+    }
+
+    @Override
+    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+        String kid = StringUtils.hasText(header.getKeyId()) ? header.getKeyId() : activeKid;
+        Key key = verificationKeys.get(kid);
+        if (key == null) {
+            throw new IllegalArgumentException("Unknown JWT key id: " + kid);
+        }
+        // 拒绝与密钥配置不一致的算法，防止算法混淆攻击
+        if (!algorithms.get(kid).getValue().equals(header.getAlgorithm())) {
+            throw new IllegalArgumentException("JWT algorithm mismatch for key id: " + kid);
+        }
+        return key;
+    }
+
+    public JwtParser parser() {
+        return parser;
+    }
+
+    public String activeKid() {
+        return activeKid;
+    }
+
+    public Key signingKey() {
+        return signingKey;
+    }
+
+    public SignatureAlgorithm signingAlgorithm() {
+        return signingAlgorithm;
+    }
+
+    private static byte[] decodePem(String pem) {
+        String body = pem.replaceAll("-----[A-Z ]+-----", "").replaceAll("\\s", "");
+        return Base64.getDecoder().decode(body);
+    }
+}
@@ -1,14 +1,17 @@
 package org.software.code.common.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.software.code.common.except.BusinessException;
 import org.software.code.common.except.ExceptionEnum;
 
 import java.util.Date;
+import java.util.UUID;
+import java.util.function.LongSupplier;
 /**
  * JWTUtil 是一个工具类，用于处理 JSON Web Token（JWT）的生成和解析操作。
  * JWT 是一种用于在网络应用间安全传输信息的开放标准（RFC 7519），
@@ -21,9 +24,40 @@ public class JwtUtil {
 
     // 创建一个日志记录器，用于记录与 JWT 操作相关的日志信息
     private static final Logger logger = LogManager.getLogger(JwtUtil.class);
-    // 定义 JWT 的签名密钥，用于对 JWT 进行签名和验证，确保 JWT 的完整性和真实性
-    // 在实际应用中，应将此密钥妥善保管，避免泄露
-    private static String secretKey = "secret_key";
+    // 由 JwtKeyManager 在启动时注入，持有预先构建好的签名密钥和按 kid 选择密钥的解析器；没有回退的默认密钥
+    private static volatile JwtKeyManager keyManager;
+
+    // 由 SnowflakeIdGenerator 在启动时注入，用于生成 jti；未注入时回退为随机 UUID
+    private static volatile LongSupplier idGenerator;
+
+    // Token 类型常量，与网关保持一致
+    public static final String ACCESS_TOKEN = "access_token";
+    public static final String REFRESH_TOKEN = "refresh_token";
+
+    // Claims 键名常量，与网关保持一致
+    public static final String CLAIM_USER_ID = "userId";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_TOKEN_TYPE = "tokenType";
+    // 毫秒精度的签发时间，标准的 iat 只精确到秒，用户级吊销按它判断
+    public static final String CLAIM_ISSUED_AT_MS = "iatMs";
+
+    /**
+     * 注入密钥管理器，之后的签发和验签均使用其预先构建的密钥对象。
+     *
+     * @param manager 密钥管理器
+     */
+    public static void configure(JwtKeyManager manager) {
+        keyManager = manager;
+    }
+
+    /**
+     * 注入 jti 生成器。
+     *
+     * @param generator 唯一ID生成器
+     */
+    public static void configureIdGenerator(LongSupplier generator) {
+        idGenerator = generator;
+    }
 
     /**
      * 生成 JWT Token 的方法。
@@ -35,21 +69,61 @@ public class JwtUtil {
      */
     public static String generateJWToken(long id, long expirationTime) {
         // 使用 Jwts.builder() 方法创建一个 JWT 构建器，用于构建 JWT
+        // 设置 JWT 的唯一标识（jti），用于注销时吊销单个 Token
         // 设置 JWT 的主题为用户 ID 的字符串形式
         // 设置 JWT 的签发时间为当前时间
         // 设置 JWT 的过期时间为当前时间加上传入的过期时间
-        // 使用 HS256 签名算法和预定义的密钥对 JWT 进行签名
+        // 使用当前生效的密钥及其算法对 JWT 进行签名，并在头部写入 kid
         // 调用 compact() 方法将构建好的 JWT 转换为字符串形式
-        String qrcode_token = Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
+                .setId(nextJti())
                 .setSubject(Long.toString(id))
                 .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + expirationTime))
-                .signWith(SignatureAlgorithm.HS256, secretKey)
-                .compact();
+                .setExpiration(new Date(System.currentTimeMillis() + expirationTime));
+        String qrcode_token = sign(builder);
 
         return qrcode_token;
     }
 
+    /**
+     * 生成携带用户身份信息的 JWT Token 的方法。
+     * 载荷中包含网关所需的 userId、role 和 tokenType，并以 jti 唯一标识该 Token。
+     *
+     * @param userId 用户ID，同时作为 JWT 的主题（Subject）
+     * @param role 用户角色，为 null 时不写入
+     * @param tokenType Token 类型，取值为 ACCESS_TOKEN 或 REFRESH_TOKEN
+     * @param expirationTime JWT 的过期时间，单位为毫秒，从当前时间开始计算
+     * @return 生成的 JWT Token 字符串
+     */
+    public static String generateToken(long userId, String role, String tokenType, long expirationTime) {
+        long now = System.currentTimeMillis();
+        return generateToken(userId, role, tokenType, now, now + expirationTime);
+    }
+
+    /**
+     * 生成携带用户身份信息、签发时间和过期时间均已确定的 JWT Token 的方法。
+     * 刷新令牌轮换时使用，新令牌沿用原会话的过期时间。
+     *
+     * @param userId 用户ID，同时作为 JWT 的主题（Subject）
+     * @param role 用户角色，为 null 时不写入
+     * @param tokenType Token 类型，取值为 ACCESS_TOKEN 或 REFRESH_TOKEN
+     * @param issuedAt 签发时间（毫秒时间戳）
+     * @param expiresAt 过期时间（毫秒时间戳）
+     * @return 生成的 JWT Token 字符串
+     */
+    public static String generateToken(long userId, String role, String tokenType, long issuedAt, long expiresAt) {
+        JwtBuilder builder = Jwts.builder()
+                .setId(nextJti())
+                .setSubject(Long.toString(userId))
+                .claim(CLAIM_USER_ID, userId)
+                .claim(CLAIM_ROLE, role)
+                .claim(CLAIM_TOKEN_TYPE, tokenType)
+                .claim(CLAIM_ISSUED_AT_MS, issuedAt)
+                .setIssuedAt(new Date(issuedAt))
+                .setExpiration(new Date(expiresAt));
+        return sign(builder);
+    }
+
     /**
      * 从给定的 JWT（JSON Web Token）中提取用户 ID 的方法。
      * 解析传入的 JWT，从中获取存储在主题（Subject）中的用户 ID。
@@ -65,14 +139,77 @@ public class JwtUtil {
             // 设置签名密钥，用于验证 JWT 的签名
             // 调用 parseClaimsJws() 方法解析 JWT，并获取其载荷部分
             // 从载荷中获取主题（Subject），并将其转换为长整型的用户 ID
-            Claims claims = Jwts.parser().setSigningKey(secretKey).parseClaimsJws(token).getBody();
+            Claims claims = parse(token);
             return Long.parseLong(claims.getSubject());
         } catch (Exception e) {
-            // 如果解析过程中出现异常，记录错误日志，包括 Token 信息和异常消息
-            logger.error("Failed to extract ID from token: {}, error: {}", token, e.getMessage());
+            // 如果解析过程中出现异常，记录警告日志，只包含异常类型和消息，不记录 Token 本身
+            logger.warn("Failed to extract ID: {}: {}", e.getClass().getSimpleName(), e.getMessage());
             // 抛出一个自定义的业务异常，提示 Token 过期或无效
             throw new BusinessException(ExceptionEnum.TOKEN_EXPIRED);
         }
     }
-}
 
+    /**
+     * 解析并验证给定的 JWT，返回其载荷部分。
+     *
+     * @param token 待解析的 JWT Token 字符串
+     * @return JWT 的载荷（Claims）
+     * @throws BusinessException 如果 Token 过期或签名验证失败，异常类型为 ExceptionEnum.TOKEN_EXPIRED
+     */
+    public static Claims parseClaims(String token) throws BusinessException {
+        try {
+            return parse(token);
+        } catch (Exception e) {
+            logger.warn("Failed to parse token: {}: {}", e.getClass().getSimpleName(), e.getMessage());
+            throw new BusinessException(ExceptionEnum.TOKEN_EXPIRED);
+        }
+    }
+
+    /**
+     * 读取 Token 的签发时间（毫秒时间戳）。
+     * 优先使用 iatMs，旧版本 Token 没有 iatMs 时使用只精确到秒的 iat，都没有时返回 0。
+     *
+     * @param claims 已验证的 JWT 载荷
+     * @return 签发时间（毫秒时间戳）
+     */
+    public static long issuedAtMillis(Claims claims) {
+        Number issuedAtMs = claims.get(CLAIM_ISSUED_AT_MS, Number.class);
+        if (issuedAtMs != null) {
+            return issuedAtMs.longValue();
+        }
+        return claims.getIssuedAt() == null ? 0L : claims.getIssuedAt().getTime();
+    }
+
+    /**
+     * 生成 Token 的唯一标识 jti。
+     */
+    private static String nextJti() {
+        LongSupplier generator = idGenerator;
+        return generator == null ? UUID.randomUUID().toString() : Long.toString(generator.getAsLong());
+    }
+
+    /**
+     * 使用当前生效的密钥对 JWT 签名。
+     */
+    private static String sign(JwtBuilder builder) {
+        JwtKeyManager manager = requireKeyManager();
+        return builder.setHeaderParam(JwsHeader.KEY_ID, manager.activeKid())
+                .signWith(manager.signingAlgorithm(), manager.signingKey())
+                .compact();
+    }
+
+    /**
+     * 验证签名并解析 JWT 的载荷。
+     */
+    private static Claims parse(String token) {
+        return requireKeyManager().parser().parseClaimsJws(token).getBody();
+    }
+
+    private static JwtKeyManager requireKeyManager() {
+        JwtKeyManager manager = keyManager;
+        if (manager == null) {
+            throw new IllegalStateException("JWT keys are not configured");
+        }
+        return manager;
+    }
+}
@@ -0,0 +1,166 @@
+package org.software.code.common.util;
+
+import com.google.common.io.BaseEncoding;
+import lombok.Getter;
+import org.software.code.common.except.BusinessException;
+import org.software.code.common.except.ExceptionEnum;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 付款码编解码器。付款码为定长 24 字节的二进制结构，经 Base32 编码为 39 个字符：
+ * <pre>
+ * | 版本 1 | 用户ID 8 | 签发时间（epoch 秒）4 | 随机数 3 | HMAC-SHA256 截断 8 |
+ * </pre>
+ * Base32 只包含大写字母和数字，二维码可使用字母数字模式编码，符号版本远低于承载 JWT 时的版本。
+ * 校验只需一次 HMAC 计算和一次定长比较，不涉及 JSON 解析。
+ * HMAC 密钥没有默认值，未配置或短于 32 字节时启动失败，避免使用公开的密钥签发可伪造的付款码。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Component
+public class PaymentCodeCodec {
+
+    // 付款码格式版本
+    private static final byte VERSION = 1;
+    private static final int PAYLOAD_LENGTH = 16;
+    private static final int MAC_LENGTH = 8;
+    private static final int CODE_LENGTH = PAYLOAD_LENGTH + MAC_LENGTH;
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    // 密钥的最小长度（字节），与 HMAC-SHA256 的输出长度一致
+    private static final int MIN_SECRET_LENGTH = 32;
+
+    private static final BaseEncoding BASE32 = BaseEncoding.base32().omitPadding();
+
+    @Value("${user.payment-code.secret:}")
+    private String secret;
+
+    private ThreadLocal<Mac> macs;
+
+    @PostConstruct
+    public void init() {
+        byte[] secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+        if (secretBytes.length < MIN_SECRET_LENGTH) {
+            throw new IllegalStateException("user.payment-code.secret must be configured with at least "
+                    + MIN_SECRET_LENGTH + " bytes");
+        }
+        SecretKeySpec key = new SecretKeySpec(secretBytes, HMAC_ALGORITHM);
+        macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Failed to initialize payment code HMAC", e);
+            }
+        });
+    }
+
+    /**
+     * 生成付款码
+     *
+     * @param userId 用户ID
+     * @param issuedAtSeconds 签发时间（epoch 秒）
+     * @return Base32 编码的付款码
+     */
+    public String encode(long userId, long issuedAtSeconds) {
+        byte[] code = new byte[CODE_LENGTH];
+        code[0] = VERSION;
+        writeLong(code, 1, userId);
+        writeInt(code, 9, (int) issuedAtSeconds);
+        int nonce = ThreadLocalRandom.current().nextInt();
+        code[13] = (byte) (nonce >>> 16);
+        code[14] = (byte) (nonce >>> 8);
+        code[15] = (byte) nonce;
+        byte[] mac = sign(code);
+        System.arraycopy(mac, 0, code, PAYLOAD_LENGTH, MAC_LENGTH);
+        return BASE32.encode(code);
+    }
+
+    /**
+     * 解码并校验付款码的签名，不检查有效期和是否已使用
+     *
+     * @param code Base32 编码的付款码
+     * @return 付款码中的信息
+     * @throws BusinessException 格式错误或签名无效时抛出 PAYMENT_CODE_INVALID
+     */
+    public PaymentCode decode(String code) {
+        byte[] bytes;
+        try {
+            bytes = BASE32.decode(code);
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(ExceptionEnum.PAYMENT_CODE_INVALID);
+        }
+        if (bytes.length != CODE_LENGTH || bytes[0] != VERSION) {
+            throw new BusinessException(ExceptionEnum.PAYMENT_CODE_INVALID);
+        }
+        // 定长比较，耗时与签名内容无关
+        byte[] expected = sign(bytes);
+        int diff = 0;
+        for (int i = 0; i < MAC_LENGTH; i++) {
+            diff |= expected[i] ^ bytes[PAYLOAD_LENGTH + i];
+        }
+        if (diff != 0) {
+            throw new BusinessException(ExceptionEnum.PAYMENT_CODE_INVALID);
+        }
+        return new PaymentCode(readLong(bytes, 1), readInt(bytes, 9) & 0xFFFFFFFFL,
+                BASE32.encode(bytes, PAYLOAD_LENGTH, MAC_LENGTH));
+    }
+
+    private byte[] sign(byte[] code) {
+        Mac mac = macs.get();
+        mac.update(code, 0, PAYLOAD_LENGTH);
+        return mac.doFinal();
+    }
+
+    private static void writeLong(byte[] out, int offset, long value) {
+        for (int i = 7; i >= 0; i--) {
+            out[offset + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+
+    private static void writeInt(byte[] out, int offset, int value) {
+        out[offset] = (byte) (value >>> 24);
+        out[offset + 1] = (byte) (value >>> 16);
+        out[offset + 2] = (byte) (value >>> 8);
+        out[offset + 3] = (byte) value;
+    }
+
+    private static long readLong(byte[] in, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (in[offset + i] & 0xFF);
+        }
+        return value;
+    }
+
+    private static int readInt(byte[] in, int offset) {
+        return ((in[offset] & 0xFF) << 24) | ((in[offset + 1] & 0xFF) << 16)
+                | ((in[offset + 2] & 0xFF) << 8) | (in[offset + 3] & 0xFF);
+    }
+
+    /**
+     * 解码后的付款码
+     */
+    @Getter
+    public static final class PaymentCode {
+        private final long userId;
+        private final long issuedAtSeconds;
+        // 签名的 Base32 形式，唯一标识一个付款码，用作防重放的键
+        private final String signature;
+
+        private PaymentCode(long userId, long issuedAtSeconds, String signature) {
+            this.userId = userId;
+            this.issuedAtSeconds = issuedAtSeconds;
+            this.signature = signature;
+        }
+    }
+}
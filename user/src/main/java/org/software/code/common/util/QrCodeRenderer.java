@@ -0,0 +1,194 @@
+package org.software.code.common.util;
+
+import com.google.zxing.WriterException;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.Encoder;
+import org.software.code.common.except.BusinessException;
+import org.software.code.common.except.ExceptionEnum;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * 二维码渲染器，将字符串编码为 QR 码并输出 PNG 或 SVG。
+ * PNG 直接由模块矩阵生成 1 位灰度扫描线并压缩，不经过 BufferedImage 和 ImageIO；
+ * 扫描线缓冲区、压缩缓冲区、Deflater 和 CRC32 按线程复用，每次渲染只分配最终的结果数组。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Component
+public class QrCodeRenderer {
+
+    // 二维码四周的静区宽度（模块数），规范要求至少 4 个模块
+    private static final int QUIET_ZONE = 4;
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] IHDR = "IHDR".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] IDAT = "IDAT".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] IEND = "IEND".getBytes(StandardCharsets.US_ASCII);
+
+    private static final ThreadLocal<RenderBuffers> BUFFERS = ThreadLocal.withInitial(RenderBuffers::new);
+
+    // 每个模块在 PNG 中占用的像素数
+    @Value("${user.payment-code.module-size:8}")
+    private int moduleSize;
+
+    /**
+     * 将内容渲染为 PNG 图片
+     *
+     * @param content 二维码内容
+     * @return PNG 文件的字节
+     */
+    public byte[] renderPng(String content) {
+        byte[][] modules = encode(content);
+        int size = (modules.length + 2 * QUIET_ZONE) * moduleSize;
+        int stride = ((size + 7) >>> 3) + 1;
+        RenderBuffers buffers = BUFFERS.get();
+        byte[] raw = buffers.raw(stride * size);
+
+        int pos = 0;
+        for (int py = 0; py < size; py++) {
+            if (py % moduleSize != 0) {
+                // 同一模块行内的像素行完全相同，直接复制上一行
+                System.arraycopy(raw, pos - stride, raw, pos, stride);
+                pos += stride;
+                continue;
+            }
+            // 每行以过滤类型 0（None）开头，像素默认为白色（1）
+            raw[pos] = 0;
+            Arrays.fill(raw, pos + 1, pos + stride, (byte) 0xFF);
+            int my = py / moduleSize - QUIET_ZONE;
+            if (my >= 0 && my < modules.length) {
+                byte[] row = modules[my];
+                for (int mx = 0; mx < row.length; mx++) {
+                    if (row[mx] == 1) {
+                        int px = (mx + QUIET_ZONE) * moduleSize;
+                        for (int end = px + moduleSize; px < end; px++) {
+                            raw[pos + 1 + (px >>> 3)] &= ~(0x80 >>> (px & 7));
+                        }
+                    }
+                }
+            }
+            pos += stride;
+        }
+
+        int compressedLength = buffers.deflate(raw, pos);
+        byte[] png = new byte[PNG_SIGNATURE.length + 12 + 13 + 12 + compressedLength + 12];
+        System.arraycopy(PNG_SIGNATURE, 0, png, 0, PNG_SIGNATURE.length);
+        int offset = PNG_SIGNATURE.length;
+
+        byte[] header = buffers.header;
+        writeInt(header, 0, size);
+        writeInt(header, 4, size);
+        header[8] = 1;  // 位深度
+        header[9] = 0;  // 灰度
+        header[10] = 0; // 压缩方式
+        header[11] = 0; // 过滤方式
+        header[12] = 0; // 不隔行
+        offset = writeChunk(png, offset, IHDR, header, 13, buffers.crc);
+        offset = writeChunk(png, offset, IDAT, buffers.compressed, compressedLength, buffers.crc);
+        writeChunk(png, offset, IEND, header, 0, buffers.crc);
+        return png;
+    }
+
+    /**
+     * 将内容渲染为 SVG 图片，每一段连续的深色模块输出为一个矩形路径
+     *
+     * @param content 二维码内容
+     * @return SVG 文档
+     */
+    public String renderSvg(String content) {
+        byte[][] modules = encode(content);
+        int size = modules.length + 2 * QUIET_ZONE;
+        StringBuilder svg = BUFFERS.get().svg;
+        svg.setLength(0);
+        svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\" viewBox=\"0 0 ").append(size).append(' ').append(size)
+                .append("\" shape-rendering=\"crispEdges\"><rect width=\"100%\" height=\"100%\" fill=\"#fff\"/>")
+                .append("<path fill=\"#000\" d=\"");
+        for (int y = 0; y < modules.length; y++) {
+            byte[] row = modules[y];
+            int x = 0;
+            while (x < row.length) {
+                if (row[x] != 1) {
+                    x++;
+                    continue;
+                }
+                int start = x;
+                while (x < row.length && row[x] == 1) {
+                    x++;
+                }
+                svg.append('M').append(start + QUIET_ZONE).append(' ').append(y + QUIET_ZONE)
+                        .append('h').append(x - start).append("v1h-").append(x - start).append('z');
+            }
+        }
+        return svg.append("\"/></svg>").toString();
+    }
+
+    /**
+     * 编码为模块矩阵，按 [y][x] 索引，1 表示深色模块
+     */
+    private static byte[][] encode(String content) {
+        try {
+            return Encoder.encode(content, ErrorCorrectionLevel.M).getMatrix().getArray();
+        } catch (WriterException e) {
+            throw new BusinessException(ExceptionEnum.RUN_EXCEPTION);
+        }
+    }
+
+    private static int writeChunk(byte[] out, int offset, byte[] type, byte[] data, int length, CRC32 crc) {
+        writeInt(out, offset, length);
+        System.arraycopy(type, 0, out, offset + 4, 4);
+        System.arraycopy(data, 0, out, offset + 8, length);
+        crc.reset();
+        crc.update(out, offset + 4, length + 4);
+        writeInt(out, offset + 8 + length, (int) crc.getValue());
+        return offset + 12 + length;
+    }
+
+    private static void writeInt(byte[] out, int offset, int value) {
+        out[offset] = (byte) (value >>> 24);
+        out[offset + 1] = (byte) (value >>> 16);
+        out[offset + 2] = (byte) (value >>> 8);
+        out[offset + 3] = (byte) value;
+    }
+
+    /**
+     * 单个线程复用的渲染缓冲区
+     */
+    private static final class RenderBuffers {
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private final CRC32 crc = new CRC32();
+        private final byte[] header = new byte[13];
+        private final StringBuilder svg = new StringBuilder(4096);
+        private byte[] raw = new byte[0];
+        private byte[] compressed = new byte[4096];
+
+        private byte[] raw(int length) {
+            if (raw.length < length) {
+                raw = new byte[length];
+            }
+            return raw;
+        }
+
+        /**
+         * 压缩扫描线数据到 compressed 中，返回压缩后的长度
+         */
+        private int deflate(byte[] input, int length) {
+            deflater.reset();
+            deflater.setInput(input, 0, length);
+            deflater.finish();
+            int written = 0;
+            while (!deflater.finished()) {
+                if (written == compressed.length) {
+                    compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                }
+                written += deflater.deflate(compressed, written, compressed.length - written);
+            }
+            return written;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.software.code.common.util;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 定时任务的 Redis 互斥锁，保证多个实例中同一时间只有一个实例执行同一个任务。
+ * 加锁时写入本次持有的随机令牌，释放时由 Lua 脚本比较令牌后再删除，
+ * 锁过期后被其他实例取得时，原持有者结束时不会删掉别人的锁。锁的过期时间应长于任务最长的执行时间。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Component
+public class RedisJobLock {
+
+    private static final Logger logger = LogManager.getLogger(RedisJobLock.class);
+
+    // 仍由本次持有时删除锁；KEYS[1] 为锁键，ARGV[1] 为加锁时的令牌
+    private static final String RELEASE_SCRIPT =
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end " +
+            "return 0";
+
+    private static final RedisScript<Long> RELEASE = RedisScript.of(RELEASE_SCRIPT, Long.class);
+
+    @Resource
+    private RedisUtil redisUtil;
+
+    /**
+     * 尝试加锁
+     *
+     * @param key 锁键
+     * @param timeout 锁的过期时长
+     * @param unit 过期时长的单位
+     * @return 加锁成功时返回本次持有的令牌，锁已被占用时返回 null
+     */
+    public String tryLock(String key, long timeout, TimeUnit unit) {
+        String token = UUID.randomUUID().toString();
+        return redisUtil.setIfAbsent(key, token, timeout, unit) ? token : null;
+    }
+
+    /**
+     * 释放锁，锁已过期或已被其他实例持有时不做任何操作
+     *
+     * @param key 锁键
+     * @param token 加锁时返回的令牌
+     */
+    public void unlock(String key, String token) {
+        Long released = redisUtil.executeScript(RELEASE, Collections.singletonList(key), token);
+        if (released == null || released == 0) {
+            logger.warn("Job lock {} expired before it was released", key);
+        }
+    }
+}
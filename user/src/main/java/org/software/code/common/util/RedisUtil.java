@@ -1,9 +1,19 @@
 package org.software.code.common.util;
 
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * RedisUtil 是一个工具类，用于简化与 Redis 数据库的交互操作。
@@ -58,4 +68,161 @@ public class RedisUtil {
         // 调用 StringRedisTemplate 的 delete() 方法根据键从 Redis 中删除对应的键值对
         stringRedisTemplate.delete(key);
     }
-}
\ No newline at end of file
+
+    /**
+     * 向 Redis 中设置带过期时间的键值对的方法。
+     *
+     * @param key 要设置的键
+     * @param value 要设置的值
+     * @param timeout 过期时长
+     * @param unit 过期时长的单位
+     */
+    public void setValue(String key, String value, long timeout, TimeUnit unit) {
+        stringRedisTemplate.opsForValue().set(key, value, timeout, unit);
+    }
+
+    /**
+     * 判断 Redis 中是否存在指定键的方法。
+     *
+     * @param key 要判断的键
+     * @return 键存在时返回 true
+     */
+    public boolean hasKey(String key) {
+        return Boolean.TRUE.equals(stringRedisTemplate.hasKey(key));
+    }
+
+    /**
+     * 向有序集合中添加成员的方法，成员已存在时更新其分数。
+     *
+     * @param key 有序集合的键
+     * @param member 成员
+     * @param score 分数
+     */
+    public void addToSortedSet(String key, String member, double score) {
+        stringRedisTemplate.opsForZSet().add(key, member, score);
+    }
+
+    /**
+     * 删除有序集合中分数在指定区间内的成员的方法。
+     *
+     * @param key 有序集合的键
+     * @param min 最小分数（包含）
+     * @param max 最大分数（包含）
+     */
+    public void removeFromSortedSetByScore(String key, double min, double max) {
+        stringRedisTemplate.opsForZSet().removeRangeByScore(key, min, max);
+    }
+
+    /**
+     * 仅当键不存在时设置带过期时间的键值对的方法（SET NX PX），用于实现一次性标记和分布式互斥。
+     *
+     * @param key 要设置的键
+     * @param value 要设置的值
+     * @param timeout 过期时长
+     * @param unit 过期时长的单位
+     * @return 设置成功（键原本不存在）时返回 true
+     */
+    public boolean setIfAbsent(String key, String value, long timeout, TimeUnit unit) {
+        return Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(key, value, timeout, unit));
+    }
+
+    /**
+     * 向指定频道发布消息的方法，订阅该频道的所有实例都会收到。
+     *
+     * @param channel 频道名称
+     * @param message 消息内容
+     */
+    public void publish(String channel, String message) {
+        stringRedisTemplate.convertAndSend(channel, message);
+    }
+
+    /**
+     * 批量获取多个键的值的方法，使用一次 MGET 完成。
+     *
+     * @param keys 要获取值的键
+     * @return 与 keys 顺序一致的值列表，键不存在的位置为 null
+     */
+    public List<String> multiGet(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return stringRedisTemplate.opsForValue().multiGet(keys);
+    }
+
+    /**
+     * 批量获取多个键的值的方法，只返回存在的键。
+     *
+     * @param keys 要获取值的键
+     * @return 键到值的映射
+     */
+    public Map<String, String> multiGetAsMap(Collection<String> keys) {
+        List<String> keyList = new ArrayList<>(keys);
+        List<String> values = multiGet(keyList);
+        Map<String, String> result = new HashMap<>(keyList.size() * 2);
+        for (int i = 0; i < keyList.size(); i++) {
+            if (values.get(i) != null) {
+                result.put(keyList.get(i), values.get(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 批量设置带相同过期时间的键值对的方法，所有 SET 命令在一次管道中发送。
+     *
+     * @param entries 要设置的键值对
+     * @param timeout 过期时长
+     * @param unit 过期时长的单位
+     */
+    public void multiSet(Map<String, String> entries, long timeout, TimeUnit unit) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        long timeoutMs = unit.toMillis(timeout);
+        executePipelined(connection -> {
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                connection.pSetEx(entry.getKey(), timeoutMs, entry.getValue());
+            }
+        });
+    }
+
+    /**
+     * 批量删除多个键的方法，使用一次 DEL 完成。
+     *
+     * @param keys 要删除的键
+     * @return 实际删除的键数量
+     */
+    public long deleteValues(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        Long deleted = stringRedisTemplate.delete(keys);
+        return deleted == null ? 0 : deleted;
+    }
+
+    /**
+     * 执行 Lua 脚本的方法。脚本在 Redis 中原子执行，首次执行后由服务端按 SHA1 缓存，之后只发送摘要。
+     *
+     * @param script 脚本及其返回值类型
+     * @param keys 脚本访问的键，集群模式下须位于同一槽位
+     * @param args 脚本参数
+     * @return 脚本返回值
+     */
+    public <T> T executeScript(RedisScript<T> script, List<String> keys, String... args) {
+        return stringRedisTemplate.execute(script, keys, (Object[]) args);
+    }
+
+    /**
+     * 在一次管道中执行多条命令的方法，命令依次发送，最后统一读取所有响应，只产生一次网络往返。
+     * 管道中的命令不保证原子性；回调中发出的命令返回值均为 null，真实结果在本方法的返回值中按顺序给出。
+     *
+     * @param commands 向连接发出命令的回调
+     * @return 每条命令的结果，顺序与发出顺序一致
+     */
+    public List<Object> executePipelined(Consumer<StringRedisConnection> commands) {
+        return stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            commands.accept((StringRedisConnection) connection);
+            return null;
+        });
+    }
+}
@@ -0,0 +1,233 @@
+package org.software.code.common.util;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Redis 写缓冲区，将多个线程发出的单键写入合并后，由后台线程定期以一次管道批量写入 Redis。
+ * 同一个键在两次刷新之间的多次写入只保留最后一次；适用于允许短暂延迟的缓存回填等场景，
+ * 不适用于需要立即读到写入结果的场景。待写入的键数达到上限时，新的写入直接同步执行。
+ * 正在刷新的键被丢弃时记为墓碑：刷新完成后补删一次，刷新失败时也不再放回缓冲区，保证丢弃之后旧值不会留在 Redis 中。
+ * 带版本条件的写入在刷新时由 Lua 脚本比较版本键，版本已变化（数据已更新）时不写入，不论写入在缓冲区中等待了多久。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Component
+public class RedisWriteBehindBuffer {
+
+    private static final Logger logger = LogManager.getLogger(RedisWriteBehindBuffer.class);
+
+    // 版本键的当前值（不存在时为 0）与预期一致时写入；KEYS[1] 为要写入的键，KEYS[2] 为版本键，
+    // ARGV[1] 为预期版本，ARGV[2] 为值，ARGV[3] 为过期时间（毫秒）
+    private static final String SET_IF_VERSION_SCRIPT =
+            "if (redis.call('GET', KEYS[2]) or '0') ~= ARGV[1] then return 0 end " +
+            "redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3]) " +
+            "return 1";
+
+    private static final RedisScript<Long> SET_IF_VERSION = RedisScript.of(SET_IF_VERSION_SCRIPT, Long.class);
+
+    @Value("${user.redis.write-behind.flush-interval-ms:10}")
+    private long flushIntervalMs;
+
+    @Value("${user.redis.write-behind.max-pending:10000}")
+    private int maxPending;
+
+    @Resource
+    private RedisUtil redisUtil;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    private final ConcurrentHashMap<String, PendingWrite> pending = new ConcurrentHashMap<>();
+    // 正在刷新的键，以及刷新期间被丢弃的键（墓碑）
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final Set<String> discardedInFlight = ConcurrentHashMap.newKeySet();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder flushed = new LongAdder();
+
+    private ScheduledExecutorService flusher;
+
+    @PostConstruct
+    public void init() {
+        flusher = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("redis-write-behind").setDaemon(true).build());
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+
+        Gauge.builder("user.redis.write-behind.pending", pending, Map::size).register(meterRegistry);
+        FunctionCounter.builder("user.redis.write-behind.submitted", submitted, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("user.redis.write-behind.flushed", flushed, LongAdder::sum).register(meterRegistry);
+    }
+
+    /**
+     * 缓冲一次带过期时间的写入
+     *
+     * @param key 要设置的键
+     * @param value 要设置的值
+     * @param timeout 过期时长
+     * @param unit 过期时长的单位
+     */
+    public void setValue(String key, String value, long timeout, TimeUnit unit) {
+        if (pending.size() >= maxPending) {
+            redisUtil.setValue(key, value, timeout, unit);
+            return;
+        }
+        submitted.increment();
+        pending.put(key, new PendingWrite(value, unit.toMillis(timeout), null, null));
+    }
+
+    /**
+     * 缓冲一次带版本条件的写入，刷新时版本键的值仍等于 expectedVersion 才写入。
+     * 版本键与要写入的键需位于同一哈希槽
+     *
+     * @param key 要设置的键
+     * @param value 要设置的值
+     * @param timeout 过期时长
+     * @param unit 过期时长的单位
+     * @param versionKey 版本键，数据更新时由调用方递增
+     * @param expectedVersion 读取数据之前版本键的值，不存在时为 "0"
+     */
+    public void setValueIfVersion(String key, String value, long timeout, TimeUnit unit,
+                                  String versionKey, String expectedVersion) {
+        if (pending.size() >= maxPending) {
+            redisUtil.executeScript(SET_IF_VERSION, Arrays.asList(key, versionKey),
+                    expectedVersion, value, Long.toString(unit.toMillis(timeout)));
+            return;
+        }
+        submitted.increment();
+        pending.put(key, new PendingWrite(value, unit.toMillis(timeout), versionKey, expectedVersion));
+    }
+
+    /**
+     * 丢弃指定键尚未刷新的写入，在同步删除该键之前调用，避免旧值在删除之后被写回
+     *
+     * @param key 要丢弃写入的键
+     */
+    public void discard(String key) {
+        pending.remove(key);
+        // flush 先登记 inFlight 再取出写入，因此这里看不到 inFlight 时该键的写入一定还没有被取走
+        if (inFlight.contains(key)) {
+            discardedInFlight.add(key);
+        }
+    }
+
+    /**
+     * 将当前缓冲的所有写入以一次管道写入 Redis
+     */
+    public synchronized void flush() {
+        if (pending.isEmpty() && discardedInFlight.isEmpty()) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(pending.keySet());
+        List<Map.Entry<String, PendingWrite>> batch = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            inFlight.add(key);
+            PendingWrite write = pending.remove(key);
+            if (write != null) {
+                batch.add(new AbstractMap.SimpleImmutableEntry<>(key, write));
+            }
+        }
+        try {
+            if (!batch.isEmpty()) {
+                writeBatch(batch);
+            }
+        } finally {
+            inFlight.clear();
+            deleteDiscarded();
+        }
+    }
+
+    private void writeBatch(List<Map.Entry<String, PendingWrite>> batch) {
+        try {
+            redisUtil.executePipelined(connection -> {
+                for (Map.Entry<String, PendingWrite> entry : batch) {
+                    PendingWrite write = entry.getValue();
+                    if (write.versionKey == null) {
+                        connection.pSetEx(entry.getKey(), write.ttlMs, write.value);
+                    } else {
+                        connection.eval(SET_IF_VERSION_SCRIPT, ReturnType.INTEGER, 2, entry.getKey(), write.versionKey,
+                                write.expectedVersion, write.value, Long.toString(write.ttlMs));
+                    }
+                }
+            });
+            flushed.add(batch.size());
+        } catch (RuntimeException e) {
+            // 写入失败时放回缓冲区，不覆盖期间产生的更新的写入，也不放回期间被丢弃的写入
+            for (Map.Entry<String, PendingWrite> entry : batch) {
+                if (!discardedInFlight.contains(entry.getKey())) {
+                    pending.putIfAbsent(entry.getKey(), entry.getValue());
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 补删刷新期间被丢弃的键：调用方的同步删除可能先于本次管道写入到达 Redis，旧值会被写回
+     */
+    private void deleteDiscarded() {
+        if (discardedInFlight.isEmpty()) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(discardedInFlight);
+        discardedInFlight.removeAll(keys);
+        try {
+            redisUtil.deleteValues(keys);
+        } catch (RuntimeException e) {
+            // 补删失败时保留墓碑，下次刷新时重试
+            discardedInFlight.addAll(keys);
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        flushQuietly();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.warn("Redis write-behind flush failed, {} writes pending: {}", pending.size(), e.getMessage());
+        }
+    }
+
+    private static final class PendingWrite {
+        private final String value;
+        private final long ttlMs;
+        // 版本条件，无条件写入时为 null
+        private final String versionKey;
+        private final String expectedVersion;
+
+        private PendingWrite(String value, long ttlMs, String versionKey, String expectedVersion) {
+            this.value = value;
+            this.ttlMs = ttlMs;
+            this.versionKey = versionKey;
+            this.expectedVersion = expectedVersion;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package org.software.code.config;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 密码哈希线程池配置类。
+ * BCrypt 是刻意设计得很慢的 CPU 密集型运算，放在专用的有界线程池中执行，
+ * 登录高峰时不会占满 Tomcat 的请求线程；队列满时直接拒绝，由调用方返回“请稍后重试”。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Configuration
+public class PasswordHashConfig {
+
+    // 线程数，小于等于 0 时取 CPU 核数
+    @Value("${user.password.pool-size:0}")
+    private int poolSize;
+
+    // 等待队列容量，队列中的请求最长需等待 queueCapacity / poolSize 个哈希耗时
+    @Value("${user.password.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Bean(name = "passwordHashExecutor", destroyMethod = "shutdown")
+    public ThreadPoolExecutor passwordHashExecutor() {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new ThreadFactoryBuilder().setNameFormat("password-hash-%d").setDaemon(true).build(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
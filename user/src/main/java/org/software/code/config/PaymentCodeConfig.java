@@ -0,0 +1,34 @@
+package org.software.code.config;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 付款码渲染线程池配置类，用于在后台预先生成下一个刷新周期的付款码。
+ * 队列满时由调用线程自行渲染，保证每个渲染任务都会完成。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Configuration
+public class PaymentCodeConfig {
+
+    @Value("${user.payment-code.render-threads:2}")
+    private int renderThreads;
+
+    @Value("${user.payment-code.render-queue-capacity:1024}")
+    private int renderQueueCapacity;
+
+    @Bean(name = "paymentCodeRenderExecutor", destroyMethod = "shutdown")
+    public ThreadPoolExecutor paymentCodeRenderExecutor() {
+        return new ThreadPoolExecutor(renderThreads, renderThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(renderQueueCapacity),
+                new ThreadFactoryBuilder().setNameFormat("payment-code-render-%d").setDaemon(true).build(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+}
@@ -0,0 +1,55 @@
+package org.software.code.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.software.code.common.result.Result;
+import org.software.code.dto.DepositRequest;
+import org.software.code.service.LedgerService;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.annotation.Resource;
+import javax.validation.Valid;
+
+
+@Tag(name = "账户相关接口", description = "余额查询及充值等操作")
+@Validated
+@RestController
+@RequestMapping("/user")
+public class AccountController {
+
+    // 网关认证通过后写入的用户ID请求头
+    private static final String USER_ID_HEADER = "X-User-Id";
+
+    @Resource
+    private LedgerService ledgerService;
+
+    @Operation(summary = "查询余额", description = "查询当前用户的账户余额（分），exact 为 false 时返回最近一次汇总的余额")
+    @GetMapping("/account/balance")
+    public Result<Long> getBalance(@RequestHeader(USER_ID_HEADER) long userId,
+                                   @RequestParam(value = "exact", defaultValue = "true") boolean exact) {
+        return Result.success(ledgerService.getBalance(userId, exact));
+    }
+
+    @Operation(summary = "账户充值", description = "从系统清算账户向用户账户充值，相同充值单号只入账一次，仅管理员可用")
+    @PostMapping("/manage/account/{userId}/deposit")
+    public Result<?> deposit(@PathVariable("userId") long userId, @RequestBody @Valid DepositRequest request) {
+        ledgerService.deposit(userId, request.getAmount(), request.getReferenceId());
+        return Result.success();
+    }
+
+    @Operation(summary = "设置入账分片数", description = "为高并发收款账户开启或关闭入账拆分，0 表示关闭，仅管理员可用")
+    @PutMapping("/manage/account/{userId}/split")
+    public Result<?> setSplitSlots(@PathVariable("userId") long userId, @RequestParam("slots") int slots) {
+        ledgerService.setSplitSlots(userId, slots);
+        return Result.success();
+    }
+}
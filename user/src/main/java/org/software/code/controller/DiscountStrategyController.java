@@ -0,0 +1,64 @@
+package org.software.code.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.software.code.common.result.Result;
+import org.software.code.dto.CreateStrategyRequest;
+import org.software.code.dto.DiscountResultDTO;
+import org.software.code.dto.EvaluateDiscountRequest;
+import org.software.code.service.DiscountStrategyService;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.annotation.Resource;
+import javax.validation.Valid;
+
+
+@Tag(name = "折扣策略相关接口", description = "折扣计算及策略管理等操作")
+@Validated
+@RestController
+@RequestMapping("/user")
+public class DiscountStrategyController {
+
+    // 网关认证通过后写入的用户ID请求头
+    private static final String USER_ID_HEADER = "X-User-Id";
+
+    @Resource
+    private DiscountStrategyService discountStrategyService;
+
+    @Operation(summary = "计算最优折扣", description = "在所有可用策略中选出对订单减免最多的一个")
+    @PostMapping("/strategy/evaluate")
+    public Result<DiscountResultDTO> evaluateBest(@RequestHeader(USER_ID_HEADER) long userId,
+                                                  @RequestBody @Valid EvaluateDiscountRequest request) {
+        return Result.success(discountStrategyService.evaluateBest(userId, request.getAmount()));
+    }
+
+    @Operation(summary = "计算指定策略的折扣", description = "校验指定策略能否用于订单并计算折扣")
+    @PostMapping("/strategy/{strategyId}/evaluate")
+    public Result<DiscountResultDTO> evaluate(@RequestHeader(USER_ID_HEADER) long userId,
+                                              @PathVariable("strategyId") long strategyId,
+                                              @RequestBody @Valid EvaluateDiscountRequest request) {
+        return Result.success(discountStrategyService.evaluate(strategyId, userId, request.getAmount()));
+    }
+
+    @Operation(summary = "创建折扣策略", description = "创建折扣策略并通知所有实例加载，仅管理员可用")
+    @PostMapping("/manage/strategy")
+    public Result<Long> createStrategy(@RequestBody @Valid CreateStrategyRequest request) {
+        return Result.success(discountStrategyService.createStrategy(request));
+    }
+
+    @Operation(summary = "启用或禁用折扣策略", description = "修改策略状态并通知所有实例重新加载，仅管理员可用")
+    @PutMapping("/manage/strategy/{strategyId}/status")
+    public Result<?> updateStrategyStatus(@PathVariable("strategyId") long strategyId,
+                                          @RequestParam("enabled") boolean enabled) {
+        discountStrategyService.updateStrategyStatus(strategyId, enabled);
+        return Result.success();
+    }
+}
@@ -0,0 +1,75 @@
+package org.software.code.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.software.code.dto.ExportFormat;
+import org.software.code.service.ExportService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.annotation.Resource;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Date;
+import java.util.zip.GZIPOutputStream;
+
+
+@Tag(name = "数据导出接口", description = "支付记录及扫码记录的批量导出，仅管理员可用")
+@Validated
+@RestController
+@RequestMapping("/user/manage/export")
+public class ExportController {
+
+    private static final String DATETIME_PATTERN = "yyyy-MM-dd HH:mm:ss";
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    @Resource
+    private ExportService exportService;
+
+    @Operation(summary = "导出支付记录", description = "按支付ID升序流式导出 CSV 或 NDJSON，after 为上次收到的最后一个支付ID")
+    @GetMapping("/payments")
+    public void exportPayments(
+            @RequestParam(value = "format", defaultValue = "csv") String format,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(pattern = DATETIME_PATTERN) Date from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(pattern = DATETIME_PATTERN) Date to,
+            @RequestParam(value = "after", defaultValue = "0") long after,
+            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip,
+            HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        exportService.exportPayments(from, to, after, exportFormat,
+                () -> open(response, "payments", exportFormat, gzip));
+    }
+
+    @Operation(summary = "导出扫码记录", description = "按记录ID升序流式导出 CSV 或 NDJSON，after 为上次收到的最后一个记录ID")
+    @GetMapping("/check-ins")
+    public void exportCheckIns(
+            @RequestParam(value = "format", defaultValue = "csv") String format,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(pattern = DATETIME_PATTERN) Date from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(pattern = DATETIME_PATTERN) Date to,
+            @RequestParam(value = "after", defaultValue = "0") long after,
+            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip,
+            HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        exportService.exportCheckIns(from, to, after, exportFormat,
+                () -> open(response, "check-ins", exportFormat, gzip));
+    }
+
+    /**
+     * 设置下载文件的响应头并返回响应输出流，未设置 Content-Length，响应以分块方式传输。
+     * 导出在请求线程上同步写入，不受异步请求超时的限制
+     */
+    private static OutputStream open(HttpServletResponse response, String name, ExportFormat format, boolean gzip)
+            throws IOException {
+        String fileName = name + "." + format.getExtension() + (gzip ? ".gz" : "");
+        response.setContentType(gzip ? "application/gzip" : format.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"");
+        OutputStream out = response.getOutputStream();
+        return gzip ? new GZIPOutputStream(out, GZIP_BUFFER_SIZE) : out;
+    }
+}
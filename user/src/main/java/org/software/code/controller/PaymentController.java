@@ -0,0 +1,58 @@
+package org.software.code.controller;
+
+import com.google.common.hash.Hashing;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.software.code.common.result.Result;
+import org.software.code.common.util.IdempotencyStore;
+import org.software.code.dto.CreatePaymentRequest;
+import org.software.code.dto.PaymentDTO;
+import org.software.code.service.PaymentService;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.annotation.Resource;
+import javax.validation.Valid;
+import java.nio.charset.StandardCharsets;
+
+
+@Tag(name = "支付相关接口", description = "创建支付及查询支付等操作")
+@Validated
+@RestController
+@RequestMapping("/user/payment")
+public class PaymentController {
+
+    // 网关认证通过后写入的用户ID请求头
+    private static final String USER_ID_HEADER = "X-User-Id";
+    // 客户端为每笔支付生成的幂等键，重试时保持不变
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    @Resource
+    private PaymentService paymentService;
+
+    @Resource
+    private IdempotencyStore idempotencyStore;
+
+    @Operation(summary = "创建支付", description = "相同 Idempotency-Key 的重复提交返回第一次的结果，不会重复支付")
+    @PostMapping
+    public Result<PaymentDTO> createPayment(@RequestHeader(USER_ID_HEADER) long userId,
+                                            @RequestHeader(IDEMPOTENCY_KEY_HEADER) String idempotencyKey,
+                                            @RequestBody @Valid CreatePaymentRequest request) {
+        String fingerprint = Hashing.sha256().hashString(request.toString(), StandardCharsets.UTF_8).toString();
+        return idempotencyStore.execute("payment:" + userId, idempotencyKey, fingerprint, PaymentDTO.class,
+                () -> paymentService.createPayment(userId, idempotencyKey, request));
+    }
+
+    @Operation(summary = "查询支付", description = "仅付款方和收款方可查询")
+    @GetMapping("/{paymentId}")
+    public Result<PaymentDTO> getPayment(@RequestHeader(USER_ID_HEADER) long userId,
+                                         @PathVariable("paymentId") long paymentId) {
+        return Result.success(paymentService.getPayment(userId, paymentId));
+    }
+}
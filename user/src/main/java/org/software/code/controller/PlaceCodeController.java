@@ -0,0 +1,97 @@
+package org.software.code.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.software.code.common.result.Result;
+import org.software.code.dto.CheckInRecordDTO;
+import org.software.code.dto.CreatePlaceCodeRequest;
+import org.software.code.dto.KeysetPageDTO;
+import org.software.code.dto.PlaceCodeDTO;
+import org.software.code.service.PlaceCodeService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.annotation.Resource;
+import javax.validation.Valid;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+
+@Tag(name = "场所码相关接口", description = "场所码创建、查询及扫码登记等操作")
+@Validated
+@RestController
+@RequestMapping("/user/place-code")
+public class PlaceCodeController {
+
+    // 网关认证通过后写入的用户ID请求头
+    private static final String USER_ID_HEADER = "X-User-Id";
+    private static final String DATETIME_PATTERN = "yyyy-MM-dd HH:mm:ss";
+    // 未指定时间窗时默认查询最近 30 天
+    private static final long DEFAULT_WINDOW_MS = TimeUnit.DAYS.toMillis(30);
+
+    @Resource
+    private PlaceCodeService placeCodeService;
+
+    @Operation(summary = "创建场所码", description = "创建场所并返回场所码信息")
+    @PostMapping
+    public Result<PlaceCodeDTO> createPlaceCode(@RequestHeader(USER_ID_HEADER) long userId,
+                                                @RequestBody @Valid CreatePlaceCodeRequest request) {
+        return Result.success(placeCodeService.createPlaceCode(userId, request));
+    }
+
+    @Operation(summary = "查询我的扫码记录", description = "按时间倒序分页查询当前用户在时间窗内的扫码记录")
+    @GetMapping("/check-in/records")
+    public Result<KeysetPageDTO<CheckInRecordDTO>> listMyCheckIns(
+            @RequestHeader(USER_ID_HEADER) long userId,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(pattern = DATETIME_PATTERN) Date from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(pattern = DATETIME_PATTERN) Date to,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        Date end = to != null ? to : new Date();
+        Date start = from != null ? from : new Date(end.getTime() - DEFAULT_WINDOW_MS);
+        return Result.success(placeCodeService.listUserCheckIns(userId, start, end, cursor, size));
+    }
+
+    @Operation(summary = "查询场所扫码记录", description = "按时间倒序分页查询场所在时间窗内的扫码记录，仅场所创建者可用")
+    @GetMapping("/{placeId}/check-in/records")
+    public Result<KeysetPageDTO<CheckInRecordDTO>> listPlaceCheckIns(
+            @RequestHeader(USER_ID_HEADER) long userId,
+            @PathVariable("placeId") long placeId,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(pattern = DATETIME_PATTERN) Date from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(pattern = DATETIME_PATTERN) Date to,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        Date end = to != null ? to : new Date();
+        Date start = from != null ? from : new Date(end.getTime() - DEFAULT_WINDOW_MS);
+        return Result.success(placeCodeService.listPlaceCheckIns(userId, placeId, start, end, cursor, size));
+    }
+
+    @Operation(summary = "查询场所码", description = "根据场所ID查询场所码信息")
+    @GetMapping("/{placeId}")
+    public Result<PlaceCodeDTO> getPlaceCode(@PathVariable("placeId") long placeId) {
+        return Result.success(placeCodeService.getPlaceCode(placeId));
+    }
+
+    @Operation(summary = "获取场所码二维码", description = "返回场所码的 PNG 二维码图片")
+    @GetMapping("/{placeId}/qr")
+    public ResponseEntity<byte[]> getPlaceCodeQr(@PathVariable("placeId") long placeId) {
+        return ResponseEntity.ok().contentType(MediaType.IMAGE_PNG).body(placeCodeService.getPlaceCodePng(placeId));
+    }
+
+    @Operation(summary = "扫码登记", description = "记录当前用户在指定场所的扫码，记录异步批量写入")
+    @PostMapping("/{placeId}/check-in")
+    public Result<?> checkIn(@RequestHeader(USER_ID_HEADER) long userId, @PathVariable("placeId") long placeId) {
+        placeCodeService.checkIn(userId, placeId);
+        return Result.success();
+    }
+}
@@ -1,11 +1,43 @@
 package org.software.code.controller;
 
 
+import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.software.code.common.except.BusinessException;
+import org.software.code.common.except.ExceptionEnum;
+import org.software.code.common.result.Result;
+import org.software.code.dto.LoginRequest;
+import org.software.code.dto.PaymentCodeDTO;
+import org.software.code.dto.RefreshTokenRequest;
+import org.software.code.dto.RegisterRequest;
+import org.software.code.dto.TokenPairDTO;
+import org.software.code.dto.UpdateProfileRequest;
+import org.software.code.dto.UserProfileDTO;
+import org.software.code.dto.VerifyPaymentCodeRequest;
+import org.software.code.service.AuthTokenService;
+import org.software.code.service.PaymentCodeService;
+import org.software.code.service.TokenRevocationService;
+import org.software.code.service.UserService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.annotation.Resource;
+import javax.validation.Valid;
+import javax.validation.constraints.Size;
+import java.util.concurrent.CompletableFuture;
+
 
 @Tag(name = "用户相关接口", description = "用户登录、登出、信息查询等操作")
 @Validated
@@ -13,5 +45,100 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/user")
 public class UserController {
 
+    private static final String TOKEN_PREFIX = "Bearer ";
+    // 网关认证通过后写入的用户ID请求头
+    private static final String USER_ID_HEADER = "X-User-Id";
+
+    @Resource
+    private TokenRevocationService tokenRevocationService;
+
+    @Resource
+    private AuthTokenService authTokenService;
+
+    @Resource
+    private UserService userService;
+
+    @Resource
+    private PaymentCodeService paymentCodeService;
+
+    @Operation(summary = "用户登录", description = "校验用户名和密码，返回访问令牌和刷新令牌")
+    @PostMapping("/auth/login")
+    public CompletableFuture<Result<TokenPairDTO>> login(@RequestBody @Valid LoginRequest request) {
+        return userService.login(request).thenApply(tokenPair -> Result.success(tokenPair));
+    }
+
+    @Operation(summary = "用户注册", description = "注册新用户，返回用户ID")
+    @PostMapping("/auth/register")
+    public CompletableFuture<Result<Long>> register(@RequestBody @Valid RegisterRequest request) {
+        return userService.register(request).thenApply(userId -> Result.success(userId));
+    }
+
+    @Operation(summary = "刷新令牌", description = "使用刷新令牌换取新的访问令牌和刷新令牌，原刷新令牌随即失效")
+    @PostMapping("/auth/refresh")
+    public Result<TokenPairDTO> refresh(@RequestBody @Valid RefreshTokenRequest request) {
+        return Result.success(authTokenService.refresh(request.getRefreshToken()));
+    }
+
+    @Operation(summary = "用户登出", description = "吊销当前请求携带的 Token")
+    @PostMapping("/auth/logout")
+    public Result<?> logout(@RequestHeader("Authorization") String authorization) {
+        if (!authorization.startsWith(TOKEN_PREFIX)) {
+            throw new BusinessException(ExceptionEnum.TOKEN_NOT_FIND);
+        }
+        tokenRevocationService.revokeToken(authorization.substring(TOKEN_PREFIX.length()));
+        return Result.success();
+    }
+
+    @Operation(summary = "查询用户资料", description = "查询当前登录用户的资料")
+    @GetMapping("/profile")
+    public Result<UserProfileDTO> getProfile(@RequestHeader(USER_ID_HEADER) long userId) {
+        return Result.success(userService.getProfile(userId));
+    }
+
+    @Operation(summary = "修改用户资料", description = "修改当前登录用户的资料")
+    @PutMapping("/profile")
+    public Result<?> updateProfile(@RequestHeader(USER_ID_HEADER) long userId,
+                                   @RequestBody @Valid UpdateProfileRequest request) {
+        userService.updateProfile(userId, request);
+        return Result.success();
+    }
+
+    @Operation(summary = "获取付款码", description = "获取当前周期的付款码内容、失效时间和建议刷新时间")
+    @GetMapping("/payment-code")
+    public Result<PaymentCodeDTO> getPaymentCode(@RequestHeader(USER_ID_HEADER) long userId) {
+        return Result.success(paymentCodeService.getPaymentCode(userId));
+    }
+
+    @Operation(summary = "获取付款码二维码", description = "以 PNG 或 SVG 格式返回当前周期付款码的二维码图片")
+    @GetMapping("/payment-code/qr")
+    public ResponseEntity<?> getPaymentCodeQr(@RequestHeader(USER_ID_HEADER) long userId,
+                                              @RequestParam(value = "format", defaultValue = "png") String format) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(CacheControl.noStore());
+        if ("svg".equalsIgnoreCase(format)) {
+            return response.contentType(MediaType.valueOf("image/svg+xml"))
+                    .body(paymentCodeService.getPaymentCodeSvg(userId));
+        }
+        return response.contentType(MediaType.IMAGE_PNG).body(paymentCodeService.getPaymentCodePng(userId));
+    }
+
+    @Operation(summary = "核销付款码", description = "校验付款码并返回付款用户ID，每个付款码只能核销一次")
+    @PostMapping("/payment-code/verify")
+    public Result<Long> verifyPaymentCode(@RequestBody @Valid VerifyPaymentCodeRequest request) {
+        return Result.success(paymentCodeService.verifyPaymentCode(request.getCode()));
+    }
+
+    @Operation(summary = "强制下线", description = "吊销指定用户已签发的所有 Token，仅管理员可用")
+    @PostMapping("/manage/force-logout/{userId}")
+    public Result<?> forceLogout(@PathVariable("userId") long userId) {
+        tokenRevocationService.revokeAllForUser(userId);
+        return Result.success();
+    }
 
+    @Operation(summary = "设置用户分群", description = "设置用户可享受的分群折扣，segment 为空时清除分群，仅管理员可用")
+    @PutMapping("/manage/segment/{userId}")
+    public Result<?> updateSegment(@PathVariable("userId") long userId,
+                                   @RequestParam(value = "segment", required = false) @Size(max = 32) String segment) {
+        userService.updateSegment(userId, StringUtils.hasText(segment) ? segment : null);
+        return Result.success();
+    }
 }
@@ -0,0 +1,25 @@
+package org.software.code.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.util.Date;
+
+/**
+ * 扫码记录。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Data
+public class CheckInRecordDTO {
+
+    // 用户ID
+    private Long userId;
+    // 场所ID
+    private Long placeId;
+    // 场所名称
+    private String placeName;
+    // 扫码时间
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "Asia/Shanghai")
+    private Date checkInTime;
+}
@@ -0,0 +1,25 @@
+package org.software.code.dto;
+
+import lombok.Data;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+
+/**
+ * 创建支付请求参数，金额单位为分。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Data
+public class CreatePaymentRequest {
+
+    // 收款用户ID
+    @NotNull(message = "收款方不能为空")
+    private Long payeeId;
+    // 订单金额
+    @NotNull(message = "订单金额不能为空")
+    @Positive(message = "订单金额必须大于0")
+    private Long amount;
+    // 使用的折扣策略ID，可为空
+    private Long strategyId;
+}
@@ -0,0 +1,23 @@
+package org.software.code.dto;
+
+import lombok.Data;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Size;
+
+/**
+ * 创建场所码请求参数。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Data
+public class CreatePlaceCodeRequest {
+
+    // 场所名称
+    @NotBlank(message = "场所名称不能为空")
+    @Size(max = 100, message = "场所名称长度不能超过100个字符")
+    private String name;
+    // 场所地址
+    @Size(max = 255, message = "场所地址长度不能超过255个字符")
+    private String address;
+}
@@ -0,0 +1,66 @@
+package org.software.code.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+import java.util.Date;
+
+/**
+ * 创建折扣策略请求参数，金额单位为分。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Data
+public class CreateStrategyRequest {
+
+    // 策略名称
+    @NotBlank(message = "策略名称不能为空")
+    private String name;
+    // 折扣类型：1 满减，2 按比例折扣
+    @NotNull(message = "折扣类型不能为空")
+    @Min(value = 1, message = "折扣类型错误")
+    @Max(value = 2, message = "折扣类型错误")
+    private Integer type;
+    // 减免金额（分）或减免比例（万分比）
+    @NotNull(message = "减免额度不能为空")
+    @Positive(message = "减免额度必须大于0")
+    private Long discountValue;
+    // 最低消费金额
+    @PositiveOrZero(message = "最低消费金额不能为负数")
+    private Long minAmount = 0L;
+    // 单笔最高减免金额，0 表示不限
+    @PositiveOrZero(message = "最高减免金额不能为负数")
+    private Long maxDiscount = 0L;
+    // 适用的用户分群
+    private String userSegment = "ALL";
+    // 生效时间
+    @NotNull(message = "生效时间不能为空")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "Asia/Shanghai")
+    private Date startTime;
+    // 失效时间
+    @NotNull(message = "失效时间不能为空")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "Asia/Shanghai")
+    private Date endTime;
+    // 每日生效时段的起点（当天第几分钟）
+    @Min(value = 0, message = "每日生效时段错误")
+    @Max(value = 1439, message = "每日生效时段错误")
+    private Integer dailyStartMinute;
+    // 每日生效时段的终点（当天第几分钟，不包含）
+    @Min(value = 0, message = "每日生效时段错误")
+    @Max(value = 1440, message = "每日生效时段错误")
+    private Integer dailyEndMinute;
+    // 总使用次数上限，0 表示不限
+    @PositiveOrZero(message = "使用次数上限不能为负数")
+    private Integer usageLimit = 0;
+    // 每个用户的使用次数上限，0 表示不限
+    @PositiveOrZero(message = "使用次数上限不能为负数")
+    private Integer perUserLimit = 0;
+    // 优先级
+    private Integer priority = 0;
+}
@@ -0,0 +1,23 @@
+package org.software.code.dto;
+
+import lombok.Data;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+
+/**
+ * 充值请求参数，金额单位为分。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Data
+public class DepositRequest {
+
+    // 充值金额
+    @NotNull(message = "充值金额不能为空")
+    @Positive(message = "充值金额必须大于0")
+    private Long amount;
+    // 充值单号，相同单号只入账一次
+    @NotNull(message = "充值单号不能为空")
+    private Long referenceId;
+}
@@ -0,0 +1,27 @@
+package org.software.code.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 折扣计算结果，金额单位均为分。没有可用策略时 strategyId 为 null、discount 为 0。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DiscountResultDTO {
+
+    // 命中的策略ID
+    private Long strategyId;
+    // 命中的策略名称
+    private String strategyName;
+    // 订单金额
+    private long amount;
+    // 减免金额
+    private long discount;
+    // 实付金额
+    private long payable;
+}
@@ -0,0 +1,20 @@
+package org.software.code.dto;
+
+import lombok.Data;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+
+/**
+ * 折扣计算请求参数，金额单位为分。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Data
+public class EvaluateDiscountRequest {
+
+    // 订单金额
+    @NotNull(message = "订单金额不能为空")
+    @Positive(message = "订单金额必须大于0")
+    private Long amount;
+}
@@ -0,0 +1,47 @@
+package org.software.code.dto;
+
+import org.software.code.common.except.BusinessException;
+import org.software.code.common.except.ExceptionEnum;
+
+/**
+ * 导出文件格式。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+public enum ExportFormat {
+
+    // 逗号分隔，首行为列名
+    CSV("csv", "text/csv;charset=UTF-8"),
+    // 每行一个 JSON 对象
+    NDJSON("ndjson", "application/x-ndjson;charset=UTF-8");
+
+    private final String extension;
+    private final String contentType;
+
+    ExportFormat(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * 按扩展名解析导出格式，不区分大小写
+     *
+     * @throws BusinessException 不支持的格式
+     */
+    public static ExportFormat of(String extension) {
+        for (ExportFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(extension)) {
+                return format;
+            }
+        }
+        throw new BusinessException(ExceptionEnum.EXPORT_FORMAT_INVALID);
+    }
+}
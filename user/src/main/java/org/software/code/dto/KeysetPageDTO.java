@@ -0,0 +1,24 @@
+package org.software.code.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 游标分页结果。请求下一页时将 nextCursor 原样传回，nextCursor 为 null 表示没有更多数据。
+ *
+ * @param <T> 记录类型
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class KeysetPageDTO<T> {
+
+    // 本页记录
+    private List<T> records;
+    // 下一页的游标
+    private String nextCursor;
+}
@@ -0,0 +1,21 @@
+package org.software.code.dto;
+
+import lombok.Data;
+
+import javax.validation.constraints.NotBlank;
+
+/**
+ * 用户登录请求参数。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Data
+public class LoginRequest {
+
+    // 用户名
+    @NotBlank(message = "用户名不能为空")
+    private String username;
+    // 密码
+    @NotBlank(message = "密码不能为空")
+    private String password;
+}
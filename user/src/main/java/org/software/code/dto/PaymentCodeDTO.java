@@ -0,0 +1,23 @@
+package org.software.code.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 付款码信息，客户端在 refreshAt 时刻获取下一个付款码。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentCodeDTO {
+
+    // 付款码内容，即二维码中编码的字符串
+    private String code;
+    // 付款码失效时间（毫秒时间戳）
+    private long expiresAt;
+    // 建议刷新时间（毫秒时间戳），此时下一个付款码已生成好
+    private long refreshAt;
+}
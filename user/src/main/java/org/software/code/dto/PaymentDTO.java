@@ -0,0 +1,51 @@
+package org.software.code.dto;
+
+import lombok.Data;
+import org.software.code.entity.Payment;
+
+import java.util.Date;
+
+/**
+ * 支付信息，金额单位均为分。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Data
+public class PaymentDTO {
+
+    // 支付ID
+    private Long id;
+    // 付款用户ID
+    private Long payerId;
+    // 收款用户ID
+    private Long payeeId;
+    // 订单金额
+    private Long amount;
+    // 减免金额
+    private Long discount;
+    // 实付金额
+    private Long payable;
+    // 使用的折扣策略ID
+    private Long strategyId;
+    // 支付状态：0 已创建，1 支付成功，2 支付失败
+    private Integer status;
+    // 创建时间
+    private Date createTime;
+
+    /**
+     * 由支付实体构建支付信息
+     */
+    public static PaymentDTO from(Payment payment) {
+        PaymentDTO dto = new PaymentDTO();
+        dto.setId(payment.getId());
+        dto.setPayerId(payment.getPayerId());
+        dto.setPayeeId(payment.getPayeeId());
+        dto.setAmount(payment.getAmount());
+        dto.setDiscount(payment.getDiscount());
+        dto.setPayable(payment.getPayable());
+        dto.setStrategyId(payment.getStrategyId());
+        dto.setStatus(payment.getStatus());
+        dto.setCreateTime(payment.getCreateTime());
+        return dto;
+    }
+}
@@ -0,0 +1,39 @@
+package org.software.code.dto;
+
+import lombok.Data;
+import org.software.code.entity.PlaceCode;
+
+import java.util.Date;
+
+/**
+ * 场所码信息。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Data
+public class PlaceCodeDTO {
+
+    // 场所ID
+    private Long id;
+    // 场所名称
+    private String name;
+    // 场所地址
+    private String address;
+    // 创建者的用户ID
+    private Long creatorId;
+    // 创建时间
+    private Date createTime;
+
+    /**
+     * 由场所码实体构建场所码信息
+     */
+    public static PlaceCodeDTO from(PlaceCode placeCode) {
+        PlaceCodeDTO dto = new PlaceCodeDTO();
+        dto.setId(placeCode.getId());
+        dto.setName(placeCode.getName());
+        dto.setAddress(placeCode.getAddress());
+        dto.setCreatorId(placeCode.getCreatorId());
+        dto.setCreateTime(placeCode.getCreateTime());
+        return dto;
+    }
+}
@@ -0,0 +1,18 @@
+package org.software.code.dto;
+
+import lombok.Data;
+
+import javax.validation.constraints.NotBlank;
+
+/**
+ * 刷新令牌请求参数。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Data
+public class RefreshTokenRequest {
+
+    // 登录或上次刷新时获得的刷新令牌
+    @NotBlank(message = "刷新令牌不能为空")
+    private String refreshToken;
+}
@@ -0,0 +1,28 @@
+package org.software.code.dto;
+
+import lombok.Data;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+
+/**
+ * 用户注册请求参数。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Data
+public class RegisterRequest {
+
+    // 用户名
+    @NotBlank(message = "用户名不能为空")
+    @Size(max = 64, message = "用户名长度不能超过64个字符")
+    private String username;
+    // 密码，BCrypt 只使用前 72 字节
+    @NotBlank(message = "密码不能为空")
+    @Size(min = 6, max = 72, message = "密码长度应为6到72个字符")
+    private String password;
+    // 手机号
+    @Pattern(regexp = "^1\\d{10}$", message = "手机号格式错误")
+    private String phone;
+}
@@ -0,0 +1,25 @@
+package org.software.code.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 访问令牌与刷新令牌对，登录和刷新接口的返回数据。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenPairDTO {
+
+    // 访问令牌，有效期较短，用于访问业务接口
+    private String accessToken;
+    // 刷新令牌，有效期较长，仅用于换取新的令牌对，且只能使用一次
+    private String refreshToken;
+    // 访问令牌的有效时长，单位为秒
+    private long accessTokenExpiresIn;
+    // 刷新令牌的有效时长，单位为秒
+    private long refreshTokenExpiresIn;
+}
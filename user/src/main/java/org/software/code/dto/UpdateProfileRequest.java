@@ -0,0 +1,20 @@
+package org.software.code.dto;
+
+import lombok.Data;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Pattern;
+
+/**
+ * 修改用户资料请求参数。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Data
+public class UpdateProfileRequest {
+
+    // 手机号
+    @NotBlank(message = "手机号不能为空")
+    @Pattern(regexp = "^1\\d{10}$", message = "手机号格式错误")
+    private String phone;
+}
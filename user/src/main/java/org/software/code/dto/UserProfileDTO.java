@@ -0,0 +1,45 @@
+package org.software.code.dto;
+
+import lombok.Data;
+import org.software.code.entity.User;
+
+import java.util.Date;
+
+/**
+ * 用户资料，不包含密码等敏感字段，可安全地缓存和返回给前端。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Data
+public class UserProfileDTO {
+
+    // 用户ID
+    private Long id;
+    // 用户名
+    private String username;
+    // 手机号
+    private String phone;
+    // 角色
+    private String role;
+    // 用户分群
+    private String segment;
+    // 账户状态：0 正常，1 冻结
+    private Integer status;
+    // 创建时间
+    private Date createTime;
+
+    /**
+     * 由用户实体构建用户资料
+     */
+    public static UserProfileDTO from(User user) {
+        UserProfileDTO profile = new UserProfileDTO();
+        profile.setId(user.getId());
+        profile.setUsername(user.getUsername());
+        profile.setPhone(user.getPhone());
+        profile.setRole(user.getRole());
+        profile.setSegment(user.getSegment());
+        profile.setStatus(user.getStatus());
+        profile.setCreateTime(user.getCreateTime());
+        return profile;
+    }
+}
@@ -0,0 +1,18 @@
+package org.software.code.dto;
+
+import lombok.Data;
+
+import javax.validation.constraints.NotBlank;
+
+/**
+ * 核销付款码请求参数。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Data
+public class VerifyPaymentCodeRequest {
+
+    // 扫描二维码得到的付款码
+    @NotBlank(message = "付款码不能为空")
+    private String code;
+}
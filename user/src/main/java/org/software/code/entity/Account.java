@@ -0,0 +1,33 @@
+package org.software.code.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.util.Date;
+
+/**
+ * 账户实体类，对应数据库中的 account 表，每个用户一个账户。金额单位为分。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Data
+@TableName("account")
+public class Account {
+
+    // 系统清算账户的用户ID
+    public static final long SYSTEM_ACCOUNT_ID = 0L;
+
+    // 用户ID
+    @TableId(type = IdType.INPUT)
+    private Long userId;
+    // 余额，拆分账户不含各分片中尚未汇总的金额
+    private Long balance;
+    // 入账分片数，0 表示不拆分
+    private Integer splitSlots;
+    // 创建时间
+    private Date createTime;
+    // 更新时间
+    private Date updateTime;
+}
@@ -0,0 +1,26 @@
+package org.software.code.entity;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.util.Date;
+
+/**
+ * 账户入账分片实体类，对应数据库中的 account_slot 表。
+ * 拆分账户的入账分散写入多个分片，避免所有入账争用 account 表中的同一行。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Data
+@TableName("account_slot")
+public class AccountSlot {
+
+    // 账户的用户ID
+    private Long userId;
+    // 分片序号
+    private Integer slotNo;
+    // 尚未汇总的入账金额（分）
+    private Long balance;
+    // 更新时间
+    private Date updateTime;
+}
@@ -0,0 +1,67 @@
+package org.software.code.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.util.Date;
+
+/**
+ * 折扣策略实体类，对应数据库中的 discount_strategy 表。金额单位均为分。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Data
+@TableName("discount_strategy")
+public class DiscountStrategy {
+
+    // 折扣类型：满减，discountValue 为减免金额
+    public static final int TYPE_FIXED = 1;
+    // 折扣类型：按比例折扣，discountValue 为减免比例（万分比）
+    public static final int TYPE_RATE = 2;
+
+    // 策略状态：启用
+    public static final int STATUS_ENABLED = 0;
+    // 策略状态：禁用
+    public static final int STATUS_DISABLED = 1;
+
+    // 适用于所有用户分群
+    public static final String SEGMENT_ALL = "ALL";
+
+    // 策略ID
+    @TableId(type = IdType.AUTO)
+    private Long id;
+    // 策略名称
+    private String name;
+    // 折扣类型：1 满减，2 按比例折扣
+    private Integer type;
+    // 减免金额（分）或减免比例（万分比）
+    private Long discountValue;
+    // 最低消费金额（分）
+    private Long minAmount;
+    // 单笔最高减免金额（分），0 表示不限
+    private Long maxDiscount;
+    // 适用的用户分群，ALL 表示所有用户
+    private String userSegment;
+    // 生效时间
+    private Date startTime;
+    // 失效时间
+    private Date endTime;
+    // 每日生效时段的起点（当天第几分钟），为空表示全天
+    private Integer dailyStartMinute;
+    // 每日生效时段的终点（当天第几分钟，不包含），可小于起点表示跨午夜
+    private Integer dailyEndMinute;
+    // 总使用次数上限，0 表示不限
+    private Integer usageLimit;
+    // 每个用户的使用次数上限，0 表示不限
+    private Integer perUserLimit;
+    // 优先级，减免金额相同时优先级高者胜出
+    private Integer priority;
+    // 策略状态：0 启用，1 禁用
+    private Integer status;
+    // 创建时间
+    private Date createTime;
+    // 更新时间
+    private Date updateTime;
+}
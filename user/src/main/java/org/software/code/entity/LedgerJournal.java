@@ -0,0 +1,47 @@
+package org.software.code.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.util.Date;
+
+/**
+ * 账务流水实体类，对应数据库中的 ledger_journal 表。
+ * 每笔转账写入一借一贷两条流水，流水只追加不修改，账户余额可由流水汇总重建。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Data
+@TableName("ledger_journal")
+public class LedgerJournal {
+
+    // 借贷方向：借（转出）
+    public static final int DIRECTION_DEBIT = 1;
+    // 借贷方向：贷（转入）
+    public static final int DIRECTION_CREDIT = 2;
+
+    // 业务类型：支付
+    public static final int BIZ_PAYMENT = 1;
+    // 业务类型：充值
+    public static final int BIZ_DEPOSIT = 2;
+
+    // 流水ID，批量写入时由调用方生成
+    @TableId(type = IdType.ASSIGN_ID)
+    private Long id;
+    // 账户的用户ID
+    private Long accountId;
+    // 对方账户的用户ID
+    private Long counterparty;
+    // 借贷方向：1 借，2 贷
+    private Integer direction;
+    // 金额，恒为正数
+    private Long amount;
+    // 业务类型：1 支付，2 充值
+    private Integer bizType;
+    // 业务单号
+    private Long bizId;
+    // 记账时间
+    private Date createTime;
+}
@@ -0,0 +1,44 @@
+package org.software.code.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.util.Date;
+
+/**
+ * 事务发件箱中的领域事件，对应数据库中的 outbox_event 表。
+ * 事件与业务数据在同一个事务中写入，由 OutboxRelayJob 异步投递到 Kafka。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Data
+@TableName("outbox_event")
+public class OutboxEvent {
+
+    // 投递状态：待投递
+    public static final int STATUS_PENDING = 0;
+    // 投递状态：已投递
+    public static final int STATUS_SENT = 1;
+    // 投递状态：多次投递失败，不再投递，等待人工处理
+    public static final int STATUS_DEAD = 2;
+
+    // 事件ID，同时作为消费者去重的依据
+    @TableId(type = IdType.INPUT)
+    private Long id;
+    // 聚合类型，决定投递的主题，如 payment
+    private String aggregateType;
+    // 聚合ID，作为消息键，同一聚合的事件落在同一分区并保持顺序
+    private Long aggregateId;
+    // 事件类型，如 payment.settled
+    private String eventType;
+    // 完整的消息内容（JSON）
+    private String payload;
+    // 投递状态：0 待投递，1 已投递，2 投递失败（死信）
+    private Integer status;
+    // 因不可重试的错误投递失败的次数
+    private Integer attempts;
+    // 事件发生时间
+    private Date createTime;
+}
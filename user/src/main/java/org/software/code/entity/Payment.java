@@ -0,0 +1,49 @@
+package org.software.code.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.util.Date;
+
+/**
+ * 支付实体类，对应数据库中的 payment 表。金额单位均为分。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Data
+@TableName("payment")
+public class Payment {
+
+    // 支付状态：已创建
+    public static final int STATUS_CREATED = 0;
+    // 支付状态：支付成功
+    public static final int STATUS_SUCCESS = 1;
+    // 支付状态：支付失败
+    public static final int STATUS_FAILED = 2;
+
+    // 支付ID
+    @TableId(type = IdType.ASSIGN_ID)
+    private Long id;
+    // 付款用户ID
+    private Long payerId;
+    // 收款用户ID
+    private Long payeeId;
+    // 订单金额
+    private Long amount;
+    // 减免金额
+    private Long discount;
+    // 实付金额
+    private Long payable;
+    // 使用的折扣策略ID，未使用时为空
+    private Long strategyId;
+    // 客户端提交的幂等键
+    private String requestKey;
+    // 支付状态：0 已创建，1 支付成功，2 支付失败
+    private Integer status;
+    // 创建时间
+    private Date createTime;
+    // 更新时间
+    private Date updateTime;
+}
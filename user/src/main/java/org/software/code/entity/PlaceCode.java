@@ -0,0 +1,30 @@
+package org.software.code.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.util.Date;
+
+/**
+ * 场所码实体类，对应数据库中的 place_code 表。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Data
+@TableName("place_code")
+public class PlaceCode {
+
+    // 场所ID
+    @TableId(type = IdType.AUTO)
+    private Long id;
+    // 场所名称
+    private String name;
+    // 场所地址
+    private String address;
+    // 创建者的用户ID
+    private Long creatorId;
+    // 创建时间
+    private Date createTime;
+}
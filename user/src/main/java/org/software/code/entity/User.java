@@ -0,0 +1,53 @@
+package org.software.code.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.util.Date;
+
+/**
+ * 用户实体类，对应数据库中的 user 表。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Data
+@TableName("user")
+public class User {
+
+    // 账户状态：正常
+    public static final int STATUS_NORMAL = 0;
+    // 账户状态：冻结
+    public static final int STATUS_FROZEN = 1;
+
+    // 默认角色
+    public static final String ROLE_USER = "user";
+
+    // 用户ID
+    @TableId(type = IdType.AUTO)
+    private Long id;
+    // 用户名，唯一
+    private String username;
+    // 密码哈希（BCrypt）
+    private String password;
+    // 手机号
+    private String phone;
+    // 角色：user / admin / super_admin
+    private String role;
+    // 用户分群，为空时只适用面向所有用户的折扣策略
+    private String segment;
+    // 账户状态：0 正常，1 冻结
+    private Integer status;
+    // 创建时间
+    private Date createTime;
+    // 更新时间
+    private Date updateTime;
+
+    /**
+     * 判断账户是否已被冻结
+     */
+    public boolean isFrozen() {
+        return status != null && status == STATUS_FROZEN;
+    }
+}
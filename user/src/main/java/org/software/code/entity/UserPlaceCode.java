@@ -0,0 +1,28 @@
+package org.software.code.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.util.Date;
+
+/**
+ * 用户场所码扫码记录实体类，对应数据库中的 user_place_code 表。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Data
+@TableName("user_place_code")
+public class UserPlaceCode {
+
+    // 记录ID
+    @TableId(type = IdType.ASSIGN_ID)
+    private Long id;
+    // 用户ID
+    private Long userId;
+    // 场所ID
+    private Long placeId;
+    // 扫码时间
+    private Date checkInTime;
+}
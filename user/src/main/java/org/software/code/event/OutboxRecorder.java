@@ -0,0 +1,96 @@
+package org.software.code.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.software.code.common.id.SnowflakeIdGenerator;
+import org.software.code.entity.OutboxEvent;
+import org.software.code.mapper.OutboxEventMapper;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 领域事件记录器，将事件写入事务发件箱。
+ * 应在业务数据所在的事务中调用，使事件与业务数据同时提交或同时回滚；
+ * 事件内容在写入时即序列化为完整的消息，投递时原样发送。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Component
+public class OutboxRecorder {
+
+    // 聚合类型
+    public static final String AGGREGATE_PAYMENT = "payment";
+    public static final String AGGREGATE_CHECK_IN = "check-in";
+    public static final String AGGREGATE_USER = "user";
+
+    // 事件类型
+    public static final String PAYMENT_CREATED = "payment.created";
+    public static final String PAYMENT_SETTLED = "payment.settled";
+    public static final String PAYMENT_FAILED = "payment.failed";
+    public static final String CHECK_IN_RECORDED = "check-in.recorded";
+    public static final String USER_LOGGED_IN = "user.logged-in";
+
+    @Resource
+    private OutboxEventMapper outboxEventMapper;
+
+    @Resource
+    private SnowflakeIdGenerator snowflakeIdGenerator;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    /**
+     * 记录一个事件
+     *
+     * @param aggregateType 聚合类型
+     * @param aggregateId 聚合ID
+     * @param eventType 事件类型
+     * @param data 事件数据，序列化为 JSON
+     */
+    public void record(String aggregateType, long aggregateId, String eventType, Object data) {
+        recordAll(Collections.singletonList(newEvent(aggregateType, aggregateId, eventType, data)));
+    }
+
+    /**
+     * 批量记录事件，只产生一条 INSERT 语句
+     */
+    public void recordAll(List<OutboxEvent> events) {
+        if (!events.isEmpty()) {
+            outboxEventMapper.insertEvents(events);
+        }
+    }
+
+    /**
+     * 构建一个待记录的事件，消息内容为包含事件ID、类型、聚合信息、发生时间和事件数据的 JSON
+     */
+    public OutboxEvent newEvent(String aggregateType, long aggregateId, String eventType, Object data) {
+        long id = snowflakeIdGenerator.nextId();
+        long now = System.currentTimeMillis();
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("id", id);
+        message.put("type", eventType);
+        message.put("aggregateType", aggregateType);
+        message.put("aggregateId", aggregateId);
+        message.put("occurredAt", now);
+        message.put("data", data);
+        OutboxEvent event = new OutboxEvent();
+        event.setId(id);
+        event.setAggregateType(aggregateType);
+        event.setAggregateId(aggregateId);
+        event.setEventType(eventType);
+        try {
+            event.setPayload(objectMapper.writeValueAsString(message));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Unserializable event data: " + eventType, e);
+        }
+        event.setStatus(OutboxEvent.STATUS_PENDING);
+        event.setCreateTime(new Date(now));
+        return event;
+    }
+}
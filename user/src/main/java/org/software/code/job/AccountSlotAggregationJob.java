@@ -0,0 +1,65 @@
+package org.software.code.job;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.software.code.common.util.RedisJobLock;
+import org.software.code.mapper.AccountSlotMapper;
+import org.software.code.service.LedgerService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 拆分账户的余额汇总任务。
+ * 定期将各入账分片中的金额汇总到账户主余额，使非精确余额查询的滞后不超过一个汇总周期。
+ * 汇总本身可以安全地并发执行，RedisJobLock 只用于避免多个实例重复扫描；每次在锁过期时间的一半内停止，锁不会在执行中过期。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Component
+public class AccountSlotAggregationJob {
+
+    private static final Logger logger = LogManager.getLogger(AccountSlotAggregationJob.class);
+
+    private static final String LOCK_KEY = "user:ledger:slot-aggregation:lock";
+
+    // 每次最多汇总的账户数
+    @Value("${user.ledger.split.aggregate-batch-size:500}")
+    private int batchSize;
+
+    @Value("${user.ledger.split.aggregate-lock-ttl-ms:60000}")
+    private long lockTtlMs;
+
+    @Resource
+    private AccountSlotMapper accountSlotMapper;
+
+    @Resource
+    private LedgerService ledgerService;
+
+    @Resource
+    private RedisJobLock jobLock;
+
+    @Scheduled(fixedDelayString = "${user.ledger.split.aggregate-interval-ms:1000}")
+    public void run() {
+        String token = jobLock.tryLock(LOCK_KEY, lockTtlMs, TimeUnit.MILLISECONDS);
+        if (token == null) {
+            return;
+        }
+        long deadline = System.currentTimeMillis() + lockTtlMs / 2;
+        try {
+            for (Long userId : accountSlotMapper.selectPendingUserIds(batchSize)) {
+                if (System.currentTimeMillis() >= deadline) {
+                    break;
+                }
+                ledgerService.aggregateSlots(userId);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Account slot aggregation failed", e);
+        } finally {
+            jobLock.unlock(LOCK_KEY, token);
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package org.software.code.job;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.RetriableException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.software.code.common.util.RedisJobLock;
+import org.software.code.entity.OutboxEvent;
+import org.software.code.mapper.OutboxEventMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 事务发件箱的投递任务。
+ * 按事件ID顺序批量读取待投递的事件，一次性发送给 Kafka 后统一等待确认，再将已确认的事件标记为已投递。
+ * 生产者开启幂等和 lz4 压缩（见 spring.kafka.producer 配置），消息键为聚合ID，同一聚合的事件保持顺序。
+ * 某条事件发送失败时本批只标记其之前的事件，其余事件在下一轮重新发送，因此投递语义为至少一次，
+ * 消费者应按消息中的事件ID去重。Kafka 暂时不可用等可重试的错误会一直重试；
+ * 不可重试的错误（如消息过大、序列化失败）累计 max-attempts 次后该事件转为死信，不再阻塞后续事件。
+ * 发送时即失败的事件（序列化失败、超过 max.request.size 等在客户端检查的错误）所属聚合的后续事件本批不再发送，
+ * 直到该事件投递成功或转为死信，同一聚合的事件不会越过失败的事件。只在 Broker 确认时才返回的错误无法在发送时得知，
+ * 此时同一聚合已在途的后续事件可能先于失败事件的重发到达，消费者应忽略事件ID小于该聚合已处理事件的消息。
+ * 多个实例通过 RedisJobLock 保证同一时间只有一个实例投递，每轮在锁过期时间的一半内结束。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Component
+public class OutboxRelayJob {
+
+    private static final Logger logger = LogManager.getLogger(OutboxRelayJob.class);
+
+    private static final String LOCK_KEY = "user:outbox:relay:lock";
+    private static final String HEADER_EVENT_ID = "event-id";
+    private static final String HEADER_EVENT_TYPE = "event-type";
+    // 每次清理删除的最大行数
+    private static final int PURGE_CHUNK = 10000;
+
+    // 主题名前缀，主题名为前缀加聚合类型，如 mobilepay.payment
+    @Value("${user.outbox.topic-prefix:mobilepay.}")
+    private String topicPrefix;
+
+    @Value("${user.outbox.batch-size:500}")
+    private int batchSize;
+
+    // 每轮最多投递的批数，积压时连续投递，避免每批都等待一个轮询间隔
+    @Value("${user.outbox.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${user.outbox.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    @Value("${user.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${user.outbox.lock-ttl-ms:600000}")
+    private long lockTtlMs;
+
+    // 已投递事件的保留时长
+    @Value("${user.outbox.retention-hours:72}")
+    private long retentionHours;
+
+    @Resource
+    private OutboxEventMapper outboxEventMapper;
+
+    @Resource
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Resource
+    private RedisJobLock jobLock;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    private Timer lag;
+    private Counter published;
+    private Counter failures;
+    private Counter deadLettered;
+
+    @PostConstruct
+    public void init() {
+        // 从事件写入发件箱到 Kafka 确认的端到端延迟
+        lag = Timer.builder("user.outbox.lag").publishPercentiles(0.5, 0.99).register(meterRegistry);
+        published = meterRegistry.counter("user.outbox.published");
+        failures = meterRegistry.counter("user.outbox.failures");
+        deadLettered = meterRegistry.counter("user.outbox.dead-lettered");
+    }
+
+    @Scheduled(fixedDelayString = "${user.outbox.poll-interval-ms:100}")
+    public void relay() {
+        String token = jobLock.tryLock(LOCK_KEY, lockTtlMs, TimeUnit.MILLISECONDS);
+        if (token == null) {
+            return;
+        }
+        // 在锁过期时间的一半内停止读取新的批次，保证本轮结束前锁不会过期
+        long deadline = System.currentTimeMillis() + lockTtlMs / 2;
+        try {
+            for (int i = 0; i < maxBatchesPerRun && System.currentTimeMillis() < deadline; i++) {
+                List<OutboxEvent> batch = outboxEventMapper.selectPending(batchSize);
+                if (batch.isEmpty() || publish(batch) < batch.size() || batch.size() < batchSize) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.error("Outbox relay failed", e);
+        } finally {
+            jobLock.unlock(LOCK_KEY, token);
+        }
+    }
+
+    /**
+     * 清理已投递且超过保留时长的事件
+     */
+    @Scheduled(cron = "${user.outbox.purge-cron:0 0 4 * * ?}")
+    public void purge() {
+        Date before = new Date(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(retentionHours));
+        int deleted;
+        do {
+            deleted = outboxEventMapper.deleteSentBefore(before, PURGE_CHUNK);
+        } while (deleted == PURGE_CHUNK);
+    }
+
+    /**
+     * 发送一批事件，返回按顺序连续确认成功的事件数
+     */
+    private int publish(List<OutboxEvent> batch) {
+        List<ListenableFuture<SendResult<String, String>>> futures = new ArrayList<>(batch.size());
+        // 本批中已有事件在发送时失败的聚合
+        Set<String> blocked = new HashSet<>();
+        for (OutboxEvent event : batch) {
+            String aggregate = event.getAggregateType() + ":" + event.getAggregateId();
+            if (blocked.contains(aggregate)) {
+                // 不发送，确认时在失败的事件处已经停止，不会读到这里
+                futures.add(null);
+                continue;
+            }
+            ProducerRecord<String, String> record = new ProducerRecord<>(topicPrefix + event.getAggregateType(),
+                    Long.toString(event.getAggregateId()), event.getPayload());
+            record.headers().add(HEADER_EVENT_ID, Long.toString(event.getId()).getBytes(StandardCharsets.UTF_8));
+            record.headers().add(HEADER_EVENT_TYPE, event.getEventType().getBytes(StandardCharsets.UTF_8));
+            ListenableFuture<SendResult<String, String>> future;
+            try {
+                future = kafkaTemplate.send(record);
+            } catch (RuntimeException e) {
+                // 同步抛出的错误（如序列化失败）与异步失败同样处理
+                SettableListenableFuture<SendResult<String, String>> failed = new SettableListenableFuture<>();
+                failed.setException(e);
+                future = failed;
+            }
+            futures.add(future);
+            if (failedOnSend(future)) {
+                blocked.add(aggregate);
+            }
+        }
+        kafkaTemplate.flush();
+
+        List<Long> sent = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxEvent event = batch.get(i);
+            if (futures.get(i) == null) {
+                break;
+            }
+            try {
+                futures.get(i).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                recordFailure(event, e.getCause());
+                break;
+            } catch (TimeoutException e) {
+                failures.increment();
+                logger.warn("Timed out publishing outbox event {}", event.getId());
+                break;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            sent.add(event.getId());
+            lag.record(System.currentTimeMillis() - event.getCreateTime().getTime(), TimeUnit.MILLISECONDS);
+        }
+        if (!sent.isEmpty()) {
+            outboxEventMapper.markSent(sent);
+            published.increment(sent.size());
+        }
+        return sent.size();
+    }
+
+    /**
+     * 记录事件的投递失败，只有不可重试的错误计入失败次数
+     */
+    private void recordFailure(OutboxEvent event, Throwable cause) {
+        failures.increment();
+        if (isRetriable(cause)) {
+            logger.warn("Failed to publish outbox event {}, will retry: {}", event.getId(), cause.getMessage());
+            return;
+        }
+        outboxEventMapper.recordFailure(event.getId(), maxAttempts);
+        int attempts = (event.getAttempts() == null ? 0 : event.getAttempts()) + 1;
+        if (attempts >= maxAttempts) {
+            deadLettered.increment();
+            logger.error("Outbox event {} dead-lettered after {} attempts", event.getId(), attempts, cause);
+        } else {
+            logger.warn("Failed to publish outbox event {} (attempt {}): {}", event.getId(), attempts, cause.getMessage());
+        }
+    }
+
+    /**
+     * 发送调用返回时是否已经失败，客户端检查出的错误在 send 返回前就会完成 future
+     */
+    private static boolean failedOnSend(ListenableFuture<SendResult<String, String>> future) {
+        if (!future.isDone()) {
+            return false;
+        }
+        try {
+            future.get();
+            return false;
+        } catch (ExecutionException e) {
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Kafka 的异常通常被 KafkaProducerException 包装，沿异常链查找可重试的原因
+     */
+    private static boolean isRetriable(Throwable cause) {
+        for (Throwable t = cause; t != null; t = t.getCause()) {
+            if (t instanceof RetriableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
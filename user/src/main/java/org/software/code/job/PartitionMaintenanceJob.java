@@ -0,0 +1,106 @@
+package org.software.code.job;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.software.code.common.util.RedisJobLock;
+import org.software.code.mapper.UserPlaceCodeMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 扫码记录表的分区维护任务。
+ * 每天执行一次（启动时也执行一次）：提前创建未来 months-ahead 个月的分区，
+ * 并删除早于保留期 retention-months 的月分区。删除分区是元数据操作，不会产生逐行删除的开销。
+ * 多个实例同时运行时通过 RedisJobLock 保证只有一个实例执行 DDL，锁的过期时间需长于 DDL 的最长耗时。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Component
+public class PartitionMaintenanceJob {
+
+    private static final Logger logger = LogManager.getLogger(PartitionMaintenanceJob.class);
+
+    private static final String LOCK_KEY = "user:place-code:partition:lock";
+    private static final Pattern MONTHLY_PARTITION = Pattern.compile("p(\\d{6})");
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+
+    @Value("${user.place-code.partition.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${user.place-code.partition.retention-months:12}")
+    private int retentionMonths;
+
+    @Value("${user.place-code.partition.lock-ttl-ms:3600000}")
+    private long lockTtlMs;
+
+    @Resource
+    private UserPlaceCodeMapper userPlaceCodeMapper;
+
+    @Resource
+    private RedisJobLock jobLock;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        run();
+    }
+
+    @Scheduled(cron = "${user.place-code.partition.cron:0 30 3 * * ?}")
+    public void run() {
+        String token = jobLock.tryLock(LOCK_KEY, lockTtlMs, TimeUnit.MILLISECONDS);
+        if (token == null) {
+            return;
+        }
+        try {
+            maintain(YearMonth.now());
+        } catch (RuntimeException e) {
+            logger.error("Check-in partition maintenance failed", e);
+        } finally {
+            jobLock.unlock(LOCK_KEY, token);
+        }
+    }
+
+    private void maintain(YearMonth current) {
+        Set<YearMonth> existing = new HashSet<>();
+        YearMonth latest = null;
+        for (String name : userPlaceCodeMapper.selectPartitionNames()) {
+            Matcher matcher = MONTHLY_PARTITION.matcher(name);
+            if (matcher.matches()) {
+                YearMonth month = YearMonth.parse(matcher.group(1), PARTITION_MONTH);
+                existing.add(month);
+                if (latest == null || month.isAfter(latest)) {
+                    latest = month;
+                }
+            }
+        }
+
+        // 新分区只能从 p_future 末端拆出，因此从已有的最后一个月之后依次创建
+        YearMonth target = current.plusMonths(monthsAhead);
+        YearMonth next = latest == null ? current : latest.plusMonths(1);
+        for (; !next.isAfter(target); next = next.plusMonths(1)) {
+            String partition = "p" + next.format(PARTITION_MONTH);
+            userPlaceCodeMapper.addMonthlyPartition(partition, next.plusMonths(1).atDay(1).toString());
+            logger.info("Created check-in partition {}", partition);
+        }
+
+        YearMonth oldestKept = current.minusMonths(retentionMonths);
+        for (YearMonth month : existing) {
+            if (month.isBefore(oldestKept)) {
+                String partition = "p" + month.format(PARTITION_MONTH);
+                userPlaceCodeMapper.dropPartition(partition);
+                logger.info("Dropped expired check-in partition {}", partition);
+            }
+        }
+    }
+}
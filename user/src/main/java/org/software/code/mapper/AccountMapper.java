@@ -0,0 +1,66 @@
+package org.software.code.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.software.code.entity.Account;
+
+/**
+ * 账户表的数据访问接口。
+ * 余额变更均为带条件的单条 UPDATE，由数据库原子地完成检查和扣减，不需要先 SELECT ... FOR UPDATE 再写回。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Mapper
+public interface AccountMapper extends BaseMapper<Account> {
+
+    /**
+     * 扣减余额，余额不足时不修改
+     *
+     * @return 影响行数，0 表示账户不存在或余额不足
+     */
+    @Update("UPDATE account SET balance = balance - #{amount} WHERE user_id = #{userId} AND balance >= #{amount}")
+    int debit(@Param("userId") long userId, @Param("amount") long amount);
+
+    /**
+     * 扣减余额且不检查是否足额，仅用于系统清算账户
+     */
+    @Update("UPDATE account SET balance = balance - #{amount} WHERE user_id = #{userId}")
+    int debitUnchecked(@Param("userId") long userId, @Param("amount") long amount);
+
+    /**
+     * 增加余额，账户不存在时自动开户
+     */
+    @Insert("INSERT INTO account (user_id, balance) VALUES (#{userId}, #{amount}) "
+            + "ON DUPLICATE KEY UPDATE balance = balance + VALUES(balance)")
+    int credit(@Param("userId") long userId, @Param("amount") long amount);
+
+    /**
+     * 锁定账户行，需在事务中调用
+     */
+    @Select("SELECT user_id FROM account WHERE user_id = #{userId} FOR UPDATE")
+    Long lockById(@Param("userId") long userId);
+
+    /**
+     * 查询账户的入账分片数，账户不存在时返回 null
+     */
+    @Select("SELECT split_slots FROM account WHERE user_id = #{userId}")
+    Integer selectSplitSlots(@Param("userId") long userId);
+
+    /**
+     * 设置账户的入账分片数，账户不存在时自动开户
+     */
+    @Insert("INSERT INTO account (user_id, balance, split_slots) VALUES (#{userId}, 0, #{slots}) "
+            + "ON DUPLICATE KEY UPDATE split_slots = VALUES(split_slots)")
+    int upsertSplitSlots(@Param("userId") long userId, @Param("slots") int slots);
+
+    /**
+     * 查询精确余额，即主余额加上各分片中尚未汇总的金额，账户不存在时返回 null
+     */
+    @Select("SELECT a.balance + COALESCE((SELECT SUM(s.balance) FROM account_slot s WHERE s.user_id = a.user_id), 0) "
+            + "FROM account a WHERE a.user_id = #{userId}")
+    Long selectExactBalance(@Param("userId") long userId);
+}
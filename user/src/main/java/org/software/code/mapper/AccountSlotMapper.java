@@ -0,0 +1,45 @@
+package org.software.code.mapper;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.software.code.entity.AccountSlot;
+
+import java.util.List;
+
+/**
+ * 账户入账分片表的数据访问接口。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Mapper
+public interface AccountSlotMapper {
+
+    /**
+     * 向分片入账，分片不存在时自动创建
+     */
+    @Insert("INSERT INTO account_slot (user_id, slot_no, balance) VALUES (#{userId}, #{slotNo}, #{amount}) "
+            + "ON DUPLICATE KEY UPDATE balance = balance + VALUES(balance)")
+    int credit(@Param("userId") long userId, @Param("slotNo") int slotNo, @Param("amount") long amount);
+
+    /**
+     * 从分片中扣除已汇总的金额。汇总期间分片只会继续增加，条件总能满足，仅防止重复汇总
+     */
+    @Update("UPDATE account_slot SET balance = balance - #{amount} "
+            + "WHERE user_id = #{userId} AND slot_no = #{slotNo} AND balance >= #{amount}")
+    int deduct(@Param("userId") long userId, @Param("slotNo") int slotNo, @Param("amount") long amount);
+
+    /**
+     * 查询账户的所有分片
+     */
+    @Select("SELECT user_id, slot_no, balance, update_time FROM account_slot WHERE user_id = #{userId} ORDER BY slot_no")
+    List<AccountSlot> selectByUser(@Param("userId") long userId);
+
+    /**
+     * 查询有待汇总金额的账户
+     */
+    @Select("SELECT DISTINCT user_id FROM account_slot WHERE balance > 0 LIMIT #{limit}")
+    List<Long> selectPendingUserIds(@Param("limit") int limit);
+}
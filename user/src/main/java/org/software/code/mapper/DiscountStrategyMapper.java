@@ -0,0 +1,29 @@
+package org.software.code.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Select;
+import org.software.code.entity.DiscountStrategy;
+
+import java.util.List;
+
+/**
+ * 折扣策略表的数据访问接口。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Mapper
+public interface DiscountStrategyMapper extends BaseMapper<DiscountStrategy> {
+
+    /**
+     * 查询所有已启用且尚未失效的策略
+     */
+    @Select("SELECT * FROM discount_strategy WHERE status = 0 AND end_time > NOW()")
+    List<DiscountStrategy> selectActive();
+
+    /**
+     * 查询策略表的版本标识（记录数与最后更新时间），用于判断是否需要重新加载
+     */
+    @Select("SELECT CONCAT(COUNT(*), '@', IFNULL(UNIX_TIMESTAMP(MAX(update_time)), 0)) FROM discount_strategy")
+    String selectVersion();
+}
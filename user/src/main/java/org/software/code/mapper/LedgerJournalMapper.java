@@ -0,0 +1,29 @@
+package org.software.code.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.software.code.entity.LedgerJournal;
+
+import java.util.List;
+
+/**
+ * 账务流水表的数据访问接口。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Mapper
+public interface LedgerJournalMapper extends BaseMapper<LedgerJournal> {
+
+    /**
+     * 用一条多行 INSERT 写入一笔业务的全部流水
+     */
+    @Insert("<script>"
+            + "INSERT INTO ledger_journal (id, account_id, counterparty, direction, amount, biz_type, biz_id, create_time) VALUES "
+            + "<foreach collection='entries' item='e' separator=','>"
+            + "(#{e.id}, #{e.accountId}, #{e.counterparty}, #{e.direction}, #{e.amount}, #{e.bizType}, #{e.bizId}, #{e.createTime})"
+            + "</foreach>"
+            + "</script>")
+    int insertEntries(@Param("entries") List<LedgerJournal> entries);
+}
@@ -0,0 +1,63 @@
+package org.software.code.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.software.code.entity.OutboxEvent;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 事务发件箱表的数据访问接口。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Mapper
+public interface OutboxEventMapper extends BaseMapper<OutboxEvent> {
+
+    /**
+     * 用一条多行 INSERT 写入多个事件
+     */
+    @Insert("<script>"
+            + "INSERT INTO outbox_event (id, aggregate_type, aggregate_id, event_type, payload, status, create_time) VALUES "
+            + "<foreach collection='events' item='e' separator=','>"
+            + "(#{e.id}, #{e.aggregateType}, #{e.aggregateId}, #{e.eventType}, #{e.payload}, #{e.status}, #{e.createTime})"
+            + "</foreach>"
+            + "</script>")
+    int insertEvents(@Param("events") List<OutboxEvent> events);
+
+    /**
+     * 按事件ID顺序查询待投递的事件
+     */
+    @Select("SELECT id, aggregate_type, aggregate_id, event_type, payload, status, attempts, create_time FROM outbox_event "
+            + "WHERE status = 0 ORDER BY id LIMIT #{limit}")
+    List<OutboxEvent> selectPending(@Param("limit") int limit);
+
+    /**
+     * 将事件标记为已投递
+     */
+    @Update("<script>"
+            + "UPDATE outbox_event SET status = 1 WHERE id IN "
+            + "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>"
+            + "</script>")
+    int markSent(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 记录一次投递失败，失败次数达到上限时转为死信，不再投递（MySQL 按从左到右的顺序赋值，IF 中读到的是加一后的次数）
+     */
+    @Update("UPDATE outbox_event SET attempts = attempts + 1, status = IF(attempts >= #{maxAttempts}, 2, status) "
+            + "WHERE id = #{id} AND status = 0")
+    int recordFailure(@Param("id") long id, @Param("maxAttempts") int maxAttempts);
+
+    /**
+     * 删除早于指定时间的已投递事件
+     */
+    @Delete("DELETE FROM outbox_event WHERE status = 1 AND create_time < #{before} LIMIT #{limit}")
+    int deleteSentBefore(@Param("before") Date before, @Param("limit") int limit);
+}
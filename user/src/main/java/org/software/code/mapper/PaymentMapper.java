@@ -0,0 +1,55 @@
+package org.software.code.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.software.code.entity.Payment;
+
+import java.util.Date;
+
+/**
+ * 支付表的数据访问接口。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Mapper
+public interface PaymentMapper extends BaseMapper<Payment> {
+
+    /**
+     * 按付款人和幂等键查询支付记录
+     */
+    @Select("SELECT * FROM payment WHERE payer_id = #{payerId} AND request_key = #{requestKey}")
+    Payment selectByRequestKey(@Param("payerId") long payerId, @Param("requestKey") String requestKey);
+
+    /**
+     * 仅当支付处于 expected 状态时更新状态
+     *
+     * @return 影响行数，0 表示状态已被改变
+     */
+    @Update("UPDATE payment SET status = #{status} WHERE id = #{id} AND status = #{expected}")
+    int updateStatus(@Param("id") long id, @Param("expected") int expected, @Param("status") int status);
+
+    /**
+     * 按ID升序流式读取支付记录，用于导出。
+     * fetchSize 为 Integer.MIN_VALUE 时 MySQL 驱动逐行读取结果集而不是一次性载入内存，
+     * 返回的游标需在事务内遍历并关闭
+     *
+     * @param after 只返回ID大于该值的记录
+     * @param from 创建时间起点（包含），为 null 时不限
+     * @param to 创建时间终点（不包含），为 null 时不限
+     */
+    @Select("<script>"
+            + "SELECT id, payer_id, payee_id, amount, discount, payable, strategy_id, request_key, status, "
+            + "create_time, update_time FROM payment WHERE id &gt; #{after} "
+            + "<if test='from != null'>AND create_time &gt;= #{from} </if>"
+            + "<if test='to != null'>AND create_time &lt; #{to} </if>"
+            + "ORDER BY id"
+            + "</script>")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    Cursor<Payment> streamAfter(@Param("after") long after, @Param("from") Date from, @Param("to") Date to);
+}
@@ -0,0 +1,14 @@
+package org.software.code.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import org.software.code.entity.PlaceCode;
+
+/**
+ * 场所码表的数据访问接口。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Mapper
+public interface PlaceCodeMapper extends BaseMapper<PlaceCode> {
+}
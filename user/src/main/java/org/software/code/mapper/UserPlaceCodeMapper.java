@@ -0,0 +1,107 @@
+package org.software.code.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.software.code.entity.UserPlaceCode;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 用户场所码扫码记录表的数据访问接口。
+ * 时间窗查询按 (check_in_time, id) 倒序做游标分页，游标条件与排序完全落在覆盖索引上，
+ * 翻页代价与页码无关；时间窗条件使查询只访问相关的月分区。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Mapper
+public interface UserPlaceCodeMapper extends BaseMapper<UserPlaceCode> {
+
+    /**
+     * 查询用户在时间窗内的扫码记录
+     *
+     * @param userId 用户ID
+     * @param from 时间窗起点（包含）
+     * @param to 时间窗终点（不包含）
+     * @param cursorTime 上一页最后一条记录的扫码时间，首页为 null
+     * @param cursorId 上一页最后一条记录的ID，首页为 null
+     * @param limit 返回的最大条数
+     * @return 按扫码时间倒序排列的记录
+     */
+    @Select("<script>"
+            + "SELECT id, user_id, place_id, check_in_time FROM user_place_code "
+            + "WHERE user_id = #{userId} AND check_in_time &gt;= #{from} AND check_in_time &lt; #{to} "
+            + "<if test='cursorTime != null'>"
+            + "AND (check_in_time &lt; #{cursorTime} OR (check_in_time = #{cursorTime} AND id &lt; #{cursorId})) "
+            + "</if>"
+            + "ORDER BY check_in_time DESC, id DESC LIMIT #{limit}"
+            + "</script>")
+    List<UserPlaceCode> selectByUserInWindow(@Param("userId") long userId, @Param("from") Date from,
+                                             @Param("to") Date to, @Param("cursorTime") Date cursorTime,
+                                             @Param("cursorId") Long cursorId, @Param("limit") int limit);
+
+    /**
+     * 查询场所在时间窗内的扫码记录，参数含义同 selectByUserInWindow
+     */
+    @Select("<script>"
+            + "SELECT id, user_id, place_id, check_in_time FROM user_place_code "
+            + "WHERE place_id = #{placeId} AND check_in_time &gt;= #{from} AND check_in_time &lt; #{to} "
+            + "<if test='cursorTime != null'>"
+            + "AND (check_in_time &lt; #{cursorTime} OR (check_in_time = #{cursorTime} AND id &lt; #{cursorId})) "
+            + "</if>"
+            + "ORDER BY check_in_time DESC, id DESC LIMIT #{limit}"
+            + "</script>")
+    List<UserPlaceCode> selectByPlaceInWindow(@Param("placeId") long placeId, @Param("from") Date from,
+                                              @Param("to") Date to, @Param("cursorTime") Date cursorTime,
+                                              @Param("cursorId") Long cursorId, @Param("limit") int limit);
+
+    /**
+     * 按ID升序流式读取扫码记录，用于导出，游标的使用要求同 PaymentMapper.streamAfter。
+     * 时间条件使查询只访问相关的月分区，各分区按主键有序读取后归并
+     *
+     * @param after 只返回ID大于该值的记录
+     * @param from 扫码时间起点（包含），为 null 时不限
+     * @param to 扫码时间终点（不包含），为 null 时不限
+     */
+    @Select("<script>"
+            + "SELECT id, user_id, place_id, check_in_time FROM user_place_code WHERE id &gt; #{after} "
+            + "<if test='from != null'>AND check_in_time &gt;= #{from} </if>"
+            + "<if test='to != null'>AND check_in_time &lt; #{to} </if>"
+            + "ORDER BY id"
+            + "</script>")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    Cursor<UserPlaceCode> streamAfter(@Param("after") long after, @Param("from") Date from, @Param("to") Date to);
+
+    /**
+     * 查询扫码记录表当前的所有分区名
+     */
+    @Select("SELECT PARTITION_NAME FROM information_schema.PARTITIONS "
+            + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'user_place_code' AND PARTITION_NAME IS NOT NULL "
+            + "ORDER BY PARTITION_ORDINAL_POSITION")
+    List<String> selectPartitionNames();
+
+    /**
+     * 从 p_future 中拆分出一个新的月分区。分区名和边界由调用方按固定格式生成，不来自外部输入
+     *
+     * @param partition 新分区名，形如 p202611
+     * @param lessThan 新分区的上界（不包含），形如 2026-12-01
+     */
+    @Update("ALTER TABLE user_place_code REORGANIZE PARTITION p_future INTO ("
+            + "PARTITION ${partition} VALUES LESS THAN ('${lessThan}'), "
+            + "PARTITION p_future VALUES LESS THAN (MAXVALUE))")
+    void addMonthlyPartition(@Param("partition") String partition, @Param("lessThan") String lessThan);
+
+    /**
+     * 删除一个月分区及其中的全部数据
+     *
+     * @param partition 分区名，形如 p202510
+     */
+    @Update("ALTER TABLE user_place_code DROP PARTITION ${partition}")
+    void dropPartition(@Param("partition") String partition);
+}
@@ -0,0 +1,30 @@
+package org.software.code.service;
+
+import org.software.code.dto.TokenPairDTO;
+
+/**
+ * 认证令牌服务接口，负责签发访问令牌与刷新令牌对，并通过刷新令牌轮换令牌。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+public interface AuthTokenService {
+
+    /**
+     * 为指定用户签发一对新的访问令牌和刷新令牌。
+     *
+     * @param userId 用户ID
+     * @param role 用户角色
+     * @return 令牌对
+     */
+    TokenPairDTO issueTokenPair(long userId, String role);
+
+    /**
+     * 使用刷新令牌换取新的令牌对，原刷新令牌随即失效。
+     * 已使用过的刷新令牌再次出现时视为被盗用，该用户的所有令牌都会被吊销。
+     * 冻结或不存在的用户不能刷新，新令牌的角色取自数据库，新刷新令牌沿用原令牌的过期时间。
+     *
+     * @param refreshToken 刷新令牌
+     * @return 新的令牌对
+     */
+    TokenPairDTO refresh(String refreshToken);
+}
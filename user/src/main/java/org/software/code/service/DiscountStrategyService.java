@@ -0,0 +1,65 @@
+package org.software.code.service;
+
+import org.software.code.dto.CreateStrategyRequest;
+import org.software.code.dto.DiscountResultDTO;
+
+/**
+ * 折扣策略服务接口，提供策略管理和折扣计算。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+public interface DiscountStrategyService {
+
+    /**
+     * 创建折扣策略，创建后所有实例立即加载。
+     *
+     * @param request 策略内容
+     * @return 策略ID
+     */
+    long createStrategy(CreateStrategyRequest request);
+
+    /**
+     * 启用或禁用折扣策略。
+     *
+     * @param strategyId 策略ID
+     * @param enabled 是否启用
+     */
+    void updateStrategyStatus(long strategyId, boolean enabled);
+
+    /**
+     * 计算订单可享受的最优折扣，用户分群取自用户资料。
+     *
+     * @param userId 用户ID
+     * @param amount 订单金额（分）
+     * @return 折扣计算结果
+     */
+    DiscountResultDTO evaluateBest(long userId, long amount);
+
+    /**
+     * 校验指定策略能否用于订单，并计算折扣。
+     *
+     * @param strategyId 策略ID
+     * @param userId 用户ID
+     * @param amount 订单金额（分）
+     * @return 折扣计算结果
+     */
+    DiscountResultDTO evaluate(long strategyId, long userId, long amount);
+
+    /**
+     * 使用指定策略：校验并计算折扣，同时占用一次使用次数。只在创建支付时调用，占用后支付失败须调用 releaseStrategy 归还。
+     *
+     * @param strategyId 策略ID
+     * @param userId 用户ID
+     * @param amount 订单金额（分）
+     * @return 折扣计算结果
+     */
+    DiscountResultDTO useStrategy(long strategyId, long userId, long amount);
+
+    /**
+     * 归还一次已占用的使用次数，用于使用策略后业务失败的回滚。
+     *
+     * @param strategyId 策略ID
+     * @param userId 用户ID
+     */
+    void releaseStrategy(long strategyId, long userId);
+}
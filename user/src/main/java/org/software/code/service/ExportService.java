@@ -0,0 +1,41 @@
+package org.software.code.service;
+
+import org.software.code.dto.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Date;
+
+/**
+ * 数据导出服务接口，供运营对账批量导出支付记录和扫码记录。
+ * 记录按ID升序流式写出，内存占用与导出行数无关；after 为上次已收到的最后一行的ID，用于中断后继续导出。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+public interface ExportService {
+
+    /**
+     * 导出支付记录
+     *
+     * @param from 创建时间起点（包含），为 null 时不限
+     * @param to 创建时间终点（不包含），为 null 时不限
+     * @param after 只导出ID大于该值的记录，从头导出时为 0
+     * @param format 导出格式
+     * @param target 导出目标，查询开始后才打开
+     * @return 导出的行数
+     */
+    long exportPayments(Date from, Date to, long after, ExportFormat format, ExportTarget target) throws IOException;
+
+    /**
+     * 导出扫码记录，参数含义同 exportPayments，时间条件作用于扫码时间
+     */
+    long exportCheckIns(Date from, Date to, long after, ExportFormat format, ExportTarget target) throws IOException;
+
+    /**
+     * 导出目标。查询失败时不会打开，调用方仍可返回普通的错误响应
+     */
+    interface ExportTarget {
+
+        OutputStream open() throws IOException;
+    }
+}
@@ -0,0 +1,57 @@
+package org.software.code.service;
+
+/**
+ * 账务服务接口，采用复式记账：每笔转账同时写入付款方的借记流水和收款方的贷记流水，并更新双方余额。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+public interface LedgerService {
+
+    /**
+     * 转账。余额变更、流水写入及 onPosted 在同一个数据库事务中完成，任一步失败则全部回滚。
+     *
+     * @param fromId 付款账户的用户ID
+     * @param toId 收款账户的用户ID
+     * @param amount 金额（分），必须大于 0
+     * @param bizType 业务类型
+     * @param bizId 业务单号，同一业务单号只能记账一次
+     * @param onPosted 记账成功后在同一事务中执行的操作，如更新业务单状态，可为 null
+     */
+    void transfer(long fromId, long toId, long amount, int bizType, long bizId, Runnable onPosted);
+
+    /**
+     * 充值，从系统清算账户转入。相同的充值单号重复提交时不会重复入账；
+     * 充值单号已被用于其他用户或其他金额的充值时抛出 DEPOSIT_REFERENCE_CONFLICT。
+     *
+     * @param userId 用户ID
+     * @param amount 金额（分）
+     * @param referenceId 充值单号
+     */
+    void deposit(long userId, long amount, long referenceId);
+
+    /**
+     * 查询账户余额，未开户的用户余额为 0。
+     *
+     * @param userId 用户ID
+     * @param exact 为 true 时返回主余额与各入账分片之和；为 false 时只返回最近一次汇总后的主余额，开销更小
+     * @return 余额（分）
+     */
+    long getBalance(long userId, boolean exact);
+
+    /**
+     * 设置账户的入账分片数。开启后该账户的入账分散写入多个分片，由后台任务定期汇总到主余额，
+     * 适用于入账并发很高的收款账户。
+     *
+     * @param userId 用户ID
+     * @param slots 分片数，0 表示关闭拆分
+     */
+    void setSplitSlots(long userId, int slots);
+
+    /**
+     * 将账户各入账分片中的金额汇总到主余额。
+     *
+     * @param userId 用户ID
+     * @return 本次汇总的金额（分）
+     */
+    long aggregateSlots(long userId);
+}
@@ -0,0 +1,43 @@
+package org.software.code.service;
+
+import org.software.code.dto.PaymentCodeDTO;
+
+/**
+ * 付款码服务接口，按固定周期为用户签发短时有效的付款码，并渲染为二维码图片。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+public interface PaymentCodeService {
+
+    /**
+     * 获取用户当前周期的付款码。
+     *
+     * @param userId 用户ID
+     * @return 付款码信息
+     */
+    PaymentCodeDTO getPaymentCode(long userId);
+
+    /**
+     * 获取用户当前周期付款码的 PNG 二维码图片。
+     *
+     * @param userId 用户ID
+     * @return PNG 文件的字节
+     */
+    byte[] getPaymentCodePng(long userId);
+
+    /**
+     * 获取用户当前周期付款码的 SVG 二维码图片。
+     *
+     * @param userId 用户ID
+     * @return SVG 文档
+     */
+    String getPaymentCodeSvg(long userId);
+
+    /**
+     * 核销付款码，校验签名和有效期，每个付款码只能核销一次。
+     *
+     * @param code 付款码
+     * @return 付款码所属的用户ID
+     */
+    long verifyPaymentCode(String code);
+}
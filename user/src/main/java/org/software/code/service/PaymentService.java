@@ -0,0 +1,31 @@
+package org.software.code.service;
+
+import org.software.code.dto.CreatePaymentRequest;
+import org.software.code.dto.PaymentDTO;
+
+/**
+ * 支付服务接口。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+public interface PaymentService {
+
+    /**
+     * 创建并完成支付。同一付款人使用相同幂等键重复提交时返回已创建的支付，不会重复扣款。
+     *
+     * @param payerId 付款用户ID
+     * @param requestKey 客户端提交的幂等键
+     * @param request 支付内容
+     * @return 支付信息
+     */
+    PaymentDTO createPayment(long payerId, String requestKey, CreatePaymentRequest request);
+
+    /**
+     * 查询支付，仅付款方和收款方可查询。
+     *
+     * @param userId 当前用户ID
+     * @param paymentId 支付ID
+     * @return 支付信息
+     */
+    PaymentDTO getPayment(long userId, long paymentId);
+}
@@ -0,0 +1,75 @@
+package org.software.code.service;
+
+import org.software.code.dto.CheckInRecordDTO;
+import org.software.code.dto.CreatePlaceCodeRequest;
+import org.software.code.dto.KeysetPageDTO;
+import org.software.code.dto.PlaceCodeDTO;
+
+import java.util.Date;
+
+/**
+ * 场所码服务接口，提供场所码的创建、查询以及用户扫码登记。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+public interface PlaceCodeService {
+
+    /**
+     * 创建场所码。
+     *
+     * @param creatorId 创建者的用户ID
+     * @param request 场所信息
+     * @return 创建的场所码
+     */
+    PlaceCodeDTO createPlaceCode(long creatorId, CreatePlaceCodeRequest request);
+
+    /**
+     * 查询场所码。
+     *
+     * @param placeId 场所ID
+     * @return 场所码信息
+     */
+    PlaceCodeDTO getPlaceCode(long placeId);
+
+    /**
+     * 获取场所码的 PNG 二维码图片。
+     *
+     * @param placeId 场所ID
+     * @return PNG 文件的字节
+     */
+    byte[] getPlaceCodePng(long placeId);
+
+    /**
+     * 用户扫码登记。记录进入写入队列后即返回，由后台批量写入数据库。
+     *
+     * @param userId 用户ID
+     * @param placeId 场所ID
+     */
+    void checkIn(long userId, long placeId);
+
+    /**
+     * 按时间倒序分页查询用户在时间窗内的扫码记录。
+     *
+     * @param userId 用户ID
+     * @param from 时间窗起点（包含）
+     * @param to 时间窗终点（不包含）
+     * @param cursor 上一页返回的游标，首页为 null
+     * @param size 每页条数
+     * @return 扫码记录分页
+     */
+    KeysetPageDTO<CheckInRecordDTO> listUserCheckIns(long userId, Date from, Date to, String cursor, int size);
+
+    /**
+     * 按时间倒序分页查询场所在时间窗内的扫码记录，仅场所创建者可查询。
+     *
+     * @param requesterId 请求者的用户ID
+     * @param placeId 场所ID
+     * @param from 时间窗起点（包含）
+     * @param to 时间窗终点（不包含）
+     * @param cursor 上一页返回的游标，首页为 null
+     * @param size 每页条数
+     * @return 扫码记录分页
+     */
+    KeysetPageDTO<CheckInRecordDTO> listPlaceCheckIns(long requesterId, long placeId, Date from, Date to,
+                                                      String cursor, int size);
+}
@@ -0,0 +1,34 @@
+package org.software.code.service;
+
+/**
+ * Token 吊销服务接口，用于在 Token 过期之前使其失效。
+ * 吊销记录保存在 Redis 中，网关据此拒绝已吊销的 Token。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+public interface TokenRevocationService {
+
+    /**
+     * 吊销单个 Token（用户主动登出）。
+     *
+     * @param token 待吊销的 JWT Token 字符串
+     */
+    void revokeToken(String token);
+
+    /**
+     * 吊销指定用户在当前时间之前签发的所有 Token（强制下线）。
+     *
+     * @param userId 用户ID
+     */
+    void revokeAllForUser(long userId);
+
+    /**
+     * 判断指定用户在某一时间签发的 Token 是否已被强制下线吊销。
+     * 按毫秒比较：签发时间不晚于吊销时刻的 Token 视为失效。
+     *
+     * @param userId 用户ID
+     * @param issuedAt Token 签发时间（毫秒时间戳），应通过 JwtUtil.issuedAtMillis 读取
+     * @return 已被吊销时返回 true
+     */
+    boolean isRevokedForUser(long userId, long issuedAt);
+}
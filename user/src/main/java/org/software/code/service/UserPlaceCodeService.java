@@ -0,0 +1,12 @@
+package org.software.code.service;
+
+import com.baomidou.mybatisplus.extension.service.IService;
+import org.software.code.entity.UserPlaceCode;
+
+/**
+ * 用户场所码扫码记录服务接口，提供 MyBatis-Plus 的批量写入能力。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+public interface UserPlaceCodeService extends IService<UserPlaceCode> {
+}
@@ -0,0 +1,58 @@
+package org.software.code.service;
+
+import org.software.code.dto.LoginRequest;
+import org.software.code.dto.RegisterRequest;
+import org.software.code.dto.TokenPairDTO;
+import org.software.code.dto.UpdateProfileRequest;
+import org.software.code.dto.UserProfileDTO;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 用户服务接口，提供登录、注册等操作。
+ * 密码哈希在专用线程池中执行，因此登录和注册以异步结果返回。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+public interface UserService {
+
+    /**
+     * 用户登录，校验用户名和密码后签发令牌对。
+     *
+     * @param request 登录请求参数
+     * @return 异步返回的令牌对
+     */
+    CompletableFuture<TokenPairDTO> login(LoginRequest request);
+
+    /**
+     * 用户注册。
+     *
+     * @param request 注册请求参数
+     * @return 异步返回的新用户ID
+     */
+    CompletableFuture<Long> register(RegisterRequest request);
+
+    /**
+     * 查询用户资料。
+     *
+     * @param userId 用户ID
+     * @return 用户资料
+     */
+    UserProfileDTO getProfile(long userId);
+
+    /**
+     * 修改用户资料，修改后所有实例的资料缓存同时失效。
+     *
+     * @param userId 用户ID
+     * @param request 修改内容
+     */
+    void updateProfile(long userId, UpdateProfileRequest request);
+
+    /**
+     * 设置用户所属的分群，决定用户可使用的折扣策略，修改后资料缓存同时失效。
+     *
+     * @param userId 用户ID
+     * @param segment 用户分群，为 null 时清除分群
+     */
+    void updateSegment(long userId, String segment);
+}
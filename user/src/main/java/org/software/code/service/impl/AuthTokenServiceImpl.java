@@ -0,0 +1,112 @@
+package org.software.code.service.impl;
+
+import io.jsonwebtoken.Claims;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.software.code.common.except.BusinessException;
+import org.software.code.common.except.ExceptionEnum;
+import org.software.code.common.util.JwtUtil;
+import org.software.code.common.util.RedisUtil;
+import org.software.code.dto.TokenPairDTO;
+import org.software.code.entity.User;
+import org.software.code.mapper.UserMapper;
+import org.software.code.service.AuthTokenService;
+import org.software.code.service.TokenRevocationService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 认证令牌服务实现类。
+ * 访问令牌有效期短，网关本地验签并缓存解析结果；刷新令牌有效期长，每次刷新都会轮换。
+ * 刷新令牌的单次使用通过 Redis SETNX 保证：以 jti 为键写入已使用标记，过期时间与令牌剩余有效期一致，
+ * 每次刷新只需一次 GET 和一次 SETNX，签名使用预先构建好的密钥对象。
+ * 刷新时按用户ID重新读取用户，冻结或已不存在的用户不能续期，角色以数据库为准；
+ * 轮换出的刷新令牌沿用原令牌的过期时间，一次登录的会话最长持续 refresh-token-ttl-ms。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Service
+public class AuthTokenServiceImpl implements AuthTokenService {
+
+    private static final Logger logger = LogManager.getLogger(AuthTokenServiceImpl.class);
+
+    // 已使用的刷新令牌标记键前缀
+    public static final String REFRESH_USED_PREFIX = "token:refresh:used:";
+
+    // 访问令牌有效期，默认 15 分钟
+    @Value("${jwt.access-token-ttl-ms:900000}")
+    private long accessTokenTtlMs;
+
+    // 刷新令牌有效期，默认 14 天，不应超过 jwt.revocation.user-ttl-ms
+    @Value("${jwt.refresh-token-ttl-ms:1209600000}")
+    private long refreshTokenTtlMs;
+
+    @Resource
+    private RedisUtil redisUtil;
+
+    @Resource
+    private TokenRevocationService tokenRevocationService;
+
+    @Resource
+    private UserMapper userMapper;
+
+    @Override
+    public TokenPairDTO issueTokenPair(long userId, String role) {
+        long now = System.currentTimeMillis();
+        return issueTokenPair(userId, role, now, now + refreshTokenTtlMs);
+    }
+
+    @Override
+    public TokenPairDTO refresh(String refreshToken) {
+        Claims claims = JwtUtil.parseClaims(refreshToken);
+        String jti = claims.getId();
+        Number userIdClaim = claims.get(JwtUtil.CLAIM_USER_ID, Number.class);
+        if (jti == null || userIdClaim == null
+                || !JwtUtil.REFRESH_TOKEN.equals(claims.get(JwtUtil.CLAIM_TOKEN_TYPE, String.class))) {
+            throw new BusinessException(ExceptionEnum.REFRESH_TOKEN_INVALID);
+        }
+        long userId = userIdClaim.longValue();
+        long issuedAt = JwtUtil.issuedAtMillis(claims);
+        if (tokenRevocationService.isRevokedForUser(userId, issuedAt)) {
+            throw new BusinessException(ExceptionEnum.REFRESH_TOKEN_INVALID);
+        }
+
+        long now = System.currentTimeMillis();
+        long sessionExpiresAt = claims.getExpiration().getTime();
+        long remainingMs = sessionExpiresAt - now;
+        if (remainingMs <= 0) {
+            throw new BusinessException(ExceptionEnum.REFRESH_TOKEN_INVALID);
+        }
+        // 以数据库中的用户状态和角色为准，令牌中的角色可能已经过时
+        User user = userMapper.selectById(userId);
+        if (user == null) {
+            throw new BusinessException(ExceptionEnum.USER_NOT_FOUND);
+        }
+        if (user.isFrozen()) {
+            throw new BusinessException(ExceptionEnum.USER_ACCOUNT_FROZEN);
+        }
+        // 原子地标记该刷新令牌已使用，并发刷新时只有一个请求能够成功
+        if (!redisUtil.setIfAbsent(REFRESH_USED_PREFIX + jti, "1", remainingMs, TimeUnit.MILLISECONDS)) {
+            // 刷新令牌被重复使用，说明可能已泄露，吊销该用户的全部令牌
+            logger.warn("Refresh token reuse detected, revoking all tokens for user: {}", userId);
+            tokenRevocationService.revokeAllForUser(userId);
+            throw new BusinessException(ExceptionEnum.REFRESH_TOKEN_INVALID);
+        }
+        return issueTokenPair(userId, user.getRole(), now, sessionExpiresAt);
+    }
+
+    /**
+     * 签发令牌对，刷新令牌在会话过期时间失效，访问令牌不会晚于会话过期
+     */
+    private TokenPairDTO issueTokenPair(long userId, String role, long now, long sessionExpiresAt) {
+        long accessExpiresAt = Math.min(now + accessTokenTtlMs, sessionExpiresAt);
+        String accessToken = JwtUtil.generateToken(userId, role, JwtUtil.ACCESS_TOKEN, now, accessExpiresAt);
+        String refreshToken = JwtUtil.generateToken(userId, role, JwtUtil.REFRESH_TOKEN, now, sessionExpiresAt);
+        return new TokenPairDTO(accessToken, refreshToken,
+                TimeUnit.MILLISECONDS.toSeconds(accessExpiresAt - now),
+                TimeUnit.MILLISECONDS.toSeconds(sessionExpiresAt - now));
+    }
+}
@@ -0,0 +1,207 @@
+package org.software.code.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.software.code.common.except.BusinessException;
+import org.software.code.common.except.ExceptionEnum;
+import org.software.code.entity.OutboxEvent;
+import org.software.code.entity.UserPlaceCode;
+import org.software.code.event.OutboxRecorder;
+import org.software.code.service.UserPlaceCodeService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 扫码记录批量写入器。
+ * 扫码请求只将记录放入有界队列，由单个后台线程攒批后调用 saveBatch 写入，
+ * 配合 JDBC 连接参数 rewriteBatchedStatements=true 由驱动改写为多行 INSERT。
+ * 攒够 flush-size 条或距该批第一条记录超过 flush-interval-ms 时写入一批。
+ * 队列满时请求最多等待 offer-timeout-ms，仍无空位则拒绝，形成背压；
+ * 关闭时先停止接收新记录，再将队列中剩余的记录全部写入后退出。
+ * 每批记录与对应的扫码事件在同一事务中写入，事件同样合并为一条多行 INSERT。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Component
+public class CheckInBatchWriter {
+
+    private static final Logger logger = LogManager.getLogger(CheckInBatchWriter.class);
+
+    @Value("${user.place-code.check-in.queue-capacity:20000}")
+    private int queueCapacity;
+
+    @Value("${user.place-code.check-in.flush-size:500}")
+    private int flushSize;
+
+    @Value("${user.place-code.check-in.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${user.place-code.check-in.offer-timeout-ms:50}")
+    private long offerTimeoutMs;
+
+    @Value("${user.place-code.check-in.max-retries:3}")
+    private int maxRetries;
+
+    @Value("${user.place-code.check-in.shutdown-timeout-ms:30000}")
+    private long shutdownTimeoutMs;
+
+    @Resource
+    private UserPlaceCodeService userPlaceCodeService;
+
+    @Resource
+    private OutboxRecorder outboxRecorder;
+
+    @Resource
+    private TransactionTemplate transactionTemplate;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    private BlockingQueue<UserPlaceCode> queue;
+    private Thread writerThread;
+    private volatile boolean accepting = true;
+
+    private Counter rejected;
+    private Counter written;
+    private Counter failed;
+    private DistributionSummary batchSize;
+
+    @PostConstruct
+    public void init() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder("user.check-in.queue.size", queue, BlockingQueue::size).register(meterRegistry);
+        rejected = meterRegistry.counter("user.check-in.rejected");
+        written = meterRegistry.counter("user.check-in.written");
+        failed = meterRegistry.counter("user.check-in.failed");
+        batchSize = DistributionSummary.builder("user.check-in.batch.size").register(meterRegistry);
+
+        writerThread = new Thread(this::run, "check-in-batch-writer");
+        writerThread.start();
+    }
+
+    /**
+     * 提交一条扫码记录，队列满时短暂等待，仍无空位则拒绝
+     *
+     * @param record 扫码记录
+     * @throws BusinessException 队列已满或正在关闭时抛出 USER_PLACE_CODE_INSERT_FAIL
+     */
+    public void submit(UserPlaceCode record) {
+        boolean accepted = false;
+        if (accepting) {
+            try {
+                accepted = queue.offer(record, offerTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (!accepted) {
+            rejected.increment();
+            throw new BusinessException(ExceptionEnum.USER_PLACE_CODE_INSERT_FAIL);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        accepting = false;
+        writerThread.join(shutdownTimeoutMs);
+        if (writerThread.isAlive()) {
+            logger.error("Check-in writer did not drain within {} ms, {} records not written",
+                    shutdownTimeoutMs, queue.size());
+            writerThread.interrupt();
+        }
+    }
+
+    private void run() {
+        List<UserPlaceCode> batch = new ArrayList<>(flushSize);
+        while (accepting || !queue.isEmpty()) {
+            try {
+                collect(batch);
+            } catch (InterruptedException e) {
+                // 被中断时写出已收集的记录后退出
+                write(batch);
+                return;
+            }
+            write(batch);
+        }
+    }
+
+    /**
+     * 收集一批记录：等待第一条记录，再在 flush-interval-ms 内攒到 flush-size 条
+     */
+    private void collect(List<UserPlaceCode> batch) throws InterruptedException {
+        UserPlaceCode first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        while (batch.size() < flushSize) {
+            queue.drainTo(batch, flushSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= flushSize || remaining <= 0 || !accepting) {
+                return;
+            }
+            UserPlaceCode next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void write(List<UserPlaceCode> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    userPlaceCodeService.saveBatch(batch, flushSize);
+                    recordEvents(batch);
+                });
+                written.increment(batch.size());
+                batchSize.record(batch.size());
+                break;
+            } catch (RuntimeException e) {
+                if (attempt > maxRetries) {
+                    failed.increment(batch.size());
+                    logger.error("Dropping {} check-in records after {} attempts", batch.size(), attempt, e);
+                    break;
+                }
+                logger.warn("Check-in batch write failed (attempt {}), retrying: {}", attempt, e.getMessage());
+                try {
+                    TimeUnit.MILLISECONDS.sleep(100L << (attempt - 1));
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        batch.clear();
+    }
+
+    /**
+     * 为一批扫码记录写入事件，记录ID在 saveBatch 时已生成，重试时保持不变
+     */
+    private void recordEvents(List<UserPlaceCode> batch) {
+        List<OutboxEvent> events = new ArrayList<>(batch.size());
+        for (UserPlaceCode record : batch) {
+            events.add(outboxRecorder.newEvent(OutboxRecorder.AGGREGATE_CHECK_IN, record.getId(),
+                    OutboxRecorder.CHECK_IN_RECORDED, record));
+        }
+        outboxRecorder.recordAll(events);
+    }
+}
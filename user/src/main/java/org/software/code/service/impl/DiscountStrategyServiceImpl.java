@@ -0,0 +1,163 @@
+package org.software.code.service.impl;
+
+import org.software.code.common.cache.UserProfileCache;
+import org.software.code.common.except.BusinessException;
+import org.software.code.common.except.ExceptionEnum;
+import org.software.code.dto.CreateStrategyRequest;
+import org.software.code.dto.DiscountResultDTO;
+import org.software.code.dto.UserProfileDTO;
+import org.software.code.entity.DiscountStrategy;
+import org.software.code.mapper.DiscountStrategyMapper;
+import org.software.code.service.DiscountStrategyService;
+import org.software.code.strategy.CompiledStrategy;
+import org.software.code.strategy.DiscountStrategyEngine;
+import org.software.code.strategy.StrategyUsageLimiter;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+
+/**
+ * 折扣策略服务实现类。折扣计算全部在 DiscountStrategyEngine 的内存索引上完成，不访问数据库。
+ * 用户分群只从服务端的用户资料（两级缓存）中读取，不接受客户端提交。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Service
+public class DiscountStrategyServiceImpl implements DiscountStrategyService {
+
+    // 按比例折扣的减免比例上限（万分比）
+    private static final long MAX_RATE = 10000L;
+
+    @Resource
+    private DiscountStrategyMapper discountStrategyMapper;
+
+    @Resource
+    private DiscountStrategyEngine discountStrategyEngine;
+
+    @Resource
+    private StrategyUsageLimiter strategyUsageLimiter;
+
+    @Resource
+    private UserProfileCache userProfileCache;
+
+    @Override
+    public long createStrategy(CreateStrategyRequest request) {
+        if (!request.getStartTime().before(request.getEndTime())
+                || (request.getType() == DiscountStrategy.TYPE_RATE && request.getDiscountValue() > MAX_RATE)
+                || (request.getDailyStartMinute() == null) != (request.getDailyEndMinute() == null)) {
+            throw new BusinessException(ExceptionEnum.STRATEGY_VALIDATION_FAILED);
+        }
+        DiscountStrategy strategy = new DiscountStrategy();
+        strategy.setName(request.getName());
+        strategy.setType(request.getType());
+        strategy.setDiscountValue(request.getDiscountValue());
+        strategy.setMinAmount(request.getMinAmount());
+        strategy.setMaxDiscount(request.getMaxDiscount());
+        strategy.setUserSegment(request.getUserSegment());
+        strategy.setStartTime(request.getStartTime());
+        strategy.setEndTime(request.getEndTime());
+        strategy.setDailyStartMinute(request.getDailyStartMinute());
+        strategy.setDailyEndMinute(request.getDailyEndMinute());
+        strategy.setUsageLimit(request.getUsageLimit());
+        strategy.setPerUserLimit(request.getPerUserLimit());
+        strategy.setPriority(request.getPriority());
+        strategy.setStatus(DiscountStrategy.STATUS_ENABLED);
+        discountStrategyMapper.insert(strategy);
+        discountStrategyEngine.publishChange();
+        return strategy.getId();
+    }
+
+    @Override
+    public void updateStrategyStatus(long strategyId, boolean enabled) {
+        DiscountStrategy update = new DiscountStrategy();
+        update.setId(strategyId);
+        update.setStatus(enabled ? DiscountStrategy.STATUS_ENABLED : DiscountStrategy.STATUS_DISABLED);
+        if (discountStrategyMapper.updateById(update) == 0) {
+            throw new BusinessException(ExceptionEnum.STRATEGY_NOT_FOUND);
+        }
+        discountStrategyEngine.publishChange();
+    }
+
+    @Override
+    public DiscountResultDTO evaluateBest(long userId, long amount) {
+        return toResult(discountStrategyEngine.best(segmentOf(userId), amount), amount);
+    }
+
+    @Override
+    public DiscountResultDTO evaluate(long strategyId, long userId, long amount) {
+        return toResult(checkApplicable(strategyId, segmentOf(userId), amount), amount);
+    }
+
+    @Override
+    public DiscountResultDTO useStrategy(long strategyId, long userId, long amount) {
+        CompiledStrategy strategy = checkApplicable(strategyId, segmentOf(userId), amount);
+        strategyUsageLimiter.acquire(strategy, userId);
+        return toResult(strategy, amount);
+    }
+
+    @Override
+    public void releaseStrategy(long strategyId, long userId) {
+        CompiledStrategy strategy = discountStrategyEngine.get(strategyId);
+        if (strategy == null) {
+            // 占用后策略可能已被禁用或已失效，仍需归还
+            DiscountStrategy source = discountStrategyMapper.selectById(strategyId);
+            if (source == null) {
+                return;
+            }
+            strategy = CompiledStrategy.compile(source);
+        }
+        strategyUsageLimiter.release(strategy, userId);
+    }
+
+    /**
+     * 读取用户所属的分群，用户不存在或未分群时返回 null，只匹配适用于所有用户的策略
+     */
+    private String segmentOf(long userId) {
+        UserProfileDTO profile = userProfileCache.get(userId);
+        return profile == null ? null : profile.getSegment();
+    }
+
+    /**
+     * 校验策略能否用于订单
+     */
+    private CompiledStrategy checkApplicable(long strategyId, String segment, long amount) {
+        long now = System.currentTimeMillis();
+        CompiledStrategy strategy = findStrategy(strategyId);
+        if (strategy.isExpiredAt(now)) {
+            throw new BusinessException(ExceptionEnum.STRATEGY_EXPIRED);
+        }
+        if (!strategy.isActiveAt(now, discountStrategyEngine.minuteOfDay(now)) || !strategy.appliesTo(segment)) {
+            throw new BusinessException(ExceptionEnum.STRATEGY_NOT_APPLICABLE);
+        }
+        if (amount < strategy.getMinAmount()) {
+            throw new BusinessException(ExceptionEnum.STRATEGY_MIN_AMOUNT_NOT_MET);
+        }
+        return strategy;
+    }
+
+    /**
+     * 优先从内存索引中获取策略；不在索引中时可能不存在、已禁用、已失效，或刚刚创建尚未加载，需查询数据库
+     */
+    private CompiledStrategy findStrategy(long strategyId) {
+        CompiledStrategy strategy = discountStrategyEngine.get(strategyId);
+        if (strategy != null) {
+            return strategy;
+        }
+        DiscountStrategy source = discountStrategyMapper.selectById(strategyId);
+        if (source == null) {
+            throw new BusinessException(ExceptionEnum.STRATEGY_NOT_FOUND);
+        }
+        if (source.getStatus() == DiscountStrategy.STATUS_DISABLED) {
+            throw new BusinessException(ExceptionEnum.STRATEGY_DISABLED);
+        }
+        return CompiledStrategy.compile(source);
+    }
+
+    private static DiscountResultDTO toResult(CompiledStrategy strategy, long amount) {
+        if (strategy == null) {
+            return new DiscountResultDTO(null, null, amount, 0, amount);
+        }
+        long discount = strategy.discountFor(amount);
+        return new DiscountResultDTO(strategy.getId(), strategy.getName(), amount, discount, amount - discount);
+    }
+}
@@ -0,0 +1,213 @@
+package org.software.code.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.software.code.common.except.BusinessException;
+import org.software.code.common.except.ExceptionEnum;
+import org.software.code.dto.ExportFormat;
+import org.software.code.entity.Payment;
+import org.software.code.entity.UserPlaceCode;
+import org.software.code.mapper.PaymentMapper;
+import org.software.code.mapper.UserPlaceCodeMapper;
+import org.software.code.service.ExportService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 数据导出服务实现类。
+ * 查询通过 MyBatis 游标逐行读取（MySQL 流式结果集），每行格式化后立即写入带缓冲的输出流，
+ * 内存中只保留当前一行和固定大小的缓冲区。整个导出在一个只读事务中进行，导出的是同一时刻的一致快照。
+ * 流式读取期间数据库连接被独占，同时进行的导出数量受 max-concurrent 限制。
+ * 输出只在全部写完后关闭：导出中途失败时不写出 gzip 尾部，客户端解压时即可发现文件不完整，
+ * 之后以已收到的最后一行的ID作为 after 继续导出。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Service
+public class ExportServiceImpl implements ExportService {
+
+    private static final Logger logger = LogManager.getLogger(ExportServiceImpl.class);
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final DateTimeFormatter DATETIME_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.of("Asia/Shanghai"));
+
+    private static final String[] PAYMENT_COLUMNS = {"id", "payerId", "payeeId", "amount", "discount", "payable",
+            "strategyId", "requestKey", "status", "createTime", "updateTime"};
+    private static final String[] CHECK_IN_COLUMNS = {"id", "userId", "placeId", "checkInTime"};
+
+    // 同时进行的导出任务数上限
+    @Value("${user.export.max-concurrent:2}")
+    private int maxConcurrent;
+
+    @Resource
+    private PaymentMapper paymentMapper;
+
+    @Resource
+    private UserPlaceCodeMapper userPlaceCodeMapper;
+
+    @Resource
+    private PlatformTransactionManager transactionManager;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    private Semaphore permits;
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    public void init() {
+        permits = new Semaphore(maxConcurrent);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public long exportPayments(Date from, Date to, long after, ExportFormat format, ExportTarget target)
+            throws IOException {
+        return export("payment", PAYMENT_COLUMNS, format, target,
+                () -> paymentMapper.streamAfter(after, from, to), ExportServiceImpl::paymentValues);
+    }
+
+    @Override
+    public long exportCheckIns(Date from, Date to, long after, ExportFormat format, ExportTarget target)
+            throws IOException {
+        return export("check-in", CHECK_IN_COLUMNS, format, target,
+                () -> userPlaceCodeMapper.streamAfter(after, from, to), ExportServiceImpl::checkInValues);
+    }
+
+    private <T> long export(String type, String[] columns, ExportFormat format, ExportTarget target,
+                            Supplier<Cursor<T>> query, Function<T, Object[]> values) throws IOException {
+        if (!permits.tryAcquire()) {
+            throw new BusinessException(ExceptionEnum.EXPORT_BUSY);
+        }
+        long start = System.currentTimeMillis();
+        try {
+            Long rows = readOnlyTransaction.execute(status -> {
+                // 先执行查询再打开输出，查询失败时响应尚未开始
+                try (Cursor<T> cursor = query.get()) {
+                    return write(cursor, columns, values, format, target);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            meterRegistry.counter("user.export.rows", "type", type).increment(rows);
+            logger.info("Exported {} {} rows as {} in {} ms", rows, type, format, System.currentTimeMillis() - start);
+            return rows;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            permits.release();
+        }
+    }
+
+    private <T> long write(Cursor<T> cursor, String[] columns, Function<T, Object[]> values,
+                           ExportFormat format, ExportTarget target) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(target.open(), StandardCharsets.UTF_8),
+                WRITE_BUFFER_SIZE);
+        long rows = 0;
+        if (format == ExportFormat.CSV) {
+            writeCsvRow(writer, columns);
+            for (T row : cursor) {
+                writeCsvRow(writer, values.apply(row));
+                rows++;
+            }
+        } else {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+            // 每行以换行结尾，不使用默认的空格分隔
+            generator.setRootValueSeparator(null);
+            for (T row : cursor) {
+                writeJsonRow(generator, columns, values.apply(row));
+                rows++;
+            }
+            generator.flush();
+        }
+        writer.close();
+        return rows;
+    }
+
+    private static void writeCsvRow(Writer writer, Object[] fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (fields[i] != null) {
+                writeCsvField(writer, fields[i].toString());
+            }
+        }
+        writer.write('\n');
+    }
+
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static void writeJsonRow(JsonGenerator generator, String[] columns, Object[] fields) throws IOException {
+        generator.writeStartObject();
+        for (int i = 0; i < columns.length; i++) {
+            generator.writeFieldName(columns[i]);
+            Object field = fields[i];
+            if (field == null) {
+                generator.writeNull();
+            } else if (field instanceof Long) {
+                generator.writeNumber((Long) field);
+            } else if (field instanceof Integer) {
+                generator.writeNumber((Integer) field);
+            } else {
+                generator.writeString(field.toString());
+            }
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private static Object[] paymentValues(Payment payment) {
+        return new Object[]{payment.getId(), payment.getPayerId(), payment.getPayeeId(), payment.getAmount(),
+                payment.getDiscount(), payment.getPayable(), payment.getStrategyId(), payment.getRequestKey(),
+                payment.getStatus(), formatTime(payment.getCreateTime()), formatTime(payment.getUpdateTime())};
+    }
+
+    private static Object[] checkInValues(UserPlaceCode record) {
+        return new Object[]{record.getId(), record.getUserId(), record.getPlaceId(),
+                formatTime(record.getCheckInTime())};
+    }
+
+    private static String formatTime(Date time) {
+        return time == null ? null : DATETIME_FORMAT.format(time.toInstant());
+    }
+}
@@ -0,0 +1,268 @@
+package org.software.code.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.Striped;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.software.code.common.except.BusinessException;
+import org.software.code.common.except.ExceptionEnum;
+import org.software.code.common.id.SnowflakeIdGenerator;
+import org.software.code.entity.Account;
+import org.software.code.entity.AccountSlot;
+import org.software.code.entity.LedgerJournal;
+import org.software.code.mapper.AccountMapper;
+import org.software.code.mapper.AccountSlotMapper;
+import org.software.code.mapper.LedgerJournalMapper;
+import org.software.code.service.LedgerService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * 账务服务实现类。
+ * 同一账户的余额变更先在本实例内按账户ID分段加锁排队，再进入数据库事务：
+ * 热门收款账户的并发入账在 JVM 内依次执行，每个事务持有行锁的时间只有几条语句，
+ * 不会在 InnoDB 中形成大量等待同一行锁的事务。两个账户的锁由 Striped.bulkGet 按固定顺序获取，不会死锁。
+ * 分段锁只作用于本实例，多实例之间的正确性由带余额条件的 UPDATE 和流水表的唯一索引保证。
+ * 开启拆分的账户入账时按业务单号的散列选择一个入账分片，锁和行都落在分片上，N 个分片的入账可以并行；
+ * 分片金额由后台任务汇总到主余额，扣款时主余额不足会先就地汇总一次再重试。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Service
+public class LedgerServiceImpl implements LedgerService {
+
+    private static final Logger logger = LogManager.getLogger(LedgerServiceImpl.class);
+
+    private static final int NO_SLOT = -1;
+
+    @Value("${user.ledger.lock-stripes:1024}")
+    private int lockStripes;
+
+    @Value("${user.ledger.lock-timeout-ms:3000}")
+    private long lockTimeoutMs;
+
+    // 入账分片数的本地缓存时长，修改分片数后其他实例最迟在该时长后生效
+    @Value("${user.ledger.split.config-ttl-seconds:30}")
+    private long splitConfigTtlSeconds;
+
+    // 分片数上限
+    @Value("${user.ledger.split.max-slots:64}")
+    private int maxSplitSlots;
+
+    @Resource
+    private AccountMapper accountMapper;
+
+    @Resource
+    private LedgerJournalMapper ledgerJournalMapper;
+
+    @Resource
+    private AccountSlotMapper accountSlotMapper;
+
+    @Resource
+    private TransactionTemplate transactionTemplate;
+
+    @Resource
+    private SnowflakeIdGenerator snowflakeIdGenerator;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    private Striped<Lock> accountLocks;
+
+    // 用户ID到入账分片数的本地缓存
+    private LoadingCache<Long, Integer> splitSlots;
+
+    private Timer lockWait;
+    private Timer posting;
+
+    @PostConstruct
+    public void init() {
+        accountLocks = Striped.lock(lockStripes);
+        splitSlots = Caffeine.newBuilder()
+                .maximumSize(100000)
+                .expireAfterWrite(splitConfigTtlSeconds, TimeUnit.SECONDS)
+                .build(userId -> {
+                    Integer slots = accountMapper.selectSplitSlots(userId);
+                    return slots == null ? 0 : slots;
+                });
+        lockWait = Timer.builder("user.ledger.lock.wait").publishPercentiles(0.5, 0.99).register(meterRegistry);
+        posting = Timer.builder("user.ledger.posting").publishPercentiles(0.5, 0.99).register(meterRegistry);
+    }
+
+    @Override
+    public void transfer(long fromId, long toId, long amount, int bizType, long bizId, Runnable onPosted) {
+        if (amount <= 0 || fromId == toId) {
+            throw new IllegalArgumentException("Invalid transfer: " + fromId + " -> " + toId + ", amount " + amount);
+        }
+        int slots = toId == Account.SYSTEM_ACCOUNT_ID ? 0 : splitSlots.get(toId);
+        // 业务单号为 Snowflake ID，低位多为 0，先散列再取模
+        int slot = slots > 0 ? Math.floorMod(Hashing.murmur3_32().hashLong(bizId).asInt(), slots) : NO_SLOT;
+        // 拆分账户的入账只锁定所选分片
+        Object creditLockKey = slot == NO_SLOT ? toId : toId + ":" + slot;
+        List<Lock> locks = lockAccounts(fromId, creditLockKey);
+        try {
+            long start = System.nanoTime();
+            transactionTemplate.executeWithoutResult(status ->
+                    post(fromId, toId, slot, amount, bizType, bizId, onPosted));
+            posting.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } finally {
+            releaseAll(locks);
+        }
+    }
+
+    @Override
+    public void deposit(long userId, long amount, long referenceId) {
+        try {
+            transfer(Account.SYSTEM_ACCOUNT_ID, userId, amount, LedgerJournal.BIZ_DEPOSIT, referenceId, null);
+        } catch (DuplicateKeyException e) {
+            // 唯一索引只约束充值单号，需确认已入账的是同一用户、同一金额的充值
+            LedgerJournal posted = ledgerJournalMapper.selectOne(new LambdaQueryWrapper<LedgerJournal>()
+                    .eq(LedgerJournal::getBizType, LedgerJournal.BIZ_DEPOSIT)
+                    .eq(LedgerJournal::getBizId, referenceId)
+                    .eq(LedgerJournal::getAccountId, Account.SYSTEM_ACCOUNT_ID)
+                    .eq(LedgerJournal::getDirection, LedgerJournal.DIRECTION_DEBIT));
+            if (posted == null || posted.getCounterparty() != userId || posted.getAmount() != amount) {
+                logger.warn("Deposit {} for user {} amount {} conflicts with posted deposit {}",
+                        referenceId, userId, amount, posted);
+                throw new BusinessException(ExceptionEnum.DEPOSIT_REFERENCE_CONFLICT);
+            }
+            logger.info("Deposit {} for user {} has already been posted", referenceId, userId);
+        }
+    }
+
+    @Override
+    public long getBalance(long userId, boolean exact) {
+        if (exact) {
+            Long balance = accountMapper.selectExactBalance(userId);
+            return balance == null ? 0 : balance;
+        }
+        Account account = accountMapper.selectById(userId);
+        return account == null ? 0 : account.getBalance();
+    }
+
+    @Override
+    public void setSplitSlots(long userId, int slots) {
+        if (slots < 0 || slots > maxSplitSlots) {
+            throw new BusinessException(ExceptionEnum.REQUEST_PARAMETER_ERROR);
+        }
+        accountMapper.upsertSplitSlots(userId, slots);
+        splitSlots.invalidate(userId);
+        logger.info("Split slots of account {} set to {}", userId, slots);
+    }
+
+    @Override
+    public long aggregateSlots(long userId) {
+        Long folded = transactionTemplate.execute(status -> foldSlots(userId));
+        return folded == null ? 0 : folded;
+    }
+
+    private void post(long fromId, long toId, int slot, long amount, int bizType, long bizId, Runnable onPosted) {
+        // 系统清算账户允许为负，其余账户余额不足时不扣减
+        int debited;
+        if (fromId == Account.SYSTEM_ACCOUNT_ID) {
+            debited = accountMapper.debitUnchecked(fromId, amount);
+        } else {
+            debited = accountMapper.debit(fromId, amount);
+            // 拆分账户的部分余额可能还在分片中
+            if (debited == 0 && foldSlots(fromId) > 0) {
+                debited = accountMapper.debit(fromId, amount);
+            }
+        }
+        if (debited == 0) {
+            throw new BusinessException(ExceptionEnum.ACCOUNT_BALANCE_INSUFFICIENT);
+        }
+        if (slot == NO_SLOT) {
+            accountMapper.credit(toId, amount);
+        } else {
+            accountSlotMapper.credit(toId, slot, amount);
+        }
+        Date now = new Date();
+        ledgerJournalMapper.insertEntries(Arrays.asList(
+                entry(fromId, toId, LedgerJournal.DIRECTION_DEBIT, amount, bizType, bizId, now),
+                entry(toId, fromId, LedgerJournal.DIRECTION_CREDIT, amount, bizType, bizId, now)));
+        if (onPosted != null) {
+            onPosted.run();
+        }
+    }
+
+    /**
+     * 将各分片中的金额转入主余额，需在事务中调用。
+     * 分片按读到的金额做带条件的扣减，期间新的入账留在分片中等待下次汇总，多个实例同时汇总也不会重复计入。
+     * 先锁账户行再按分片号锁分片行，与扣款时先锁付款账户行、余额不足再汇总的顺序一致，避免两者互相等待而死锁
+     */
+    private long foldSlots(long userId) {
+        accountMapper.lockById(userId);
+        long total = 0;
+        for (AccountSlot slot : accountSlotMapper.selectByUser(userId)) {
+            long amount = slot.getBalance();
+            if (amount > 0 && accountSlotMapper.deduct(userId, slot.getSlotNo(), amount) == 1) {
+                total += amount;
+            }
+        }
+        if (total > 0) {
+            accountMapper.credit(userId, total);
+        }
+        return total;
+    }
+
+    /**
+     * 按固定顺序获取付款账户和入账账户（或入账分片）所在分段的锁，超时则释放已获取的锁并拒绝
+     */
+    private List<Lock> lockAccounts(Object debitKey, Object creditKey) {
+        long start = System.nanoTime();
+        List<Lock> acquired = new ArrayList<>(2);
+        try {
+            for (Lock lock : accountLocks.bulkGet(Arrays.asList(debitKey, creditKey))) {
+                if (!lock.tryLock(lockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    throw new BusinessException(ExceptionEnum.ACCOUNT_BUSY);
+                }
+                acquired.add(lock);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            releaseAll(acquired);
+            throw new BusinessException(ExceptionEnum.ACCOUNT_BUSY);
+        } catch (RuntimeException e) {
+            releaseAll(acquired);
+            throw e;
+        }
+        lockWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return acquired;
+    }
+
+    private static void releaseAll(List<Lock> locks) {
+        for (Lock lock : locks) {
+            lock.unlock();
+        }
+    }
+
+    private LedgerJournal entry(long accountId, long counterparty, int direction, long amount,
+                                       int bizType, long bizId, Date time) {
+        LedgerJournal entry = new LedgerJournal();
+        entry.setId(snowflakeIdGenerator.nextId());
+        entry.setAccountId(accountId);
+        entry.setCounterparty(counterparty);
+        entry.setDirection(direction);
+        entry.setAmount(amount);
+        entry.setBizType(bizType);
+        entry.setBizId(bizId);
+        entry.setCreateTime(time);
+        return entry;
+    }
+}
@@ -0,0 +1,247 @@
+package org.software.code.service.impl;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.software.code.common.except.BusinessException;
+import org.software.code.common.except.ExceptionEnum;
+import org.software.code.common.util.PaymentCodeCodec;
+import org.software.code.common.util.QrCodeRenderer;
+import org.software.code.common.util.RedisUtil;
+import org.software.code.dto.PaymentCodeDTO;
+import org.software.code.service.PaymentCodeService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.Objects;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 付款码服务实现类。
+ * 时间按 refresh-interval-seconds 划分为周期，每个用户每个周期一个付款码，有效期覆盖本周期及 grace-seconds 的宽限。
+ * 签名后的付款码和渲染好的图片分别缓存：图片只按客户端请求的格式渲染，缓存按图片的字节数限制总大小
+ * （image-cache-max-bytes）；每次获取当前周期的付款码图片时，都会在后台预先渲染下一周期同一格式的图片，
+ * 客户端按 refreshAt 刷新时直接命中缓存，不需要等待签名和渲染。
+ * 付款码采用定长的二进制格式（见 PaymentCodeCodec），核销时以签名为键在 Redis 中 SETNX 防止重放。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Service
+public class PaymentCodeServiceImpl implements PaymentCodeService {
+
+    // 已核销付款码的标记键前缀
+    public static final String USED_CODE_PREFIX = "payment:code:used:";
+
+    @Value("${user.payment-code.refresh-interval-seconds:30}")
+    private long refreshIntervalSeconds;
+
+    @Value("${user.payment-code.grace-seconds:10}")
+    private long graceSeconds;
+
+    @Value("${user.payment-code.cache-max-size:100000}")
+    private long cacheMaxSize;
+
+    // 图片缓存的总字节数上限
+    @Value("${user.payment-code.image-cache-max-bytes:268435456}")
+    private long imageCacheMaxBytes;
+
+    @Resource
+    private PaymentCodeCodec paymentCodeCodec;
+
+    @Resource
+    private QrCodeRenderer qrCodeRenderer;
+
+    @Resource
+    private RedisUtil redisUtil;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    @Resource(name = "paymentCodeRenderExecutor")
+    private Executor renderExecutor;
+
+    // 签名只需一次 HMAC 计算，同步生成；图片渲染较慢，在渲染线程池中异步执行
+    private LoadingCache<CodeSlot, PaymentCodeDTO> codes;
+    private AsyncLoadingCache<ImageKey, Object> images;
+    private Timer renderTimer;
+
+    @PostConstruct
+    public void init() {
+        long ttlSeconds = 2 * refreshIntervalSeconds + graceSeconds;
+        codes = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .build(this::sign);
+        images = Caffeine.newBuilder()
+                .maximumWeight(imageCacheMaxBytes)
+                .weigher(PaymentCodeServiceImpl::weigh)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .executor(renderExecutor)
+                .buildAsync(this::render);
+        renderTimer = Timer.builder("user.payment-code.render")
+                .description("Time to render one payment code image")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public PaymentCodeDTO getPaymentCode(long userId) {
+        long slot = currentSlot();
+        PaymentCodeDTO code = codes.get(new CodeSlot(userId, slot));
+        // 预先签发下一周期的付款码
+        codes.get(new CodeSlot(userId, slot + 1));
+        return code;
+    }
+
+    @Override
+    public byte[] getPaymentCodePng(long userId) {
+        return (byte[]) image(userId, ImageFormat.PNG);
+    }
+
+    @Override
+    public String getPaymentCodeSvg(long userId) {
+        return (String) image(userId, ImageFormat.SVG);
+    }
+
+    @Override
+    public long verifyPaymentCode(String code) {
+        PaymentCodeCodec.PaymentCode paymentCode = paymentCodeCodec.decode(code);
+        long now = System.currentTimeMillis();
+        long issuedAt = TimeUnit.SECONDS.toMillis(paymentCode.getIssuedAtSeconds());
+        long expiresAt = issuedAt + TimeUnit.SECONDS.toMillis(refreshIntervalSeconds + graceSeconds);
+        if (now >= expiresAt) {
+            throw new BusinessException(ExceptionEnum.PAYMENT_CODE_EXPIRED);
+        }
+        // 付款码在所属周期开始前不会下发给客户端，允许宽限时间内的时钟偏差
+        if (issuedAt - now > TimeUnit.SECONDS.toMillis(graceSeconds)) {
+            throw new BusinessException(ExceptionEnum.PAYMENT_CODE_INVALID);
+        }
+        if (!redisUtil.setIfAbsent(USED_CODE_PREFIX + paymentCode.getSignature(), "1",
+                expiresAt - now, TimeUnit.MILLISECONDS)) {
+            throw new BusinessException(ExceptionEnum.PAYMENT_CODE_USED);
+        }
+        return paymentCode.getUserId();
+    }
+
+    private long currentSlot() {
+        return System.currentTimeMillis() / TimeUnit.SECONDS.toMillis(refreshIntervalSeconds);
+    }
+
+    private Object image(long userId, ImageFormat format) {
+        long slot = currentSlot();
+        Object image;
+        try {
+            image = images.get(new ImageKey(new CodeSlot(userId, slot), format)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof BusinessException) {
+                throw (BusinessException) e.getCause();
+            }
+            throw new BusinessException(ExceptionEnum.RUN_EXCEPTION);
+        }
+        // 后台预先渲染下一周期同一格式的图片，不等待结果
+        images.get(new ImageKey(new CodeSlot(userId, slot + 1), format));
+        return image;
+    }
+
+    private PaymentCodeDTO sign(CodeSlot key) {
+        long intervalMs = TimeUnit.SECONDS.toMillis(refreshIntervalSeconds);
+        long slotStart = key.slot * intervalMs;
+        long refreshAt = slotStart + intervalMs;
+        long expiresAt = refreshAt + TimeUnit.SECONDS.toMillis(graceSeconds);
+        String token = paymentCodeCodec.encode(key.userId, TimeUnit.MILLISECONDS.toSeconds(slotStart));
+        return new PaymentCodeDTO(token, expiresAt, refreshAt);
+    }
+
+    /**
+     * 渲染付款码图片，内容取自同一周期已签发的付款码，与 getPaymentCode 返回的一致
+     */
+    private Object render(ImageKey key) {
+        String token = codes.get(key.code).getCode();
+        long start = System.nanoTime();
+        Object image = key.format == ImageFormat.PNG
+                ? qrCodeRenderer.renderPng(token)
+                : qrCodeRenderer.renderSvg(token);
+        renderTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return image;
+    }
+
+    /**
+     * 图片缓存中一项的权重：图片占用的字节数
+     */
+    private static int weigh(ImageKey key, Object image) {
+        if (image instanceof byte[]) {
+            return ((byte[]) image).length;
+        }
+        return ((String) image).length() * 2;
+    }
+
+    /**
+     * 缓存键：用户ID与刷新周期序号
+     */
+    private static final class CodeSlot {
+        private final long userId;
+        private final long slot;
+
+        private CodeSlot(long userId, long slot) {
+            this.userId = userId;
+            this.slot = slot;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CodeSlot)) {
+                return false;
+            }
+            CodeSlot other = (CodeSlot) o;
+            return userId == other.userId && slot == other.slot;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, slot);
+        }
+    }
+
+    private enum ImageFormat {
+        PNG, SVG
+    }
+
+    /**
+     * 图片缓存键：付款码所在的周期与图片格式
+     */
+    private static final class ImageKey {
+        private final CodeSlot code;
+        private final ImageFormat format;
+
+        private ImageKey(CodeSlot code, ImageFormat format) {
+            this.code = code;
+            this.format = format;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ImageKey)) {
+                return false;
+            }
+            ImageKey other = (ImageKey) o;
+            return code.equals(other.code) && format == other.format;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(code, format);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package org.software.code.service.impl;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.software.code.common.except.BusinessException;
+import org.software.code.common.except.ExceptionEnum;
+import org.software.code.dto.CreatePaymentRequest;
+import org.software.code.dto.DiscountResultDTO;
+import org.software.code.dto.PaymentDTO;
+import org.software.code.entity.LedgerJournal;
+import org.software.code.entity.Payment;
+import org.software.code.entity.User;
+import org.software.code.event.OutboxRecorder;
+import org.software.code.mapper.PaymentMapper;
+import org.software.code.mapper.UserMapper;
+import org.software.code.service.DiscountStrategyService;
+import org.software.code.service.LedgerService;
+import org.software.code.service.PaymentService;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.Resource;
+import java.util.Date;
+
+/**
+ * 支付服务实现类。支付记录创建后立即通过账务服务从付款方转账给收款方，余额不足时支付失败并归还折扣使用次数。
+ * 接口层的幂等记录负责拦截重复提交；幂等记录失效后的重复提交由 payment 表上付款人与幂等键的唯一索引兜底。
+ * 支付的创建、完成和失败事件与对应的状态变更在同一事务中写入发件箱。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Service
+public class PaymentServiceImpl implements PaymentService {
+
+    private static final Logger logger = LogManager.getLogger(PaymentServiceImpl.class);
+
+    @Resource
+    private PaymentMapper paymentMapper;
+
+    @Resource
+    private UserMapper userMapper;
+
+    @Resource
+    private DiscountStrategyService discountStrategyService;
+
+    @Resource
+    private LedgerService ledgerService;
+
+    @Resource
+    private OutboxRecorder outboxRecorder;
+
+    @Resource
+    private TransactionTemplate transactionTemplate;
+
+    @Override
+    public PaymentDTO createPayment(long payerId, String requestKey, CreatePaymentRequest request) {
+        long payeeId = request.getPayeeId();
+        if (payeeId == payerId) {
+            throw new BusinessException(ExceptionEnum.PAYMENT_PAYEE_INVALID);
+        }
+        User payee = userMapper.selectById(payeeId);
+        if (payee == null || payee.isFrozen()) {
+            throw new BusinessException(ExceptionEnum.PAYMENT_PAYEE_INVALID);
+        }
+        Long strategyId = request.getStrategyId();
+        long amount = request.getAmount();
+        long discount = 0;
+        if (strategyId != null) {
+            DiscountResultDTO result = discountStrategyService.useStrategy(strategyId, payerId, amount);
+            discount = result.getDiscount();
+        }
+        Payment payment = new Payment();
+        payment.setPayerId(payerId);
+        payment.setPayeeId(payeeId);
+        payment.setAmount(amount);
+        payment.setDiscount(discount);
+        payment.setPayable(amount - discount);
+        payment.setStrategyId(strategyId);
+        payment.setRequestKey(requestKey);
+        payment.setStatus(Payment.STATUS_CREATED);
+        payment.setCreateTime(new Date());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                paymentMapper.insert(payment);
+                recordEvent(payment, OutboxRecorder.PAYMENT_CREATED);
+            });
+        } catch (DuplicateKeyException e) {
+            releaseStrategy(strategyId, payerId);
+            Payment existing = paymentMapper.selectByRequestKey(payerId, requestKey);
+            if (existing == null) {
+                // 冲突的不是请求键唯一索引（如主键），不能当作重复请求
+                throw e;
+            }
+            logger.info("Duplicate payment request {} from user {}", requestKey, payerId);
+            return PaymentDTO.from(existing);
+        } catch (RuntimeException e) {
+            releaseStrategy(strategyId, payerId);
+            throw e;
+        }
+        settle(payment);
+        return PaymentDTO.from(payment);
+    }
+
+    @Override
+    public PaymentDTO getPayment(long userId, long paymentId) {
+        Payment payment = paymentMapper.selectById(paymentId);
+        if (payment == null || (payment.getPayerId() != userId && payment.getPayeeId() != userId)) {
+            throw new BusinessException(ExceptionEnum.PAYMENT_NOT_FOUND);
+        }
+        return PaymentDTO.from(payment);
+    }
+
+    /**
+     * 从付款方账户向收款方账户转入实付金额，支付状态与账务在同一事务中更新
+     */
+    private void settle(Payment payment) {
+        try {
+            if (payment.getPayable() > 0) {
+                ledgerService.transfer(payment.getPayerId(), payment.getPayeeId(), payment.getPayable(),
+                        LedgerJournal.BIZ_PAYMENT, payment.getId(), () -> markSuccess(payment));
+            } else {
+                transactionTemplate.executeWithoutResult(status -> markSuccess(payment));
+            }
+        } catch (RuntimeException e) {
+            markFailed(payment);
+            releaseStrategy(payment.getStrategyId(), payment.getPayerId());
+            throw e;
+        }
+    }
+
+    private void markSuccess(Payment payment) {
+        if (paymentMapper.updateStatus(payment.getId(), Payment.STATUS_CREATED, Payment.STATUS_SUCCESS) != 1) {
+            throw new IllegalStateException("Payment " + payment.getId() + " is no longer pending");
+        }
+        payment.setStatus(Payment.STATUS_SUCCESS);
+        recordEvent(payment, OutboxRecorder.PAYMENT_SETTLED);
+    }
+
+    private void markFailed(Payment payment) {
+        payment.setStatus(Payment.STATUS_FAILED);
+        transactionTemplate.executeWithoutResult(status -> {
+            if (paymentMapper.updateStatus(payment.getId(), Payment.STATUS_CREATED, Payment.STATUS_FAILED) == 1) {
+                recordEvent(payment, OutboxRecorder.PAYMENT_FAILED);
+            }
+        });
+    }
+
+    private void recordEvent(Payment payment, String eventType) {
+        outboxRecorder.record(OutboxRecorder.AGGREGATE_PAYMENT, payment.getId(), eventType, PaymentDTO.from(payment));
+    }
+
+    private void releaseStrategy(Long strategyId, long payerId) {
+        if (strategyId != null) {
+            discountStrategyService.releaseStrategy(strategyId, payerId);
+        }
+    }
+}
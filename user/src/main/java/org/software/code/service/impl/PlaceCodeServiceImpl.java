@@ -0,0 +1,186 @@
+package org.software.code.service.impl;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.software.code.common.except.BusinessException;
+import org.software.code.common.except.ExceptionEnum;
+import org.software.code.common.util.QrCodeRenderer;
+import org.software.code.dto.CheckInRecordDTO;
+import org.software.code.dto.CreatePlaceCodeRequest;
+import org.software.code.dto.KeysetPageDTO;
+import org.software.code.dto.PlaceCodeDTO;
+import org.software.code.entity.PlaceCode;
+import org.software.code.entity.UserPlaceCode;
+import org.software.code.mapper.PlaceCodeMapper;
+import org.software.code.mapper.UserPlaceCodeMapper;
+import org.software.code.service.PlaceCodeService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 场所码服务实现类。
+ * 同一场所在高峰期会被大量用户同时扫码，场所信息缓存在本地，扫码登记不再查询场所表；
+ * 扫码记录交给 CheckInBatchWriter 批量写入。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Service
+public class PlaceCodeServiceImpl implements PlaceCodeService {
+
+    // 场所码二维码内容前缀，扫码端据此识别场所码
+    private static final String QR_CONTENT_PREFIX = "PLACE:";
+    // 单页最多返回的记录数
+    private static final int MAX_PAGE_SIZE = 100;
+
+    @Value("${user.place-code.cache.max-size:100000}")
+    private long cacheMaxSize;
+
+    @Value("${user.place-code.cache.expire-minutes:30}")
+    private long cacheExpireMinutes;
+
+    @Resource
+    private PlaceCodeMapper placeCodeMapper;
+
+    @Resource
+    private UserPlaceCodeMapper userPlaceCodeMapper;
+
+    @Resource
+    private CheckInBatchWriter checkInBatchWriter;
+
+    @Resource
+    private QrCodeRenderer qrCodeRenderer;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    // 场所ID到场所信息的本地缓存，不存在的场所以空值缓存
+    private LoadingCache<Long, Optional<PlaceCodeDTO>> placeCache;
+
+    @PostConstruct
+    public void init() {
+        placeCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheExpireMinutes, TimeUnit.MINUTES)
+                .recordStats()
+                .build(placeId -> Optional.ofNullable(placeCodeMapper.selectById(placeId)).map(PlaceCodeDTO::from));
+        CaffeineCacheMetrics.monitor(meterRegistry, placeCache, "user.place-code");
+    }
+
+    @Override
+    public PlaceCodeDTO createPlaceCode(long creatorId, CreatePlaceCodeRequest request) {
+        PlaceCode placeCode = new PlaceCode();
+        placeCode.setName(request.getName());
+        placeCode.setAddress(request.getAddress());
+        placeCode.setCreatorId(creatorId);
+        placeCode.setCreateTime(new Date());
+        if (placeCodeMapper.insert(placeCode) != 1) {
+            throw new BusinessException(ExceptionEnum.PLACE_CODE_INSERT_FAIL);
+        }
+        PlaceCodeDTO dto = PlaceCodeDTO.from(placeCode);
+        placeCache.put(placeCode.getId(), Optional.of(dto));
+        return dto;
+    }
+
+    @Override
+    public PlaceCodeDTO getPlaceCode(long placeId) {
+        return placeCache.get(placeId).orElseThrow(() -> new BusinessException(ExceptionEnum.PLACE_CODE_NOT_FIND));
+    }
+
+    @Override
+    public byte[] getPlaceCodePng(long placeId) {
+        return qrCodeRenderer.renderPng(QR_CONTENT_PREFIX + getPlaceCode(placeId).getId());
+    }
+
+    @Override
+    public void checkIn(long userId, long placeId) {
+        getPlaceCode(placeId);
+        UserPlaceCode record = new UserPlaceCode();
+        record.setUserId(userId);
+        record.setPlaceId(placeId);
+        record.setCheckInTime(new Date());
+        checkInBatchWriter.submit(record);
+    }
+
+    @Override
+    public KeysetPageDTO<CheckInRecordDTO> listUserCheckIns(long userId, Date from, Date to, String cursor, int size) {
+        int limit = pageSize(size);
+        Cursor position = Cursor.parse(cursor);
+        List<UserPlaceCode> records = userPlaceCodeMapper.selectByUserInWindow(userId, from, to,
+                position.time, position.id, limit);
+        return toPage(records, limit);
+    }
+
+    @Override
+    public KeysetPageDTO<CheckInRecordDTO> listPlaceCheckIns(long requesterId, long placeId, Date from, Date to,
+                                                             String cursor, int size) {
+        if (getPlaceCode(placeId).getCreatorId() != requesterId) {
+            throw new BusinessException(ExceptionEnum.USER_IDENTITY_INVALID);
+        }
+        int limit = pageSize(size);
+        Cursor position = Cursor.parse(cursor);
+        List<UserPlaceCode> records = userPlaceCodeMapper.selectByPlaceInWindow(placeId, from, to,
+                position.time, position.id, limit);
+        return toPage(records, limit);
+    }
+
+    private static int pageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    private KeysetPageDTO<CheckInRecordDTO> toPage(List<UserPlaceCode> records, int limit) {
+        List<CheckInRecordDTO> result = new ArrayList<>(records.size());
+        for (UserPlaceCode record : records) {
+            CheckInRecordDTO dto = new CheckInRecordDTO();
+            dto.setUserId(record.getUserId());
+            dto.setPlaceId(record.getPlaceId());
+            dto.setPlaceName(placeCache.get(record.getPlaceId()).map(PlaceCodeDTO::getName).orElse(null));
+            dto.setCheckInTime(record.getCheckInTime());
+            result.add(dto);
+        }
+        // 本页不满时说明已到末尾
+        String nextCursor = null;
+        if (records.size() == limit) {
+            UserPlaceCode last = records.get(records.size() - 1);
+            nextCursor = last.getCheckInTime().getTime() + "_" + last.getId();
+        }
+        return new KeysetPageDTO<>(result, nextCursor);
+    }
+
+    /**
+     * 分页游标：上一页最后一条记录的扫码时间（毫秒）和ID，格式为 {time}_{id}
+     */
+    private static final class Cursor {
+        private static final Cursor FIRST_PAGE = new Cursor(null, null);
+
+        private final Date time;
+        private final Long id;
+
+        private Cursor(Date time, Long id) {
+            this.time = time;
+            this.id = id;
+        }
+
+        private static Cursor parse(String cursor) {
+            if (cursor == null || cursor.isEmpty()) {
+                return FIRST_PAGE;
+            }
+            int separator = cursor.indexOf('_');
+            try {
+                return new Cursor(new Date(Long.parseLong(cursor.substring(0, separator))),
+                        Long.parseLong(cursor.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new BusinessException(ExceptionEnum.REQUEST_PARAMETER_ERROR);
+            }
+        }
+    }
+}
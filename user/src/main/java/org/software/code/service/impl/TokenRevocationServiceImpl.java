@@ -0,0 +1,81 @@
+package org.software.code.service.impl;
+
+import io.jsonwebtoken.Claims;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.software.code.common.util.JwtUtil;
+import org.software.code.common.util.RedisUtil;
+import org.software.code.service.TokenRevocationService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token 吊销服务实现类。
+ * 单个 Token 以 jti 为键写入 Redis，过期时间与 Token 剩余有效期一致；
+ * 强制下线以用户ID为键记录吊销时间，签发时间不晚于该时间的 Token 均视为失效；
+ * 签发时间取自毫秒精度的 iatMs，同一秒内先于吊销签发的 Token 也会失效。
+ * 所有吊销记录同时写入一个以过期时间为分数的有序集合，供网关周期性地构建本地布隆过滤器。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Service
+public class TokenRevocationServiceImpl implements TokenRevocationService {
+
+    private static final Logger logger = LogManager.getLogger(TokenRevocationServiceImpl.class);
+
+    // 单个 Token 的吊销记录键前缀，与网关保持一致
+    public static final String REVOKED_TOKEN_PREFIX = "token:revoked:jti:";
+    // 用户级吊销记录键前缀，与网关保持一致
+    public static final String REVOKED_USER_PREFIX = "token:revoked:user:";
+    // 吊销索引有序集合，成员为 jti 或 u:{userId}，分数为记录的过期时间
+    public static final String REVOKED_INDEX_KEY = "token:revoked:index";
+
+    // 用户级吊销记录的保留时长，需覆盖最长的 Token 有效期
+    @Value("${jwt.revocation.user-ttl-ms:1209600000}")
+    private long userRevocationTtlMs;
+
+    @Resource
+    private RedisUtil redisUtil;
+
+    @Override
+    public void revokeToken(String token) {
+        Claims claims = JwtUtil.parseClaims(token);
+        String jti = claims.getId();
+        if (jti == null) {
+            logger.warn("Token without jti cannot be revoked individually, subject={}", claims.getSubject());
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long expiresAt = claims.getExpiration().getTime();
+        if (expiresAt <= now) {
+            return;
+        }
+        redisUtil.setValue(REVOKED_TOKEN_PREFIX + jti, "1", expiresAt - now, TimeUnit.MILLISECONDS);
+        addToIndex(jti, expiresAt, now);
+    }
+
+    @Override
+    public void revokeAllForUser(long userId) {
+        long now = System.currentTimeMillis();
+        redisUtil.setValue(REVOKED_USER_PREFIX + userId, Long.toString(now), userRevocationTtlMs, TimeUnit.MILLISECONDS);
+        addToIndex("u:" + userId, now + userRevocationTtlMs, now);
+        logger.info("All tokens revoked for user: {}", userId);
+    }
+
+    @Override
+    public boolean isRevokedForUser(long userId, long issuedAt) {
+        String revokedAt = redisUtil.getValue(REVOKED_USER_PREFIX + userId);
+        return revokedAt != null && issuedAt <= Long.parseLong(revokedAt);
+    }
+
+    /**
+     * 写入吊销索引，并顺带清理已过期的索引成员
+     */
+    private void addToIndex(String member, long expiresAt, long now) {
+        redisUtil.addToSortedSet(REVOKED_INDEX_KEY, member, expiresAt);
+        redisUtil.removeFromSortedSetByScore(REVOKED_INDEX_KEY, 0, now);
+    }
+}
@@ -0,0 +1,17 @@
+package org.software.code.service.impl;
+
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import org.software.code.entity.UserPlaceCode;
+import org.software.code.mapper.UserPlaceCodeMapper;
+import org.software.code.service.UserPlaceCodeService;
+import org.springframework.stereotype.Service;
+
+/**
+ * 用户场所码扫码记录服务实现类。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Service
+public class UserPlaceCodeServiceImpl extends ServiceImpl<UserPlaceCodeMapper, UserPlaceCode>
+        implements UserPlaceCodeService {
+}
@@ -0,0 +1,235 @@
+package org.software.code.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.software.code.common.cache.UserProfileCache;
+import org.software.code.common.except.BusinessException;
+import org.software.code.common.except.ExceptionEnum;
+import org.software.code.common.util.AdaptivePasswordEncoder;
+import org.software.code.dto.LoginRequest;
+import org.software.code.dto.RegisterRequest;
+import org.software.code.dto.TokenPairDTO;
+import org.software.code.dto.UpdateProfileRequest;
+import org.software.code.dto.UserProfileDTO;
+import org.software.code.entity.User;
+import org.software.code.event.OutboxRecorder;
+import org.software.code.mapper.UserMapper;
+import org.software.code.service.AuthTokenService;
+import org.software.code.service.UserService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 用户服务实现类。
+ * 按用户名查询用户的结果缓存在本地，重复登录不再按用户名查询 MySQL；
+ * 账户状态在哈希之前检查，冻结账户和不存在的用户不会消耗哈希线程池。
+ * 本地缓存可能落后于其他节点或后台对账户的修改，密码校验通过后按主键重新读取状态和角色再签发令牌，
+ * 已冻结的账户不会因为缓存未过期而登录成功。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Service
+public class UserServiceImpl implements UserService {
+
+    private static final Logger logger = LogManager.getLogger(UserServiceImpl.class);
+
+    @Value("${user.login-cache.max-size:100000}")
+    private long loginCacheMaxSize;
+
+    @Value("${user.login-cache.expire-seconds:60}")
+    private long loginCacheExpireSeconds;
+
+    @Resource
+    private UserMapper userMapper;
+
+    @Resource
+    private AuthTokenService authTokenService;
+
+    @Resource
+    private AdaptivePasswordEncoder passwordEncoder;
+
+    @Resource
+    private UserProfileCache userProfileCache;
+
+    @Resource
+    private OutboxRecorder outboxRecorder;
+
+    @Resource(name = "passwordHashExecutor")
+    private Executor passwordHashExecutor;
+
+    // 用户名到用户的本地缓存，只缓存存在的用户
+    private Cache<String, User> userCache;
+
+    @PostConstruct
+    public void init() {
+        userCache = CacheBuilder.newBuilder()
+                .maximumSize(loginCacheMaxSize)
+                .expireAfterWrite(loginCacheExpireSeconds, TimeUnit.SECONDS)
+                .build();
+    }
+
+    @Override
+    public CompletableFuture<TokenPairDTO> login(LoginRequest request) {
+        User user = findByUsername(request.getUsername());
+        if (user == null) {
+            throw new BusinessException(ExceptionEnum.USER_NOT_FOUND);
+        }
+        if (user.isFrozen()) {
+            throw new BusinessException(ExceptionEnum.USER_ACCOUNT_FROZEN);
+        }
+        String rawPassword = request.getPassword();
+        String hash = user.getPassword();
+        return submit(() -> passwordEncoder.matches(rawPassword, hash)).thenApply(matched -> {
+            if (!matched) {
+                throw new BusinessException(ExceptionEnum.PASSWORD_ERROR);
+            }
+            User current = reload(user);
+            if (passwordEncoder.upgradeEncoding(hash)) {
+                rehash(user, rawPassword);
+            }
+            TokenPairDTO tokens = authTokenService.issueTokenPair(current.getId(), current.getRole());
+            recordLogin(current.getId());
+            return tokens;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Long> register(RegisterRequest request) {
+        if (findByUsername(request.getUsername()) != null) {
+            throw new BusinessException(ExceptionEnum.USER_ALREADY_EXISTS);
+        }
+        String rawPassword = request.getPassword();
+        return submit(() -> passwordEncoder.encode(rawPassword)).thenApply(hash -> {
+            User user = new User();
+            user.setUsername(request.getUsername());
+            user.setPassword(hash);
+            user.setPhone(request.getPhone());
+            user.setRole(User.ROLE_USER);
+            user.setStatus(User.STATUS_NORMAL);
+            try {
+                userMapper.insert(user);
+            } catch (DuplicateKeyException e) {
+                // 并发注册同一用户名时由唯一索引兜底
+                throw new BusinessException(ExceptionEnum.USER_ALREADY_EXISTS);
+            }
+            return user.getId();
+        });
+    }
+
+    @Override
+    public UserProfileDTO getProfile(long userId) {
+        UserProfileDTO profile = userProfileCache.get(userId);
+        if (profile == null) {
+            throw new BusinessException(ExceptionEnum.USER_NOT_FOUND);
+        }
+        return profile;
+    }
+
+    @Override
+    public void updateProfile(long userId, UpdateProfileRequest request) {
+        User update = new User();
+        update.setId(userId);
+        update.setPhone(request.getPhone());
+        if (userMapper.updateById(update) == 0) {
+            throw new BusinessException(ExceptionEnum.USER_NOT_FOUND);
+        }
+        userProfileCache.invalidate(userId);
+    }
+
+    @Override
+    public void updateSegment(long userId, String segment) {
+        LambdaUpdateWrapper<User> update = new LambdaUpdateWrapper<User>()
+                .set(User::getSegment, segment)
+                .eq(User::getId, userId);
+        if (userMapper.update(null, update) == 0) {
+            throw new BusinessException(ExceptionEnum.USER_NOT_FOUND);
+        }
+        userProfileCache.invalidate(userId);
+    }
+
+    /**
+     * 按用户名查询用户，优先读取本地缓存
+     */
+    private User findByUsername(String username) {
+        User user = userCache.getIfPresent(username);
+        if (user != null) {
+            return user;
+        }
+        user = userMapper.selectOne(new LambdaQueryWrapper<User>().eq(User::getUsername, username));
+        if (user != null) {
+            userCache.put(username, user);
+        }
+        return user;
+    }
+
+    /**
+     * 签发令牌前按主键读取用户的最新状态，账户已删除或已冻结时清除本地缓存并拒绝登录
+     */
+    private User reload(User cached) {
+        User current = userMapper.selectById(cached.getId());
+        if (current == null || current.isFrozen()) {
+            userCache.invalidate(cached.getUsername());
+            throw new BusinessException(current == null ? ExceptionEnum.USER_NOT_FOUND
+                    : ExceptionEnum.USER_ACCOUNT_FROZEN);
+        }
+        return current;
+    }
+
+    /**
+     * 将哈希任务提交到专用线程池，队列已满时返回“请稍后重试”
+     */
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, passwordHashExecutor);
+        } catch (RejectedExecutionException e) {
+            throw new BusinessException(ExceptionEnum.USER_LOGIN_BUSY);
+        }
+    }
+
+    /**
+     * 以当前强度重新哈希密码并写回数据库，线程池繁忙时跳过，下次登录再升级
+     */
+    private void rehash(User user, String rawPassword) {
+        try {
+            passwordHashExecutor.execute(() -> {
+                User update = new User();
+                update.setId(user.getId());
+                update.setPassword(passwordEncoder.encode(rawPassword));
+                userMapper.updateById(update);
+                userCache.invalidate(user.getUsername());
+            });
+        } catch (RejectedExecutionException e) {
+            logger.debug("Password rehash skipped for user {}: executor saturated", user.getId());
+        }
+    }
+
+    /**
+     * 记录登录事件。登录不修改业务数据，事件写入失败时只记录日志，不影响登录
+     */
+    private void recordLogin(long userId) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("userId", userId);
+        data.put("loginTime", System.currentTimeMillis());
+        try {
+            outboxRecorder.record(OutboxRecorder.AGGREGATE_USER, userId, OutboxRecorder.USER_LOGGED_IN, data);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to record login event of user {}: {}", userId, e.getMessage());
+        }
+    }
+
+}
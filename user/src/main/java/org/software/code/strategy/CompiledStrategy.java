@@ -0,0 +1,99 @@
+package org.software.code.strategy;
+
+import lombok.Getter;
+import org.software.code.entity.DiscountStrategy;
+
+/**
+ * 编译后的折扣策略，所有规则都转换为基本类型字段，求值时不访问数据库实体、不分配对象。
+ * 实例不可变，可在多线程间安全共享。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Getter
+public final class CompiledStrategy {
+
+    private static final int NO_DAILY_WINDOW = -1;
+    private static final long RATE_BASE = 10000L;
+
+    private final long id;
+    private final String name;
+    private final String segment;
+    private final int type;
+    private final long discountValue;
+    private final long minAmount;
+    private final long maxDiscount;
+    private final long startMillis;
+    private final long endMillis;
+    private final int dailyStartMinute;
+    private final int dailyEndMinute;
+    private final int usageLimit;
+    private final int perUserLimit;
+    private final int priority;
+
+    private CompiledStrategy(DiscountStrategy source) {
+        this.id = source.getId();
+        this.name = source.getName();
+        this.segment = source.getUserSegment() == null ? DiscountStrategy.SEGMENT_ALL : source.getUserSegment();
+        this.type = source.getType();
+        this.discountValue = source.getDiscountValue();
+        this.minAmount = source.getMinAmount() == null ? 0 : source.getMinAmount();
+        this.maxDiscount = source.getMaxDiscount() == null ? 0 : source.getMaxDiscount();
+        this.startMillis = source.getStartTime().getTime();
+        this.endMillis = source.getEndTime().getTime();
+        boolean hasDailyWindow = source.getDailyStartMinute() != null && source.getDailyEndMinute() != null;
+        this.dailyStartMinute = hasDailyWindow ? source.getDailyStartMinute() : NO_DAILY_WINDOW;
+        this.dailyEndMinute = hasDailyWindow ? source.getDailyEndMinute() : NO_DAILY_WINDOW;
+        this.usageLimit = source.getUsageLimit() == null ? 0 : source.getUsageLimit();
+        this.perUserLimit = source.getPerUserLimit() == null ? 0 : source.getPerUserLimit();
+        this.priority = source.getPriority() == null ? 0 : source.getPriority();
+    }
+
+    /**
+     * 编译单条策略
+     */
+    public static CompiledStrategy compile(DiscountStrategy source) {
+        return new CompiledStrategy(source);
+    }
+
+    /**
+     * 判断在给定时刻是否处于生效时间和每日生效时段内
+     *
+     * @param now 当前时间（毫秒）
+     * @param minuteOfDay 当前是当天的第几分钟
+     */
+    public boolean isActiveAt(long now, int minuteOfDay) {
+        if (now < startMillis || now >= endMillis) {
+            return false;
+        }
+        if (dailyStartMinute == NO_DAILY_WINDOW) {
+            return true;
+        }
+        if (dailyStartMinute <= dailyEndMinute) {
+            return minuteOfDay >= dailyStartMinute && minuteOfDay < dailyEndMinute;
+        }
+        // 跨午夜的时段，如 22:00 至次日 02:00
+        return minuteOfDay >= dailyStartMinute || minuteOfDay < dailyEndMinute;
+    }
+
+    public boolean isExpiredAt(long now) {
+        return now >= endMillis;
+    }
+
+    public boolean appliesTo(String userSegment) {
+        return DiscountStrategy.SEGMENT_ALL.equals(segment) || segment.equals(userSegment);
+    }
+
+    /**
+     * 计算给定金额可减免的金额，不超过单笔上限和订单金额本身
+     *
+     * @param amount 订单金额（分）
+     * @return 减免金额（分）
+     */
+    public long discountFor(long amount) {
+        long discount = type == DiscountStrategy.TYPE_RATE ? amount * discountValue / RATE_BASE : discountValue;
+        if (maxDiscount > 0 && discount > maxDiscount) {
+            discount = maxDiscount;
+        }
+        return Math.min(discount, amount);
+    }
+}
@@ -0,0 +1,123 @@
+package org.software.code.strategy;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.software.code.common.util.RedisUtil;
+import org.software.code.mapper.DiscountStrategyMapper;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 折扣策略引擎，持有当前生效的策略索引并负责热更新。
+ * 每次支付的求值只读取一次 AtomicReference 并在不可变索引上查找，不加锁；
+ * 策略变更后构建新的索引并整体替换，正在进行的求值继续使用旧索引，不会看到更新了一半的规则。
+ * 变更通过 Redis 频道通知所有实例立即重新加载，另有定时任务比较版本标识作为兜底。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Component
+public class DiscountStrategyEngine implements MessageListener {
+
+    private static final Logger logger = LogManager.getLogger(DiscountStrategyEngine.class);
+
+    // 策略变更通知频道
+    public static final String CHANGED_CHANNEL = "user:strategy:changed";
+
+    @Resource
+    private DiscountStrategyMapper discountStrategyMapper;
+
+    @Resource
+    private RedisUtil redisUtil;
+
+    @Resource
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    private final AtomicReference<StrategyIndex> index = new AtomicReference<>(StrategyIndex.EMPTY);
+
+    @PostConstruct
+    public void init() {
+        reload();
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANGED_CHANNEL));
+        Gauge.builder("user.strategy.active", index, ref -> ref.get().size()).register(meterRegistry);
+    }
+
+    /**
+     * 查找对给定订单减免最多的策略
+     *
+     * @param segment 用户分群
+     * @param amount 订单金额（分）
+     * @return 最优策略，没有可用策略时返回 null
+     */
+    public CompiledStrategy best(String segment, long amount) {
+        return index.get().best(segment, amount, System.currentTimeMillis());
+    }
+
+    /**
+     * 按ID获取当前已加载的策略，未启用或已失效的策略不在其中
+     */
+    public CompiledStrategy get(long id) {
+        return index.get().get(id);
+    }
+
+    /**
+     * 计算给定时刻是当天的第几分钟
+     */
+    public int minuteOfDay(long now) {
+        return index.get().minuteOfDay(now);
+    }
+
+    /**
+     * 策略变更后调用，通知所有实例重新加载
+     */
+    public void publishChange() {
+        reload();
+        redisUtil.publish(CHANGED_CHANNEL, Long.toString(System.currentTimeMillis()));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        reload();
+    }
+
+    /**
+     * 定时比较策略表的版本标识，变化时重新加载，防止错过变更通知
+     */
+    @Scheduled(fixedDelayString = "${user.strategy.reload-interval-ms:60000}")
+    public void reloadIfChanged() {
+        String version = discountStrategyMapper.selectVersion();
+        if (!version.equals(index.get().version())) {
+            reload();
+        }
+    }
+
+    /**
+     * 从数据库加载已启用的策略并替换当前索引
+     */
+    public synchronized void reload() {
+        long start = System.nanoTime();
+        // 先读版本再读数据，期间发生的变更会在下一次比较版本时被发现
+        String version = discountStrategyMapper.selectVersion();
+        long zoneOffsetMillis = TimeUnit.SECONDS.toMillis(
+                ZoneId.systemDefault().getRules().getOffset(Instant.now()).getTotalSeconds());
+        StrategyIndex compiled = StrategyIndex.compile(discountStrategyMapper.selectActive(), version, zoneOffsetMillis);
+        index.set(compiled);
+        logger.info("Loaded {} discount strategies (version {}) in {} ms",
+                compiled.size(), version, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+}
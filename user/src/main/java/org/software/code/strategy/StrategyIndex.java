@@ -0,0 +1,161 @@
+package org.software.code.strategy;
+
+import org.software.code.entity.DiscountStrategy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 折扣策略的不可变索引。
+ * 策略按用户分群分桶，每个桶内按最低消费金额升序排列，并单独保存一份最低消费金额数组；
+ * 求值时对金额二分查找，只需扫描最低消费金额不超过订单金额的那部分策略。
+ * 索引构建完成后不再修改，读取无需加锁，更新时整体替换。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+final class StrategyIndex {
+
+    static final StrategyIndex EMPTY = new StrategyIndex(Collections.emptyMap(), Collections.emptyMap(), "", 0);
+
+    private static final Bucket EMPTY_BUCKET = new Bucket(new long[0], new CompiledStrategy[0]);
+
+    private final Map<Long, CompiledStrategy> byId;
+    private final Map<String, Bucket> bySegment;
+    private final Bucket allSegments;
+    // 构建索引时数据库中策略表的版本标识
+    private final String version;
+    // 本地时区相对 UTC 的偏移（毫秒），用于计算当天的分钟数
+    private final long zoneOffsetMillis;
+
+    private StrategyIndex(Map<Long, CompiledStrategy> byId, Map<String, Bucket> bySegment,
+                          String version, long zoneOffsetMillis) {
+        this.byId = byId;
+        this.bySegment = bySegment;
+        Bucket all = bySegment.get(DiscountStrategy.SEGMENT_ALL);
+        this.allSegments = all == null ? EMPTY_BUCKET : all;
+        this.version = version;
+        this.zoneOffsetMillis = zoneOffsetMillis;
+    }
+
+    /**
+     * 由已启用的策略构建索引
+     */
+    static StrategyIndex compile(List<DiscountStrategy> strategies, String version, long zoneOffsetMillis) {
+        Map<Long, CompiledStrategy> byId = new HashMap<>(strategies.size() * 2);
+        Map<String, List<CompiledStrategy>> grouped = new HashMap<>();
+        for (DiscountStrategy strategy : strategies) {
+            CompiledStrategy compiled = CompiledStrategy.compile(strategy);
+            byId.put(compiled.getId(), compiled);
+            grouped.computeIfAbsent(compiled.getSegment(), segment -> new ArrayList<>()).add(compiled);
+        }
+        Map<String, Bucket> bySegment = new HashMap<>(grouped.size() * 2);
+        for (Map.Entry<String, List<CompiledStrategy>> entry : grouped.entrySet()) {
+            List<CompiledStrategy> list = entry.getValue();
+            list.sort(Comparator.comparingLong(CompiledStrategy::getMinAmount));
+            long[] minAmounts = new long[list.size()];
+            for (int i = 0; i < minAmounts.length; i++) {
+                minAmounts[i] = list.get(i).getMinAmount();
+            }
+            bySegment.put(entry.getKey(), new Bucket(minAmounts, list.toArray(new CompiledStrategy[0])));
+        }
+        return new StrategyIndex(Collections.unmodifiableMap(byId), Collections.unmodifiableMap(bySegment),
+                version, zoneOffsetMillis);
+    }
+
+    CompiledStrategy get(long id) {
+        return byId.get(id);
+    }
+
+    String version() {
+        return version;
+    }
+
+    int size() {
+        return byId.size();
+    }
+
+    int minuteOfDay(long now) {
+        return (int) (Math.floorMod(now + zoneOffsetMillis, 86_400_000L) / 60_000L);
+    }
+
+    /**
+     * 查找对给定订单减免最多的策略；减免金额相同时取优先级高者，再相同时取ID小者
+     *
+     * @param segment 用户分群
+     * @param amount 订单金额（分）
+     * @param now 当前时间（毫秒）
+     * @return 最优策略，没有可用策略时返回 null
+     */
+    CompiledStrategy best(String segment, long amount, long now) {
+        int minuteOfDay = minuteOfDay(now);
+        CompiledStrategy best = allSegments.best(null, amount, now, minuteOfDay);
+        if (segment != null && !DiscountStrategy.SEGMENT_ALL.equals(segment)) {
+            Bucket bucket = bySegment.get(segment);
+            if (bucket != null) {
+                best = bucket.best(best, amount, now, minuteOfDay);
+            }
+        }
+        return best;
+    }
+
+    private static final class Bucket {
+        private final long[] minAmounts;
+        private final CompiledStrategy[] strategies;
+
+        private Bucket(long[] minAmounts, CompiledStrategy[] strategies) {
+            this.minAmounts = minAmounts;
+            this.strategies = strategies;
+        }
+
+        private CompiledStrategy best(CompiledStrategy current, long amount, long now, int minuteOfDay) {
+            CompiledStrategy best = current;
+            long bestDiscount = current == null ? 0 : current.discountFor(amount);
+            int end = upperBound(amount);
+            for (int i = 0; i < end; i++) {
+                CompiledStrategy candidate = strategies[i];
+                if (!candidate.isActiveAt(now, minuteOfDay)) {
+                    continue;
+                }
+                long discount = candidate.discountFor(amount);
+                if (discount <= 0 || !isBetter(candidate, discount, best, bestDiscount)) {
+                    continue;
+                }
+                best = candidate;
+                bestDiscount = discount;
+            }
+            return best;
+        }
+
+        /**
+         * 返回第一个最低消费金额大于 amount 的位置
+         */
+        private int upperBound(long amount) {
+            int low = 0;
+            int high = minAmounts.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (minAmounts[mid] <= amount) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private static boolean isBetter(CompiledStrategy candidate, long discount,
+                                        CompiledStrategy best, long bestDiscount) {
+            if (best == null || discount != bestDiscount) {
+                return best == null || discount > bestDiscount;
+            }
+            if (candidate.getPriority() != best.getPriority()) {
+                return candidate.getPriority() > best.getPriority();
+            }
+            return candidate.getId() < best.getId();
+        }
+    }
+}
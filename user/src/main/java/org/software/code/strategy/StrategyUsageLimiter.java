@@ -0,0 +1,292 @@
+package org.software.code.strategy;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.software.code.common.except.BusinessException;
+import org.software.code.common.except.ExceptionEnum;
+import org.software.code.common.util.RedisUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 折扣策略使用次数计数器。
+ * Redis 中的总计数表示已发放的使用次数，检查与累加在同一个 Lua 脚本中原子完成，
+ * 同时限制总次数和个人次数的策略也只需一次网络往返，并发下不会超发。
+ * 总次数上限不低于 lease-threshold 且不限个人次数的策略，每个实例一次从 Redis 预领一批额度（租约），
+ * 在本地用 CAS 扣减，热门活动的大部分请求不访问 Redis。租约到期或实例关闭时未用完的额度归还到总计数；
+ * 实例异常退出时其租约中剩余的额度视为已使用，只会少发、不会超发。
+ * 剩余额度越少，单次预领的数量越小，避免额度滞留在空闲实例上。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+@Component
+public class StrategyUsageLimiter {
+
+    private static final Logger logger = LogManager.getLogger(StrategyUsageLimiter.class);
+
+    // 总计数键，{} 内的策略ID作为集群哈希标签，保证与个人计数键位于同一槽位
+    private static final String USAGE_KEY_PREFIX = "strategy:usage:{";
+    private static final String USER_KEY_INFIX = ":user:";
+
+    // 脚本返回值：总次数已用完、个人次数已用完，成功时返回 1
+    private static final long GLOBAL_EXHAUSTED = 0;
+    private static final long USER_EXHAUSTED = -1;
+
+    // KEYS[1] 为总计数，KEYS[2] 为个人计数（可省略）；ARGV 为总上限、个人上限、计数过期时间点（毫秒），上限为 0 表示不限
+    private static final String ACQUIRE_SCRIPT =
+            "if #KEYS > 1 and tonumber(ARGV[2]) > 0 " +
+            "   and tonumber(redis.call('GET', KEYS[2]) or '0') >= tonumber(ARGV[2]) then return -1 end " +
+            "if tonumber(ARGV[1]) > 0 " +
+            "   and tonumber(redis.call('GET', KEYS[1]) or '0') >= tonumber(ARGV[1]) then return 0 end " +
+            "for i, key in ipairs(KEYS) do " +
+            "  if redis.call('INCR', key) == 1 then redis.call('PEXPIREAT', key, ARGV[3]) end " +
+            "end " +
+            "return 1";
+
+    // KEYS[1] 为总计数；ARGV 为总上限、期望数量、剩余额度除数、计数过期时间点，返回实际发放的数量
+    private static final String LEASE_SCRIPT =
+            "local remaining = tonumber(ARGV[1]) - tonumber(redis.call('GET', KEYS[1]) or '0') " +
+            "if remaining <= 0 then return 0 end " +
+            "local granted = math.min(tonumber(ARGV[2]), math.max(1, math.floor(remaining / tonumber(ARGV[3])))) " +
+            "if redis.call('INCRBY', KEYS[1], granted) == granted then redis.call('PEXPIREAT', KEYS[1], ARGV[4]) end " +
+            "return granted";
+
+    // 将 ARGV[1] 个额度归还到 KEYS 中的每个计数，计数不会被减到 0 以下
+    private static final String RELEASE_SCRIPT =
+            "for i, key in ipairs(KEYS) do " +
+            "  local used = tonumber(redis.call('GET', key) or '0') " +
+            "  if used > 0 then redis.call('DECRBY', key, math.min(used, tonumber(ARGV[1]))) end " +
+            "end " +
+            "return 1";
+
+    private static final RedisScript<Long> ACQUIRE = RedisScript.of(ACQUIRE_SCRIPT, Long.class);
+    private static final RedisScript<Long> LEASE = RedisScript.of(LEASE_SCRIPT, Long.class);
+    private static final RedisScript<Long> RELEASE = RedisScript.of(RELEASE_SCRIPT, Long.class);
+
+    @Value("${user.strategy.usage.lease-threshold:10000}")
+    private int leaseThreshold;
+
+    @Value("${user.strategy.usage.lease-size:500}")
+    private int leaseSize;
+
+    @Value("${user.strategy.usage.lease-divisor:16}")
+    private int leaseDivisor;
+
+    @Value("${user.strategy.usage.lease-ttl-ms:5000}")
+    private long leaseTtlMs;
+
+    @Value("${user.strategy.usage.exhausted-backoff-ms:1000}")
+    private long exhaustedBackoffMs;
+
+    // 策略结束后计数的保留时长
+    @Value("${user.strategy.usage.retention-ms:86400000}")
+    private long retentionMs;
+
+    @Resource
+    private RedisUtil redisUtil;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    private final Map<Long, LeaseHolder> leases = new ConcurrentHashMap<>();
+
+    private Counter leaseHits;
+    private Counter redisCalls;
+
+    @PostConstruct
+    public void init() {
+        leaseHits = meterRegistry.counter("user.strategy.usage.lease.hits");
+        redisCalls = meterRegistry.counter("user.strategy.usage.redis.calls");
+    }
+
+    /**
+     * 占用策略的一次使用次数
+     *
+     * @param strategy 策略
+     * @param userId 用户ID
+     * @throws BusinessException 总次数或个人次数已用完
+     */
+    public void acquire(CompiledStrategy strategy, long userId) {
+        if (strategy.getUsageLimit() == 0 && strategy.getPerUserLimit() == 0) {
+            return;
+        }
+        if (strategy.getPerUserLimit() == 0 && strategy.getUsageLimit() >= leaseThreshold) {
+            if (!acquireFromLease(strategy)) {
+                throw new BusinessException(ExceptionEnum.STRATEGY_USAGE_LIMIT_REACHED);
+            }
+            return;
+        }
+        redisCalls.increment();
+        Long result = redisUtil.executeScript(ACQUIRE, keysOf(strategy, userId),
+                Integer.toString(strategy.getUsageLimit()), Integer.toString(strategy.getPerUserLimit()),
+                Long.toString(expireAtOf(strategy)));
+        if (result == null || result == GLOBAL_EXHAUSTED) {
+            throw new BusinessException(ExceptionEnum.STRATEGY_USAGE_LIMIT_REACHED);
+        }
+        if (result == USER_EXHAUSTED) {
+            throw new BusinessException(ExceptionEnum.STRATEGY_USER_LIMIT_REACHED);
+        }
+    }
+
+    /**
+     * 归还一次已占用的使用次数，用于使用策略的业务失败后回滚
+     *
+     * @param strategy 策略
+     * @param userId 用户ID
+     */
+    public void release(CompiledStrategy strategy, long userId) {
+        if (strategy.getUsageLimit() == 0 && strategy.getPerUserLimit() == 0) {
+            return;
+        }
+        redisUtil.executeScript(RELEASE, keysOf(strategy, userId), "1");
+    }
+
+    /**
+     * 定期归还已到期租约中未用完的额度
+     */
+    @Scheduled(fixedDelayString = "${user.strategy.usage.reconcile-interval-ms:1000}")
+    public void reconcileExpiredLeases() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Long, LeaseHolder> entry : leases.entrySet()) {
+            LeaseHolder holder = entry.getValue();
+            synchronized (holder) {
+                Lease lease = holder.current;
+                if (lease != null && lease.expiresAt <= now) {
+                    holder.current = null;
+                    returnUnused(entry.getKey(), lease);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Map.Entry<Long, LeaseHolder> entry : leases.entrySet()) {
+            LeaseHolder holder = entry.getValue();
+            synchronized (holder) {
+                Lease lease = holder.current;
+                holder.current = null;
+                if (lease != null) {
+                    returnUnused(entry.getKey(), lease);
+                }
+            }
+        }
+    }
+
+    /**
+     * 从本地租约中扣减一次额度，租约用完或到期时向 Redis 续领
+     */
+    private boolean acquireFromLease(CompiledStrategy strategy) {
+        LeaseHolder holder = leases.computeIfAbsent(strategy.getId(), id -> new LeaseHolder());
+        long now = System.currentTimeMillis();
+        Lease lease = holder.current;
+        if (lease != null && lease.expiresAt > now && lease.tryTake()) {
+            leaseHits.increment();
+            return true;
+        }
+        synchronized (holder) {
+            lease = holder.current;
+            if (lease != null && lease.expiresAt > now && lease.tryTake()) {
+                leaseHits.increment();
+                return true;
+            }
+            // 额度已用完时短暂地直接拒绝，避免售罄后每个请求都访问 Redis
+            if (holder.exhaustedUntil > now) {
+                return false;
+            }
+            if (lease != null) {
+                holder.current = null;
+                returnUnused(strategy.getId(), lease);
+            }
+            redisCalls.increment();
+            Long granted = redisUtil.executeScript(LEASE, Collections.singletonList(usageKey(strategy.getId())),
+                    Integer.toString(strategy.getUsageLimit()), Integer.toString(leaseSize),
+                    Integer.toString(leaseDivisor), Long.toString(expireAtOf(strategy)));
+            if (granted == null || granted <= 0) {
+                holder.exhaustedUntil = now + exhaustedBackoffMs;
+                return false;
+            }
+            // 本次请求直接使用其中一个额度
+            holder.current = new Lease(granted - 1, now + leaseTtlMs);
+            return true;
+        }
+    }
+
+    /**
+     * 收回租约并将剩余额度归还到 Redis，收回后其他线程无法再从该租约扣减
+     */
+    private void returnUnused(long strategyId, Lease lease) {
+        long unused = lease.remaining.getAndSet(0);
+        if (unused <= 0) {
+            return;
+        }
+        try {
+            redisUtil.executeScript(RELEASE, Collections.singletonList(usageKey(strategyId)), Long.toString(unused));
+        } catch (Exception e) {
+            // 归还失败只会少发，不影响正确性
+            logger.warn("Failed to return {} unused usage units of strategy {}", unused, strategyId, e);
+        }
+    }
+
+    private long expireAtOf(CompiledStrategy strategy) {
+        return strategy.getEndMillis() + retentionMs;
+    }
+
+    private static List<String> keysOf(CompiledStrategy strategy, long userId) {
+        String usageKey = usageKey(strategy.getId());
+        if (strategy.getPerUserLimit() == 0) {
+            return Collections.singletonList(usageKey);
+        }
+        return Arrays.asList(usageKey, usageKey + USER_KEY_INFIX + userId);
+    }
+
+    private static String usageKey(long strategyId) {
+        return USAGE_KEY_PREFIX + strategyId + "}";
+    }
+
+    /**
+     * 单个策略在本实例上的租约状态，续领和归还在其监视器上串行进行
+     */
+    private static final class LeaseHolder {
+        private volatile Lease current;
+        private long exhaustedUntil;
+    }
+
+    /**
+     * 一次预领的额度，剩余数量通过 CAS 扣减
+     */
+    private static final class Lease {
+        private final AtomicLong remaining;
+        private final long expiresAt;
+
+        private Lease(long remaining, long expiresAt) {
+            this.remaining = new AtomicLong(remaining);
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean tryTake() {
+            long current;
+            do {
+                current = remaining.get();
+                if (current <= 0) {
+                    return false;
+                }
+            } while (!remaining.compareAndSet(current, current - 1));
+            return true;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+-- ======= 扫码记录压测数据生成脚本 =======
+-- 用法：先执行 schema.sql 并确保覆盖 @months 个月的分区已存在，再设置 @rows 后执行本脚本。
+-- 以 0-9 的数字表自连接生成行号，每 100 万行提交一次，避免单个事务过大。
+
+SET @rows = 10000000;     -- 生成的总行数，100M 时改为 100000000
+SET @users = 1000000;     -- 用户数
+SET @places = 50000;      -- 场所数
+SET @months = 3;          -- 数据覆盖的月数，从当前月往前
+SET @start = DATE_SUB(DATE_FORMAT(NOW(), '%Y-%m-01'), INTERVAL @months - 1 MONTH);
+SET @span = TIMESTAMPDIFF(SECOND, @start, NOW());
+
+-- 临时表不能在同一条语句中被多次引用，因此使用普通表并在最后删除
+DROP TABLE IF EXISTS digits;
+CREATE TABLE digits (d INT PRIMARY KEY);
+INSERT INTO digits VALUES (0), (1), (2), (3), (4), (5), (6), (7), (8), (9);
+
+DROP PROCEDURE IF EXISTS generate_user_place_code;
+DELIMITER //
+CREATE PROCEDURE generate_user_place_code()
+BEGIN
+    DECLARE batch INT DEFAULT 0;
+    WHILE batch * 1000000 < @rows DO
+        -- 线上记录ID由 Snowflake 生成，这里直接使用行号
+        INSERT INTO user_place_code (id, user_id, place_id, check_in_time)
+        SELECT batch * 1000000 + d0.d + d1.d * 10 + d2.d * 100 + d3.d * 1000 + d4.d * 10000 + d5.d * 100000 + 1,
+               FLOOR(1 + RAND() * @users),
+               FLOOR(1 + RAND() * @places),
+               DATE_ADD(@start, INTERVAL FLOOR(RAND() * @span) SECOND)
+        FROM digits d0, digits d1, digits d2, digits d3, digits d4, digits d5;
+        COMMIT;
+        SET batch = batch + 1;
+    END WHILE;
+END //
+DELIMITER ;
+
+CALL generate_user_place_code();
+DROP PROCEDURE generate_user_place_code;
+DROP TABLE digits;
+ANALYZE TABLE user_place_code;
+
+-- 以下查询应只访问时间窗所在的分区，并使用覆盖索引（Extra 中为 Using index）
+EXPLAIN SELECT id, user_id, place_id, check_in_time FROM user_place_code
+WHERE user_id = 42 AND check_in_time >= DATE_SUB(NOW(), INTERVAL 7 DAY) AND check_in_time < NOW()
+ORDER BY check_in_time DESC, id DESC LIMIT 20;
+
+EXPLAIN SELECT id, user_id, place_id, check_in_time FROM user_place_code
+WHERE place_id = 42 AND check_in_time >= DATE_SUB(NOW(), INTERVAL 1 DAY) AND check_in_time < NOW()
+  AND (check_in_time < NOW() - INTERVAL 1 HOUR OR (check_in_time = NOW() - INTERVAL 1 HOUR AND id < 1000000))
+ORDER BY check_in_time DESC, id DESC LIMIT 20;
@@ -0,0 +1,135 @@
+-- ======= 用户服务数据库表结构 =======
+
+CREATE TABLE IF NOT EXISTS `user` (
+    `id`          BIGINT       NOT NULL AUTO_INCREMENT COMMENT '用户ID',
+    `username`    VARCHAR(64)  NOT NULL COMMENT '用户名',
+    `password`    VARCHAR(100) NOT NULL COMMENT '密码哈希（BCrypt）',
+    `phone`       VARCHAR(20)  DEFAULT NULL COMMENT '手机号',
+    `role`        VARCHAR(20)  NOT NULL DEFAULT 'user' COMMENT '角色：user / admin / super_admin',
+    `segment`     VARCHAR(32)  DEFAULT NULL COMMENT '用户分群，由管理员设置，为空时只适用面向所有用户的折扣策略',
+    `status`      TINYINT      NOT NULL DEFAULT 0 COMMENT '账户状态：0 正常，1 冻结',
+    `create_time` DATETIME     NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    `update_time` DATETIME     NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_username` (`username`)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4 COMMENT = '用户表';
+
+CREATE TABLE IF NOT EXISTS `place_code` (
+    `id`          BIGINT       NOT NULL AUTO_INCREMENT COMMENT '场所ID',
+    `name`        VARCHAR(100) NOT NULL COMMENT '场所名称',
+    `address`     VARCHAR(255) DEFAULT NULL COMMENT '场所地址',
+    `creator_id`  BIGINT       NOT NULL COMMENT '创建者的用户ID',
+    `create_time` DATETIME     NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    PRIMARY KEY (`id`)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4 COMMENT = '场所码表';
+
+-- 扫码记录按月分区，分区由 PartitionMaintenanceJob 提前创建并按保留期删除。
+-- 分区表的主键必须包含分区列；二级索引隐含主键 (id, check_in_time)，
+-- 因此 (user_id, check_in_time, place_id) 和 (place_id, check_in_time, user_id) 可覆盖两类时间窗查询及其游标。
+CREATE TABLE IF NOT EXISTS `user_place_code` (
+    `id`            BIGINT   NOT NULL COMMENT '记录ID，由 Snowflake 生成',
+    `user_id`       BIGINT   NOT NULL COMMENT '用户ID',
+    `place_id`      BIGINT   NOT NULL COMMENT '场所ID',
+    `check_in_time` DATETIME NOT NULL COMMENT '扫码时间',
+    PRIMARY KEY (`id`, `check_in_time`),
+    KEY `idx_user_time` (`user_id`, `check_in_time`, `place_id`),
+    KEY `idx_place_time` (`place_id`, `check_in_time`, `user_id`)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4 COMMENT = '用户场所码扫码记录表'
+PARTITION BY RANGE COLUMNS (`check_in_time`) (
+    PARTITION p202610 VALUES LESS THAN ('2026-11-01'),
+    PARTITION p202611 VALUES LESS THAN ('2026-12-01'),
+    PARTITION p202612 VALUES LESS THAN ('2027-01-01'),
+    PARTITION p_future VALUES LESS THAN (MAXVALUE)
+);
+
+CREATE TABLE IF NOT EXISTS `payment` (
+    `id`          BIGINT      NOT NULL COMMENT '支付ID，由 Snowflake 生成',
+    `payer_id`    BIGINT      NOT NULL COMMENT '付款用户ID',
+    `payee_id`    BIGINT      NOT NULL COMMENT '收款用户ID',
+    `amount`      BIGINT      NOT NULL COMMENT '订单金额（分）',
+    `discount`    BIGINT      NOT NULL DEFAULT 0 COMMENT '减免金额（分）',
+    `payable`     BIGINT      NOT NULL COMMENT '实付金额（分）',
+    `strategy_id` BIGINT      DEFAULT NULL COMMENT '使用的折扣策略ID',
+    `request_key` VARCHAR(64) NOT NULL COMMENT '客户端提交的幂等键',
+    `status`      TINYINT     NOT NULL DEFAULT 0 COMMENT '支付状态：0 已创建，1 支付成功，2 支付失败',
+    `create_time` DATETIME    NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    `update_time` DATETIME    NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (`id`),
+    -- 幂等记录失效后的兜底：同一付款人的同一幂等键只能创建一笔支付
+    UNIQUE KEY `uk_payer_request` (`payer_id`, `request_key`),
+    KEY `idx_payee_time` (`payee_id`, `create_time`)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4 COMMENT = '支付表';
+
+CREATE TABLE IF NOT EXISTS `discount_strategy` (
+    `id`                 BIGINT       NOT NULL AUTO_INCREMENT COMMENT '策略ID',
+    `name`               VARCHAR(100) NOT NULL COMMENT '策略名称',
+    `type`               TINYINT      NOT NULL COMMENT '折扣类型：1 满减，2 按比例折扣',
+    `discount_value`     BIGINT       NOT NULL COMMENT '减免金额（分）或减免比例（万分比）',
+    `min_amount`         BIGINT       NOT NULL DEFAULT 0 COMMENT '最低消费金额（分）',
+    `max_discount`       BIGINT       NOT NULL DEFAULT 0 COMMENT '单笔最高减免金额（分），0 表示不限',
+    `user_segment`       VARCHAR(32)  NOT NULL DEFAULT 'ALL' COMMENT '适用的用户分群，ALL 表示所有用户',
+    `start_time`         DATETIME     NOT NULL COMMENT '生效时间',
+    `end_time`           DATETIME     NOT NULL COMMENT '失效时间',
+    `daily_start_minute` SMALLINT     DEFAULT NULL COMMENT '每日生效时段的起点（当天第几分钟）',
+    `daily_end_minute`   SMALLINT     DEFAULT NULL COMMENT '每日生效时段的终点（当天第几分钟，不包含）',
+    `usage_limit`        INT          NOT NULL DEFAULT 0 COMMENT '总使用次数上限，0 表示不限',
+    `per_user_limit`     INT          NOT NULL DEFAULT 0 COMMENT '每个用户的使用次数上限，0 表示不限',
+    `priority`           INT          NOT NULL DEFAULT 0 COMMENT '优先级',
+    `status`             TINYINT      NOT NULL DEFAULT 0 COMMENT '策略状态：0 启用，1 禁用',
+    `create_time`        DATETIME     NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    `update_time`        DATETIME     NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (`id`),
+    KEY `idx_status_end` (`status`, `end_time`)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4 COMMENT = '折扣策略表';
+
+CREATE TABLE IF NOT EXISTS `account` (
+    `user_id`     BIGINT   NOT NULL COMMENT '用户ID，0 为系统清算账户',
+    `balance`     BIGINT   NOT NULL DEFAULT 0 COMMENT '余额（分），由账务流水汇总而来',
+    `split_slots` INT      NOT NULL DEFAULT 0 COMMENT '入账分片数，0 表示不拆分',
+    `create_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    `update_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (`user_id`)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4 COMMENT = '账户余额表';
+
+-- 热点账户的入账分片，入账分散到多行，由后台任务定期汇总到 account.balance
+CREATE TABLE IF NOT EXISTS `account_slot` (
+    `user_id`     BIGINT   NOT NULL COMMENT '账户的用户ID',
+    `slot_no`     INT      NOT NULL COMMENT '分片序号',
+    `balance`     BIGINT   NOT NULL DEFAULT 0 COMMENT '尚未汇总的入账金额（分）',
+    `update_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (`user_id`, `slot_no`),
+    KEY `idx_balance` (`balance`)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4 COMMENT = '账户入账分片表';
+
+-- 系统清算账户，充值资金从该账户转出，余额为负数
+INSERT IGNORE INTO `account` (`user_id`, `balance`) VALUES (0, 0);
+
+CREATE TABLE IF NOT EXISTS `ledger_journal` (
+    `id`           BIGINT   NOT NULL COMMENT '流水ID，由 Snowflake 生成',
+    `account_id`   BIGINT   NOT NULL COMMENT '账户的用户ID',
+    `counterparty` BIGINT   NOT NULL COMMENT '对方账户的用户ID',
+    `direction`    TINYINT  NOT NULL COMMENT '借贷方向：1 借（转出），2 贷（转入）',
+    `amount`       BIGINT   NOT NULL COMMENT '金额（分），恒为正数',
+    `biz_type`     TINYINT  NOT NULL COMMENT '业务类型：1 支付，2 充值',
+    `biz_id`       BIGINT   NOT NULL COMMENT '业务单号，如支付ID',
+    `create_time`  DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '记账时间',
+    PRIMARY KEY (`id`),
+    -- 同一笔业务在同一账户的同一方向只能记账一次
+    UNIQUE KEY `uk_biz_account` (`biz_type`, `biz_id`, `account_id`, `direction`),
+    KEY `idx_account_time` (`account_id`, `create_time`)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4 COMMENT = '账务流水表，只追加不修改';
+
+-- 事务发件箱：领域事件与业务数据在同一事务中写入，由投递任务按 id 顺序发送到 Kafka
+CREATE TABLE IF NOT EXISTS `outbox_event` (
+    `id`             BIGINT       NOT NULL COMMENT '事件ID，由 Snowflake 生成',
+    `aggregate_type` VARCHAR(32)  NOT NULL COMMENT '聚合类型，决定投递的主题',
+    `aggregate_id`   BIGINT       NOT NULL COMMENT '聚合ID，作为消息键',
+    `event_type`     VARCHAR(64)  NOT NULL COMMENT '事件类型',
+    `payload`        TEXT         NOT NULL COMMENT '消息内容（JSON）',
+    `status`         TINYINT      NOT NULL DEFAULT 0 COMMENT '投递状态：0 待投递，1 已投递，2 投递失败（死信）',
+    `attempts`       INT          NOT NULL DEFAULT 0 COMMENT '因不可重试的错误投递失败的次数',
+    `create_time`    DATETIME(3)  NOT NULL COMMENT '事件发生时间',
+    PRIMARY KEY (`id`),
+    KEY `idx_status_id` (`status`, `id`),
+    KEY `idx_status_time` (`status`, `create_time`)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4 COMMENT = '事务发件箱表';
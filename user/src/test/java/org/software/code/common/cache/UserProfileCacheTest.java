@@ -0,0 +1,131 @@
+package org.software.code.common.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.software.code.common.util.InMemoryRedisUtil;
+import org.software.code.common.util.RedisWriteBehindBuffer;
+import org.software.code.entity.User;
+import org.software.code.mapper.UserMapper;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * UserProfileCache 的 L2 版本测试：两个实例共用一个 Redis，一个实例回源期间另一个实例修改资料并使缓存失效，
+ * 慢加载读到的旧资料不得写回 L2。Redis 由 InMemoryRedisUtil 代替，写缓冲区容量为 0，所有写入同步执行。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+class UserProfileCacheTest {
+
+    private static final long USER_ID = 7L;
+    private static final String PROFILE_KEY = "user:profile:{7}";
+
+    private InMemoryRedisUtil redis;
+    private UserMapper userMapper;
+
+    @BeforeEach
+    void setUp() {
+        redis = new InMemoryRedisUtil();
+        redis.onScript("'INCR'", (keys, args) -> {
+            redis.incrementBy(keys.get(1), 1);
+            boolean existed = redis.hasKey(keys.get(0));
+            redis.deleteValue(keys.get(0));
+            return existed ? 1L : 0L;
+        });
+        redis.onScript("'PX'", (keys, args) -> {
+            String version = redis.getValue(keys.get(1));
+            if (!args[0].equals(version == null ? "0" : version)) {
+                return 0L;
+            }
+            redis.setValue(keys.get(0), args[1]);
+            return 1L;
+        });
+        userMapper = mock(UserMapper.class);
+    }
+
+    @Test
+    void staleLoadDoesNotOverwriteInvalidatedProfile() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch updated = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        // 第一次回源读到旧资料后停住，直到资料被修改；之后的回源读到新资料
+        when(userMapper.selectById(any())).thenAnswer(invocation -> {
+            if (loads.getAndIncrement() > 0) {
+                return user("new");
+            }
+            loading.countDown();
+            updated.await(10, TimeUnit.SECONDS);
+            return user("old");
+        });
+        UserProfileCache nodeA = newCache();
+        UserProfileCache nodeB = newCache();
+
+        CompletableFuture<String> staleLoad = CompletableFuture.supplyAsync(() -> nodeA.get(USER_ID).getPhone());
+        assertTrue(loading.await(10, TimeUnit.SECONDS));
+        // 节点 A 回源期间，节点 B 更新了资料并使缓存失效
+        nodeB.invalidate(USER_ID);
+        updated.countDown();
+
+        assertEquals("old", staleLoad.get(10, TimeUnit.SECONDS));
+        assertNull(redis.getValue(PROFILE_KEY), "stale profile must not be written back to L2");
+
+        assertEquals("new", nodeB.get(USER_ID).getPhone());
+        assertTrue(redis.getValue(PROFILE_KEY).contains("new"));
+    }
+
+    @Test
+    void missingUserIsCachedUntilInvalidated() {
+        when(userMapper.selectById(any())).thenReturn(null);
+        UserProfileCache cache = newCache();
+
+        assertNull(cache.get(USER_ID));
+        assertEquals("", redis.getValue(PROFILE_KEY));
+
+        cache.invalidate(USER_ID);
+        assertNull(redis.getValue(PROFILE_KEY));
+        assertEquals(1, redis.getLong("user:profile:version:{7}"));
+    }
+
+    private UserProfileCache newCache() {
+        RedisWriteBehindBuffer buffer = new RedisWriteBehindBuffer();
+        ReflectionTestUtils.setField(buffer, "redisUtil", redis);
+        ReflectionTestUtils.setField(buffer, "maxPending", 0);
+        UserProfileCache cache = new UserProfileCache();
+        ReflectionTestUtils.setField(cache, "l1MaxSize", 100L);
+        ReflectionTestUtils.setField(cache, "l1TtlSeconds", 60L);
+        ReflectionTestUtils.setField(cache, "l2TtlSeconds", 1800L);
+        ReflectionTestUtils.setField(cache, "negativeTtlSeconds", 30L);
+        ReflectionTestUtils.setField(cache, "redisUtil", redis);
+        ReflectionTestUtils.setField(cache, "writeBehindBuffer", buffer);
+        ReflectionTestUtils.setField(cache, "userMapper", userMapper);
+        ReflectionTestUtils.setField(cache, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(cache, "listenerContainer", mock(RedisMessageListenerContainer.class));
+        ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+        cache.init();
+        return cache;
+    }
+
+    private static User user(String phone) {
+        User user = new User();
+        user.setId(USER_ID);
+        user.setUsername("alice");
+        user.setPhone(phone);
+        user.setRole(User.ROLE_USER);
+        user.setStatus(User.STATUS_NORMAL);
+        return user;
+    }
+}
@@ -0,0 +1,200 @@
+package org.software.code.common.id;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.software.code.common.util.InMemoryRedisUtil;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SnowflakeIdGenerator 的并发测试：多个节点、多个线程同时生成ID，期间租约被抢占、续期失败，ID 都不得重复。
+ * Redis 由 InMemoryRedisUtil 代替，续期和释放脚本以等价的 Java 实现在其锁内原子执行。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+class SnowflakeIdGeneratorTest {
+
+    private static final int NODES = 4;
+    private static final int THREADS_PER_NODE = 4;
+    private static final int IDS_PER_THREAD = 50000;
+    private static final int TIMESTAMP_SHIFT = 22;
+
+    private FlakyRedisUtil redis;
+    private final List<SnowflakeIdGenerator> generators = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        redis = new FlakyRedisUtil();
+        redis.onScript("'PEXPIRE'", (keys, args) -> {
+            if (!args[0].equals(redis.getValue(keys.get(0)))) {
+                return 0L;
+            }
+            redis.setValue(keys.get(1), args[2]);
+            return 1L;
+        });
+        redis.onScript("'DEL'", (keys, args) -> {
+            if (!args[0].equals(redis.getValue(keys.get(0)))) {
+                return 0L;
+            }
+            redis.deleteValue(keys.get(0));
+            redis.setValue(keys.get(1), args[2]);
+            return 1L;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        redis.available = true;
+        for (SnowflakeIdGenerator generator : generators) {
+            generator.shutdown();
+        }
+    }
+
+    @Test
+    void idsStayUniqueAcrossNodesWhileLeasesAreLost() throws Exception {
+        for (int i = 0; i < NODES; i++) {
+            newGenerator(60000, 5000);
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(NODES * THREADS_PER_NODE + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (SnowflakeIdGenerator generator : generators) {
+            for (int t = 0; t < THREADS_PER_NODE; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    long[] ids = new long[IDS_PER_THREAD];
+                    for (int i = 0; i < ids.length; i++) {
+                        ids[i] = nextIdRetrying(generator);
+                    }
+                    return ids;
+                }));
+            }
+        }
+        // 不断抢走某个节点的租约再触发续期，迫使节点改用新的工作节点ID
+        Future<?> chaos = pool.submit(() -> {
+            start.await();
+            while (running.get()) {
+                SnowflakeIdGenerator victim = generators.get(ThreadLocalRandom.current().nextInt(NODES));
+                int workerId = (Integer) ReflectionTestUtils.getField(victim, "workerId");
+                redis.deleteValue("user:id:worker:{" + workerId + "}");
+                for (SnowflakeIdGenerator generator : generators) {
+                    generator.renewLease();
+                }
+                TimeUnit.MILLISECONDS.sleep(2);
+            }
+            return null;
+        });
+        start.countDown();
+
+        List<long[]> results = new ArrayList<>();
+        for (Future<long[]> future : futures) {
+            results.add(future.get(60, TimeUnit.SECONDS));
+        }
+        running.set(false);
+        chaos.get(10, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        long[] all = new long[NODES * THREADS_PER_NODE * IDS_PER_THREAD];
+        int offset = 0;
+        for (long[] ids : results) {
+            for (int i = 1; i < ids.length; i++) {
+                assertTrue(ids[i] > ids[i - 1], "ids of one thread must increase");
+            }
+            System.arraycopy(ids, 0, all, offset, ids.length);
+            offset += ids.length;
+        }
+        Arrays.sort(all);
+        for (int i = 1; i < all.length; i++) {
+            assertTrue(all[i] != all[i - 1], "duplicate id " + all[i]);
+        }
+    }
+
+    @Test
+    void stopsIssuingIdsWhenLeaseCannotBeRenewed() throws Exception {
+        SnowflakeIdGenerator generator = newGenerator(300, 100);
+        generator.nextId();
+
+        redis.available = false;
+        generator.renewLease();
+        TimeUnit.MILLISECONDS.sleep(250);
+        assertThrows(IllegalStateException.class, generator::nextId);
+
+        redis.available = true;
+        generator.renewLease();
+        generator.nextId();
+    }
+
+    @Test
+    void idleThreadDoesNotIssueIdsFromAnEarlierMillisecond() throws Exception {
+        SnowflakeIdGenerator generator = newGenerator(60000, 5000);
+        long first = generator.nextId();
+        TimeUnit.MILLISECONDS.sleep(5);
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        long fromOtherThread = other.submit(() -> generator.nextId()).get();
+        other.shutdown();
+
+        long next = generator.nextId();
+        assertTrue(next > fromOtherThread, "id must not go back after another thread moved on");
+        assertTrue((next >>> TIMESTAMP_SHIFT) > (first >>> TIMESTAMP_SHIFT));
+    }
+
+    /**
+     * 节点失去租约到重新租用之间会拒绝生成，重试即可
+     */
+    private static long nextIdRetrying(SnowflakeIdGenerator generator) {
+        while (true) {
+            try {
+                return generator.nextId();
+            } catch (IllegalStateException e) {
+                Thread.yield();
+            }
+        }
+    }
+
+    private SnowflakeIdGenerator newGenerator(long leaseTtlMs, long safetyMarginMs) {
+        WorkerIdLease lease = new WorkerIdLease();
+        ReflectionTestUtils.setField(lease, "redisUtil", redis);
+        ReflectionTestUtils.setField(lease, "leaseTtlMs", leaseTtlMs);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator();
+        ReflectionTestUtils.setField(generator, "workerIdLease", lease);
+        ReflectionTestUtils.setField(generator, "blockSize", 16);
+        ReflectionTestUtils.setField(generator, "maxDriftMs", 5L);
+        ReflectionTestUtils.setField(generator, "maxRollbackWaitMs", 1000L);
+        ReflectionTestUtils.setField(generator, "leaseSafetyMarginMs", safetyMarginMs);
+        generator.init();
+        generators.add(generator);
+        return generator;
+    }
+
+    /**
+     * 可模拟 Redis 不可用的内存版 RedisUtil
+     */
+    private static class FlakyRedisUtil extends InMemoryRedisUtil {
+
+        private volatile boolean available = true;
+
+        @Override
+        public <T> T executeScript(RedisScript<T> script, List<String> keys, String... args) {
+            if (!available) {
+                throw new IllegalStateException("Redis is unavailable");
+            }
+            return super.executeScript(script, keys, args);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.software.code.common.util;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.extension.spring.MybatisSqlSessionFactoryBean;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.h2.Driver;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+/**
+ * 测试用的 H2 内存数据库（MySQL 兼容模式），不启动 Spring 容器，直接构建 MyBatis-Plus 的映射器和事务模板。
+ * 表结构取自 db/h2-schema.sql，每个实例使用独立的数据库，测试之间互不影响。
+ * H2 不接受 MySQL 流式读取使用的 fetchSize（Integer.MIN_VALUE），该提示在语句上被忽略，游标仍可正常遍历。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+public class H2TestDatabase {
+
+    private final DataSource dataSource;
+    private final SqlSessionTemplate sqlSessionTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 创建数据库并注册映射器
+     *
+     * @param mappers 需要使用的映射器接口
+     */
+    public H2TestDatabase(Class<?>... mappers) throws Exception {
+        String url = "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+        dataSource = ignoringStreamingFetchSize(new SimpleDriverDataSource(new Driver(), url));
+        new ResourceDatabasePopulator(new ClassPathResource("db/h2-schema.sql")).execute(dataSource);
+
+        MybatisConfiguration configuration = new MybatisConfiguration();
+        configuration.setMapUnderscoreToCamelCase(true);
+        for (Class<?> mapper : mappers) {
+            configuration.addMapper(mapper);
+        }
+        MybatisSqlSessionFactoryBean factoryBean = new MybatisSqlSessionFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setConfiguration(configuration);
+        SqlSessionFactory sqlSessionFactory = factoryBean.getObject();
+        sqlSessionTemplate = new SqlSessionTemplate(sqlSessionFactory);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public <T> T mapper(Class<T> type) {
+        return sqlSessionTemplate.getMapper(type);
+    }
+
+    public PlatformTransactionManager transactionManager() {
+        return transactionManager;
+    }
+
+    public TransactionTemplate transactionTemplate() {
+        return transactionTemplate;
+    }
+
+    public JdbcTemplate jdbcTemplate() {
+        return jdbcTemplate;
+    }
+
+    /**
+     * 删除数据库
+     */
+    public void shutdown() {
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    private static DataSource ignoringStreamingFetchSize(DataSource target) {
+        return new DelegatingDataSource(target) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                Connection connection = super.getConnection();
+                return (Connection) Proxy.newProxyInstance(H2TestDatabase.class.getClassLoader(),
+                        new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                            Object result = invoke(connection, method, args);
+                            return result instanceof Statement ? wrapStatement((Statement) result) : result;
+                        });
+            }
+        };
+    }
+
+    private static Statement wrapStatement(Statement statement) {
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                : statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+        return (Statement) Proxy.newProxyInstance(H2TestDatabase.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    if ("setFetchSize".equals(method.getName()) && (Integer) args[0] < 0) {
+                        return null;
+                    }
+                    return invoke(statement, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package org.software.code.common.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.software.code.common.except.BusinessException;
+import org.software.code.common.except.ExceptionEnum;
+import org.software.code.common.result.Result;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * IdempotencyStore 的并发测试：多个实例、多个线程同时提交同一幂等键，业务只执行一次，
+ * 所有请求得到相同的结果；指纹不一致的请求被拒绝，业务异常被重放，未知结果的失败允许重试。
+ * Redis 由 InMemoryRedisUtil 代替。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+class IdempotencyStoreTest {
+
+    private static final int NODES = 4;
+    private static final int THREADS_PER_NODE = 8;
+    private static final String SCOPE = "payment:42";
+
+    private InMemoryRedisUtil redis;
+    private final List<IdempotencyStore> stores = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        redis = new InMemoryRedisUtil();
+        for (int i = 0; i < NODES; i++) {
+            IdempotencyStore store = new IdempotencyStore();
+            ReflectionTestUtils.setField(store, "pendingTtlMs", 30000L);
+            ReflectionTestUtils.setField(store, "resultTtlMs", 86400000L);
+            ReflectionTestUtils.setField(store, "waitTimeoutMs", 5000L);
+            ReflectionTestUtils.setField(store, "pollIntervalMs", 5L);
+            ReflectionTestUtils.setField(store, "redisUtil", redis);
+            ReflectionTestUtils.setField(store, "objectMapper", new ObjectMapper());
+            ReflectionTestUtils.setField(store, "meterRegistry", new SimpleMeterRegistry());
+            store.init();
+            stores.add(store);
+        }
+    }
+
+    @Test
+    void concurrentDuplicatesAcrossNodesExecuteOnce() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(NODES * THREADS_PER_NODE);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Result<String>>> futures = new ArrayList<>();
+        for (IdempotencyStore store : stores) {
+            for (int t = 0; t < THREADS_PER_NODE; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return store.execute(SCOPE, "key-1", "fp", String.class, () -> {
+                        int n = executions.incrementAndGet();
+                        sleep(50);
+                        return "payment-" + n;
+                    });
+                }));
+            }
+        }
+        start.countDown();
+        for (Future<Result<String>> future : futures) {
+            assertEquals("payment-1", future.get(10, TimeUnit.SECONDS).getData());
+        }
+        pool.shutdown();
+
+        assertEquals(1, executions.get());
+        assertEquals("payment-1", stores.get(0).execute(SCOPE, "key-1", "fp", String.class, () -> "again").getData());
+    }
+
+    @Test
+    void sameKeyWithDifferentRequestIsRejected() {
+        stores.get(0).execute(SCOPE, "key-1", "fp", String.class, () -> "ok");
+
+        BusinessException e = assertThrows(BusinessException.class,
+                () -> stores.get(1).execute(SCOPE, "key-1", "other", String.class, () -> "ok"));
+        assertEquals(ExceptionEnum.IDEMPOTENCY_KEY_CONFLICT.getCode(), e.getCode());
+        assertEquals("ok", stores.get(1).execute("payment:43", "key-1", "other", String.class, () -> "ok").getData());
+    }
+
+    @Test
+    void businessErrorIsReplayedAndUnknownFailureCanBeRetried() {
+        AtomicInteger executions = new AtomicInteger();
+        for (int i = 0; i < 2; i++) {
+            BusinessException e = assertThrows(BusinessException.class,
+                    () -> stores.get(0).execute(SCOPE, "key-1", "fp", String.class, () -> {
+                        executions.incrementAndGet();
+                        throw new BusinessException(ExceptionEnum.ACCOUNT_BALANCE_INSUFFICIENT);
+                    }));
+            assertEquals(ExceptionEnum.ACCOUNT_BALANCE_INSUFFICIENT.getCode(), e.getCode());
+        }
+        assertEquals(1, executions.get());
+
+        assertThrows(IllegalStateException.class, () -> stores.get(0).execute(SCOPE, "key-2", "fp", String.class, () -> {
+            throw new IllegalStateException("connection reset");
+        }));
+        assertEquals("ok", stores.get(1).execute(SCOPE, "key-2", "fp", String.class, () -> "ok").getData());
+    }
+
+    @Test
+    void malformedKeyIsRejected() {
+        BusinessException e = assertThrows(BusinessException.class,
+                () -> stores.get(0).execute(SCOPE, "bad key!", "fp", String.class, () -> "ok"));
+        assertEquals(ExceptionEnum.IDEMPOTENCY_KEY_INVALID.getCode(), e.getCode());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
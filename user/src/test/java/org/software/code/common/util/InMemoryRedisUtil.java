@@ -0,0 +1,128 @@
+package org.software.code.common.util;
+
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 测试用的内存版 RedisUtil，只实现单实例语义下的字符串键值和有序集合操作。
+ * 所有操作在同一把锁下串行执行，与 Redis 的单线程执行模型一致；
+ * Lua 脚本由测试按脚本中的特征片段注册等价的 Java 实现，同样在锁内原子执行。
+ * 发布消息不做任何操作，没有订阅者。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+public class InMemoryRedisUtil extends RedisUtil {
+
+    private final Map<String, String> values = new LinkedHashMap<>();
+    private final Map<String, Map<String, Double>> sortedSets = new LinkedHashMap<>();
+    private final Map<String, ScriptHandler> scripts = new LinkedHashMap<>();
+
+    /**
+     * 注册脚本的 Java 实现
+     *
+     * @param fragment 脚本文本中唯一的特征片段
+     * @param handler 脚本的等价实现，在锁内执行，可直接调用本类的读写方法
+     */
+    public synchronized void onScript(String fragment, ScriptHandler handler) {
+        scripts.put(fragment, handler);
+    }
+
+    @Override
+    public synchronized void setValue(String key, String value) {
+        values.put(key, value);
+    }
+
+    @Override
+    public synchronized void setValue(String key, String value, long timeout, TimeUnit unit) {
+        values.put(key, value);
+    }
+
+    @Override
+    public synchronized String getValue(String key) {
+        return values.get(key);
+    }
+
+    @Override
+    public synchronized void deleteValue(String key) {
+        values.remove(key);
+    }
+
+    @Override
+    public synchronized boolean hasKey(String key) {
+        return values.containsKey(key);
+    }
+
+    @Override
+    public synchronized boolean setIfAbsent(String key, String value, long timeout, TimeUnit unit) {
+        return values.putIfAbsent(key, value) == null;
+    }
+
+    @Override
+    public synchronized List<String> multiGet(Collection<String> keys) {
+        List<String> result = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            result.add(values.get(key));
+        }
+        return result;
+    }
+
+    @Override
+    public void publish(String channel, String message) {
+    }
+
+    @Override
+    public synchronized void addToSortedSet(String key, String member, double score) {
+        sortedSets.computeIfAbsent(key, k -> new LinkedHashMap<>()).put(member, score);
+    }
+
+    @Override
+    public synchronized void removeFromSortedSetByScore(String key, double min, double max) {
+        Map<String, Double> members = sortedSets.get(key);
+        if (members != null) {
+            members.values().removeIf(score -> score >= min && score <= max);
+        }
+    }
+
+    /**
+     * 读取整数值，键不存在时为 0
+     */
+    public synchronized long getLong(String key) {
+        String value = values.get(key);
+        return value == null ? 0 : Long.parseLong(value);
+    }
+
+    /**
+     * 增加整数值并返回增加后的值
+     */
+    public synchronized long incrementBy(String key, long delta) {
+        long value = getLong(key) + delta;
+        values.put(key, Long.toString(value));
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized <T> T executeScript(RedisScript<T> script, List<String> keys, String... args) {
+        String text = script.getScriptAsString();
+        for (Map.Entry<String, ScriptHandler> entry : scripts.entrySet()) {
+            if (text.contains(entry.getKey())) {
+                return (T) entry.getValue().execute(keys, args);
+            }
+        }
+        throw new UnsupportedOperationException("No in-memory implementation for script: " + text);
+    }
+
+    /**
+     * 脚本的 Java 实现
+     */
+    public interface ScriptHandler {
+
+        Object execute(List<String> keys, String[] args);
+    }
+}
@@ -0,0 +1,299 @@
+package org.software.code.job;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.software.code.common.util.InMemoryRedisUtil;
+import org.software.code.common.util.RedisJobLock;
+import org.software.code.entity.OutboxEvent;
+import org.software.code.mapper.OutboxEventMapper;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * OutboxRelayJob 在嵌入式 Kafka 上的投递测试：同一聚合的事件按事件ID顺序到达，发送时即失败的事件阻止其聚合的后续事件，
+ * 转为死信后后续事件继续投递；以每秒一万条的速度写入发件箱时，端到端延迟保持在轮询间隔的量级。
+ * 发件箱表由内存中的映射代替。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+class OutboxRelayJobTest {
+
+    private static final String AGGREGATE_TYPE = "payment";
+    private static final int MAX_REQUEST_SIZE = 10000;
+
+    private static EmbeddedKafkaBroker broker;
+    private static final AtomicInteger TOPICS = new AtomicInteger();
+
+    private final TreeMap<Long, OutboxEvent> outbox = new TreeMap<>();
+    private long nextEventId;
+    private String topic;
+    private DefaultKafkaProducerFactory<String, String> producerFactory;
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxRelayJob job;
+
+    @BeforeAll
+    static void startBroker() {
+        broker = new EmbeddedKafkaBroker(1, true, 3);
+        broker.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void stopBroker() {
+        broker.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        String topicPrefix = "relay" + TOPICS.incrementAndGet() + ".";
+        topic = topicPrefix + AGGREGATE_TYPE;
+        broker.addTopics(topic);
+
+        Map<String, Object> producerProps = new HashMap<>();
+        producerProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        producerProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        producerProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        producerProps.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        producerProps.put(ProducerConfig.MAX_REQUEST_SIZE_CONFIG, MAX_REQUEST_SIZE);
+        producerFactory = new DefaultKafkaProducerFactory<>(producerProps);
+
+        InMemoryRedisUtil redis = new InMemoryRedisUtil();
+        redis.onScript("'DEL'", (keys, args) -> {
+            if (!args[0].equals(redis.getValue(keys.get(0)))) {
+                return 0L;
+            }
+            redis.deleteValue(keys.get(0));
+            return 1L;
+        });
+        RedisJobLock jobLock = new RedisJobLock();
+        ReflectionTestUtils.setField(jobLock, "redisUtil", redis);
+
+        meterRegistry = new SimpleMeterRegistry();
+        job = new OutboxRelayJob();
+        ReflectionTestUtils.setField(job, "topicPrefix", topicPrefix);
+        ReflectionTestUtils.setField(job, "batchSize", 500);
+        ReflectionTestUtils.setField(job, "maxBatchesPerRun", 20);
+        ReflectionTestUtils.setField(job, "sendTimeoutMs", 10000L);
+        ReflectionTestUtils.setField(job, "maxAttempts", 2);
+        ReflectionTestUtils.setField(job, "lockTtlMs", 600000L);
+        ReflectionTestUtils.setField(job, "retentionHours", 72L);
+        ReflectionTestUtils.setField(job, "outboxEventMapper", outboxMapper());
+        ReflectionTestUtils.setField(job, "kafkaTemplate", new KafkaTemplate<>(producerFactory));
+        ReflectionTestUtils.setField(job, "jobLock", jobLock);
+        ReflectionTestUtils.setField(job, "meterRegistry", meterRegistry);
+        job.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        producerFactory.destroy();
+    }
+
+    @Test
+    void eventsOfEachAggregateArriveInOrder() {
+        Map<String, List<String>> expected = new LinkedHashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            long aggregateId = i % 20;
+            long eventId = append(aggregateId, "{\"seq\":" + i + "}");
+            expected.computeIfAbsent(Long.toString(aggregateId), k -> new ArrayList<>()).add(Long.toString(eventId));
+        }
+
+        job.relay();
+
+        assertEquals(2000, countByStatus(OutboxEvent.STATUS_SENT));
+        assertEquals(expected, eventIdsByKey(consume(2000)));
+    }
+
+    @Test
+    void eventRejectedOnSendBlocksLaterEventsOfItsAggregate() {
+        char[] oversized = new char[MAX_REQUEST_SIZE * 2];
+        Arrays.fill(oversized, 'x');
+        long a1 = append(1, "{}");
+        long a2 = append(1, new String(oversized));
+        long b1 = append(2, "{}");
+        long a3 = append(1, "{}");
+        long b2 = append(2, "{}");
+
+        // 第一轮 a2 失败，第二轮 a2 转为死信，第三轮 a3 才被发送
+        for (int i = 0; i < 5 && countByStatus(OutboxEvent.STATUS_PENDING) > 0; i++) {
+            job.relay();
+        }
+
+        assertEquals(OutboxEvent.STATUS_DEAD, outbox.get(a2).getStatus());
+        assertEquals(4, countByStatus(OutboxEvent.STATUS_SENT));
+        // a1、a3 各一次；b1、b2 在 a2 失败的两轮中未被标记，每轮都重发
+        Map<String, List<String>> received = eventIdsByKey(consume(8));
+        assertEquals(Arrays.asList(Long.toString(a1), Long.toString(a3)), received.get("1"));
+        assertEquals(Arrays.asList(Long.toString(b1), Long.toString(b2), Long.toString(b1),
+                Long.toString(b2), Long.toString(b1), Long.toString(b2)), received.get("2"));
+    }
+
+    @Test
+    void lagStaysLowAtTenThousandEventsPerSecond() throws Exception {
+        Thread relay = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                job.relay();
+                try {
+                    // 与默认的 poll-interval-ms 相同
+                    TimeUnit.MILLISECONDS.sleep(100);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        relay.start();
+        // 每 100 ms 写入 1000 条，持续 2 秒
+        for (int tick = 0; tick < 20; tick++) {
+            for (int i = 0; i < 1000; i++) {
+                append(i % 100, "{\"tick\":" + tick + "}");
+            }
+            TimeUnit.MILLISECONDS.sleep(100);
+        }
+        long deadline = System.currentTimeMillis() + 30000;
+        while (countByStatus(OutboxEvent.STATUS_SENT) < 20000 && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(50);
+        }
+        relay.interrupt();
+        relay.join(30000);
+
+        assertEquals(20000, countByStatus(OutboxEvent.STATUS_SENT));
+        Timer lag = meterRegistry.get("user.outbox.lag").timer();
+        assertEquals(20000, lag.count());
+        assertTrue(lag.max(TimeUnit.MILLISECONDS) < 2000,
+                "max lag " + lag.max(TimeUnit.MILLISECONDS) + " ms, mean " + lag.mean(TimeUnit.MILLISECONDS) + " ms");
+    }
+
+    private synchronized long append(long aggregateId, String payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(++nextEventId);
+        event.setAggregateType(AGGREGATE_TYPE);
+        event.setAggregateId(aggregateId);
+        event.setEventType("PaymentSucceeded");
+        event.setPayload(payload);
+        event.setStatus(OutboxEvent.STATUS_PENDING);
+        event.setAttempts(0);
+        event.setCreateTime(new Date());
+        outbox.put(event.getId(), event);
+        return event.getId();
+    }
+
+    private synchronized long countByStatus(int status) {
+        return outbox.values().stream().filter(event -> event.getStatus() == status).count();
+    }
+
+    /**
+     * 以内存中的发件箱实现映射器，查询返回副本，与从数据库读出的实体一样不受后续更新影响
+     */
+    private OutboxEventMapper outboxMapper() {
+        OutboxEventMapper mapper = mock(OutboxEventMapper.class);
+        when(mapper.selectPending(anyInt())).thenAnswer(invocation -> {
+            synchronized (this) {
+                List<OutboxEvent> pending = new ArrayList<>();
+                for (OutboxEvent event : outbox.values()) {
+                    if (pending.size() < (Integer) invocation.getArgument(0)
+                            && event.getStatus() == OutboxEvent.STATUS_PENDING) {
+                        pending.add(copy(event));
+                    }
+                }
+                return pending;
+            }
+        });
+        when(mapper.markSent(any())).thenAnswer(invocation -> {
+            synchronized (this) {
+                Collection<Long> ids = invocation.getArgument(0);
+                ids.forEach(id -> outbox.get(id).setStatus(OutboxEvent.STATUS_SENT));
+                return ids.size();
+            }
+        });
+        when(mapper.recordFailure(anyLong(), anyInt())).thenAnswer(invocation -> {
+            synchronized (this) {
+                OutboxEvent event = outbox.get((Long) invocation.getArgument(0));
+                event.setAttempts(event.getAttempts() + 1);
+                if (event.getAttempts() >= (Integer) invocation.getArgument(1)) {
+                    event.setStatus(OutboxEvent.STATUS_DEAD);
+                }
+                return 1;
+            }
+        });
+        return mapper;
+    }
+
+    private static OutboxEvent copy(OutboxEvent event) {
+        OutboxEvent copy = new OutboxEvent();
+        copy.setId(event.getId());
+        copy.setAggregateType(event.getAggregateType());
+        copy.setAggregateId(event.getAggregateId());
+        copy.setEventType(event.getEventType());
+        copy.setPayload(event.getPayload());
+        copy.setStatus(event.getStatus());
+        copy.setAttempts(event.getAttempts());
+        copy.setCreateTime(event.getCreateTime());
+        return copy;
+    }
+
+    private List<ConsumerRecord<String, String>> consume(int expected) {
+        Map<String, Object> props = KafkaTestUtils.consumerProps("relay-test", "false", broker);
+        List<ConsumerRecord<String, String>> records = new ArrayList<>();
+        try (Consumer<String, String> consumer = new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(),
+                new StringDeserializer()).createConsumer()) {
+            consumer.subscribe(Collections.singletonList(topic));
+            long deadline = System.currentTimeMillis() + 30000;
+            while (records.size() < expected && System.currentTimeMillis() < deadline) {
+                consumer.poll(Duration.ofMillis(200)).forEach(records::add);
+            }
+            // 再读一次，确认没有多余的消息
+            consumer.poll(Duration.ofMillis(500)).forEach(records::add);
+        }
+        return records;
+    }
+
+    /**
+     * 按消息键（聚合ID）分组的事件ID，同一个键只在一个分区内，组内顺序即到达顺序
+     */
+    private static Map<String, List<String>> eventIdsByKey(List<ConsumerRecord<String, String>> records) {
+        Map<String, List<String>> eventIds = new LinkedHashMap<>();
+        for (ConsumerRecord<String, String> record : records) {
+            eventIds.computeIfAbsent(record.key(), k -> new ArrayList<>()).add(
+                    new String(record.headers().lastHeader("event-id").value(), StandardCharsets.UTF_8));
+        }
+        return eventIds;
+    }
+}
@@ -0,0 +1,140 @@
+package org.software.code.service.impl;
+
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.software.code.common.except.BusinessException;
+import org.software.code.common.except.ExceptionEnum;
+import org.software.code.common.util.InMemoryRedisUtil;
+import org.software.code.common.util.JwtKeyManager;
+import org.software.code.common.util.JwtUtil;
+import org.software.code.config.JwtProperties;
+import org.software.code.dto.TokenPairDTO;
+import org.software.code.entity.User;
+import org.software.code.mapper.UserMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * AuthTokenServiceImpl 的刷新令牌测试：轮换不延长会话、角色与状态以数据库为准、
+ * 重复使用刷新令牌时吊销该用户的全部令牌。Redis 由 InMemoryRedisUtil 代替。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+class AuthTokenServiceImplTest {
+
+    private static final long USER_ID = 42L;
+
+    private InMemoryRedisUtil redis;
+    private UserMapper userMapper;
+    private TokenRevocationServiceImpl tokenRevocationService;
+    private AuthTokenServiceImpl authTokenService;
+
+    @BeforeEach
+    void setUp() {
+        JwtProperties properties = new JwtProperties();
+        byte[] secret = new byte[32];
+        for (int i = 0; i < secret.length; i++) {
+            secret[i] = (byte) i;
+        }
+        properties.setKeys(Collections.singletonList(new JwtProperties.KeySpec(
+                JwtProperties.DEFAULT_KID, "HS256", Base64.getEncoder().encodeToString(secret))));
+        JwtKeyManager keyManager = new JwtKeyManager();
+        ReflectionTestUtils.setField(keyManager, "jwtProperties", properties);
+        keyManager.init();
+
+        redis = new InMemoryRedisUtil();
+        userMapper = mock(UserMapper.class);
+        tokenRevocationService = new TokenRevocationServiceImpl();
+        ReflectionTestUtils.setField(tokenRevocationService, "redisUtil", redis);
+        ReflectionTestUtils.setField(tokenRevocationService, "userRevocationTtlMs", TimeUnit.DAYS.toMillis(14));
+        authTokenService = new AuthTokenServiceImpl();
+        ReflectionTestUtils.setField(authTokenService, "accessTokenTtlMs", TimeUnit.MINUTES.toMillis(15));
+        ReflectionTestUtils.setField(authTokenService, "refreshTokenTtlMs", TimeUnit.DAYS.toMillis(14));
+        ReflectionTestUtils.setField(authTokenService, "redisUtil", redis);
+        ReflectionTestUtils.setField(authTokenService, "tokenRevocationService", tokenRevocationService);
+        ReflectionTestUtils.setField(authTokenService, "userMapper", userMapper);
+    }
+
+    @Test
+    void rotationKeepsSessionExpiryAndTakesRoleFromDatabase() throws Exception {
+        givenUser("admin", User.STATUS_NORMAL);
+        TokenPairDTO login = authTokenService.issueTokenPair(USER_ID, User.ROLE_USER);
+        TimeUnit.MILLISECONDS.sleep(1100);
+
+        TokenPairDTO rotated = authTokenService.refresh(login.getRefreshToken());
+
+        Claims original = JwtUtil.parseClaims(login.getRefreshToken());
+        Claims refreshed = JwtUtil.parseClaims(rotated.getRefreshToken());
+        assertEquals(original.getExpiration(), refreshed.getExpiration(), "rotation must not extend the session");
+        assertTrue(rotated.getRefreshTokenExpiresIn() < login.getRefreshTokenExpiresIn());
+        assertEquals("admin", JwtUtil.parseClaims(rotated.getAccessToken()).get(JwtUtil.CLAIM_ROLE, String.class));
+        assertNotNull(authTokenService.refresh(rotated.getRefreshToken()));
+    }
+
+    @Test
+    void reusedRefreshTokenRevokesAllTokensOfUser() {
+        givenUser(User.ROLE_USER, User.STATUS_NORMAL);
+        TokenPairDTO login = authTokenService.issueTokenPair(USER_ID, User.ROLE_USER);
+        TokenPairDTO rotated = authTokenService.refresh(login.getRefreshToken());
+
+        assertRejected(ExceptionEnum.REFRESH_TOKEN_INVALID, login.getRefreshToken());
+        assertNotNull(redis.getValue(TokenRevocationServiceImpl.REVOKED_USER_PREFIX + USER_ID));
+        // 轮换出的令牌通常与吊销发生在同一秒内，也必须失效
+        assertRejected(ExceptionEnum.REFRESH_TOKEN_INVALID, rotated.getRefreshToken());
+        assertTrue(tokenRevocationService.isRevokedForUser(USER_ID,
+                JwtUtil.issuedAtMillis(JwtUtil.parseClaims(rotated.getAccessToken()))));
+    }
+
+    @Test
+    void tokenIssuedAfterRevocationStaysValid() throws Exception {
+        givenUser(User.ROLE_USER, User.STATUS_NORMAL);
+        tokenRevocationService.revokeAllForUser(USER_ID);
+        TimeUnit.MILLISECONDS.sleep(2);
+        TokenPairDTO login = authTokenService.issueTokenPair(USER_ID, User.ROLE_USER);
+
+        assertNotNull(authTokenService.refresh(login.getRefreshToken()));
+    }
+
+    @Test
+    void frozenOrMissingUserCannotRefresh() {
+        TokenPairDTO login = authTokenService.issueTokenPair(USER_ID, User.ROLE_USER);
+
+        givenUser(User.ROLE_USER, User.STATUS_FROZEN);
+        assertRejected(ExceptionEnum.USER_ACCOUNT_FROZEN, login.getRefreshToken());
+
+        when(userMapper.selectById(USER_ID)).thenReturn(null);
+        assertRejected(ExceptionEnum.USER_NOT_FOUND, login.getRefreshToken());
+    }
+
+    @Test
+    void accessTokenCannotBeUsedToRefresh() {
+        givenUser(User.ROLE_USER, User.STATUS_NORMAL);
+        TokenPairDTO login = authTokenService.issueTokenPair(USER_ID, User.ROLE_USER);
+
+        assertRejected(ExceptionEnum.REFRESH_TOKEN_INVALID, login.getAccessToken());
+    }
+
+    private void givenUser(String role, int status) {
+        User user = new User();
+        user.setId(USER_ID);
+        user.setRole(role);
+        user.setStatus(status);
+        when(userMapper.selectById(USER_ID)).thenReturn(user);
+    }
+
+    private void assertRejected(ExceptionEnum expected, String refreshToken) {
+        BusinessException e = assertThrows(BusinessException.class, () -> authTokenService.refresh(refreshToken));
+        assertEquals(expected.getCode(), e.getCode());
+    }
+}
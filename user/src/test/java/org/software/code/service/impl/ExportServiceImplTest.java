@@ -0,0 +1,223 @@
+package org.software.code.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.software.code.common.except.BusinessException;
+import org.software.code.common.except.ExceptionEnum;
+import org.software.code.common.util.H2TestDatabase;
+import org.software.code.dto.ExportFormat;
+import org.software.code.mapper.PaymentMapper;
+import org.software.code.mapper.UserPlaceCodeMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Timestamp;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * ExportServiceImpl 在 H2 上的导出测试：记录按ID升序写出，after 从上次的最后一行继续，CSV 字段按需转义；
+ * 大量记录经固定大小的缓冲区分块写出，输出在全部写完后才关闭；查询失败时不打开输出，并发导出数受限。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+class ExportServiceImplTest {
+
+    private static final DateTimeFormatter DATETIME_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.of("Asia/Shanghai"));
+    private static final long BASE_TIME = 1760000000000L;
+
+    private H2TestDatabase database;
+    private ExportServiceImpl exportService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        database = new H2TestDatabase(PaymentMapper.class);
+        exportService = new ExportServiceImpl();
+        ReflectionTestUtils.setField(exportService, "maxConcurrent", 1);
+        ReflectionTestUtils.setField(exportService, "paymentMapper", database.mapper(PaymentMapper.class));
+        ReflectionTestUtils.setField(exportService, "userPlaceCodeMapper", mock(UserPlaceCodeMapper.class));
+        ReflectionTestUtils.setField(exportService, "transactionManager", database.transactionManager());
+        ReflectionTestUtils.setField(exportService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(exportService, "meterRegistry", new SimpleMeterRegistry());
+        exportService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void csvRowsAreWrittenInIdOrderAndResumeAfterLastId() throws Exception {
+        insertPayment(3, "key,\"3\"", null, 0);
+        insertPayment(1, "key-1", 9L, 1);
+        insertPayment(2, "key-2", null, 2);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(3, exportService.exportPayments(null, null, 0, ExportFormat.CSV, () -> out));
+        String header = "id,payerId,payeeId,amount,discount,payable,strategyId,requestKey,status,createTime,updateTime\n";
+        assertEquals(header + csvRow(1, "key-1", "9", 1) + csvRow(2, "key-2", "", 2)
+                + csvRow(3, "\"key,\"\"3\"\"\"", "", 0), out.toString("UTF-8"));
+
+        ByteArrayOutputStream resumed = new ByteArrayOutputStream();
+        assertEquals(1, exportService.exportPayments(null, null, 2, ExportFormat.CSV, () -> resumed));
+        assertEquals(header + csvRow(3, "\"key,\"\"3\"\"\"", "", 0), resumed.toString("UTF-8"));
+    }
+
+    @Test
+    void ndjsonExportHonoursTimeRange() throws Exception {
+        for (int id = 1; id <= 5; id++) {
+            insertPayment(id, "key-" + id, null, id);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = exportService.exportPayments(new Date(time(2)), new Date(time(4)), 0, ExportFormat.NDJSON,
+                () -> out);
+
+        assertEquals(2, rows);
+        String[] lines = out.toString("UTF-8").split("\n");
+        assertEquals(2, lines.length);
+        ObjectMapper objectMapper = new ObjectMapper();
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals(2, first.get("id").asLong());
+        assertEquals("key-2", first.get("requestKey").asText());
+        assertTrue(first.get("strategyId").isNull());
+        assertEquals(DATETIME_FORMAT.format(new Date(time(2)).toInstant()), first.get("createTime").asText());
+        assertEquals(3, objectMapper.readTree(lines[1]).get("id").asLong());
+    }
+
+    @Test
+    void largeExportIsWrittenInBoundedChunks() throws Exception {
+        int total = 50000;
+        List<Object[]> batch = new ArrayList<>();
+        for (int id = 1; id <= total; id++) {
+            batch.add(new Object[]{id, id, "key-" + id, new Timestamp(time(id))});
+        }
+        database.jdbcTemplate().batchUpdate("INSERT INTO payment (id, payer_id, payee_id, amount, payable, "
+                + "request_key, create_time) VALUES (?, ?, 1, 100, 100, ?, ?)", batch);
+        ChunkRecordingStream out = new ChunkRecordingStream();
+
+        assertEquals(total, exportService.exportPayments(null, null, 0, ExportFormat.CSV, () -> out));
+
+        assertTrue(out.closed);
+        assertEquals(total + 1, out.lines);
+        assertTrue(out.writesBeforeClose > 10, "rows must be flushed while the cursor is being read");
+        assertTrue(out.maxChunk <= 64 * 1024, "single write of " + out.maxChunk + " bytes");
+    }
+
+    @Test
+    void failedQueryDoesNotOpenTargetAndConcurrentExportsAreLimited() throws Exception {
+        PaymentMapper failing = mock(PaymentMapper.class);
+        when(failing.streamAfter(anyLong(), any(), any())).thenThrow(new IllegalStateException("db down"));
+        ReflectionTestUtils.setField(exportService, "paymentMapper", failing);
+        AtomicBoolean opened = new AtomicBoolean();
+        assertThrows(IllegalStateException.class, () -> exportService.exportPayments(null, null, 0,
+                ExportFormat.CSV, () -> {
+                    opened.set(true);
+                    return new ByteArrayOutputStream();
+                }));
+        assertFalse(opened.get());
+
+        ReflectionTestUtils.setField(exportService, "paymentMapper", database.mapper(PaymentMapper.class));
+        CountDownLatch exporting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Long> first = CompletableFuture.supplyAsync(() -> {
+            try {
+                return exportService.exportPayments(null, null, 0, ExportFormat.CSV, () -> {
+                    exporting.countDown();
+                    awaitQuietly(release);
+                    return new ByteArrayOutputStream();
+                });
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(exporting.await(10, TimeUnit.SECONDS));
+        BusinessException busy = assertThrows(BusinessException.class, () -> exportService.exportPayments(null, null,
+                0, ExportFormat.CSV, ByteArrayOutputStream::new));
+        assertEquals(ExceptionEnum.EXPORT_BUSY.getCode(), busy.getCode());
+        release.countDown();
+        assertEquals(0, first.get(10, TimeUnit.SECONDS));
+    }
+
+    private void insertPayment(long id, String requestKey, Long strategyId, int status) {
+        Timestamp time = new Timestamp(time(id));
+        database.jdbcTemplate().update("INSERT INTO payment (id, payer_id, payee_id, amount, discount, payable, "
+                        + "strategy_id, request_key, status, create_time, update_time) "
+                        + "VALUES (?, 10, 20, 100, 5, 95, ?, ?, ?, ?, ?)",
+                id, strategyId, requestKey, status, time, time);
+    }
+
+    private static String csvRow(long id, String requestKey, String strategyId, int status) {
+        String time = DATETIME_FORMAT.format(new Date(time(id)).toInstant());
+        return id + ",10,20,100,5,95," + strategyId + "," + requestKey + "," + status + "," + time + "," + time + "\n";
+    }
+
+    private static long time(long id) {
+        return BASE_TIME + id * 1000;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 记录每次写入大小的输出流，不保留写入的内容
+     */
+    private static class ChunkRecordingStream extends OutputStream {
+
+        private int writesBeforeClose;
+        private int maxChunk;
+        private long lines;
+        private boolean closed;
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            assertFalse(closed);
+            writesBeforeClose++;
+            maxChunk = Math.max(maxChunk, len);
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
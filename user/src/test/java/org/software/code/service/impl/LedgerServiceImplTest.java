@@ -0,0 +1,238 @@
+package org.software.code.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.software.code.common.except.BusinessException;
+import org.software.code.common.except.ExceptionEnum;
+import org.software.code.common.id.SnowflakeIdGenerator;
+import org.software.code.common.util.H2TestDatabase;
+import org.software.code.common.util.InMemoryRedisUtil;
+import org.software.code.common.util.RedisJobLock;
+import org.software.code.entity.Account;
+import org.software.code.entity.LedgerJournal;
+import org.software.code.job.AccountSlotAggregationJob;
+import org.software.code.mapper.AccountMapper;
+import org.software.code.mapper.AccountSlotMapper;
+import org.software.code.mapper.LedgerJournalMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * LedgerServiceImpl 在 H2 上的账务测试：并发转账后余额守恒且与流水一致，
+ * 充值按单号幂等，单号被用于其他用户或其他金额时拒绝；
+ * 拆分账户在汇总任务并发运行时入账不丢失，主余额不足时扣款会先汇总分片。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+class LedgerServiceImplTest {
+
+    private static final int USERS = 4;
+    private static final long INITIAL_BALANCE = 1000;
+    private static final long MERCHANT_ID = 100;
+
+    private H2TestDatabase database;
+    private LedgerServiceImpl ledgerService;
+    private final AtomicLong ids = new AtomicLong();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        database = new H2TestDatabase(AccountMapper.class, AccountSlotMapper.class, LedgerJournalMapper.class);
+        SnowflakeIdGenerator idGenerator = mock(SnowflakeIdGenerator.class);
+        when(idGenerator.nextId()).thenAnswer(invocation -> ids.incrementAndGet());
+
+        ledgerService = new LedgerServiceImpl();
+        ReflectionTestUtils.setField(ledgerService, "lockStripes", 1024);
+        ReflectionTestUtils.setField(ledgerService, "lockTimeoutMs", 3000L);
+        ReflectionTestUtils.setField(ledgerService, "splitConfigTtlSeconds", 30L);
+        ReflectionTestUtils.setField(ledgerService, "maxSplitSlots", 64);
+        ReflectionTestUtils.setField(ledgerService, "accountMapper", database.mapper(AccountMapper.class));
+        ReflectionTestUtils.setField(ledgerService, "accountSlotMapper", database.mapper(AccountSlotMapper.class));
+        ReflectionTestUtils.setField(ledgerService, "ledgerJournalMapper", database.mapper(LedgerJournalMapper.class));
+        ReflectionTestUtils.setField(ledgerService, "transactionTemplate", database.transactionTemplate());
+        ReflectionTestUtils.setField(ledgerService, "snowflakeIdGenerator", idGenerator);
+        ReflectionTestUtils.setField(ledgerService, "meterRegistry", new SimpleMeterRegistry());
+        ledgerService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void concurrentTransfersKeepBalancesConsistentWithJournal() throws Exception {
+        for (long userId = 1; userId <= USERS; userId++) {
+            ledgerService.deposit(userId, INITIAL_BALANCE, 1000 + userId);
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicLong bizIds = new AtomicLong(10000);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 200; i++) {
+                    long from = 1 + random.nextInt(USERS);
+                    long to = 1 + (from + random.nextInt(USERS - 1)) % USERS;
+                    try {
+                        ledgerService.transfer(from, to, 1 + random.nextInt(50),
+                                LedgerJournal.BIZ_PAYMENT, bizIds.incrementAndGet(), null);
+                    } catch (BusinessException e) {
+                        assertEquals(ExceptionEnum.ACCOUNT_BALANCE_INSUFFICIENT.getCode(), e.getCode());
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        long total = 0;
+        for (long userId = 1; userId <= USERS; userId++) {
+            long balance = ledgerService.getBalance(userId, true);
+            assertEquals(journalBalance(userId), balance, "balance of " + userId + " must match its journal");
+            total += balance;
+        }
+        assertEquals(USERS * INITIAL_BALANCE, total);
+        assertEquals(-USERS * INITIAL_BALANCE, ledgerService.getBalance(Account.SYSTEM_ACCOUNT_ID, false));
+    }
+
+    @Test
+    void repeatedDepositIsPostedOnce() {
+        ledgerService.deposit(1, 100, 7);
+        ledgerService.deposit(1, 100, 7);
+
+        assertEquals(100, ledgerService.getBalance(1, true));
+        assertEquals(2, database.jdbcTemplate().queryForObject(
+                "SELECT COUNT(*) FROM ledger_journal WHERE biz_id = 7", Integer.class));
+    }
+
+    @Test
+    void depositReferenceReusedForOtherDepositIsRejected() {
+        ledgerService.deposit(1, 100, 7);
+
+        BusinessException otherUser = assertThrows(BusinessException.class, () -> ledgerService.deposit(2, 100, 7));
+        assertEquals(ExceptionEnum.DEPOSIT_REFERENCE_CONFLICT.getCode(), otherUser.getCode());
+        BusinessException otherAmount = assertThrows(BusinessException.class, () -> ledgerService.deposit(1, 200, 7));
+        assertEquals(ExceptionEnum.DEPOSIT_REFERENCE_CONFLICT.getCode(), otherAmount.getCode());
+        assertEquals(0, ledgerService.getBalance(2, true));
+        assertEquals(100, ledgerService.getBalance(1, true));
+    }
+
+    @Test
+    void splitAccountKeepsEveryReceiptWhileSlotsAreFolded() throws Exception {
+        ledgerService.setSplitSlots(MERCHANT_ID, 8);
+        for (long userId = 1; userId <= USERS; userId++) {
+            ledgerService.deposit(userId, INITIAL_BALANCE, 1000 + userId);
+        }
+        AccountSlotAggregationJob job = newAggregationJob();
+        ExecutorService pool = Executors.newFixedThreadPool(USERS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean paying = new AtomicBoolean(true);
+        AtomicLong bizIds = new AtomicLong(10000);
+        AtomicLong paid = new AtomicLong();
+        List<Future<?>> payers = new ArrayList<>();
+        for (long userId = 1; userId <= USERS; userId++) {
+            long payer = userId;
+            payers.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < 100; i++) {
+                    long amount = 1 + ThreadLocalRandom.current().nextInt(10);
+                    ledgerService.transfer(payer, MERCHANT_ID, amount, LedgerJournal.BIZ_PAYMENT,
+                            bizIds.incrementAndGet(), null);
+                    paid.addAndGet(amount);
+                }
+                return null;
+            }));
+        }
+        Future<?> folder = pool.submit(() -> {
+            start.await();
+            while (paying.get()) {
+                job.run();
+            }
+            return null;
+        });
+        start.countDown();
+        for (Future<?> payer : payers) {
+            payer.get(60, TimeUnit.SECONDS);
+        }
+        paying.set(false);
+        folder.get(10, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        assertEquals(paid.get(), ledgerService.getBalance(MERCHANT_ID, true));
+        job.run();
+        assertEquals(paid.get(), ledgerService.getBalance(MERCHANT_ID, false), "all slots must be folded");
+        assertEquals(journalBalance(MERCHANT_ID), ledgerService.getBalance(MERCHANT_ID, false));
+    }
+
+    @Test
+    void debitFromSplitAccountFoldsSlotsFirst() {
+        ledgerService.setSplitSlots(MERCHANT_ID, 4);
+        ledgerService.deposit(1, 100, 1);
+        for (long bizId = 10; bizId < 20; bizId++) {
+            ledgerService.transfer(1, MERCHANT_ID, 10, LedgerJournal.BIZ_PAYMENT, bizId, null);
+        }
+        assertEquals(0, ledgerService.getBalance(MERCHANT_ID, false));
+
+        ledgerService.transfer(MERCHANT_ID, 2, 80, LedgerJournal.BIZ_PAYMENT, 20, null);
+
+        assertEquals(20, ledgerService.getBalance(MERCHANT_ID, true));
+        assertEquals(80, ledgerService.getBalance(2, true));
+        BusinessException e = assertThrows(BusinessException.class,
+                () -> ledgerService.transfer(MERCHANT_ID, 2, 30, LedgerJournal.BIZ_PAYMENT, 21, null));
+        assertEquals(ExceptionEnum.ACCOUNT_BALANCE_INSUFFICIENT.getCode(), e.getCode());
+    }
+
+    private AccountSlotAggregationJob newAggregationJob() {
+        InMemoryRedisUtil redis = new InMemoryRedisUtil();
+        redis.onScript("'DEL'", (keys, args) -> {
+            if (!args[0].equals(redis.getValue(keys.get(0)))) {
+                return 0L;
+            }
+            redis.deleteValue(keys.get(0));
+            return 1L;
+        });
+        RedisJobLock jobLock = new RedisJobLock();
+        ReflectionTestUtils.setField(jobLock, "redisUtil", redis);
+        AccountSlotAggregationJob job = new AccountSlotAggregationJob();
+        ReflectionTestUtils.setField(job, "batchSize", 500);
+        ReflectionTestUtils.setField(job, "lockTtlMs", 60000L);
+        ReflectionTestUtils.setField(job, "accountSlotMapper", database.mapper(AccountSlotMapper.class));
+        ReflectionTestUtils.setField(job, "ledgerService", ledgerService);
+        ReflectionTestUtils.setField(job, "jobLock", jobLock);
+        return job;
+    }
+
+    /**
+     * 由流水汇总出的账户余额：贷记减去借记
+     */
+    private long journalBalance(long userId) {
+        Long balance = database.jdbcTemplate().queryForObject(
+                "SELECT COALESCE(SUM(CASE direction WHEN ? THEN amount ELSE -amount END), 0) "
+                        + "FROM ledger_journal WHERE account_id = ?",
+                Long.class, LedgerJournal.DIRECTION_CREDIT, userId);
+        return balance == null ? 0 : balance;
+    }
+}
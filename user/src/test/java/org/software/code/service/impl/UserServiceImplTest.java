@@ -0,0 +1,112 @@
+package org.software.code.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.software.code.common.cache.UserProfileCache;
+import org.software.code.common.except.BusinessException;
+import org.software.code.common.except.ExceptionEnum;
+import org.software.code.common.util.AdaptivePasswordEncoder;
+import org.software.code.dto.LoginRequest;
+import org.software.code.dto.TokenPairDTO;
+import org.software.code.entity.User;
+import org.software.code.event.OutboxRecorder;
+import org.software.code.mapper.UserMapper;
+import org.software.code.service.AuthTokenService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * UserServiceImpl 的登录测试：按用户名查询的结果缓存在本地，但签发令牌前按主键读取最新状态和角色，
+ * 在其他节点被冻结的账户即使仍在本地缓存中也不能登录。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+class UserServiceImplTest {
+
+    private static final long USER_ID = 7L;
+    private static final String ROLE_ADMIN = "admin";
+
+    private UserMapper userMapper;
+    private AuthTokenService authTokenService;
+    private UserServiceImpl userService;
+
+    @BeforeEach
+    void setUp() {
+        userMapper = mock(UserMapper.class);
+        authTokenService = mock(AuthTokenService.class);
+        AdaptivePasswordEncoder passwordEncoder = mock(AdaptivePasswordEncoder.class);
+        when(passwordEncoder.matches(any(), anyString())).thenReturn(true);
+        when(userMapper.selectOne(any())).thenReturn(user(User.STATUS_NORMAL, User.ROLE_USER));
+        when(authTokenService.issueTokenPair(anyLong(), anyString()))
+                .thenReturn(new TokenPairDTO("access", "refresh", 900L, 604800L));
+
+        userService = new UserServiceImpl();
+        ReflectionTestUtils.setField(userService, "loginCacheMaxSize", 100L);
+        ReflectionTestUtils.setField(userService, "loginCacheExpireSeconds", 60L);
+        ReflectionTestUtils.setField(userService, "userMapper", userMapper);
+        ReflectionTestUtils.setField(userService, "authTokenService", authTokenService);
+        ReflectionTestUtils.setField(userService, "passwordEncoder", passwordEncoder);
+        ReflectionTestUtils.setField(userService, "userProfileCache", mock(UserProfileCache.class));
+        ReflectionTestUtils.setField(userService, "outboxRecorder", mock(OutboxRecorder.class));
+        ReflectionTestUtils.setField(userService, "passwordHashExecutor", (Executor) Runnable::run);
+        userService.init();
+    }
+
+    @Test
+    void userFrozenElsewhereCannotLoginFromCachedLookup() {
+        when(userMapper.selectById(USER_ID)).thenReturn(user(User.STATUS_NORMAL, User.ROLE_USER));
+        userService.login(request()).join();
+
+        // 其他节点冻结了账户，本节点的用户名缓存尚未过期
+        when(userMapper.selectById(USER_ID)).thenReturn(user(User.STATUS_FROZEN, User.ROLE_USER));
+        CompletionException e = assertThrows(CompletionException.class, () -> userService.login(request()).join());
+
+        assertEquals(ExceptionEnum.USER_ACCOUNT_FROZEN.getCode(), ((BusinessException) e.getCause()).getCode());
+        verify(authTokenService, times(1)).issueTokenPair(anyLong(), anyString());
+        // 冻结的账户被移出缓存，下次登录在哈希之前即被拒绝
+        when(userMapper.selectOne(any())).thenReturn(user(User.STATUS_FROZEN, User.ROLE_USER));
+        BusinessException rejected = assertThrows(BusinessException.class, () -> userService.login(request()));
+        assertEquals(ExceptionEnum.USER_ACCOUNT_FROZEN.getCode(), rejected.getCode());
+    }
+
+    @Test
+    void tokensCarryTheCurrentRole() {
+        when(userMapper.selectById(USER_ID)).thenReturn(user(User.STATUS_NORMAL, ROLE_ADMIN));
+
+        TokenPairDTO tokens = userService.login(request()).join();
+
+        assertEquals("access", tokens.getAccessToken());
+        verify(authTokenService).issueTokenPair(USER_ID, ROLE_ADMIN);
+        verify(authTokenService, never()).issueTokenPair(USER_ID, User.ROLE_USER);
+    }
+
+    private static LoginRequest request() {
+        LoginRequest request = new LoginRequest();
+        request.setUsername("alice");
+        request.setPassword("secret");
+        return request;
+    }
+
+    private static User user(int status, String role) {
+        User user = new User();
+        user.setId(USER_ID);
+        user.setUsername("alice");
+        user.setPassword("{bcrypt}hash");
+        user.setRole(role);
+        user.setStatus(status);
+        return user;
+    }
+}
@@ -0,0 +1,255 @@
+package org.software.code.strategy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.software.code.common.except.BusinessException;
+import org.software.code.common.util.InMemoryRedisUtil;
+import org.software.code.entity.DiscountStrategy;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * StrategyUsageLimiter 的并发测试：多线程、多实例同时占用使用次数时不得超发。
+ * Redis 由 InMemoryRedisUtil 代替，三个 Lua 脚本以等价的 Java 实现在其锁内原子执行。
+ *
+ * @author “101”计划《软件工程》实践教材案例团队
+ */
+class StrategyUsageLimiterTest {
+
+    private static final int THREADS = 32;
+    private static final int LEASE_THRESHOLD = 10000;
+
+    private InMemoryRedisUtil redis;
+
+    @BeforeEach
+    void setUp() {
+        redis = new InMemoryRedisUtil();
+        // ACQUIRE：先检查个人上限，再检查总上限，都未达到时全部计数加一
+        redis.onScript("return -1 end", (keys, args) -> {
+            long globalLimit = Long.parseLong(args[0]);
+            long userLimit = Long.parseLong(args[1]);
+            if (keys.size() > 1 && userLimit > 0 && redis.getLong(keys.get(1)) >= userLimit) {
+                return -1L;
+            }
+            if (globalLimit > 0 && redis.getLong(keys.get(0)) >= globalLimit) {
+                return 0L;
+            }
+            for (String key : keys) {
+                redis.incrementBy(key, 1);
+            }
+            return 1L;
+        });
+        // LEASE：按剩余额度除以除数预领，不超过期望数量，至少一个
+        redis.onScript("local remaining", (keys, args) -> {
+            long remaining = Long.parseLong(args[0]) - redis.getLong(keys.get(0));
+            if (remaining <= 0) {
+                return 0L;
+            }
+            long granted = Math.min(Long.parseLong(args[1]), Math.max(1, remaining / Long.parseLong(args[2])));
+            redis.incrementBy(keys.get(0), granted);
+            return granted;
+        });
+        // RELEASE：归还额度，计数不减到 0 以下
+        redis.onScript("DECRBY", (keys, args) -> {
+            for (String key : keys) {
+                long used = redis.getLong(key);
+                if (used > 0) {
+                    redis.incrementBy(key, -Math.min(used, Long.parseLong(args[0])));
+                }
+            }
+            return 1L;
+        });
+    }
+
+    @Test
+    void scriptPathNeverOverspendsGlobalLimit() throws Exception {
+        CompiledStrategy strategy = strategy(1L, 1000, 0);
+        StrategyUsageLimiter limiter = newLimiter();
+
+        int granted = race(THREADS, 200, (thread, i) -> limiter, strategy, (thread, i) -> thread);
+
+        assertEquals(1000, granted);
+        assertEquals(1000, redis.getLong(usageKey(strategy)));
+    }
+
+    @Test
+    void scriptPathNeverOverspendsPerUserLimit() throws Exception {
+        CompiledStrategy strategy = strategy(2L, 500, 3);
+        StrategyUsageLimiter limiter = newLimiter();
+        ConcurrentMap<Long, AtomicInteger> perUser = new ConcurrentHashMap<>();
+
+        int granted = race(THREADS, 100, (thread, i) -> limiter, strategy, (thread, i) -> {
+            long userId = i % 100;
+            perUser.computeIfAbsent(userId, id -> new AtomicInteger());
+            return userId;
+        }, perUser);
+
+        assertEquals(300, granted);
+        assertEquals(300, redis.getLong(usageKey(strategy)));
+        for (AtomicInteger count : perUser.values()) {
+            assertEquals(3, count.get());
+        }
+    }
+
+    @Test
+    void leasePathNeverOverspendsAcrossInstances() throws Exception {
+        int limit = 20000;
+        CompiledStrategy strategy = strategy(3L, limit, 0);
+        List<StrategyUsageLimiter> instances = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            instances.add(newLimiter());
+        }
+
+        int granted = race(THREADS, 1000, (thread, i) -> instances.get(thread % instances.size()), strategy,
+                (thread, i) -> thread);
+
+        assertTrue(granted <= limit, "granted " + granted + " of " + limit);
+        assertTrue(redis.getLong(usageKey(strategy)) <= limit);
+        // 实例关闭时归还未用完的租约，总计数回到实际发放的次数
+        for (StrategyUsageLimiter limiter : instances) {
+            limiter.shutdown();
+        }
+        assertEquals(granted, redis.getLong(usageKey(strategy)));
+    }
+
+    @Test
+    void leasePathGrantsWholeLimitOnSingleInstance() throws Exception {
+        int limit = 15000;
+        CompiledStrategy strategy = strategy(4L, limit, 0);
+        StrategyUsageLimiter limiter = newLimiter();
+
+        int granted = race(THREADS, 1000, (thread, i) -> limiter, strategy, (thread, i) -> thread);
+
+        assertEquals(limit, granted);
+        limiter.shutdown();
+        assertEquals(limit, redis.getLong(usageKey(strategy)));
+    }
+
+    @Test
+    void releasedUnitsCanBeReused() throws Exception {
+        CompiledStrategy strategy = strategy(5L, 100, 0);
+        StrategyUsageLimiter limiter = newLimiter();
+        AtomicLong held = new AtomicLong();
+
+        // 每个线程占用后立即归还，总计数不应漂移
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            long userId = t;
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < 200; i++) {
+                    try {
+                        limiter.acquire(strategy, userId);
+                    } catch (BusinessException e) {
+                        continue;
+                    }
+                    held.incrementAndGet();
+                    limiter.release(strategy, userId);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertTrue(held.get() > 0);
+        assertEquals(0, redis.getLong(usageKey(strategy)));
+    }
+
+    private int race(int threads, int attemptsPerThread, LimiterChooser chooser, CompiledStrategy strategy,
+                     UserChooser users) throws Exception {
+        return race(threads, attemptsPerThread, chooser, strategy, users, null);
+    }
+
+    /**
+     * 所有线程同时开始反复占用，返回成功的次数；perUser 不为 null 时同时统计每个用户成功的次数
+     */
+    private int race(int threads, int attemptsPerThread, LimiterChooser chooser, CompiledStrategy strategy,
+                     UserChooser users, ConcurrentMap<Long, AtomicInteger> perUser) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger granted = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    long userId = users.choose(thread, thread * attemptsPerThread + i);
+                    try {
+                        chooser.choose(thread, i).acquire(strategy, userId);
+                    } catch (BusinessException e) {
+                        continue;
+                    }
+                    granted.incrementAndGet();
+                    if (perUser != null) {
+                        perUser.get(userId).incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        return granted.get();
+    }
+
+    private StrategyUsageLimiter newLimiter() {
+        StrategyUsageLimiter limiter = new StrategyUsageLimiter();
+        ReflectionTestUtils.setField(limiter, "redisUtil", redis);
+        ReflectionTestUtils.setField(limiter, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(limiter, "leaseThreshold", LEASE_THRESHOLD);
+        ReflectionTestUtils.setField(limiter, "leaseSize", 500);
+        ReflectionTestUtils.setField(limiter, "leaseDivisor", 16);
+        ReflectionTestUtils.setField(limiter, "leaseTtlMs", 60000L);
+        ReflectionTestUtils.setField(limiter, "exhaustedBackoffMs", 1000L);
+        ReflectionTestUtils.setField(limiter, "retentionMs", 86400000L);
+        limiter.init();
+        return limiter;
+    }
+
+    private static CompiledStrategy strategy(long id, int usageLimit, int perUserLimit) {
+        DiscountStrategy source = new DiscountStrategy();
+        source.setId(id);
+        source.setName("test-" + id);
+        source.setType(DiscountStrategy.TYPE_FIXED);
+        source.setDiscountValue(100L);
+        source.setStartTime(new Date(System.currentTimeMillis() - 60000));
+        source.setEndTime(new Date(System.currentTimeMillis() + 3600000));
+        source.setUsageLimit(usageLimit);
+        source.setPerUserLimit(perUserLimit);
+        return CompiledStrategy.compile(source);
+    }
+
+    private static String usageKey(CompiledStrategy strategy) {
+        return "strategy:usage:{" + strategy.getId() + "}";
+    }
+
+    private interface LimiterChooser {
+        StrategyUsageLimiter choose(int thread, int attempt);
+    }
+
+    private interface UserChooser {
+        long choose(int thread, int attempt);
+    }
+}
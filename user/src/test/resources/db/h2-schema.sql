@@ -0,0 +1,49 @@
+-- 测试用的 H2 表结构（MySQL 兼容模式），与 src/main/resources/db/schema.sql 中的同名表保持一致
+
+CREATE TABLE IF NOT EXISTS `account` (
+    `user_id`     BIGINT   NOT NULL,
+    `balance`     BIGINT   NOT NULL DEFAULT 0,
+    `split_slots` INT      NOT NULL DEFAULT 0,
+    `create_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    `update_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (`user_id`)
+);
+
+CREATE TABLE IF NOT EXISTS `account_slot` (
+    `user_id`     BIGINT   NOT NULL,
+    `slot_no`     INT      NOT NULL,
+    `balance`     BIGINT   NOT NULL DEFAULT 0,
+    `update_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (`user_id`, `slot_no`)
+);
+
+INSERT IGNORE INTO `account` (`user_id`, `balance`) VALUES (0, 0);
+
+CREATE TABLE IF NOT EXISTS `ledger_journal` (
+    `id`           BIGINT   NOT NULL,
+    `account_id`   BIGINT   NOT NULL,
+    `counterparty` BIGINT   NOT NULL,
+    `direction`    TINYINT  NOT NULL,
+    `amount`       BIGINT   NOT NULL,
+    `biz_type`     TINYINT  NOT NULL,
+    `biz_id`       BIGINT   NOT NULL,
+    `create_time`  DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (`id`),
+    CONSTRAINT `uk_biz_account` UNIQUE (`biz_type`, `biz_id`, `account_id`, `direction`)
+);
+
+CREATE TABLE IF NOT EXISTS `payment` (
+    `id`          BIGINT      NOT NULL,
+    `payer_id`    BIGINT      NOT NULL,
+    `payee_id`    BIGINT      NOT NULL,
+    `amount`      BIGINT      NOT NULL,
+    `discount`    BIGINT      NOT NULL DEFAULT 0,
+    `payable`     BIGINT      NOT NULL,
+    `strategy_id` BIGINT      DEFAULT NULL,
+    `request_key` VARCHAR(64) NOT NULL,
+    `status`      TINYINT     NOT NULL DEFAULT 0,
+    `create_time` DATETIME    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    `update_time` DATETIME    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (`id`),
+    CONSTRAINT `uk_payer_request` UNIQUE (`payer_id`, `request_key`)
+);